@@ -0,0 +1,6 @@
+#!/bin/sh
+# Compares a benchmark run with the committed baseline; exits with 1 on a regression.
+# Usage: benchmarks/compare.sh [current.json] [threshold-percent]
+cd "$(dirname "$0")" || exit 2
+java -cp target/benchmarks.jar com.carhub.benchmark.CompareResults \
+    baseline/results.json "${1:-target/results.json}" "${2:-10}"
@@ -0,0 +1,15 @@
+#!/bin/sh
+# Runs the benchmarks with the JVM settings the baseline was recorded with.
+# Usage: benchmarks/run.sh [JMH options, such as a benchmark name]
+# The database comes from ../src/main/resources/application.properties, or from $CARHUB_CONFIG.
+cd "$(dirname "$0")" || exit 2
+config="${CARHUB_CONFIG:-../src/main/resources/application.properties}"
+
+# -jvmArgs replaces the options the forks would inherit from this JVM, so each is given once
+java -jar target/benchmarks.jar \
+    -jvmArgs "-Xms2g -Xmx2g -XX:+UseG1GC -Dcarhub.config=file:$config" \
+    -rf json -rff target/results.json "$@" || exit 1
+
+# JMH records the absolute path of the java binary, which differs between machines
+sed 's#"jvm" : ".*/\([^/]*\)"#"jvm" : "\1"#' target/results.json > target/results.json.tmp &&
+    mv target/results.json.tmp target/results.json
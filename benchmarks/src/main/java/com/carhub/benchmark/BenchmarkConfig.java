@@ -0,0 +1,19 @@
+package com.carhub.benchmark;
+
+import com.carhub.config.DatabaseConfig;
+import com.carhub.config.MetricsConfig;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * The application's services and database, without the Swing windows. The properties are read
+ * from application.properties, or from the file named by -Dcarhub.config.
+ */
+@Configuration(proxyBeanMethods = false)
+@Import({DatabaseConfig.class, MetricsConfig.class})
+@ComponentScan(basePackages = {"com.carhub.service", "com.carhub.util"})
+@PropertySource("${carhub.config:classpath:application.properties}")
+public class BenchmarkConfig {
+}
@@ -0,0 +1,121 @@
+package com.carhub.benchmark;
+
+import com.carhub.entity.Admin;
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import com.carhub.service.SystemSettingService;
+import com.carhub.util.CurrencyUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * In-memory cars, clients and sales for the benchmarks that need no database. The same seed
+ * always gives the same data, so results stay comparable between runs.
+ */
+public final class BenchmarkData {
+
+    private static final String[][] MODELS = {
+            {"Toyota", "Corolla"}, {"Toyota", "Hilux"}, {"Peugeot", "208"}, {"Renault", "Duster"},
+            {"Hyundai", "Tucson"}, {"Nissan", "Navara"}, {"Ford", "Ranger"}, {"Suzuki", "Swift"}
+    };
+    private static final String[] FIRST_NAMES = {"Rakoto", "Rabe", "Rasoa", "Andry", "Hery", "Fara", "Mialy", "Tiana"};
+    private static final String[] LAST_NAMES = {"Andrianina", "Razafy", "Rakotomalala", "Randria", "Rasolofo", "Ravelo"};
+    private static final String[] COLORS = {"White", "Black", "Silver", "Blue", "Red", "Grey"};
+
+    private BenchmarkData() {}
+
+    /**
+     * Formats amounts in the default currency without a database, as CurrencyUtils reads the
+     * currency from the settings.
+     */
+    public static void useDefaultSettings() {
+        new CurrencyUtils(new SystemSettingService() {
+            @Override
+            public String getSettingValue(String key, String defaultValue) {
+                return defaultValue;
+            }
+        });
+    }
+
+    public static Admin admin() {
+        Admin admin = new Admin("bench", "bench@carhub.com", "-", "Benchmark Admin");
+        admin.setId(1L);
+        return admin;
+    }
+
+    public static List<Car> cars(int count) {
+        Random random = new Random(42);
+        Admin admin = admin();
+        List<Car> cars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] model = MODELS[random.nextInt(MODELS.length)];
+            Car car = new Car(model[0], model[1], 2005 + random.nextInt(20),
+                    BigDecimal.valueOf(15_000_000L + random.nextInt(150_000_000)));
+            car.setId((long) i + 1);
+            car.setCostPrice(car.getPrice().multiply(new BigDecimal("0.85")));
+            car.setMileage(random.nextInt(250_000));
+            car.setColor(COLORS[random.nextInt(COLORS.length)]);
+            car.setVinNumber(String.format("VF1BENCH%09d", i));
+            car.setLicensePlate(String.format("%04d TBA", i % 10_000));
+            car.setEngineSize("1.6L");
+            car.setDaysInStock(random.nextInt(365));
+            car.setCreatedBy(admin);
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    public static List<Client> clients(int count) {
+        Random random = new Random(7);
+        List<Client> clients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Client client = new Client(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)], String.format("+261 34 %02d %03d %02d",
+                    random.nextInt(100), random.nextInt(1000), random.nextInt(100)));
+            client.setId((long) i + 1);
+            client.setEmail("client" + i + "@example.mg");
+            client.setAddress("Lot " + (i % 500) + " Analakely");
+            client.setCity("Antananarivo");
+            clients.add(client);
+        }
+        return clients;
+    }
+
+    public static List<Sale> sales(int count) {
+        Random random = new Random(11);
+        List<Car> cars = cars(count);
+        List<Client> clients = clients(Math.max(1, count / 4));
+        Admin admin = admin();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Sale> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Car car = cars.get(i);
+            Sale sale = new Sale(car, clients.get(random.nextInt(clients.size())), admin, car.getPrice(),
+                    String.format("INV-2024-%06d", i + 1));
+            sale.setId((long) i + 1);
+            sale.setSaleDate(start.plusMinutes(37L * i));
+            sale.setDeliveryDate(sale.getSaleDate().plusDays(3));
+            sale.setPaymentMethod(Sale.PaymentMethod.values()[random.nextInt(Sale.PaymentMethod.values().length)]);
+            sale.setPaymentStatus(Sale.PaymentStatus.COMPLETED);
+            sale.setTaxAmount(car.getPrice().multiply(new BigDecimal("0.20")));
+            sale.setDiscountAmount(i % 3 == 0 ? new BigDecimal("500000") : BigDecimal.ZERO);
+            sale.setTotalAmount(car.getPrice().add(sale.getTaxAmount()).subtract(sale.getDiscountAmount()));
+            sale.setProfit(car.getPrice().subtract(car.getCostPrice()));
+            if (sale.getPaymentMethod() == Sale.PaymentMethod.FINANCING) {
+                sale.setDownPayment(sale.getTotalAmount().multiply(new BigDecimal("0.30")));
+                sale.setFinancingAmount(sale.getTotalAmount().subtract(sale.getDownPayment()));
+                sale.setLoanTermMonths(36);
+                sale.setMonthlyPayment(sale.getFinancingAmount().divide(BigDecimal.valueOf(36), 0, RoundingMode.HALF_UP));
+            }
+            sale.setNotes(i % 5 == 0 ? "Delivered with a full tank and two keys." : null);
+            sales.add(sale);
+        }
+        return sales;
+    }
+}
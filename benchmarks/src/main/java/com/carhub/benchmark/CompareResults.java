@@ -0,0 +1,97 @@
+package com.carhub.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files, usually the committed baseline and a new run, and
+ * exits with status 1 if any benchmark got slower by more than the threshold. A difference
+ * within the combined error margins of both runs is not reported as a regression.
+ * <p>
+ * Usage: CompareResults baseline.json current.json [threshold-percent, default 10]
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        System.out.printf("%-50s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            double afterScore = score(after);
+            if (before == null) {
+                System.out.printf("%-50s %14s %14s %9s%n", entry.getKey(), "-", format(afterScore, unit), "new");
+                continue;
+            }
+
+            double beforeScore = score(before);
+            double change = (afterScore - beforeScore) / beforeScore;
+            // Throughput modes report operations per time unit, so higher is better
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            double slowdown = higherIsBetter ? -change : change;
+            double margin = Math.abs(error(before)) + Math.abs(error(after));
+            boolean regressed = slowdown > threshold && Math.abs(afterScore - beforeScore) > margin;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-50s %14s %14s %+8.1f%%%s%n", entry.getKey(), format(beforeScore, unit),
+                    format(afterScore, unit), change * 100, regressed ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-50s %14s %14s %9s%n", name, "", "-", "not run");
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%d regression(s) above %.0f%%%n", regressions, threshold * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    // Results by benchmark name, with its parameters if any
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.carhub.benchmark.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                name.append(name.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=')
+                        .append(param.getValue().asText());
+            }
+            results.put(name.toString(), result);
+        }
+        return results;
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double error(JsonNode result) {
+        // NaN when a run had a single iteration
+        double error = result.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit);
+    }
+}
@@ -0,0 +1,657 @@
+package com.carhub.benchmark;
+
+import com.carhub.dto.ChangeEvent;
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import com.carhub.service.ChangeEventService;
+import com.carhub.service.SalesRollupService;
+import com.carhub.service.SystemSettingService;
+import com.carhub.service.ThumbnailService;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Loads generated cars, car features, clients, sales and car images into the database
+ * configured in application.properties or in the file named by -Dcarhub.config, with COPY,
+ * to try the application at large data volumes. The same seed and sizes always give the same
+ * rows. Rows are added to the existing data, with ids after the ones already taken.
+ * <p>
+ * Usage: DataGenerator [--preset=small|medium|large|xlarge] [--seed=42] [--cars=N]
+ * [--clients=N] [--sales=N] [--years=3] [--images=/folder/with/photos]
+ */
+public class DataGenerator {
+
+    enum Preset {
+        SMALL(2_000, 5_000, 1_500),
+        MEDIUM(100_000, 200_000, 75_000),
+        LARGE(1_000_000, 1_000_000, 700_000),
+        XLARGE(3_000_000, 2_000_000, 2_000_000);
+
+        final int cars;
+        final int clients;
+        final int sales;
+
+        Preset(int cars, int clients, int sales) {
+            this.cars = cars;
+            this.clients = clients;
+            this.sales = sales;
+        }
+    }
+
+    // Brand, model, lowest and highest price in millions of Ariary
+    private static final Object[][] MODELS = {
+            {"Toyota", "Corolla", 35, 95}, {"Toyota", "Hilux", 60, 180}, {"Toyota", "Land Cruiser", 120, 400},
+            {"Toyota", "Yaris", 25, 70}, {"Peugeot", "208", 25, 75}, {"Peugeot", "3008", 50, 140},
+            {"Peugeot", "Partner", 20, 60}, {"Renault", "Duster", 35, 90}, {"Renault", "Clio", 20, 60},
+            {"Hyundai", "Tucson", 50, 130}, {"Hyundai", "i10", 18, 45}, {"Kia", "Sportage", 50, 130},
+            {"Kia", "Picanto", 18, 45}, {"Nissan", "Navara", 60, 160}, {"Nissan", "X-Trail", 55, 140},
+            {"Ford", "Ranger", 60, 170}, {"Mitsubishi", "L200", 55, 150}, {"Mitsubishi", "Pajero", 60, 180},
+            {"Suzuki", "Swift", 20, 55}, {"Suzuki", "Jimny", 35, 85}, {"Mercedes-Benz", "C-Class", 90, 260},
+            {"BMW", "X3", 100, 280}, {"Volkswagen", "Polo", 22, 65}, {"Isuzu", "D-Max", 55, 150}
+    };
+    private static final String[] COLORS = {"White", "Black", "Silver", "Grey", "Blue", "Red", "Green", "Beige"};
+    private static final String[] ENGINE_SIZES = {"1.0", "1.2", "1.4", "1.5", "1.6", "2.0", "2.4", "2.5", "2.8", "3.0"};
+    private static final String[] FEATURES = {
+            "Air Conditioning", "ABS", "Airbags", "Bluetooth", "Backup Camera", "Cruise Control", "GPS Navigation",
+            "Leather Seats", "Sunroof", "Alloy Wheels", "Parking Sensors", "Keyless Entry", "4x4", "Tow Bar",
+            "Power Windows", "Apple CarPlay"
+    };
+    private static final String[] CITIES = {
+            "Antananarivo", "Antananarivo", "Antananarivo", "Toamasina", "Antsirabe", "Fianarantsoa",
+            "Mahajanga", "Toliara", "Antsiranana", "Morondava"
+    };
+    private static final String[] POSTAL_CODES = {"101", "101", "101", "501", "110", "301", "401", "601", "201", "619"};
+    private static final String[] FIRST_NAMES = {
+            "Rakoto", "Rabe", "Rasoa", "Andry", "Hery", "Fara", "Mialy", "Tiana", "Njaka", "Voahangy",
+            "Tojo", "Lalao", "Fanja", "Haja", "Nirina", "Zo", "Mamy", "Ony", "Solo", "Tahina"
+    };
+    private static final String[] LAST_NAMES = {
+            "Andrianina", "Razafy", "Rakotomalala", "Randria", "Rasolofo", "Ravelo", "Rakotonirina",
+            "Andriamahefa", "Razanamparany", "Ratsimba", "Rajaonarison", "Ramanantsoa"
+    };
+    private static final String[] OPERATORS = {"32", "33", "34", "38"};
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif", ".bmp"};
+
+    private static final int FLUSH_BYTES = 1 << 20;
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern SEQUENCE_DEFAULT = Pattern.compile("nextval\\('([^']+)'");
+
+    private final DataSource dataSource;
+    private final long seed;
+    private final int carCount;
+    private final int clientCount;
+    private final int saleCount;
+    private final int years;
+    private final List<String[]> photos;
+    private final String invoicePrefix;
+    private final LocalDateTime now = LocalDate.now().atStartOfDay();
+
+    private long[] adminIds;
+    private long firstCarId;
+    private long firstClientId;
+    private long firstSaleId;
+    private long firstImageId;
+
+    // Per sale, in sale order: its date and the price and cost of the car sold
+    private long[] saleDates;
+    private long[] soldPrices;
+    private long[] soldCosts;
+    // Last invoice number per day, starting from the ones already handed out
+    private Map<LocalDate, Long> invoiceCounters;
+
+    public DataGenerator(DataSource dataSource, long seed, int carCount, int clientCount, int saleCount,
+                         int years, List<String[]> photos, String invoicePrefix) {
+        if (saleCount > carCount) {
+            throw new IllegalArgumentException("Each sale needs its own car: " + saleCount + " sales for " + carCount + " cars");
+        }
+        if (saleCount > 0 && clientCount == 0) {
+            throw new IllegalArgumentException("Sales need clients");
+        }
+        this.dataSource = dataSource;
+        this.seed = seed;
+        this.carCount = carCount;
+        this.clientCount = clientCount;
+        this.saleCount = saleCount;
+        this.years = Math.max(1, years);
+        this.photos = photos;
+        this.invoicePrefix = invoicePrefix;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Usage: DataGenerator [--preset=small|medium|large|xlarge] [--seed=42] [--cars=N] "
+                        + "[--clients=N] [--sales=N] [--years=3] [--images=/folder/with/photos]");
+                System.exit(2);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        Preset preset = Preset.valueOf(options.getOrDefault("preset", "small").toUpperCase(Locale.ROOT));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int cars = Integer.parseInt(options.getOrDefault("cars", String.valueOf(preset.cars)));
+        int clients = Integer.parseInt(options.getOrDefault("clients", String.valueOf(preset.clients)));
+        int sales = Integer.parseInt(options.getOrDefault("sales", String.valueOf(preset.sales)));
+        int years = Integer.parseInt(options.getOrDefault("years", "3"));
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(BenchmarkConfig.class)) {
+            List<String[]> photos = options.containsKey("images")
+                    ? readPhotos(Paths.get(options.get("images")), context.getBean(ThumbnailService.class))
+                    : List.of();
+            String prefix = context.getBean(SystemSettingService.class).getSettingValue("invoice_prefix", "INV");
+            DataGenerator generator = new DataGenerator(context.getBean(DataSource.class), seed, cars, clients, sales,
+                    years, photos, prefix);
+            generator.generate();
+
+            // The rollup and open windows catch up with the new rows
+            int rollupRows = context.getBean(SalesRollupService.class).rebuild();
+            System.out.println("Sales monthly rollup rebuilt: " + rollupRows + " rows");
+            ChangeEventService changeEventService = context.getBean(ChangeEventService.class);
+            changeEventService.reloaded(ChangeEvent.Entity.CAR);
+            changeEventService.reloaded(ChangeEvent.Entity.CLIENT);
+            changeEventService.reloaded(ChangeEvent.Entity.SALE);
+        }
+    }
+
+    /**
+     * Writes every table in one transaction, then moves the id sequences past the new rows
+     * and refreshes the planner statistics.
+     */
+    public void generate() throws SQLException, IOException {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                prepare(connection);
+                loadInvoiceCounters(connection);
+                CopyWriterFactory copy = new CopyWriterFactory(connection.unwrap(PGConnection.class));
+                writeCars(copy);
+                writeFeatures(copy);
+                writeClients(copy);
+                writeSales(copy);
+                writeImages(copy);
+                saveInvoiceCounters(connection);
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+
+            for (String table : new String[] {"clients", "sales", "car_images"}) {
+                alignSequence(connection, table);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE cars, car_features, clients, sales, car_images");
+            }
+            connection.commit();
+        }
+        System.out.printf("Done in %.1f s%n", (System.nanoTime() - started) / 1e9);
+    }
+
+    private void prepare(Connection connection) throws SQLException {
+        List<Long> admins = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM admins WHERE is_active = true ORDER BY id")) {
+            while (rs.next()) {
+                admins.add(rs.getLong(1));
+            }
+        }
+        if (admins.isEmpty()) {
+            throw new IllegalStateException("No active admin to record as seller");
+        }
+        adminIds = admins.stream().mapToLong(Long::longValue).toArray();
+
+        firstCarId = nextFreeId(connection, "cars");
+        firstClientId = nextFreeId(connection, "clients");
+        firstSaleId = nextFreeId(connection, "sales");
+        firstImageId = nextFreeId(connection, "car_images");
+
+        // Sales are spread evenly over the period, so ids follow the dates as they would in use
+        SplittableRandom random = random(4);
+        long from = now.minusYears(years).toEpochSecond(ZoneOffset.UTC);
+        long span = now.toEpochSecond(ZoneOffset.UTC) - from;
+        saleDates = new long[saleCount];
+        for (int i = 0; i < saleCount; i++) {
+            saleDates[i] = from + (long) ((i + random.nextDouble()) * span / saleCount);
+        }
+        soldPrices = new long[saleCount];
+        soldCosts = new long[saleCount];
+    }
+
+    private void writeCars(CopyWriterFactory copy) throws SQLException, IOException {
+        SplittableRandom random = random(1);
+        int currentYear = now.getYear();
+        try (CopyWriter out = copy.open("cars", "id, brand, model, year, price, cost_price, mileage, fuel_type, "
+                + "transmission, engine_size, color, vin_number, license_plate, status, condition, description, "
+                + "location, days_in_stock, created_at, updated_at, sold_at, created_by")) {
+            for (int i = 0; i < carCount; i++) {
+                long id = firstCarId + i;
+                Object[] model = MODELS[random.nextInt(MODELS.length)];
+                int year = currentYear - random.nextInt(20);
+                // Older cars sell towards the low end of the model's range
+                double age = (currentYear - year) / 20.0;
+                long low = ((Integer) model[2]).longValue() * 1_000_000L;
+                long high = ((Integer) model[3]).longValue() * 1_000_000L;
+                long price = roundTo((long) (high - (high - low) * (age + random.nextDouble() * 0.2)), 100_000);
+                long cost = roundTo((long) (price * (0.75 + random.nextDouble() * 0.17)), 100_000);
+                int mileage = (currentYear - year) * (5_000 + random.nextInt(20_000)) + random.nextInt(2_000);
+                String color = COLORS[random.nextInt(COLORS.length)];
+                String city = CITIES[random.nextInt(CITIES.length)];
+
+                int sale = soldIndex(i);
+                LocalDateTime soldAt = sale >= 0 ? dateTime(saleDates[sale]) : null;
+                LocalDateTime createdAt = (soldAt != null ? soldAt : now)
+                        .minusMinutes(3 * 24 * 60 + random.nextInt(180 * 24 * 60));
+                Car.Status status = soldAt != null ? Car.Status.SOLD : unsoldStatus(random);
+                if (sale >= 0) {
+                    soldPrices[sale] = price;
+                    soldCosts[sale] = cost;
+                }
+
+                out.value(id).value((String) model[0]).value((String) model[1]).value(year).value(price).value(cost)
+                        .value(mileage).value(pick(random, Car.FuelType.values(), 55, 30, 8, 3, 4))
+                        .value(pick(random, Car.Transmission.values(), 60, 30, 6, 4))
+                        .value(ENGINE_SIZES[random.nextInt(ENGINE_SIZES.length)]).value(color)
+                        .value(String.format("SYN%014d", id))
+                        .value(String.format("%04d T%c%c", 1 + random.nextInt(9_999), 'A' + random.nextInt(26), 'A' + random.nextInt(26)))
+                        .value(status.name())
+                        .value(pick(random, Car.Condition.values(), year >= currentYear - 1 ? 60 : 5, 75, 15, 5))
+                        .value(year + " " + model[0] + " " + model[1] + ", " + color.toLowerCase(Locale.ROOT) + ", "
+                                + mileage + " km")
+                        .value(city)
+                        .value((int) Duration.between(createdAt, soldAt != null ? soldAt : now).toDays())
+                        .value(createdAt).value(soldAt != null ? soldAt : createdAt).value(soldAt)
+                        .value(adminIds[random.nextInt(adminIds.length)])
+                        .endRow();
+            }
+        }
+    }
+
+    private void writeFeatures(CopyWriterFactory copy) throws SQLException, IOException {
+        SplittableRandom random = random(2);
+        int[] order = new int[FEATURES.length];
+        try (CopyWriter out = copy.open("car_features", "car_id, feature")) {
+            for (int i = 0; i < carCount; i++) {
+                int count = random.nextInt(7);
+                // Partial shuffle: the first count entries are distinct features
+                for (int j = 0; j < order.length; j++) {
+                    order[j] = j;
+                }
+                for (int j = 0; j < count; j++) {
+                    int k = j + random.nextInt(order.length - j);
+                    int swap = order[j];
+                    order[j] = order[k];
+                    order[k] = swap;
+                    out.value(firstCarId + i).value(FEATURES[order[j]]).endRow();
+                }
+            }
+        }
+    }
+
+    private void writeClients(CopyWriterFactory copy) throws SQLException, IOException {
+        SplittableRandom random = random(3);
+        long from = now.minusYears(years).toEpochSecond(ZoneOffset.UTC);
+        long span = now.toEpochSecond(ZoneOffset.UTC) - from;
+        try (CopyWriter out = copy.open("clients", "id, first_name, last_name, email, phone_number, address, city, "
+                + "postal_code, country, date_of_birth, gender, preferred_contact, notes, customer_type, credit_score, "
+                + "created_at, updated_at, created_by")) {
+            for (int i = 0; i < clientCount; i++) {
+                long id = firstClientId + i;
+                String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                int cityIndex = random.nextInt(CITIES.length);
+                LocalDateTime createdAt = dateTime(from + (long) ((i + random.nextDouble()) * span / clientCount));
+                Client.CustomerType type = pick(random, Client.CustomerType.values(), 85, 12, 1, 2);
+
+                out.value(id).value(firstName).value(lastName)
+                        .value((firstName + "." + lastName + "." + id + "@example.mg").toLowerCase(Locale.ROOT))
+                        .value(String.format("+261 %s %02d %03d %02d", OPERATORS[random.nextInt(OPERATORS.length)],
+                                random.nextInt(100), random.nextInt(1_000), random.nextInt(100)))
+                        .value("Lot " + (1 + random.nextInt(999)) + " " + (char) ('A' + random.nextInt(26)))
+                        .value(CITIES[cityIndex]).value(POSTAL_CODES[cityIndex]).value("Madagascar");
+                if (type == Client.CustomerType.INDIVIDUAL) {
+                    out.value(now.toLocalDate().minusYears(20 + random.nextInt(50)).minusDays(random.nextInt(365)))
+                            .value(pick(random, Client.Gender.values(), 50, 48, 2));
+                } else {
+                    out.nul().nul();
+                }
+                out.value(pick(random, Client.ContactMethod.values(), 50, 20, 10, 20))
+                        .nul()
+                        .value(type)
+                        .value(300 + random.nextInt(551))
+                        .value(createdAt).value(createdAt)
+                        .value(adminIds[random.nextInt(adminIds.length)])
+                        .endRow();
+            }
+        }
+    }
+
+    private void writeSales(CopyWriterFactory copy) throws SQLException, IOException {
+        SplittableRandom random = random(5);
+        LocalDateTime recent = now.minusDays(30);
+        try (CopyWriter out = copy.open("sales", "id, car_id, client_id, admin_id, sale_price, profit, payment_method, "
+                + "payment_status, down_payment, financing_amount, monthly_payment, loan_term_months, sale_date, "
+                + "delivery_date, invoice_number, warranty_months, notes, discount_amount, tax_amount, total_amount, "
+                + "created_at, updated_at")) {
+            for (int i = 0; i < saleCount; i++) {
+                LocalDateTime saleDate = dateTime(saleDates[i]);
+                long discount = roundTo((long) (soldPrices[i] * random.nextDouble() * 0.05), 100_000);
+                long salePrice = soldPrices[i] - discount;
+                Sale.PaymentMethod method = pick(random, Sale.PaymentMethod.values(), 35, 10, 25, 20, 5, 5);
+                // Older sales are settled; recent ones may still be pending
+                Sale.PaymentStatus status = saleDate.isAfter(recent)
+                        ? pick(random, Sale.PaymentStatus.values(), 30, 20, 45, 3, 2)
+                        : pick(random, Sale.PaymentStatus.values(), 0, 2, 93, 3, 2);
+
+                long downPayment = 0;
+                long financing = 0;
+                long monthly = 0;
+                int term = 0;
+                if (method == Sale.PaymentMethod.FINANCING) {
+                    downPayment = roundTo((long) (salePrice * (0.2 + random.nextDouble() * 0.2)), 100_000);
+                    financing = salePrice - downPayment;
+                    term = 12 * (1 + random.nextInt(5));
+                    monthly = financing / term;
+                }
+                LocalDate day = saleDate.toLocalDate();
+                long invoice = invoiceCounters.merge(day, 1L, Long::sum);
+
+                out.value(firstSaleId + i).value(firstCarId + soldCarIndex(i))
+                        .value(firstClientId + random.nextInt(clientCount))
+                        .value(adminIds[random.nextInt(adminIds.length)])
+                        .value(salePrice).value(salePrice - soldCosts[i]).value(method).value(status)
+                        .value(downPayment).value(financing).value(monthly).value(term)
+                        .value(saleDate).value(saleDate.plusDays(random.nextInt(15)))
+                        .value(String.format("%s-%s-%03d", invoicePrefix, day.format(DAY_FORMAT), invoice))
+                        .value(random.nextInt(4) * 12)
+                        .nul()
+                        .value(discount).value(0).value(salePrice)
+                        .value(saleDate).value(saleDate)
+                        .endRow();
+            }
+        }
+    }
+
+    private void writeImages(CopyWriterFactory copy) throws SQLException, IOException {
+        SplittableRandom random = random(6);
+        long id = firstImageId;
+        int photo = 0;
+        try (CopyWriter out = copy.open("car_images", "id, car_id, image_path, image_name, image_size, content_hash, "
+                + "is_primary, display_order, created_at")) {
+            for (int i = 0; i < carCount; i++) {
+                long carId = firstCarId + i;
+                int count = pick(random, new Integer[] {0, 1, 2, 3, 4}, 15, 30, 25, 20, 10);
+                for (int order = 0; order < count; order++) {
+                    out.value(id++).value(carId);
+                    if (photos.isEmpty()) {
+                        String name = carId + "-" + (order + 1) + ".jpg";
+                        out.value("generated/cars/" + name).value(name).value(80_000 + random.nextInt(400_000)).nul();
+                    } else {
+                        String[] file = photos.get(photo++ % photos.size());
+                        out.value(file[0]).value(file[1]).value(file[2]).value(file[3]);
+                    }
+                    out.value(order == 0).value(order).value(now.minusDays(random.nextInt(365))).endRow();
+                }
+            }
+        }
+    }
+
+    private void loadInvoiceCounters(Connection connection) throws SQLException {
+        invoiceCounters = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT invoice_date, last_value FROM invoice_counters")) {
+            while (rs.next()) {
+                invoiceCounters.put(rs.getDate(1).toLocalDate(), rs.getLong(2));
+            }
+        }
+    }
+
+    // So numbers handed out later by InvoiceNumberService continue after the generated ones
+    private void saveInvoiceCounters(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO invoice_counters (invoice_date, last_value) VALUES (?, ?) ON CONFLICT (invoice_date) "
+                        + "DO UPDATE SET last_value = GREATEST(invoice_counters.last_value, EXCLUDED.last_value)")) {
+            for (Map.Entry<LocalDate, Long> counter : invoiceCounters.entrySet()) {
+                statement.setObject(1, counter.getKey());
+                statement.setLong(2, counter.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    // The next id after those in the table and those its sequence may already have handed out
+    private long nextFreeId(Connection connection, String table) throws SQLException {
+        long maxId = queryLong(connection, "SELECT COALESCE(MAX(id), 0) FROM " + table);
+        String sequence = idSequence(connection, table);
+        long sequenceValue = sequence != null ? queryLong(connection, "SELECT last_value FROM " + sequence) : 0;
+        if ("cars".equals(table)) {
+            // Pooled: the application may hold the ids up to the last value
+            sequenceValue += Car.ID_ALLOCATION_SIZE;
+        }
+        return Math.max(maxId, sequenceValue) + 1;
+    }
+
+    private void alignSequence(Connection connection, String table) throws SQLException {
+        String sequence = idSequence(connection, table);
+        if (sequence != null) {
+            queryLong(connection, "SELECT setval('" + sequence + "', GREATEST((SELECT MAX(id) FROM " + table + "), "
+                    + "(SELECT last_value FROM " + sequence + ")))");
+        }
+    }
+
+    // Identity and serial columns are found by pg_get_serial_sequence, a plain nextval default by its text
+    private static String idSequence(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_get_serial_sequence(?, 'id'), column_default FROM information_schema.columns "
+                        + "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'")) {
+            statement.setString(1, table);
+            statement.setString(2, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                if (rs.getString(1) != null) {
+                    return rs.getString(1);
+                }
+                Matcher matcher = SEQUENCE_DEFAULT.matcher(String.valueOf(rs.getString(2)));
+                return matcher.find() ? matcher.group(1) : null;
+            }
+        }
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Path, name, size and content hash of each photo, whose thumbnails are made now
+    private static List<String[]> readPhotos(Path folder, ThumbnailService thumbnailService) throws IOException {
+        List<String[]> photos = new ArrayList<>();
+        try (Stream<Path> files = Files.list(folder)) {
+            for (Path file : files.filter(Files::isRegularFile).filter(DataGenerator::isImage).sorted().toList()) {
+                String name = file.getFileName().toString();
+                photos.add(new String[] {file.toAbsolutePath().toString(), name.length() > 100 ? name.substring(0, 100) : name,
+                        String.valueOf(Files.size(file)), thumbnailService.createThumbnail(file)});
+            }
+        }
+        if (photos.isEmpty()) {
+            throw new IllegalArgumentException("No images in " + folder);
+        }
+        return photos;
+    }
+
+    private static boolean isImage(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sold cars are spread evenly over the generated ones: car i is the sale's car when the
+    // running share of sales moves past a whole number
+    private int soldIndex(int carIndex) {
+        long before = (long) carIndex * saleCount / carCount;
+        long after = (long) (carIndex + 1) * saleCount / carCount;
+        return after > before ? (int) before : -1;
+    }
+
+    private int soldCarIndex(int saleIndex) {
+        // Smallest car index i with (i + 1) * sales / cars > saleIndex
+        return (int) (((long) (saleIndex + 1) * carCount - 1) / saleCount);
+    }
+
+    private static Car.Status unsoldStatus(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 80) {
+            return Car.Status.AVAILABLE;
+        } else if (roll < 88) {
+            return Car.Status.RESERVED;
+        } else if (roll < 95) {
+            return Car.Status.MAINTENANCE;
+        }
+        return Car.Status.PENDING;
+    }
+
+    // One of the values, with the given relative weights
+    private static <T> T pick(SplittableRandom random, T[] values, int... weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    // Each table has its own stream, so changing one table's generation leaves the others as they were
+    private SplittableRandom random(int table) {
+        return new SplittableRandom(seed * 31 + table);
+    }
+
+    private static long roundTo(long value, long step) {
+        return Math.max(step, Math.round((double) value / step) * step);
+    }
+
+    private static LocalDateTime dateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static final class CopyWriterFactory {
+
+        private final PGConnection connection;
+
+        CopyWriterFactory(PGConnection connection) {
+            this.connection = connection;
+        }
+
+        CopyWriter open(String table, String columns) throws SQLException {
+            return new CopyWriter(table, connection.getCopyAPI().copyIn("COPY " + table + " (" + columns + ") FROM STDIN"));
+        }
+    }
+
+    /**
+     * Rows in COPY text format, sent in chunks of about a megabyte. Generated values never
+     * contain tabs, newlines or backslashes, so they are written without escaping.
+     */
+    private static final class CopyWriter implements AutoCloseable {
+
+        private final String table;
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_BYTES + 4096);
+        private final long started = System.nanoTime();
+        private boolean rowStarted;
+        private long rows;
+
+        CopyWriter(String table, CopyIn copyIn) {
+            this.table = table;
+            this.copyIn = copyIn;
+        }
+
+        CopyWriter value(Object value) {
+            if (rowStarted) {
+                buffer.append('\t');
+            }
+            rowStarted = true;
+            if (value == null) {
+                buffer.append("\\N");
+            } else if (value instanceof Enum<?> constant) {
+                buffer.append(constant.name());
+            } else {
+                buffer.append(value);
+            }
+            return this;
+        }
+
+        CopyWriter nul() {
+            return value(null);
+        }
+
+        void endRow() throws SQLException {
+            buffer.append('\n');
+            rowStarted = false;
+            rows++;
+            if (buffer.length() >= FLUSH_BYTES) {
+                flush();
+            }
+            if (rows % 500_000 == 0) {
+                System.out.printf("  %s: %,d rows%n", table, rows);
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (!copyIn.isActive()) {
+                return;
+            }
+            flush();
+            copyIn.endCopy();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("%-13s %,12d rows %8.1f s %,12.0f rows/s%n", table, rows, seconds, rows / Math.max(seconds, 1e-3));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.carhub.benchmark;
+
+import com.carhub.entity.Sale;
+import com.carhub.service.EmailService;
+import com.carhub.util.CurrencyUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Currency formatting, called for every amount shown in tables and documents, and the HTML
+ * of the sale confirmation email. No database needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormattingBenchmark {
+
+    private BigDecimal[] amounts;
+    private int next;
+    private EmailService emailService;
+    private Sale sale;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkData.useDefaultSettings();
+
+        List<Sale> sales = BenchmarkData.sales(1024);
+        amounts = new BigDecimal[sales.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = sales.get(i).getTotalAmount();
+        }
+        // A financed sale with notes, so every optional section of the email is written
+        sale = sales.stream()
+                .filter(s -> s.getPaymentMethod() == Sale.PaymentMethod.FINANCING && s.getNotes() != null)
+                .findFirst()
+                .orElse(sales.get(0));
+
+        // Company details are normally injected from application.properties
+        emailService = new EmailService();
+        setField(emailService, "companyName", "CarHub Dealership");
+        setField(emailService, "companyAddress", "Antananarivo, Madagascar");
+        setField(emailService, "companyPhone", "+261 20 22 000 00");
+        setField(emailService, "companyEmail", "contact@carhub.mg");
+    }
+
+    @Benchmark
+    public String formatCurrency() {
+        BigDecimal amount = amounts[next];
+        next = (next + 1) & (amounts.length - 1);
+        return CurrencyUtils.formatCurrency(amount);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String saleEmailContent() {
+        return emailService.generateSaleEmailContent(sale);
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
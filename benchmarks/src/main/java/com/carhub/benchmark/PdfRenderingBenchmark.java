@@ -0,0 +1,123 @@
+package com.carhub.benchmark;
+
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import com.carhub.service.PdfService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Invoice and report rendering with iText, from in-memory data into a temporary directory.
+ * Reports are rendered from lists, so only the PDF work is measured, not the queries.
+ * The bytes written are reported next to the time as the outputBytes and documents secondary
+ * results, summed over the measurement iterations; outputBytes / documents is the size of one
+ * document, which fonts and styles shared per document keep small.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfRenderingBenchmark {
+
+    private static final int REPORT_ROWS = 500;
+
+    private final PdfService pdfService = new PdfService();
+    private Path outputDirectory;
+    private String invoiceFile;
+    private Sale sale;
+    private List<Sale> sales;
+    private List<Car> cars;
+    private List<Client> clients;
+
+    // JMH resets the counters before each iteration
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class OutputSize {
+        public long outputBytes;
+        public long documents;
+
+        void record(String file) throws IOException {
+            outputBytes += Files.size(Path.of(file));
+            documents++;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkData.useDefaultSettings();
+        outputDirectory = Files.createTempDirectory("carhub-bench-pdf");
+        invoiceFile = outputDirectory.resolve("invoice.pdf").toString();
+        sales = BenchmarkData.sales(REPORT_ROWS);
+        sale = sales.get(0);
+        cars = BenchmarkData.cars(REPORT_ROWS);
+        clients = BenchmarkData.clients(REPORT_ROWS);
+    }
+
+    // Reports are written under new names on each call
+    @TearDown(Level.Iteration)
+    public void clearReports() throws IOException {
+        try (Stream<Path> files = Files.list(outputDirectory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public String invoice(OutputSize size) throws Exception {
+        pdfService.writeInvoice(sale, invoiceFile);
+        size.record(invoiceFile);
+        return invoiceFile;
+    }
+
+    @Benchmark
+    public String salesReport(OutputSize size) throws Exception {
+        String file = pdfService.generateSalesReport(sales, outputDirectory.toString());
+        size.record(file);
+        return file;
+    }
+
+    @Benchmark
+    public String carsInventoryReport(OutputSize size) throws Exception {
+        String file = pdfService.generateCarsInventoryReport(cars, outputDirectory.toString());
+        size.record(file);
+        return file;
+    }
+
+    @Benchmark
+    public String clientsReport(OutputSize size) throws Exception {
+        String file = pdfService.generateClientsReport(clients, outputDirectory.toString());
+        size.record(file);
+        return file;
+    }
+}
@@ -0,0 +1,105 @@
+package com.carhub.benchmark;
+
+import com.carhub.dto.CarFilter;
+import com.carhub.dto.SaleFilter;
+import com.carhub.dto.SaleSummary;
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.repository.ClientRepository;
+import com.carhub.service.CarService;
+import com.carhub.service.ClientService;
+import com.carhub.service.SaleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The queries behind the sales, clients and cars lists, through the services, against the
+ * database configured in application.properties or in the file named by -Dcarhub.config.
+ * Results depend on the data: compare runs made against the same database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryQueryBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private SaleService saleService;
+    private ClientService clientService;
+    private ClientRepository clientRepository;
+    private CarService carService;
+
+    private final SaleFilter searchFilter = new SaleFilter("toyota", null, null, null);
+    private final CarFilter carFilter = new CarFilter("toyota", Car.Status.AVAILABLE, null, null);
+    private SaleFilter yearFilter;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+        saleService = context.getBean(SaleService.class);
+        clientService = context.getBean(ClientService.class);
+        clientRepository = context.getBean(ClientRepository.class);
+        carService = context.getBean(CarService.class);
+
+        LocalDateTime yearStart = LocalDateTime.now().withDayOfYear(1).toLocalDate().atStartOfDay();
+        yearFilter = new SaleFilter("", null, yearStart, yearStart.plusYears(1).minusSeconds(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SaleSummary> salesFirstPage() {
+        return saleService.getSalesPage(SaleFilter.all(), null, 100);
+    }
+
+    @Benchmark
+    public List<SaleSummary> salesSearchPage() {
+        return saleService.getSalesPage(searchFilter, null, 100);
+    }
+
+    @Benchmark
+    public long countSalesThisYear() {
+        return saleService.countSales(yearFilter);
+    }
+
+    @Benchmark
+    public List<Object[]> monthlyAnalytics() {
+        return saleService.getMonthlyAnalytics(yearFilter.getStartDate(), yearFilter.getEndDate());
+    }
+
+    // The ranked search, on the name prefix and trigram indexes
+    @Benchmark
+    public List<Client> clientSearch() {
+        return clientService.searchClients("rako");
+    }
+
+    // The same term with the plain LIKE on each column that the search used before, for comparison
+    @Benchmark
+    public List<Client> clientLikeSearch() {
+        return clientRepository.findBySearchTerm("rako");
+    }
+
+    @Benchmark
+    public List<Car> carSearch() {
+        return carService.getCarsPage(carFilter, null, 100);
+    }
+}
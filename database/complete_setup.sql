@@ -20,9 +20,13 @@ GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA public TO carhub_user;
 -- Enable UUID extension
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 
+-- Trigram indexes for substring search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- Create sequences
 CREATE SEQUENCE admin_seq START 1;
-CREATE SEQUENCE car_seq START 1;
+-- Steps by Car.ID_ALLOCATION_SIZE, Hibernate reserves the ids below each value it takes
+CREATE SEQUENCE car_seq START 1 INCREMENT BY 50;
 CREATE SEQUENCE client_seq START 1;
 CREATE SEQUENCE sale_seq START 1;
 CREATE SEQUENCE car_image_seq START 1;
@@ -125,6 +129,7 @@ CREATE TABLE car_images (
     image_path VARCHAR(255) NOT NULL,
     image_name VARCHAR(100) NOT NULL,
     image_size BIGINT,
+    content_hash VARCHAR(64),
     is_primary BOOLEAN DEFAULT false,
     display_order INTEGER DEFAULT 0,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
@@ -142,6 +147,39 @@ CREATE TABLE system_settings (
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
+-- INVOICE COUNTERS TABLE (last invoice number handed out per day)
+CREATE TABLE invoice_counters (
+    invoice_date DATE PRIMARY KEY,
+    last_value BIGINT NOT NULL DEFAULT 0
+);
+
+-- EMAIL OUTBOX TABLE (emails queued with the change that triggers them, sent in the background)
+CREATE TABLE email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    sale_id BIGINT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- SALES MONTHLY ROLLUP TABLE (sales totals per month, payment method and admin, kept up to date by the application)
+CREATE TABLE sales_monthly_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    month_start DATE NOT NULL,
+    payment_method VARCHAR(20) NOT NULL,
+    admin_id BIGINT NOT NULL,
+    revenue DECIMAL(15,2) NOT NULL DEFAULT 0,
+    profit DECIMAL(15,2) NOT NULL DEFAULT 0,
+    sales_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_sales_monthly_rollup UNIQUE (month_start, payment_method, admin_id)
+);
+
 -- Car features table for ElementCollection
 CREATE TABLE car_features (
     car_id BIGINT NOT NULL REFERENCES cars(id) ON DELETE CASCADE,
@@ -155,8 +193,10 @@ CREATE INDEX idx_cars_price ON cars(price);
 CREATE INDEX idx_cars_status ON cars(status);
 CREATE INDEX idx_cars_year ON cars(year);
 CREATE INDEX idx_cars_created_at ON cars(created_at);
+CREATE INDEX idx_cars_status_created_at ON cars(status, created_at DESC);
 
 CREATE INDEX idx_sales_sale_date ON sales(sale_date);
+CREATE INDEX idx_sales_sale_date_id ON sales(sale_date DESC, id DESC);
 CREATE INDEX idx_sales_car_id ON sales(car_id);
 CREATE INDEX idx_sales_client_id ON sales(client_id);
 CREATE INDEX idx_sales_admin_id ON sales(admin_id);
@@ -164,9 +204,20 @@ CREATE INDEX idx_sales_admin_id ON sales(admin_id);
 CREATE INDEX idx_clients_name ON clients(first_name, last_name);
 CREATE INDEX idx_clients_email ON clients(email);
 CREATE INDEX idx_clients_phone ON clients(phone_number);
+-- Serves ClientRepository.searchRanked, the expression must stay identical to the query
+CREATE INDEX idx_clients_search_trgm ON clients
+    USING gin (LOWER(first_name || ' ' || last_name || ' ' || COALESCE(email, '') || ' ' || phone_number) gin_trgm_ops);
+-- Name prefix candidates of ClientRepository.searchRanked, read in order; COLLATE "C" lets the
+-- query bound a prefix with a range
+CREATE INDEX idx_clients_last_name_prefix ON clients ((LOWER(last_name) COLLATE "C"), id);
+CREATE INDEX idx_clients_first_name_prefix ON clients ((LOWER(first_name) COLLATE "C"), id);
 
 CREATE INDEX idx_car_images_car_id ON car_images(car_id);
-CREATE INDEX idx_car_images_primary ON car_images(car_id, is_primary);
+-- At most one primary image per car, also serves the primary image lookups
+CREATE UNIQUE INDEX uq_car_images_primary ON car_images(car_id) WHERE is_primary;
+
+-- Only undelivered emails are ever scanned by the dispatcher
+CREATE INDEX idx_email_outbox_due ON email_outbox(next_attempt_at, id) WHERE status IN ('PENDING', 'SENDING');
 
 -- CREATE VIEWS FOR REPORTING
 CREATE VIEW v_car_inventory AS
@@ -223,12 +274,19 @@ INSERT INTO clients (first_name, last_name, email, phone_number, address, city,
 ('Rasoa', 'Marie', 'rasoa@email.com', '+261-33-987-6543', '456 Ankorondrano Avenue', 'Antananarivo', 1),
 ('Jean', 'Pierre', 'jean@email.com', '+261-32-555-7890', '789 Ambohipo Road', 'Antananarivo', 1);
 
--- Sample sale
-INSERT INTO sales (car_id, client_id, admin_id, sale_price, profit, payment_method, payment_status, invoice_number, total_amount) VALUES
-(5, 1, 1, 45000.00, 5000.00, 'CASH', 'COMPLETED', 'INV-2024-001', 45000.00);
+-- Sample sale, the car is found by model as car ids step by 50
+INSERT INTO sales (car_id, client_id, admin_id, sale_price, profit, payment_method, payment_status, invoice_number, total_amount)
+SELECT id, 1, 1, 45000.00, 5000.00, 'CASH', 'COMPLETED', 'INV-2024-001', 45000.00
+FROM cars WHERE brand = 'Mercedes' AND model = 'C-Class';
 
 -- Update sold car status
-UPDATE cars SET status = 'SOLD', sold_at = CURRENT_TIMESTAMP WHERE id = 5;
+UPDATE cars SET status = 'SOLD', sold_at = CURRENT_TIMESTAMP WHERE brand = 'Mercedes' AND model = 'C-Class';
+
+-- Monthly totals of the sample sales
+INSERT INTO sales_monthly_rollup (month_start, payment_method, admin_id, revenue, profit, sales_count)
+SELECT CAST(date_trunc('month', sale_date) AS date), payment_method, admin_id,
+       SUM(sale_price), SUM(COALESCE(profit, 0)), COUNT(*)
+FROM sales GROUP BY 1, 2, 3;
 
 -- System settings
 INSERT INTO system_settings (setting_key, setting_value, setting_type, description) VALUES
@@ -0,0 +1,6 @@
+-- Name prefix indexes of the client search, for databases set up before they were added to
+-- complete_setup.sql. CONCURRENTLY keeps the clients table writable while they are built.
+-- psql -U postgres -d carhub -f database/upgrade/001_client_name_prefix_indexes.sql
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_last_name_prefix ON clients ((LOWER(last_name) COLLATE "C"), id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_first_name_prefix ON clients ((LOWER(first_name) COLLATE "C"), id);
+ANALYZE clients;
@@ -0,0 +1,14 @@
+-- Enforces one primary photo per car on databases set up before uq_car_images_primary was added
+-- to complete_setup.sql. Cars with several primaries keep the first by display order. Run it
+-- with the application closed, so that no photo is made primary while the index is built.
+-- psql -U postgres -d carhub -f database/upgrade/002_car_images_single_primary.sql
+BEGIN;
+
+UPDATE car_images extra SET is_primary = false
+FROM car_images first
+WHERE extra.is_primary AND first.is_primary AND first.car_id = extra.car_id
+  AND (first.display_order, first.id) < (extra.display_order, extra.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_car_images_primary ON car_images(car_id) WHERE is_primary;
+
+COMMIT;
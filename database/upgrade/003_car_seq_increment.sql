@@ -0,0 +1,10 @@
+-- Makes car_seq step by 50, the allocation size of the car id mapping, on databases set up
+-- before it did. It is first moved past the ids already taken, as Hibernate hands out the 49
+-- ids below each value it takes. Run it with the application closed.
+-- psql -U postgres -d carhub -f database/upgrade/003_car_seq_increment.sql
+BEGIN;
+
+SELECT setval('car_seq', GREATEST((SELECT MAX(id) FROM cars), (SELECT last_value FROM car_seq)));
+ALTER SEQUENCE car_seq INCREMENT BY 50;
+
+COMMIT;
@@ -3,6 +3,7 @@ package com.carhub;
 import com.carhub.config.ApplicationConfig;
 import com.carhub.entity.Admin;
 import com.carhub.service.AdminService;
+import com.carhub.service.SalesRollupService;
 import com.carhub.service.SystemSettingService;
 import com.carhub.ui.dialogs.LoginDialog;
 import com.carhub.ui.main.MainWindow;
@@ -39,6 +40,9 @@ public class CarHubApplication {
                 // Initialize default settings
                 systemSettingService.initializeDefaultSettings();
                 
+                // Build the monthly sales totals on first run against an existing database
+                context.getBean(SalesRollupService.class).rebuildIfEmpty();
+                
                 // Create default admin if none exists
                 createDefaultAdminIfNeeded(adminService);
                 
@@ -0,0 +1,20 @@
+package com.carhub.config;
+
+/**
+ * Names of the Hibernate second-level cache regions, shared by the entity mappings
+ * and the cache manager set up in {@link DatabaseConfig}.
+ */
+public final class CacheRegions {
+
+    public static final String ADMINS = "admins";
+    public static final String SYSTEM_SETTINGS = "system_settings";
+    public static final String CARS = "cars";
+    public static final String CAR_FEATURES = "cars.features";
+
+    // Default regions Hibernate uses for the query cache
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private CacheRegions() {
+    }
+}
@@ -1,7 +1,11 @@
 package com.carhub.config;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,8 +17,13 @@ import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
 import javax.sql.DataSource;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableJpaRepositories(basePackages = "com.carhub.repository")
@@ -39,6 +48,38 @@ public class DatabaseConfig {
     @Value("${spring.datasource.hikari.minimum-idle:5}")
     private int minimumIdle;
     
+    // Second-level cache regions. Other workstations write to the same database without
+    // evicting our entries, so the time to live bounds how stale a cached row can get.
+    @Value("${cache.admins.max-entries:500}")
+    private long adminsMaxEntries;
+    
+    @Value("${cache.admins.ttl-seconds:300}")
+    private long adminsTtlSeconds;
+    
+    @Value("${cache.settings.max-entries:500}")
+    private long settingsMaxEntries;
+    
+    @Value("${cache.settings.ttl-seconds:300}")
+    private long settingsTtlSeconds;
+    
+    @Value("${cache.cars.max-entries:10000}")
+    private long carsMaxEntries;
+    
+    @Value("${cache.cars.ttl-seconds:60}")
+    private long carsTtlSeconds;
+    
+    @Value("${cache.queries.max-entries:1000}")
+    private long queriesMaxEntries;
+    
+    @Value("${cache.queries.ttl-seconds:60}")
+    private long queriesTtlSeconds;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    
     @Bean
     @Primary
     public DataSource dataSource() {
@@ -53,7 +94,13 @@ public class DatabaseConfig {
         config.setIdleTimeout(600000);
         config.setMaxLifetime(1800000);
         config.setLeakDetectionThreshold(60000);
+        // Transactions always run with auto-commit off; see provider_disables_autocommit below
+        config.setAutoCommit(false);
         config.addDataSourceProperty("ApplicationName", "CarHub-Desktop");
+        // Lets the driver send a JDBC batch of inserts as multi-row INSERT statements
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        // Pool size, waiting threads and connection wait/usage times, see MetricsConfig
+        config.setMetricRegistry(meterRegistry);
         
         return new HikariDataSource(config);
     }
@@ -78,12 +125,57 @@ public class DatabaseConfig {
         properties.setProperty("hibernate.order_updates", "true");
         properties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
         properties.setProperty("hibernate.enable_lazy_load_no_trans", "true");
+        // Lets Hibernate skip setAutoCommit(false) on begin, so a connection is only taken from
+        // the pool at the first statement instead of for the whole transaction
+        properties.setProperty("hibernate.connection.provider_disables_autocommit", "true");
+        
+        // Only entities annotated with @Cache are cached, queries only when marked cacheable
+        properties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        properties.setProperty("hibernate.cache.use_query_cache", "true");
+        properties.setProperty("hibernate.cache.region.factory_class", "jcache");
+        properties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        properties.setProperty("hibernate.generate_statistics", "true");
+        // Statistics are read through CacheService, not logged at the end of every session
+        properties.setProperty("hibernate.session.events.log", "false");
         
         em.setJpaProperties(properties);
+        em.getJpaPropertyMap().put("hibernate.javax.cache.cache_manager", hibernateCacheManager());
+        em.getJpaPropertyMap().put("hibernate.session_factory.statement_inspector", sqlStatementCounter);
         
         return em;
     }
     
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        
+        createRegion(cacheManager, CacheRegions.ADMINS, adminsMaxEntries, adminsTtlSeconds);
+        createRegion(cacheManager, CacheRegions.SYSTEM_SETTINGS, settingsMaxEntries, settingsTtlSeconds);
+        createRegion(cacheManager, CacheRegions.CARS, carsMaxEntries, carsTtlSeconds);
+        createRegion(cacheManager, CacheRegions.CAR_FEATURES, carsMaxEntries, carsTtlSeconds);
+        createRegion(cacheManager, CacheRegions.QUERY_RESULTS, queriesMaxEntries, queriesTtlSeconds);
+        // Update timestamps tell whether a cached query result is stale, they must never expire
+        createRegion(cacheManager, CacheRegions.UPDATE_TIMESTAMPS, 0, 0);
+        
+        return cacheManager;
+    }
+    
+    private void createRegion(CacheManager cacheManager, String name, long maxEntries, long ttlSeconds) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        if (maxEntries > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+    
     @Bean
     public PlatformTransactionManager transactionManager() {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
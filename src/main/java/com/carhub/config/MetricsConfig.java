@@ -0,0 +1,108 @@
+package com.carhub.config;
+
+import com.carhub.service.CarService;
+import com.carhub.service.ClientService;
+import com.carhub.service.EmailService;
+import com.carhub.service.PdfService;
+import com.carhub.service.SaleService;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingRegistryConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Metrics of the running application: service and repository call times, SQL statements,
+ * the connection pool (see {@link DatabaseConfig}) and the JVM. Every meter is kept in memory
+ * and, depending on the settings, written to a rolling file and published over JMX.
+ * <p>
+ * The beans are static because the timing post-processor and what it uses must exist before
+ * the services it wraps; for the same reason the settings are read from the Environment,
+ * as @Value placeholders are not resolved yet.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Services whose public methods are timed; the repositories are always timed
+    private static final Set<Class<?>> TIMED_SERVICES = Set.of(
+            CarService.class, ClientService.class, SaleService.class, PdfService.class, EmailService.class);
+
+    @Bean(destroyMethod = "close")
+    public static MeterRegistry meterRegistry(Environment environment) {
+        CompositeMeterRegistry registry = new CompositeMeterRegistry();
+        registry.add(new SimpleMeterRegistry());
+
+        Duration step = Duration.ofSeconds(Math.max(1, environment.getProperty("metrics.export.step-seconds", Long.class, 60L)));
+        if (environment.getProperty("metrics.export.file.enabled", Boolean.class, true)) {
+            RollingMetricsFile file = new RollingMetricsFile(
+                    Paths.get(environment.getProperty("metrics.export.file.path", "./logs/metrics.log")),
+                    environment.getProperty("metrics.export.file.max-megabytes", Long.class, 10L) * 1024 * 1024,
+                    environment.getProperty("metrics.export.file.max-files", Integer.class, 5));
+            LoggingRegistryConfig config = new LoggingRegistryConfig() {
+                @Override
+                public String get(String key) {
+                    return null;
+                }
+
+                @Override
+                public Duration step() {
+                    return step;
+                }
+            };
+            registry.add(LoggingMeterRegistry.builder(config).loggingSink(file).build());
+        }
+        if (environment.getProperty("metrics.export.jmx.enabled", Boolean.class, true)) {
+            JmxConfig config = new JmxConfig() {
+                @Override
+                public String get(String key) {
+                    return null;
+                }
+
+                @Override
+                public String domain() {
+                    return "carhub";
+                }
+
+                @Override
+                public Duration step() {
+                    return step;
+                }
+            };
+            registry.add(new JmxMeterRegistry(config, Clock.SYSTEM));
+        }
+
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        return registry;
+    }
+
+    @Bean
+    public static SqlStatementCounter sqlStatementCounter(MeterRegistry meterRegistry) {
+        return new SqlStatementCounter(meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor serviceTimingPostProcessor(
+            MeterRegistry meterRegistry, SqlStatementCounter sqlStatementCounter, Environment environment) {
+        if (!environment.getProperty("metrics.timing.enabled", Boolean.class, true)) {
+            return new BeanPostProcessor() {
+            };
+        }
+        return new ServiceTimingPostProcessor(meterRegistry, sqlStatementCounter, TIMED_SERVICES);
+    }
+}
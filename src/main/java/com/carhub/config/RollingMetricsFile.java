@@ -0,0 +1,67 @@
+package com.carhub.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Appends the lines published by the metrics registry to a file, with a timestamp. When the
+ * file passes its size limit it is renamed to name.1.log, the older ones shift up, and the
+ * oldest beyond the file count is deleted.
+ */
+public class RollingMetricsFile implements Consumer<String> {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    public RollingMetricsFile(Path file, long maxBytes, int maxFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+
+    @Override
+    public synchronized void accept(String line) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            if (Files.exists(file) && Files.size(file) >= maxBytes) {
+                roll();
+            }
+            Files.writeString(file, LocalDateTime.now().format(TIME_FORMAT) + " " + line + System.lineSeparator(),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void roll() throws IOException {
+        Files.deleteIfExists(rolled(maxFiles - 1));
+        for (int i = maxFiles - 2; i >= 1; i--) {
+            if (Files.exists(rolled(i))) {
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 1) {
+            Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(file);
+        }
+    }
+
+    // metrics.log becomes metrics.1.log, metrics.2.log...
+    private Path rolled(int index) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String rolledName = dot < 0 ? name + "." + index : name.substring(0, dot) + "." + index + name.substring(dot);
+        return file.resolveSibling(rolledName);
+    }
+}
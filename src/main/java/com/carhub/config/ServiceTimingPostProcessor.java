@@ -0,0 +1,153 @@
+package com.carhub.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the given services and of the Spring Data repositories.
+ * Service calls also record how many SQL statements they ran, counted by
+ * {@link SqlStatementCounter}.
+ * <p>
+ * The timing is added in front of the transactional proxy when there is one, so a service
+ * call is timed with its commit.
+ */
+public class ServiceTimingPostProcessor implements BeanPostProcessor {
+
+    private static final String REPOSITORY_PACKAGE = "com.carhub.repository";
+
+    private static final StaticMethodMatcherPointcut PUBLIC_METHODS = new StaticMethodMatcherPointcut() {
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+        }
+    };
+
+    private final MeterRegistry registry;
+    private final SqlStatementCounter statementCounter;
+    private final Set<Class<?>> services;
+
+    public ServiceTimingPostProcessor(MeterRegistry registry, SqlStatementCounter statementCounter, Set<Class<?>> services) {
+        this.registry = registry;
+        this.statementCounter = statementCounter;
+        this.services = services;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        MethodInterceptor timing;
+        if (services.contains(targetClass)) {
+            timing = new Timing("carhub.service.calls", "class", targetClass.getSimpleName(), true);
+        } else {
+            Class<?> repository = repositoryInterface(bean);
+            if (repository == null) {
+                return bean;
+            }
+            timing = new Timing("carhub.repository.calls", "repository", repository.getSimpleName(), false);
+        }
+
+        Advisor advisor = new DefaultPointcutAdvisor(PUBLIC_METHODS, timing);
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvisor(0, advisor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        // Services are injected by class, repositories by interface
+        proxyFactory.setProxyTargetClass(!Proxy.isProxyClass(bean.getClass()));
+        proxyFactory.addAdvisor(advisor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static Class<?> repositoryInterface(Object bean) {
+        for (Class<?> type : bean.getClass().getInterfaces()) {
+            if (type.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private final class Timing implements MethodInterceptor {
+
+        private final String name;
+        private final String ownerTag;
+        private final String owner;
+        private final boolean countStatements;
+        private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+        Timing(String name, String ownerTag, String owner, boolean countStatements) {
+            this.name = name;
+            this.ownerTag = ownerTag;
+            this.owner = owner;
+            this.countStatements = countStatements;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Meters methodMeters = meters.computeIfAbsent(invocation.getMethod(), this::createMeters);
+            long statementsBefore = countStatements ? statementCounter.currentThreadCount() : 0;
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invocation.proceed();
+                failed = false;
+                return result;
+            } finally {
+                (failed ? methodMeters.failure : methodMeters.success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (countStatements) {
+                    methodMeters.statements.record(statementCounter.currentThreadCount() - statementsBefore);
+                }
+            }
+        }
+
+        private Meters createMeters(Method method) {
+            return new Meters(timer(method, "success"), timer(method, "error"),
+                    countStatements ? DistributionSummary.builder("carhub.service.sql.statements")
+                            .description("SQL statements run by one service call")
+                            .tag(ownerTag, owner)
+                            .tag("method", method.getName())
+                            .publishPercentiles(0.5, 0.95)
+                            .register(registry) : null);
+        }
+
+        private Timer timer(Method method, String outcome) {
+            return Timer.builder(name)
+                    .tag(ownerTag, owner)
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry);
+        }
+    }
+
+    private static final class Meters {
+
+        final Timer success;
+        final Timer failure;
+        final DistributionSummary statements;
+
+        Meters(Timer success, Timer failure, DistributionSummary statements) {
+            this.success = success;
+            this.failure = failure;
+            this.statements = statements;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.carhub.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+
+/**
+ * Sees every SQL statement Hibernate prepares, counts them by kind and keeps a running count
+ * per thread, so {@link ServiceTimingPostProcessor} can tell how many statements a service
+ * call ran. A call running far more statements than its siblings usually loads a relation
+ * row by row.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<long[]> threadCount = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Counter selects;
+    private final Counter inserts;
+    private final Counter updates;
+    private final Counter deletes;
+    private final Counter others;
+
+    public SqlStatementCounter(MeterRegistry registry) {
+        selects = counter(registry, "select");
+        inserts = counter(registry, "insert");
+        updates = counter(registry, "update");
+        deletes = counter(registry, "delete");
+        others = counter(registry, "other");
+    }
+
+    @Override
+    public String inspect(String sql) {
+        threadCount.get()[0]++;
+        switch (keyword(sql)) {
+            case "select":
+            case "with":
+                selects.increment();
+                break;
+            case "insert":
+                inserts.increment();
+                break;
+            case "update":
+                updates.increment();
+                break;
+            case "delete":
+                deletes.increment();
+                break;
+            default:
+                others.increment();
+        }
+        return sql;
+    }
+
+    /**
+     * Returns the number of statements prepared on the current thread so far; the difference
+     * between two reads is what ran in between.
+     */
+    public long currentThreadCount() {
+        return threadCount.get()[0];
+    }
+
+    // First word of the statement, after the comments added by hibernate.use_sql_comments
+    private static String keyword(String sql) {
+        int i = 0;
+        while (i < sql.length()) {
+            if (Character.isWhitespace(sql.charAt(i))) {
+                i++;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        int end = i;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        return sql.substring(i, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter counter(MeterRegistry registry, String type) {
+        return Counter.builder("carhub.sql.statements")
+                .description("SQL statements prepared by Hibernate")
+                .tag("type", type)
+                .register(registry);
+    }
+}
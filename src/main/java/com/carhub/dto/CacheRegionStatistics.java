@@ -0,0 +1,34 @@
+package com.carhub.dto;
+
+/**
+ * Hit, miss and put counts of one second-level cache region since startup.
+ */
+public class CacheRegionStatistics {
+
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+
+    public CacheRegionStatistics(String region, long hits, long misses, long puts) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+    }
+
+    public String getRegion() { return region; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getPuts() { return puts; }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return region + ": hits=" + hits + ", misses=" + misses + ", puts=" + puts;
+    }
+}
@@ -0,0 +1,39 @@
+package com.carhub.dto;
+
+import com.carhub.entity.Car;
+
+import java.time.LocalDate;
+
+public class CarFilter {
+
+    private String searchText;
+    private Car.Status status;
+    private LocalDate createdFrom;
+    private LocalDate createdTo;
+
+    public CarFilter() {}
+
+    public CarFilter(String searchText, Car.Status status, LocalDate createdFrom, LocalDate createdTo) {
+        this.searchText = searchText;
+        this.status = status;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+    }
+
+    // Getters and Setters
+    public String getSearchText() { return searchText; }
+    public void setSearchText(String searchText) { this.searchText = searchText; }
+
+    public Car.Status getStatus() { return status; }
+    public void setStatus(Car.Status status) { this.status = status; }
+
+    public LocalDate getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(LocalDate createdFrom) { this.createdFrom = createdFrom; }
+
+    public LocalDate getCreatedTo() { return createdTo; }
+    public void setCreatedTo(LocalDate createdTo) { this.createdTo = createdTo; }
+
+    public boolean hasSearchText() {
+        return searchText != null && !searchText.trim().isEmpty();
+    }
+}
@@ -0,0 +1,51 @@
+package com.carhub.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Point-in-time view of a running or finished car import. Every data row read ends up
+ * imported, skipped as a duplicate VIN, rejected as invalid, or failed with its batch.
+ */
+public class CarImportProgress {
+
+    private final int rowsRead;
+    private final int imported;
+    private final int duplicates;
+    private final int invalid;
+    private final int failed;
+    private final long elapsedMillis;
+    private final List<String> errors;
+    private final boolean finished;
+
+    public CarImportProgress(int rowsRead, int imported, int duplicates, int invalid, int failed,
+                             long elapsedMillis, List<String> errors, boolean finished) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.invalid = invalid;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+        this.errors = errors != null ? errors : Collections.emptyList();
+        this.finished = finished;
+    }
+
+    public int getRowsRead() { return rowsRead; }
+    public int getImported() { return imported; }
+    public int getDuplicates() { return duplicates; }
+    public int getInvalid() { return invalid; }
+    public int getFailed() { return failed; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<String> getErrors() { return errors; }
+    public boolean isFinished() { return finished; }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? rowsRead * 1000.0 / elapsedMillis : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows read, %d imported, %d duplicates, %d invalid, %d failed, %.0f rows/s",
+                rowsRead, imported, duplicates, invalid, failed, getRowsPerSecond());
+    }
+}
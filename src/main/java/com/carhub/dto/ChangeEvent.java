@@ -0,0 +1,39 @@
+package com.carhub.dto;
+
+/**
+ * A car, client, sale or setting that was inserted, updated or deleted by a committed
+ * transaction, in this application or, when remote, on another workstation. RELOADED means
+ * many rows changed at once, such as after an import, and carries no id.
+ */
+public class ChangeEvent {
+
+    public enum Entity {
+        CAR, CLIENT, SALE, SETTING
+    }
+
+    public enum Type {
+        INSERTED, UPDATED, DELETED, RELOADED
+    }
+
+    private final Entity entity;
+    private final Type type;
+    private final Long id;
+    private final boolean remote;
+
+    public ChangeEvent(Entity entity, Type type, Long id, boolean remote) {
+        this.entity = entity;
+        this.type = type;
+        this.id = id;
+        this.remote = remote;
+    }
+
+    public Entity getEntity() { return entity; }
+    public Type getType() { return type; }
+    public Long getId() { return id; }
+    public boolean isRemote() { return remote; }
+
+    @Override
+    public String toString() {
+        return entity + " " + id + " " + type + (remote ? " (remote)" : "");
+    }
+}
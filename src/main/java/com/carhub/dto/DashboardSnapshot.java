@@ -0,0 +1,68 @@
+package com.carhub.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable set of figures shown on the dashboard, computed by a single query.
+ */
+public class DashboardSnapshot {
+
+    private final long totalCars;
+    private final long totalSales;
+    private final long totalClients;
+    // Rows of {year, month, revenue}, same shape as SaleRepository.getMonthlyRevenueData
+    private final List<Object[]> monthlyRevenue;
+    private final BigDecimal revenueLast6Months;
+    private final List<SaleSummary> recentSales;
+    private final List<AgingCar> agingCars;
+    private final LocalDateTime computedAt;
+
+    public DashboardSnapshot(long totalCars, long totalSales, long totalClients,
+                             List<Object[]> monthlyRevenue, List<SaleSummary> recentSales,
+                             List<AgingCar> agingCars, LocalDateTime computedAt) {
+        this.totalCars = totalCars;
+        this.totalSales = totalSales;
+        this.totalClients = totalClients;
+        this.monthlyRevenue = List.copyOf(monthlyRevenue);
+        this.recentSales = List.copyOf(recentSales);
+        this.agingCars = List.copyOf(agingCars);
+        this.computedAt = computedAt;
+        this.revenueLast6Months = monthlyRevenue.stream()
+                .map(row -> (BigDecimal) row[2])
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Getters
+    public long getTotalCars() { return totalCars; }
+    public long getTotalSales() { return totalSales; }
+    public long getTotalClients() { return totalClients; }
+    public List<Object[]> getMonthlyRevenue() { return monthlyRevenue; }
+    public BigDecimal getRevenueLast6Months() { return revenueLast6Months; }
+    public List<SaleSummary> getRecentSales() { return recentSales; }
+    public List<AgingCar> getAgingCars() { return agingCars; }
+    public LocalDateTime getComputedAt() { return computedAt; }
+
+    /**
+     * Available car that has been in stock longer than the aging threshold.
+     */
+    public static class AgingCar {
+        private final String brand;
+        private final String model;
+        private final Integer year;
+        private final Integer daysInStock;
+
+        public AgingCar(String brand, String model, Integer year, Integer daysInStock) {
+            this.brand = brand;
+            this.model = model;
+            this.year = year;
+            this.daysInStock = daysInStock;
+        }
+
+        public String getBrand() { return brand; }
+        public String getModel() { return model; }
+        public Integer getYear() { return year; }
+        public Integer getDaysInStock() { return daysInStock; }
+    }
+}
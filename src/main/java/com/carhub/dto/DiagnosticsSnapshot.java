@@ -0,0 +1,167 @@
+package com.carhub.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Point-in-time view of the connection pool, Hibernate, memory and the slowest calls, shown
+ * by the diagnostics panel and written to the snapshot reports.
+ */
+public class DiagnosticsSnapshot {
+
+    private final LocalDateTime takenAt;
+
+    // Connection pool
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int maxConnections;
+    private final int threadsAwaitingConnection;
+    private final double connectionWaitMeanMillis;
+    private final double connectionWaitMaxMillis;
+
+    // Hibernate, since startup or the last reset
+    private final long statementsPrepared;
+    private final long queriesExecuted;
+    private final long entitiesLoaded;
+    private final long collectionsFetched;
+    private final long transactions;
+    private final List<QueryTiming> slowestQueries;
+    private final List<CacheRegionStatistics> cacheRegions;
+
+    // Memory
+    private final long heapUsedBytes;
+    private final long heapCommittedBytes;
+    private final long heapMaxBytes;
+    private final long gcCount;
+    private final long gcTimeMillis;
+    private final int liveThreads;
+
+    private final List<CallTiming> slowestCalls;
+    private final EmailOutboxStatus emailStatus;
+
+    public DiagnosticsSnapshot(LocalDateTime takenAt,
+                               int activeConnections, int idleConnections, int maxConnections,
+                               int threadsAwaitingConnection, double connectionWaitMeanMillis,
+                               double connectionWaitMaxMillis,
+                               long statementsPrepared, long queriesExecuted, long entitiesLoaded,
+                               long collectionsFetched, long transactions, List<QueryTiming> slowestQueries,
+                               List<CacheRegionStatistics> cacheRegions,
+                               long heapUsedBytes, long heapCommittedBytes, long heapMaxBytes,
+                               long gcCount, long gcTimeMillis, int liveThreads,
+                               List<CallTiming> slowestCalls, EmailOutboxStatus emailStatus) {
+        this.takenAt = takenAt;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.maxConnections = maxConnections;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.connectionWaitMeanMillis = connectionWaitMeanMillis;
+        this.connectionWaitMaxMillis = connectionWaitMaxMillis;
+        this.statementsPrepared = statementsPrepared;
+        this.queriesExecuted = queriesExecuted;
+        this.entitiesLoaded = entitiesLoaded;
+        this.collectionsFetched = collectionsFetched;
+        this.transactions = transactions;
+        this.slowestQueries = List.copyOf(slowestQueries);
+        this.cacheRegions = List.copyOf(cacheRegions);
+        this.heapUsedBytes = heapUsedBytes;
+        this.heapCommittedBytes = heapCommittedBytes;
+        this.heapMaxBytes = heapMaxBytes;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.liveThreads = liveThreads;
+        this.slowestCalls = List.copyOf(slowestCalls);
+        this.emailStatus = emailStatus;
+    }
+
+    // Getters
+    public LocalDateTime getTakenAt() { return takenAt; }
+    public int getActiveConnections() { return activeConnections; }
+    public int getIdleConnections() { return idleConnections; }
+    public int getMaxConnections() { return maxConnections; }
+    public int getThreadsAwaitingConnection() { return threadsAwaitingConnection; }
+    public double getConnectionWaitMeanMillis() { return connectionWaitMeanMillis; }
+    public double getConnectionWaitMaxMillis() { return connectionWaitMaxMillis; }
+    public long getStatementsPrepared() { return statementsPrepared; }
+    public long getQueriesExecuted() { return queriesExecuted; }
+    public long getEntitiesLoaded() { return entitiesLoaded; }
+    public long getCollectionsFetched() { return collectionsFetched; }
+    public long getTransactions() { return transactions; }
+    public List<QueryTiming> getSlowestQueries() { return slowestQueries; }
+    public List<CacheRegionStatistics> getCacheRegions() { return cacheRegions; }
+    public long getHeapUsedBytes() { return heapUsedBytes; }
+    public long getHeapCommittedBytes() { return heapCommittedBytes; }
+    public long getHeapMaxBytes() { return heapMaxBytes; }
+    public long getGcCount() { return gcCount; }
+    public long getGcTimeMillis() { return gcTimeMillis; }
+    public int getLiveThreads() { return liveThreads; }
+    public List<CallTiming> getSlowestCalls() { return slowestCalls; }
+    public EmailOutboxStatus getEmailStatus() { return emailStatus; }
+
+    public double getHeapUsedRatio() {
+        return heapMaxBytes <= 0 ? 0 : (double) heapUsedBytes / heapMaxBytes;
+    }
+
+    /**
+     * Hit ratio over every second-level cache region.
+     */
+    public double getCacheHitRatio() {
+        long hits = 0;
+        long lookups = 0;
+        for (CacheRegionStatistics region : cacheRegions) {
+            hits += region.getHits();
+            lookups += region.getHits() + region.getMisses();
+        }
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Execution times of one HQL or native query, as collected by Hibernate.
+     */
+    public static class QueryTiming {
+        private final String query;
+        private final long executions;
+        private final long averageMillis;
+        private final long maxMillis;
+        private final long rows;
+
+        public QueryTiming(String query, long executions, long averageMillis, long maxMillis, long rows) {
+            this.query = query;
+            this.executions = executions;
+            this.averageMillis = averageMillis;
+            this.maxMillis = maxMillis;
+            this.rows = rows;
+        }
+
+        public String getQuery() { return query; }
+        public long getExecutions() { return executions; }
+        public long getAverageMillis() { return averageMillis; }
+        public long getMaxMillis() { return maxMillis; }
+        public long getRows() { return rows; }
+    }
+
+    /**
+     * Timings of one service method, from the metrics registry.
+     */
+    public static class CallTiming {
+        private final String name;
+        private final long calls;
+        private final double meanMillis;
+        private final double maxMillis;
+        private final double statementsPerCall;
+
+        public CallTiming(String name, long calls, double meanMillis, double maxMillis, double statementsPerCall) {
+            this.name = name;
+            this.calls = calls;
+            this.meanMillis = meanMillis;
+            this.maxMillis = maxMillis;
+            this.statementsPerCall = statementsPerCall;
+        }
+
+        public String getName() { return name; }
+        public long getCalls() { return calls; }
+        public double getMeanMillis() { return meanMillis; }
+        // Highest time in the last few minutes
+        public double getMaxMillis() { return maxMillis; }
+        public double getStatementsPerCall() { return statementsPerCall; }
+    }
+}
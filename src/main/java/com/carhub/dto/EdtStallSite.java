@@ -0,0 +1,40 @@
+package com.carhub.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Event thread stalls attributed to one line of CarHub code, the call site that was running
+ * when the stalled event thread was sampled.
+ */
+public class EdtStallSite {
+
+    private final String callSite;
+    private final long stalls;
+    private final long samples;
+    private final long totalMillis;
+    private final long longestMillis;
+    private final LocalDateTime lastSeenAt;
+    private final List<String> stackTrace;
+
+    public EdtStallSite(String callSite, long stalls, long samples, long totalMillis, long longestMillis,
+                        LocalDateTime lastSeenAt, List<String> stackTrace) {
+        this.callSite = callSite;
+        this.stalls = stalls;
+        this.samples = samples;
+        this.totalMillis = totalMillis;
+        this.longestMillis = longestMillis;
+        this.lastSeenAt = lastSeenAt;
+        this.stackTrace = List.copyOf(stackTrace);
+    }
+
+    public String getCallSite() { return callSite; }
+    public long getStalls() { return stalls; }
+    // Stack samples taken at this site, while the event thread was busy
+    public long getSamples() { return samples; }
+    public long getTotalMillis() { return totalMillis; }
+    public long getLongestMillis() { return longestMillis; }
+    public LocalDateTime getLastSeenAt() { return lastSeenAt; }
+    // Event thread stack during the longest stall at this site, innermost frame first
+    public List<String> getStackTrace() { return stackTrace; }
+}
@@ -0,0 +1,48 @@
+package com.carhub.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Responsiveness of the Swing event thread, as measured by the EDT monitor. A stall is a
+ * time the event thread took longer than the threshold to run a queued task.
+ */
+public class EdtStatus {
+
+    private final long currentLagMillis;
+    private final long thresholdMillis;
+    private final long stallCount;
+    private final long stallsLastMinute;
+    private final long longestStallMillis;
+    private final long lastStallMillis;
+    private final LocalDateTime lastStallAt;
+
+    public EdtStatus(long currentLagMillis, long thresholdMillis, long stallCount, long stallsLastMinute,
+                     long longestStallMillis, long lastStallMillis, LocalDateTime lastStallAt) {
+        this.currentLagMillis = currentLagMillis;
+        this.thresholdMillis = thresholdMillis;
+        this.stallCount = stallCount;
+        this.stallsLastMinute = stallsLastMinute;
+        this.longestStallMillis = longestStallMillis;
+        this.lastStallMillis = lastStallMillis;
+        this.lastStallAt = lastStallAt;
+    }
+
+    // Time the latest task waited, or is still waiting, for the event thread
+    public long getCurrentLagMillis() { return currentLagMillis; }
+    public long getThresholdMillis() { return thresholdMillis; }
+    public long getStallCount() { return stallCount; }
+    public long getStallsLastMinute() { return stallsLastMinute; }
+    public long getLongestStallMillis() { return longestStallMillis; }
+    public long getLastStallMillis() { return lastStallMillis; }
+    public LocalDateTime getLastStallAt() { return lastStallAt; }
+
+    public boolean isStalled() {
+        return currentLagMillis >= thresholdMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "lag=" + currentLagMillis + "ms, stalls=" + stallCount + " (" + stallsLastMinute + " last minute)"
+                + ", longest=" + longestStallMillis + "ms, last=" + lastStallMillis + "ms at " + lastStallAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.carhub.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point-in-time view of the email outbox and the local dispatcher.
+ */
+public class EmailOutboxStatus {
+
+    private final long pending;
+    private final long sending;
+    private final long sent;
+    private final long failed;
+    private final LocalDateTime lastSentAt;
+    private final String lastError;
+
+    public EmailOutboxStatus(long pending, long sending, long sent, long failed,
+                             LocalDateTime lastSentAt, String lastError) {
+        this.pending = pending;
+        this.sending = sending;
+        this.sent = sent;
+        this.failed = failed;
+        this.lastSentAt = lastSentAt;
+        this.lastError = lastError;
+    }
+
+    public long getPending() { return pending; }
+    public long getSending() { return sending; }
+    public long getSent() { return sent; }
+    public long getFailed() { return failed; }
+    public LocalDateTime getLastSentAt() { return lastSentAt; }
+    public String getLastError() { return lastError; }
+
+    @Override
+    public String toString() {
+        return "pending=" + pending + ", sending=" + sending + ", sent=" + sent + ", failed=" + failed;
+    }
+}
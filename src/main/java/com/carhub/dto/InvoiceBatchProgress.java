@@ -0,0 +1,58 @@
+package com.carhub.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Point-in-time view of a running or finished invoice batch.
+ * The output path is only set once the batch is finished and points to the
+ * folder, merged PDF or ZIP holding the invoices. A cancelled batch reports once
+ * more, with the folder holding the invoices rendered before it was cancelled.
+ */
+public class InvoiceBatchProgress {
+
+    private final int total;
+    private final int completed;
+    private final int failed;
+    private final long elapsedMillis;
+    private final List<String> errors;
+    private final String outputPath;
+    private final boolean cancelled;
+
+    public InvoiceBatchProgress(int total, int completed, int failed, long elapsedMillis,
+                                List<String> errors, String outputPath, boolean cancelled) {
+        this.total = total;
+        this.completed = completed;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+        this.errors = errors != null ? errors : Collections.emptyList();
+        this.outputPath = outputPath;
+        this.cancelled = cancelled;
+    }
+
+    public int getTotal() { return total; }
+    public int getCompleted() { return completed; }
+    public int getFailed() { return failed; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<String> getErrors() { return errors; }
+    public String getOutputPath() { return outputPath; }
+    public boolean isCancelled() { return cancelled; }
+
+    public int getProcessed() {
+        return completed + failed;
+    }
+
+    public boolean isFinished() {
+        return outputPath != null;
+    }
+
+    public double getInvoicesPerSecond() {
+        return elapsedMillis > 0 ? completed * 1000.0 / elapsedMillis : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d invoices, %d failed, %.1f invoices/s",
+                getProcessed(), total, failed, getInvoicesPerSecond());
+    }
+}
@@ -0,0 +1,67 @@
+package com.carhub.dto;
+
+import com.carhub.entity.Sale;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Selects the sales whose invoices are (re)generated by a batch job and
+ * how the resulting files are delivered.
+ */
+public class InvoiceBatchRequest {
+
+    public enum OutputMode {
+        SEPARATE_FILES, MERGED_PDF, ZIP
+    }
+
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Long clientId;
+    private Sale.PaymentStatus paymentStatus;
+    private OutputMode outputMode = OutputMode.SEPARATE_FILES;
+
+    public InvoiceBatchRequest() {}
+
+    public InvoiceBatchRequest(LocalDateTime startDate, LocalDateTime endDate, Long clientId,
+                               Sale.PaymentStatus paymentStatus, OutputMode outputMode) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.clientId = clientId;
+        this.paymentStatus = paymentStatus;
+        this.outputMode = outputMode;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+
+    public Long getClientId() { return clientId; }
+    public void setClientId(Long clientId) { this.clientId = clientId; }
+
+    public Sale.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(Sale.PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public OutputMode getOutputMode() { return outputMode; }
+    public void setOutputMode(OutputMode outputMode) { this.outputMode = outputMode; }
+
+    // Query parameter helpers
+    public List<Sale.PaymentStatus> getPaymentStatuses() {
+        if (paymentStatus == null) {
+            return Arrays.asList(Sale.PaymentStatus.values());
+        }
+        return List.of(paymentStatus);
+    }
+
+    public LocalDateTime getEffectiveStartDate() {
+        return startDate != null ? startDate : SaleFilter.MIN_DATE;
+    }
+
+    public LocalDateTime getEffectiveEndDate() {
+        return endDate != null ? endDate : SaleFilter.MAX_DATE;
+    }
+}
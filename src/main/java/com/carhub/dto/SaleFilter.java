@@ -0,0 +1,62 @@
+package com.carhub.dto;
+
+import com.carhub.entity.Sale;
+
+import java.time.LocalDateTime;
+
+public class SaleFilter {
+
+    // Bounds used by invoice batches when no date range is selected
+    public static final LocalDateTime MIN_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
+    public static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private String searchText;
+    private Sale.PaymentStatus paymentStatus;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    public SaleFilter() {}
+
+    public SaleFilter(String searchText, Sale.PaymentStatus paymentStatus,
+                      LocalDateTime startDate, LocalDateTime endDate) {
+        this.searchText = searchText;
+        this.paymentStatus = paymentStatus;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public static SaleFilter all() {
+        return new SaleFilter();
+    }
+
+    // Getters and Setters
+    public String getSearchText() { return searchText; }
+    public void setSearchText(String searchText) { this.searchText = searchText; }
+
+    public Sale.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(Sale.PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+
+    public boolean hasSearchText() {
+        return searchText != null && !searchText.trim().isEmpty();
+    }
+
+    // LIKE pattern of the search text, with backslash as the escape character; check hasSearchText() first
+    public String getSearchPattern() {
+        return "%" + escapeLike(searchText.trim().toLowerCase()) + "%";
+    }
+
+    public boolean hasDateRange() {
+        return startDate != null || endDate != null;
+    }
+
+    // Makes %, _ and \ in user input match literally
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,81 @@
+package com.carhub.dto;
+
+import com.carhub.entity.Sale;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row for sales listings, mirroring the v_sales_summary view.
+ * Filled by a single joined query so list screens never touch the lazy
+ * car/client/admin associations.
+ */
+public class SaleSummary {
+
+    private final Long id;
+    private final String invoiceNumber;
+    private final LocalDateTime saleDate;
+    private final BigDecimal salePrice;
+    private final BigDecimal totalAmount;
+    private final BigDecimal profit;
+    private final Sale.PaymentMethod paymentMethod;
+    private final Sale.PaymentStatus paymentStatus;
+    private final Integer carYear;
+    private final String carBrand;
+    private final String carModel;
+    private final String clientFirstName;
+    private final String clientLastName;
+    private final String soldBy;
+
+    public SaleSummary(Long id, String invoiceNumber, LocalDateTime saleDate,
+                       BigDecimal salePrice, BigDecimal totalAmount, BigDecimal profit,
+                       Sale.PaymentMethod paymentMethod, Sale.PaymentStatus paymentStatus,
+                       Integer carYear, String carBrand, String carModel,
+                       String clientFirstName, String clientLastName, String soldBy) {
+        this.id = id;
+        this.invoiceNumber = invoiceNumber;
+        this.saleDate = saleDate;
+        this.salePrice = salePrice;
+        this.totalAmount = totalAmount;
+        this.profit = profit;
+        this.paymentMethod = paymentMethod;
+        this.paymentStatus = paymentStatus;
+        this.carYear = carYear;
+        this.carBrand = carBrand;
+        this.carModel = carModel;
+        this.clientFirstName = clientFirstName;
+        this.clientLastName = clientLastName;
+        this.soldBy = soldBy;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getInvoiceNumber() { return invoiceNumber; }
+    public LocalDateTime getSaleDate() { return saleDate; }
+    public BigDecimal getSalePrice() { return salePrice; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public BigDecimal getProfit() { return profit; }
+    public Sale.PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public Sale.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public Integer getCarYear() { return carYear; }
+    public String getCarBrand() { return carBrand; }
+    public String getCarModel() { return carModel; }
+    public String getClientFirstName() { return clientFirstName; }
+    public String getClientLastName() { return clientLastName; }
+    public String getSoldBy() { return soldBy; }
+
+    // Same format as Car.getDisplayName()
+    public String getCarDisplayName() {
+        return carYear + " " + carBrand + " " + carModel;
+    }
+
+    // Same format as v_sales_summary.car_name
+    public String getCarName() {
+        return carBrand + " " + carModel;
+    }
+
+    // Same format as Client.getFullName()
+    public String getClientName() {
+        return clientFirstName + " " + clientLastName;
+    }
+}
@@ -1,6 +1,9 @@
 package com.carhub.entity;
 
+import com.carhub.config.CacheRegions;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -8,10 +11,18 @@ import java.util.List;
 
 @Entity
 @Table(name = "cars")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CARS)
 public class Car {
 
+    // Ids are reserved from car_seq this many at a time, so inserting many cars needs
+    // one sequence call per block and Hibernate can batch the inserts. car_seq steps by as much
+    // (complete_setup.sql), Hibernate validates it at startup
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "car_seq")
+    @SequenceGenerator(name = "car_seq", sequenceName = "car_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 50)
@@ -61,6 +72,7 @@ public class Car {
     private String description;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CAR_FEATURES)
     @CollectionTable(name = "car_features", joinColumns = @JoinColumn(name = "car_id"))
     @Column(name = "feature")
     private List<String> features = new ArrayList<>();
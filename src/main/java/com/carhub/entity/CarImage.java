@@ -24,6 +24,10 @@ public class CarImage {
     @Column(name = "image_size")
     private Long imageSize;
     
+    // SHA-256 of the file content, names the cached thumbnail; null for images added before thumbnails
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @Column(name = "is_primary")
     private Boolean isPrimary = false;
     
@@ -58,6 +62,9 @@ public class CarImage {
     public Long getImageSize() { return imageSize; }
     public void setImageSize(Long imageSize) { this.imageSize = imageSize; }
     
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    
     public Boolean getIsPrimary() { return isPrimary; }
     public void setIsPrimary(Boolean isPrimary) { this.isPrimary = isPrimary; }
     
@@ -0,0 +1,41 @@
+package com.carhub.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Last invoice number handed out for one day. Rows are only advanced through
+ * {@link com.carhub.repository.InvoiceCounterRepository#reserveBlock}, which
+ * bumps the counter atomically so every workstation gets a distinct range.
+ */
+@Entity
+@Table(name = "invoice_counters")
+public class InvoiceCounter {
+
+    @Id
+    @Column(name = "invoice_date")
+    private LocalDate invoiceDate;
+
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue = 0L;
+
+    // Constructors
+    public InvoiceCounter() {}
+
+    public InvoiceCounter(LocalDate invoiceDate, Long lastValue) {
+        this.invoiceDate = invoiceDate;
+        this.lastValue = lastValue;
+    }
+
+    // Getters and Setters
+    public LocalDate getInvoiceDate() { return invoiceDate; }
+    public void setInvoiceDate(LocalDate invoiceDate) { this.invoiceDate = invoiceDate; }
+
+    public Long getLastValue() { return lastValue; }
+    public void setLastValue(Long lastValue) { this.lastValue = lastValue; }
+
+    @Override
+    public String toString() {
+        return invoiceDate + " = " + lastValue;
+    }
+}
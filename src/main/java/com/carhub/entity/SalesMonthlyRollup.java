@@ -0,0 +1,71 @@
+package com.carhub.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales totals of one month, for one payment method and one admin. Rows are only changed
+ * through {@link com.carhub.repository.SalesMonthlyRollupRepository}, in the same transaction
+ * as the sale they account for, so monthly analytics never have to scan the sales table.
+ */
+@Entity
+@Table(name = "sales_monthly_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_sales_monthly_rollup",
+                                             columnNames = {"month_start", "payment_method", "admin_id"}))
+public class SalesMonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // First day of the month
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", nullable = false)
+    private Sale.PaymentMethod paymentMethod;
+
+    @Column(name = "admin_id", nullable = false)
+    private Long adminId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal profit = BigDecimal.ZERO;
+
+    @Column(name = "sales_count", nullable = false)
+    private Long salesCount = 0L;
+
+    // Constructors
+    public SalesMonthlyRollup() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getMonthStart() { return monthStart; }
+    public void setMonthStart(LocalDate monthStart) { this.monthStart = monthStart; }
+
+    public Sale.PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(Sale.PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public Long getAdminId() { return adminId; }
+    public void setAdminId(Long adminId) { this.adminId = adminId; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+    public BigDecimal getProfit() { return profit; }
+    public void setProfit(BigDecimal profit) { this.profit = profit; }
+
+    public Long getSalesCount() { return salesCount; }
+    public void setSalesCount(Long salesCount) { this.salesCount = salesCount; }
+
+    @Override
+    public String toString() {
+        return monthStart + " " + paymentMethod + " admin " + adminId + ": " + salesCount + " sales, " + revenue;
+    }
+}
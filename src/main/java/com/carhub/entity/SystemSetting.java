@@ -1,10 +1,15 @@
 package com.carhub.entity;
 
+import com.carhub.config.CacheRegions;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "system_settings")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.SYSTEM_SETTINGS)
 public class SystemSetting {
     
     @Id
@@ -2,10 +2,12 @@ package com.carhub.repository;
 
 import com.carhub.entity.CarImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +18,24 @@ public interface CarImageRepository extends JpaRepository<CarImage, Long> {
     
     Optional<CarImage> findByCarIdAndIsPrimaryTrue(Long carId);
     
+    // Served by the partial unique index uq_car_images_primary
+    List<CarImage> findByCarIdInAndIsPrimaryTrue(Collection<Long> carIds);
+    
     @Query("SELECT ci FROM CarImage ci WHERE ci.car.id = :carId ORDER BY ci.isPrimary DESC, ci.displayOrder ASC")
     List<CarImage> findByCarIdOrderByPrimaryAndDisplayOrder(@Param("carId") Long carId);
     
+    @Query("SELECT COALESCE(MAX(ci.displayOrder), -1) FROM CarImage ci WHERE ci.car.id = :carId")
+    int findMaxDisplayOrder(@Param("carId") Long carId);
+    
+    // Cleared before another image is made primary, uq_car_images_primary allows one per car
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CarImage ci SET ci.isPrimary = false WHERE ci.car.id = :carId AND ci.isPrimary = true")
+    int clearPrimary(@Param("carId") Long carId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CarImage ci SET ci.isPrimary = true WHERE ci.car.id = :carId AND ci.id = :imageId")
+    int markPrimary(@Param("carId") Long carId, @Param("imageId") Long imageId);
+    
     void deleteByCarId(Long carId);
     
     Long countByCarId(Long carId);
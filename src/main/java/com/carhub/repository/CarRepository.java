@@ -2,16 +2,23 @@ package com.carhub.repository;
 
 import com.carhub.entity.Car;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
 
     List<Car> findByStatus(Car.Status status);
 
@@ -40,7 +47,20 @@ public interface CarRepository extends JpaRepository<Car, Long> {
     @Query("SELECT c FROM Car c WHERE c.daysInStock > :days AND c.status = 'AVAILABLE'")
     List<Car> findCarsInStockLongerThan(@Param("days") Integer days);
 
-    Optional<Car> findByVinNumber(String vinNumber);
+    // Report rows as {id, brand, model, year, color, price, status}, read through a cursor
+    // without loading entities. Must be consumed inside a read-only transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c.id, c.brand, c.model, c.year, c.color, c.price, c.status FROM Car c ORDER BY c.id")
+    Stream<Object[]> streamInventoryRows();
 
+    @Query("SELECT c.status, COUNT(c), COALESCE(SUM(c.price), 0) FROM Car c GROUP BY c.status")
+    List<Object[]> getInventoryTotalsByStatus();
+
+    Optional<Car> findByVinNumber(String vinNumber);
+    
+    // VINs of the list that are already taken, used to skip duplicates when importing
+    @Query("SELECT c.vinNumber FROM Car c WHERE c.vinNumber IN :vinNumbers")
+    List<String> findExistingVinNumbers(@Param("vinNumbers") Collection<String> vinNumbers);
+    
     Optional<Car> findByLicensePlate(String licensePlate);
 }
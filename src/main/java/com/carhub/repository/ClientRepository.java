@@ -1,13 +1,20 @@
 package com.carhub.repository;
 
 import com.carhub.entity.Client;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
@@ -23,6 +30,75 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
            "c.phoneNumber LIKE CONCAT('%', :search, '%')")
     List<Client> findBySearchTerm(@Param("search") String search);
     
+    // Same predicate as findBySearchTerm on one lowercased expression, which idx_clients_search_trgm
+    // (pg_trgm GIN) indexes. Name prefix matches rank first, then name matches, then email and phone.
+    // The pattern is built by the caller and must be lowercase with LIKE wildcards escaped.
+    // The customer type is optional and filtered before the limit.
+    // Only a bounded set of candidates is ranked: the first name prefix matches, read in order from
+    // idx_clients_last_name_prefix and idx_clients_first_name_prefix between prefixFrom (the
+    // lowercase term) and prefixTo (the first string past it), and, only when they are fewer than
+    // the limit, the first trigram matches. A range rather than LIKE keeps the prefix indexes
+    // usable once the driver switches to a generic plan.
+    @Query(value = "WITH prefixed AS (" +
+           "  (SELECT p.id FROM clients p " +
+           "   WHERE LOWER(p.last_name) COLLATE \"C\" >= :prefixFrom AND LOWER(p.last_name) COLLATE \"C\" < :prefixTo " +
+           "   AND (CAST(:customerType AS text) IS NULL OR p.customer_type = :customerType) " +
+           "   ORDER BY LOWER(p.last_name) COLLATE \"C\", p.id LIMIT :limit) " +
+           "  UNION " +
+           "  (SELECT p.id FROM clients p " +
+           "   WHERE LOWER(p.first_name) COLLATE \"C\" >= :prefixFrom AND LOWER(p.first_name) COLLATE \"C\" < :prefixTo " +
+           "   AND (CAST(:customerType AS text) IS NULL OR p.customer_type = :customerType) " +
+           "   ORDER BY LOWER(p.first_name) COLLATE \"C\", p.id LIMIT :limit)) " +
+           "SELECT * FROM clients c WHERE c.id IN (" +
+           "  SELECT id FROM prefixed " +
+           "  UNION ALL " +
+           "  (SELECT p.id FROM clients p " +
+           "   WHERE (SELECT COUNT(*) FROM prefixed) < :limit " +
+           "   AND LOWER(p.first_name || ' ' || p.last_name || ' ' || COALESCE(p.email, '') || ' ' || p.phone_number) LIKE :pattern " +
+           "   AND LOWER(p.first_name || ' ' || p.last_name) LIKE :pattern " +
+           "   AND (CAST(:customerType AS text) IS NULL OR p.customer_type = :customerType) LIMIT :limit) " +
+           "  UNION ALL " +
+           "  (SELECT p.id FROM clients p " +
+           "   WHERE (SELECT COUNT(*) FROM prefixed) < :limit " +
+           "   AND LOWER(p.first_name || ' ' || p.last_name || ' ' || COALESCE(p.email, '') || ' ' || p.phone_number) LIKE :pattern " +
+           "   AND (CAST(:customerType AS text) IS NULL OR p.customer_type = :customerType) LIMIT :limit)) " +
+           "ORDER BY CASE " +
+           "  WHEN LOWER(c.first_name || ' ' || c.last_name) LIKE :prefix OR LOWER(c.last_name) LIKE :prefix THEN 0 " +
+           "  WHEN LOWER(c.first_name || ' ' || c.last_name) LIKE :pattern THEN 1 " +
+           "  ELSE 2 END, c.last_name, c.first_name, c.id " +
+           "LIMIT :limit", nativeQuery = true)
+    List<Client> searchRanked(@Param("pattern") String pattern,
+                              @Param("prefix") String prefix,
+                              @Param("prefixFrom") String prefixFrom,
+                              @Param("prefixTo") String prefixTo,
+                              @Param("customerType") String customerType,
+                              @Param("limit") int limit);
+    
+    // The clients among ids that match the pattern, built like searchRanked's
+    @Query(value = "SELECT * FROM clients c WHERE c.id IN (:ids) " +
+           "AND LOWER(c.first_name || ' ' || c.last_name || ' ' || COALESCE(c.email, '') || ' ' || c.phone_number) LIKE :pattern",
+           nativeQuery = true)
+    List<Client> findMatching(@Param("pattern") String pattern, @Param("ids") Collection<Long> ids);
+    
+    // Export rows as {id, first name, last name, email, phone, address, city, postal code, country,
+    // customer type, created at} in list order, read through a cursor. Both filters are optional;
+    // the pattern is built like searchRanked's and uses the same trigram index.
+    // Must be consumed inside a read-only transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "SELECT c.id, c.first_name, c.last_name, c.email, c.phone_number, c.address, c.city, " +
+           "c.postal_code, c.country, c.customer_type, c.created_at FROM clients c " +
+           "WHERE (CAST(:pattern AS text) IS NULL " +
+           "  OR LOWER(c.first_name || ' ' || c.last_name || ' ' || COALESCE(c.email, '') || ' ' || c.phone_number) LIKE :pattern) " +
+           "AND (CAST(:customerType AS text) IS NULL OR c.customer_type = :customerType) " +
+           "ORDER BY c.first_name, c.last_name, c.id", nativeQuery = true)
+    Stream<Object[]> streamExportRows(@Param("pattern") String pattern,
+                                      @Param("customerType") String customerType);
+    
+    // Text fields of the type-ahead search index, read in id order one page at a time
+    @Query("SELECT c.id, c.firstName, c.lastName, c.email, c.phoneNumber FROM Client c " +
+           "WHERE c.id > :lastId ORDER BY c.id")
+    List<Object[]> findSearchRowsAfter(@Param("lastId") Long lastId, Pageable pageable);
+    
     List<Client> findByCity(String city);
     
     List<Client> findByCustomerType(Client.CustomerType customerType);
@@ -30,6 +106,11 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     @Query("SELECT c FROM Client c ORDER BY c.firstName, c.lastName")
     List<Client> findAllOrderByName();
     
+    // The first clients by name, of one customer type when it is given
+    @Query("SELECT c FROM Client c WHERE (:customerType IS NULL OR c.customerType = :customerType) " +
+           "ORDER BY c.firstName, c.lastName, c.id")
+    List<Client> findFirstOrderByName(@Param("customerType") Client.CustomerType customerType, Pageable pageable);
+    
     @Query("SELECT c FROM Client c WHERE SIZE(c.sales) > 0 ORDER BY c.createdAt DESC")
     List<Client> findClientsWithSales();
     
@@ -0,0 +1,46 @@
+package com.carhub.repository;
+
+import com.carhub.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Claims up to batchSize due emails for this dispatcher. SKIP LOCKED lets several
+    // workstations dispatch at once without sending the same email twice, and the lease
+    // makes a claim left behind by a crashed dispatcher due again once it expires.
+    // Attempts are counted when a send fails, so a claim lost to an outage costs none.
+    @Query(value = "UPDATE email_outbox SET status = 'SENDING', next_attempt_at = :leaseUntil " +
+           "WHERE id IN (SELECT id FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+           "ORDER BY next_attempt_at, id LIMIT :batchSize FOR UPDATE SKIP LOCKED) " +
+           "RETURNING *",
+           nativeQuery = true)
+    List<EmailOutbox> claimDueEmails(@Param("now") LocalDateTime now,
+                                     @Param("leaseUntil") LocalDateTime leaseUntil,
+                                     @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :sentAt, e.lastError = null WHERE e.id = :id")
+    int markSent(@Param("id") Long id, @Param("status") EmailOutbox.Status status, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :error WHERE e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("status") EmailOutbox.Status status, @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :pending, e.attempts = 0, e.nextAttemptAt = :now WHERE e.status = :failed")
+    int requeue(@Param("failed") EmailOutbox.Status failed, @Param("pending") EmailOutbox.Status pending,
+                @Param("now") LocalDateTime now);
+
+    @Query("SELECT e.status, COUNT(e) FROM EmailOutbox e GROUP BY e.status")
+    List<Object[]> countByStatus();
+}
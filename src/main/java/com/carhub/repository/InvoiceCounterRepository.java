@@ -0,0 +1,25 @@
+package com.carhub.repository;
+
+import com.carhub.entity.InvoiceCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Repository
+public interface InvoiceCounterRepository extends JpaRepository<InvoiceCounter, LocalDate> {
+
+    // Reserves the next blockSize numbers for the day and returns the last one of the block.
+    // Runs in its own transaction so the row lock is released at once and a rolled back
+    // sale cannot hand the same range to another workstation.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO invoice_counters (invoice_date, last_value) VALUES (:day, :blockSize) " +
+           "ON CONFLICT (invoice_date) DO UPDATE SET last_value = invoice_counters.last_value + EXCLUDED.last_value " +
+           "RETURNING last_value",
+           nativeQuery = true)
+    long reserveBlock(@Param("day") LocalDate day, @Param("blockSize") int blockSize);
+}
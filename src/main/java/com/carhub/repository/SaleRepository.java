@@ -1,6 +1,8 @@
 package com.carhub.repository;
 
+import com.carhub.dto.SaleSummary;
 import com.carhub.entity.Sale;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +16,12 @@ import java.util.Optional;
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
     
+    // Constructor expression of SaleSummary rows (aliases: s sale, c car, cl client, a admin). The
+    // filtered sales list builds the same select with Criteria, in SaleService
+    String SALE_SUMMARY_SELECT = "new com.carhub.dto.SaleSummary(s.id, s.invoiceNumber, s.saleDate, " +
+            "s.salePrice, s.totalAmount, s.profit, s.paymentMethod, s.paymentStatus, " +
+            "c.year, c.brand, c.model, cl.firstName, cl.lastName, a.fullName)";
+    
     Optional<Sale> findByInvoiceNumber(String invoiceNumber);
     
     List<Sale> findByPaymentStatus(Sale.PaymentStatus paymentStatus);
@@ -24,7 +32,8 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
     
     List<Sale> findByAdminId(Long adminId);
     
-    @Query("SELECT s FROM Sale s WHERE s.saleDate BETWEEN :startDate AND :endDate ORDER BY s.saleDate DESC")
+    @Query("SELECT s FROM Sale s JOIN FETCH s.car JOIN FETCH s.client JOIN FETCH s.admin " +
+           "WHERE s.saleDate BETWEEN :startDate AND :endDate ORDER BY s.saleDate DESC")
     List<Sale> findSalesBetweenDates(@Param("startDate") LocalDateTime startDate, 
                                     @Param("endDate") LocalDateTime endDate);
     
@@ -40,30 +49,61 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
     Long getSalesCountBetweenDates(@Param("startDate") LocalDateTime startDate, 
                                   @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT s FROM Sale s ORDER BY s.saleDate DESC")
+    @Query("SELECT s FROM Sale s JOIN FETCH s.car JOIN FETCH s.client JOIN FETCH s.admin ORDER BY s.saleDate DESC")
     List<Sale> findAllOrderByDateDesc();
     
-    @Query("SELECT EXTRACT(MONTH FROM s.saleDate) as month, COUNT(s) as count " +
-           "FROM Sale s WHERE EXTRACT(YEAR FROM s.saleDate) = :year " +
-           "GROUP BY EXTRACT(MONTH FROM s.saleDate) ORDER BY month")
-    List<Object[]> getMonthlySalesCount(@Param("year") int year);
-    
-    @Query("SELECT s.paymentMethod, COUNT(s) FROM Sale s GROUP BY s.paymentMethod")
-    List<Object[]> getSalesCountByPaymentMethod();
-    
-    @Query("SELECT EXTRACT(YEAR FROM s.saleDate) as year, EXTRACT(MONTH FROM s.saleDate) as month, SUM(s.salePrice) as revenue " +
-           "FROM Sale s WHERE s.saleDate >= :startDate " +
-           "GROUP BY EXTRACT(YEAR FROM s.saleDate), EXTRACT(MONTH FROM s.saleDate) " +
-           "ORDER BY year DESC, month DESC")
-    List<Object[]> getMonthlyRevenueData(@Param("startDate") LocalDateTime startDate);
-    
-    @Query("SELECT EXTRACT(YEAR FROM s.saleDate) as year, EXTRACT(MONTH FROM s.saleDate) as month, " +
-           "SUM(s.salePrice) as revenue, COUNT(s) as salesCount " +
-           "FROM Sale s WHERE s.saleDate BETWEEN :startDate AND :endDate " +
-           "GROUP BY EXTRACT(YEAR FROM s.saleDate), EXTRACT(MONTH FROM s.saleDate) " +
-           "ORDER BY year DESC, month DESC")
-    List<Object[]> getMonthlyAnalytics(@Param("startDate") LocalDateTime startDate, 
-                                     @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT s FROM Sale s JOIN FETCH s.car JOIN FETCH s.client JOIN FETCH s.admin ORDER BY s.saleDate DESC, s.id DESC")
+    List<Sale> findRecentSales(Pageable pageable);
+    
+    @Query("SELECT " + SALE_SUMMARY_SELECT + " FROM Sale s JOIN s.car c JOIN s.client cl JOIN s.admin a " +
+           "ORDER BY s.saleDate DESC, s.id DESC")
+    List<SaleSummary> findRecentSaleSummaries(Pageable pageable);
+    
+    // Everything the dashboard shows in one round-trip: counts as scalars, lists as JSON arrays
+    @Query(value = "WITH monthly AS (" +
+           "  SELECT CAST(EXTRACT(YEAR FROM month_start) AS int) AS year, CAST(EXTRACT(MONTH FROM month_start) AS int) AS month, " +
+           "         SUM(revenue) AS revenue " +
+           "  FROM sales_monthly_rollup WHERE month_start >= :revenueSince " +
+           "  GROUP BY month_start HAVING SUM(sales_count) > 0" +
+           "), recent AS (" +
+           "  SELECT s.id, s.invoice_number, s.sale_date, s.sale_price, s.total_amount, s.profit, " +
+           "         s.payment_method, s.payment_status, c.year AS car_year, c.brand, c.model, " +
+           "         cl.first_name, cl.last_name, a.full_name AS sold_by " +
+           "  FROM sales s JOIN cars c ON c.id = s.car_id JOIN clients cl ON cl.id = s.client_id " +
+           "  JOIN admins a ON a.id = s.admin_id " +
+           "  ORDER BY s.sale_date DESC, s.id DESC LIMIT :recentLimit" +
+           "), aging AS (" +
+           "  SELECT brand, model, year, days_in_stock FROM cars " +
+           "  WHERE status = 'AVAILABLE' AND days_in_stock > :agingDays " +
+           "  ORDER BY days_in_stock DESC, id LIMIT :agingLimit" +
+           ") " +
+           "SELECT (SELECT COUNT(*) FROM cars) AS total_cars, " +
+           "       (SELECT COALESCE(SUM(sales_count), 0) FROM sales_monthly_rollup) AS total_sales, " +
+           "       (SELECT COUNT(*) FROM clients) AS total_clients, " +
+           "       (SELECT CAST(COALESCE(json_agg(m ORDER BY m.year DESC, m.month DESC), '[]') AS text) FROM monthly m) AS monthly, " +
+           "       (SELECT CAST(COALESCE(json_agg(r ORDER BY r.sale_date DESC, r.id DESC), '[]') AS text) FROM recent r) AS recent, " +
+           "       (SELECT CAST(COALESCE(json_agg(g ORDER BY g.days_in_stock DESC), '[]') AS text) FROM aging g) AS aging",
+           nativeQuery = true)
+    List<Object[]> getDashboardSnapshotRow(@Param("revenueSince") LocalDateTime revenueSince,
+                                           @Param("recentLimit") int recentLimit,
+                                           @Param("agingDays") int agingDays,
+                                           @Param("agingLimit") int agingLimit);
+    
+    // Ids of the sales selected for a batch invoice run, in the order their invoices are emitted
+    @Query("SELECT s.id FROM Sale s " +
+           "WHERE s.paymentStatus IN :statuses " +
+           "AND s.saleDate BETWEEN :startDate AND :endDate " +
+           "AND (:clientId IS NULL OR s.client.id = :clientId) " +
+           "ORDER BY s.saleDate, s.id")
+    List<Long> findInvoiceBatchSaleIds(@Param("statuses") List<Sale.PaymentStatus> statuses,
+                                       @Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate,
+                                       @Param("clientId") Long clientId);
+    
+    // Loads a chunk of sales with everything an invoice prints, so rendering never lazy-loads
+    @Query("SELECT s FROM Sale s JOIN FETCH s.car JOIN FETCH s.client JOIN FETCH s.admin " +
+           "WHERE s.id IN :ids ORDER BY s.saleDate, s.id")
+    List<Sale> findWithDetailsByIdIn(@Param("ids") List<Long> ids);
     
     boolean existsByInvoiceNumber(String invoiceNumber);
 }
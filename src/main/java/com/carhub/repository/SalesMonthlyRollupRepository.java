@@ -0,0 +1,88 @@
+package com.carhub.repository;
+
+import com.carhub.entity.SalesMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesMonthlyRollupRepository extends JpaRepository<SalesMonthlyRollup, Long> {
+
+    // Adds (sign = 1) or subtracts (sign = -1) one sale, read back from the sales table, to its
+    // month, payment method and admin. Declared as a query rather than @Modifying because a
+    // native update would make Hibernate drop the whole second-level cache on every sale.
+    @Query(value = "INSERT INTO sales_monthly_rollup (month_start, payment_method, admin_id, revenue, profit, sales_count) " +
+           "SELECT CAST(date_trunc('month', s.sale_date) AS date), s.payment_method, s.admin_id, " +
+           "       :sign * s.sale_price, :sign * COALESCE(s.profit, 0), :sign " +
+           "FROM sales s WHERE s.id = :saleId " +
+           "ON CONFLICT (month_start, payment_method, admin_id) DO UPDATE SET " +
+           "revenue = sales_monthly_rollup.revenue + EXCLUDED.revenue, " +
+           "profit = sales_monthly_rollup.profit + EXCLUDED.profit, " +
+           "sales_count = sales_monthly_rollup.sales_count + EXCLUDED.sales_count " +
+           "RETURNING sales_count",
+           nativeQuery = true)
+    List<Long> applySale(@Param("saleId") Long saleId, @Param("sign") int sign);
+
+    // Keeps sales from being added or removed by other transactions while the table is rebuilt;
+    // they wait and apply their change to the rebuilt rows
+    @Modifying
+    @Query(value = "LOCK TABLE sales_monthly_rollup IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM sales_monthly_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO sales_monthly_rollup (month_start, payment_method, admin_id, revenue, profit, sales_count) " +
+           "SELECT CAST(date_trunc('month', sale_date) AS date), payment_method, admin_id, " +
+           "       SUM(sale_price), SUM(COALESCE(profit, 0)), COUNT(*) " +
+           "FROM sales GROUP BY 1, 2, 3",
+           nativeQuery = true)
+    int insertFromSales();
+
+    @Query("SELECT EXTRACT(MONTH FROM r.monthStart) as month, SUM(r.salesCount) as count " +
+           "FROM SalesMonthlyRollup r WHERE r.monthStart >= :yearStart AND r.monthStart < :nextYearStart " +
+           "GROUP BY r.monthStart HAVING SUM(r.salesCount) > 0 ORDER BY r.monthStart")
+    List<Object[]> getMonthlySalesCount(@Param("yearStart") LocalDate yearStart,
+                                        @Param("nextYearStart") LocalDate nextYearStart);
+
+    @Query("SELECT r.paymentMethod, SUM(r.salesCount) FROM SalesMonthlyRollup r " +
+           "GROUP BY r.paymentMethod HAVING SUM(r.salesCount) > 0")
+    List<Object[]> getSalesCountByPaymentMethod();
+
+    @Query("SELECT EXTRACT(YEAR FROM r.monthStart) as year, EXTRACT(MONTH FROM r.monthStart) as month, SUM(r.revenue) as revenue " +
+           "FROM SalesMonthlyRollup r WHERE r.monthStart >= :startMonth " +
+           "GROUP BY r.monthStart HAVING SUM(r.salesCount) > 0 ORDER BY r.monthStart DESC")
+    List<Object[]> getMonthlyRevenueData(@Param("startMonth") LocalDate startMonth);
+
+    // Months wholly inside [fullFrom, fullTo) come from the rollup, the partial months at
+    // either end of the range are summed from the sales themselves
+    @Query(value = "SELECT CAST(EXTRACT(YEAR FROM m.month_start) AS int) AS year, " +
+           "       CAST(EXTRACT(MONTH FROM m.month_start) AS int) AS month, " +
+           "       SUM(m.revenue) AS revenue, CAST(SUM(m.sales_count) AS bigint) AS sales_count, SUM(m.profit) AS profit " +
+           "FROM (" +
+           "  SELECT month_start, revenue, profit, sales_count FROM sales_monthly_rollup " +
+           "  WHERE month_start >= :fullFrom AND month_start < :fullTo " +
+           "  UNION ALL " +
+           "  SELECT CAST(date_trunc('month', sale_date) AS date), sale_price, COALESCE(profit, 0), 1 FROM sales " +
+           "  WHERE (sale_date >= :startDate AND sale_date < :fullFrom) OR (sale_date >= :fullTo AND sale_date <= :endDate)" +
+           ") m " +
+           "GROUP BY m.month_start HAVING SUM(m.sales_count) > 0 ORDER BY m.month_start DESC",
+           nativeQuery = true)
+    List<Object[]> getMonthlyAnalytics(@Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate,
+                                       @Param("fullFrom") LocalDateTime fullFrom,
+                                       @Param("fullTo") LocalDateTime fullTo);
+
+    @Query("SELECT r.adminId, SUM(r.salesCount), SUM(r.revenue), SUM(r.profit) FROM SalesMonthlyRollup r " +
+           "WHERE r.monthStart >= :fromMonth AND r.monthStart < :toMonth " +
+           "GROUP BY r.adminId HAVING SUM(r.salesCount) > 0 ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> getTotalsByAdmin(@Param("fromMonth") LocalDate fromMonth, @Param("toMonth") LocalDate toMonth);
+}
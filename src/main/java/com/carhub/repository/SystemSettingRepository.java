@@ -1,7 +1,10 @@
 package com.carhub.repository;
 
 import com.carhub.entity.SystemSetting;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,10 +13,18 @@ import java.util.Optional;
 @Repository
 public interface SystemSettingRepository extends JpaRepository<SystemSetting, Long> {
     
+    // Settings are read far more often than written, every finder goes through the query cache
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<SystemSetting> findAll();
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<SystemSetting> findBySettingKey(String settingKey);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<SystemSetting> findByIsEditableTrue();
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<SystemSetting> findBySettingType(SystemSetting.SettingType settingType);
     
     boolean existsBySettingKey(String settingKey);
@@ -0,0 +1,72 @@
+package com.carhub.repository.spec;
+
+import com.carhub.dto.CarFilter;
+import com.carhub.entity.Car;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class CarSpecifications {
+
+    private CarSpecifications() {}
+
+    /**
+     * Builds a single WHERE clause from the filter. Status and created_at are plain
+     * comparisons so PostgreSQL can use idx_cars_status and idx_cars_created_at.
+     */
+    public static Specification<Car> matching(CarFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.hasSearchText()) {
+                String pattern = "%" + escapeLike(filter.getSearchText().trim().toLowerCase()) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("brand")), pattern, '\\'),
+                        cb.like(cb.lower(root.get("model")), pattern, '\\'),
+                        cb.like(cb.lower(root.get("color")), pattern, '\\')
+                ));
+            }
+
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+
+            if (filter.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"),
+                        filter.getCreatedFrom().atStartOfDay()));
+            }
+
+            if (filter.getCreatedTo() != null) {
+                // Half-open range so the whole "to" day is included
+                LocalDate dayAfter = filter.getCreatedTo().plusDays(1);
+                predicates.add(cb.lessThan(root.get("createdAt"), dayAfter.atStartOfDay()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Car> hasIdIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * The cars after lastCar in the newest first order of the pages. The bound on created_at
+     * alone lets PostgreSQL start the scan of idx_cars_created_at at the last car.
+     */
+    public static Specification<Car> createdBefore(Car lastCar) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("createdAt"), lastCar.getCreatedAt()),
+                cb.or(cb.lessThan(root.get("createdAt"), lastCar.getCreatedAt()),
+                        cb.lessThan(root.get("id"), lastCar.getId())));
+    }
+
+    // Makes %, _ and \ in the search text match literally, backslash being the escape character
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,84 @@
+package com.carhub.repository.spec;
+
+import com.carhub.dto.SaleFilter;
+import com.carhub.dto.SaleSummary;
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class SaleSpecifications {
+
+    private SaleSpecifications() {}
+
+    /**
+     * Builds the WHERE clause of the sales list from the filter, with a condition for each value
+     * that is set only. Without a search text the car and client are not joined, so an unfiltered
+     * count or a date range reads idx_sales_sale_date alone.
+     */
+    public static Specification<Sale> matching(SaleFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getPaymentStatus() != null) {
+                predicates.add(cb.equal(root.get("paymentStatus"), filter.getPaymentStatus()));
+            }
+
+            if (filter.getStartDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("saleDate"), filter.getStartDate()));
+            }
+
+            if (filter.getEndDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("saleDate"), filter.getEndDate()));
+            }
+
+            if (filter.hasSearchText()) {
+                String pattern = filter.getSearchPattern();
+                Join<Sale, Car> car = join(root, "car");
+                Join<Sale, Client> client = join(root, "client");
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("invoiceNumber")), pattern, '\\'),
+                        cb.like(cb.lower(cb.concat(cb.concat(cb.concat(car.get("year").as(String.class), " "),
+                                car.get("brand")), cb.concat(" ", car.get("model")))), pattern, '\\'),
+                        cb.like(cb.lower(cb.concat(cb.concat(client.get("firstName"), " "),
+                                client.get("lastName"))), pattern, '\\')
+                ));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Sale> hasIdIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * The sales after lastSale in the newest first order of the pages. The bound on sale_date
+     * alone lets PostgreSQL start the scan of idx_sales_sale_date_id at the last sale.
+     */
+    public static Specification<Sale> soldBefore(SaleSummary lastSale) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("saleDate"), lastSale.getSaleDate()),
+                cb.or(cb.lessThan(root.get("saleDate"), lastSale.getSaleDate()),
+                        cb.lessThan(root.get("id"), lastSale.getId())));
+    }
+
+    // Reuses the join of the query's select, if it has one, rather than joining the table twice
+    @SuppressWarnings("unchecked")
+    private static <T> Join<Sale, T> join(Root<Sale> root, String attribute) {
+        for (Join<Sale, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute)) {
+                return (Join<Sale, T>) join;
+            }
+        }
+        return root.join(attribute);
+    }
+}
@@ -0,0 +1,76 @@
+package com.carhub.service;
+
+import com.carhub.dto.CacheRegionStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.PluralAttribute;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statistics and eviction for the Hibernate second-level and query caches.
+ * Regions and their limits are configured in DatabaseConfig.
+ */
+@Service
+public class CacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Counts per region, sorted by region name.
+     */
+    public List<CacheRegionStatistics> getRegionStatistics() {
+        Statistics statistics = getSessionFactory().getStatistics();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+
+        List<CacheRegionStatistics> result = new ArrayList<>();
+        for (String regionName : regionNames) {
+            org.hibernate.stat.CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                result.add(new CacheRegionStatistics(regionName,
+                        region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the cached rows of one entity together with every cached query result.
+     * Use when the data may have been changed by another workstation.
+     */
+    public void evict(Class<?> entityClass) {
+        SessionFactory sessionFactory = getSessionFactory();
+        sessionFactory.getCache().evictEntityData(entityClass);
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    /**
+     * Drops one cached row and its cached collections together with every cached query result.
+     * Use when a single row was changed by another workstation.
+     */
+    public void evict(Class<?> entityClass, Object id) {
+        Cache cache = getSessionFactory().getCache();
+        cache.evictEntityData(entityClass, id);
+        for (PluralAttribute<?, ?, ?> collection : entityManagerFactory.getMetamodel().entity(entityClass).getPluralAttributes()) {
+            // Ignored for collections that are not cached
+            cache.evictCollectionData(entityClass.getName() + "." + collection.getName(), id);
+        }
+        cache.evictQueryRegions();
+    }
+
+    public void evictAll() {
+        getSessionFactory().getCache().evictAll();
+    }
+
+    private SessionFactory getSessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.carhub.service;
+
+import com.carhub.entity.Car;
+import com.carhub.entity.CarImage;
+import com.carhub.repository.CarImageRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * The photos of each car: which one is primary and in what order they are shown. Every
+ * change locks the car's row first, so concurrent uploads for one car are applied one after
+ * the other, and the partial unique index uq_car_images_primary guarantees a single primary
+ * per car. Files and thumbnails are handled by {@link CarService#storeCarImages}.
+ */
+@Service
+@Transactional
+public class CarImageService {
+
+    // Keeps the IN list of one query well below the bind parameter limit
+    private static final int CAR_IDS_PER_QUERY = 1000;
+
+    @Autowired
+    private CarImageRepository carImageRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Adds the images to the car in one transaction, after its existing ones. An image marked
+     * primary replaces the car's primary; a car without a primary gets the first new image.
+     */
+    public List<CarImage> addImages(Long carId, List<CarImage> images) {
+        Car car = lockCar(carId);
+
+        int primaryIndex = -1;
+        for (int i = 0; i < images.size() && primaryIndex < 0; i++) {
+            if (Boolean.TRUE.equals(images.get(i).getIsPrimary())) {
+                primaryIndex = i;
+            }
+        }
+        if (primaryIndex < 0 && !images.isEmpty() && carImageRepository.findByCarIdAndIsPrimaryTrue(carId).isEmpty()) {
+            primaryIndex = 0;
+        }
+        if (primaryIndex >= 0) {
+            carImageRepository.clearPrimary(carId);
+        }
+
+        int displayOrder = carImageRepository.findMaxDisplayOrder(carId);
+        for (int i = 0; i < images.size(); i++) {
+            CarImage image = images.get(i);
+            image.setCar(car);
+            image.setIsPrimary(i == primaryIndex);
+            image.setDisplayOrder(++displayOrder);
+        }
+        return carImageRepository.saveAll(images);
+    }
+
+    /**
+     * Makes the image the car's primary photo, with two bulk updates whatever the number of photos.
+     */
+    public void setPrimaryImage(Long carId, Long imageId) {
+        lockCar(carId);
+        carImageRepository.clearPrimary(carId);
+        if (carImageRepository.markPrimary(carId, imageId) == 0) {
+            throw new IllegalArgumentException("Image " + imageId + " does not belong to car " + carId);
+        }
+    }
+
+    /**
+     * Sets the display order of the car's images to the order of the ids, in one statement.
+     * Images of the car missing from the list keep their current order value.
+     */
+    public void reorderImages(Long carId, List<Long> imageIds) {
+        lockCar(carId);
+        String ids = imageIds.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+        entityManager.createNativeQuery(
+                        "UPDATE car_images ci SET display_order = o.position - 1 " +
+                        "FROM unnest(CAST(:ids AS bigint[])) WITH ORDINALITY AS o(id, position) " +
+                        "WHERE ci.id = o.id AND ci.car_id = :carId")
+                .setParameter("ids", ids)
+                .setParameter("carId", carId)
+                // Only car_images is touched; without this Hibernate empties the whole second-level cache
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(CarImage.class)
+                .executeUpdate();
+    }
+
+    @Transactional(readOnly = true)
+    public List<CarImage> getImages(Long carId) {
+        return carImageRepository.findByCarIdOrderByDisplayOrder(carId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CarImage> getPrimaryImage(Long carId) {
+        return carImageRepository.findByCarIdAndIsPrimaryTrue(carId);
+    }
+
+    /**
+     * Primary photos of the given cars, by car id, so a list of cars can show them without a
+     * query per row. Cars without photos are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, CarImage> getPrimaryImages(Collection<Long> carIds) {
+        List<Long> ids = new ArrayList<>(carIds);
+        Map<Long, CarImage> images = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += CAR_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(start, Math.min(start + CAR_IDS_PER_QUERY, ids.size()));
+            for (CarImage image : carImageRepository.findByCarIdInAndIsPrimaryTrue(chunk)) {
+                images.put(image.getCar().getId(), image);
+            }
+        }
+        return images;
+    }
+
+    private Car lockCar(Long carId) {
+        Car car = entityManager.find(Car.class, carId, LockModeType.PESSIMISTIC_WRITE);
+        if (car == null) {
+            throw new IllegalArgumentException("Car not found: " + carId);
+        }
+        return car;
+    }
+}
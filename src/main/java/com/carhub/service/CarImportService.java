@@ -0,0 +1,403 @@
+package com.carhub.service;
+
+import com.carhub.dto.CarImportProgress;
+import com.carhub.dto.ChangeEvent;
+import com.carhub.entity.Admin;
+import com.carhub.entity.Car;
+import com.carhub.util.TabularFileReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Imports cars from a CSV or XLSX file. The first row names the columns, in any order;
+ * brand, model, year and price are required, features are separated by | or ;.
+ * Rows are streamed from the file, validated, and written in batches of one transaction
+ * each, so a failing batch does not undo the ones before it. Cars whose VIN appears
+ * earlier in the file or is already in the database are skipped.
+ */
+@Service
+public class CarImportService {
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    // Cars written per transaction, and per JDBC batch
+    @Value("${car.import.batch-size:1000}")
+    private int batchSize;
+
+    private enum Column {
+        BRAND("brand", "make"),
+        MODEL("model"),
+        YEAR("year"),
+        PRICE("price"),
+        COST_PRICE("costprice", "cost"),
+        MILEAGE("mileage", "km"),
+        FUEL_TYPE("fueltype", "fuel"),
+        TRANSMISSION("transmission", "gearbox"),
+        ENGINE_SIZE("enginesize", "engine"),
+        COLOR("color", "colour"),
+        VIN_NUMBER("vinnumber", "vin"),
+        LICENSE_PLATE("licenseplate", "plate"),
+        STATUS("status"),
+        CONDITION("condition"),
+        LOCATION("location"),
+        DESCRIPTION("description"),
+        FEATURES("features");
+
+        private final String[] names;
+
+        Column(String... names) {
+            this.names = names;
+        }
+
+        private static Column forHeader(String header) {
+            String name = header.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            for (Column column : values()) {
+                if (Arrays.asList(column.names).contains(name)) {
+                    return column;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static boolean isSupported(File file) {
+        return TabularFileReader.isSupported(file);
+    }
+
+    /**
+     * Imports every row of the file and returns the final counts. Blocks until done;
+     * interrupting the calling thread stops the import, batches already written are kept.
+     */
+    public CarImportProgress importCars(File file, Admin createdBy, Consumer<CarImportProgress> progressListener)
+            throws Exception {
+        ImportRun run = new ImportRun(createdBy, progressListener);
+        try {
+            TabularFileReader.read(file, run::row);
+            run.writePending();
+        } finally {
+            // One reload of the lists for the whole import rather than one per batch
+            if (run.imported > 0) {
+                changeEventService.reloaded(ChangeEvent.Entity.CAR);
+            }
+        }
+        CarImportProgress progress = run.snapshot(true);
+        progressListener.accept(progress);
+        return progress;
+    }
+
+    /**
+     * State of one import: the column layout, the batch being filled and the counts so far.
+     */
+    private final class ImportRun {
+
+        private final Admin createdBy;
+        private final Consumer<CarImportProgress> listener;
+        private final long startNanos = System.nanoTime();
+
+        private Map<Integer, Column> columns;
+        private final Set<String> seenVins = new HashSet<>();
+        private final List<Car> pending = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int firstPendingRow;
+        private int lastPendingRow;
+
+        private int rowsRead;
+        private int imported;
+        private int duplicates;
+        private int invalid;
+        private int failed;
+        private long lastReportNanos;
+
+        private ImportRun(Admin createdBy, Consumer<CarImportProgress> listener) {
+            this.createdBy = createdBy;
+            this.listener = listener;
+        }
+
+        private void row(int rowNumber, String[] cells) throws InterruptedException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            if (isBlank(cells)) {
+                return;
+            }
+            if (columns == null) {
+                columns = readHeader(cells);
+                return;
+            }
+
+            rowsRead++;
+            Car car;
+            try {
+                car = parseCar(cells);
+            } catch (IllegalArgumentException e) {
+                invalid++;
+                addError("Row " + rowNumber + ": " + e.getMessage());
+                reportIfDue();
+                return;
+            }
+
+            if (car.getVinNumber() != null && !seenVins.add(car.getVinNumber())) {
+                duplicates++;
+            } else {
+                if (pending.isEmpty()) {
+                    firstPendingRow = rowNumber;
+                }
+                lastPendingRow = rowNumber;
+                pending.add(car);
+                if (pending.size() >= batchSize) {
+                    writePending();
+                }
+            }
+            reportIfDue();
+        }
+
+        private Map<Integer, Column> readHeader(String[] cells) {
+            Map<Integer, Column> header = new HashMap<>();
+            for (int i = 0; i < cells.length; i++) {
+                Column column = Column.forHeader(cells[i]);
+                if (column != null) {
+                    header.putIfAbsent(i, column);
+                }
+            }
+            for (Column required : new Column[]{Column.BRAND, Column.MODEL, Column.YEAR, Column.PRICE}) {
+                if (!header.containsValue(required)) {
+                    throw new IllegalArgumentException("Missing column: " + required.names[0]);
+                }
+            }
+            return header;
+        }
+
+        private Car parseCar(String[] cells) {
+            Car car = new Car();
+            car.setCreatedBy(createdBy);
+            car.setStatus(Car.Status.AVAILABLE);
+
+            for (Map.Entry<Integer, Column> entry : columns.entrySet()) {
+                String value = entry.getKey() < cells.length ? cells[entry.getKey()].trim() : "";
+                if (value.isEmpty()) {
+                    continue;
+                }
+                switch (entry.getValue()) {
+                    case BRAND:
+                        car.setBrand(text(value, 50, "Brand"));
+                        break;
+                    case MODEL:
+                        car.setModel(text(value, 50, "Model"));
+                        break;
+                    case YEAR:
+                        car.setYear(parseYear(value));
+                        break;
+                    case PRICE:
+                        car.setPrice(amount(value, "Price"));
+                        break;
+                    case COST_PRICE:
+                        car.setCostPrice(amount(value, "Cost price"));
+                        break;
+                    case MILEAGE:
+                        car.setMileage(mileage(value));
+                        break;
+                    case FUEL_TYPE:
+                        car.setFuelType(enumValue(Car.FuelType.class, value, "Fuel type"));
+                        break;
+                    case TRANSMISSION:
+                        car.setTransmission(enumValue(Car.Transmission.class, value, "Transmission"));
+                        break;
+                    case ENGINE_SIZE:
+                        car.setEngineSize(text(value, 10, "Engine size"));
+                        break;
+                    case COLOR:
+                        car.setColor(text(value, 30, "Color"));
+                        break;
+                    case VIN_NUMBER:
+                        car.setVinNumber(text(value.toUpperCase(Locale.ROOT), 17, "VIN"));
+                        break;
+                    case LICENSE_PLATE:
+                        car.setLicensePlate(text(value, 15, "License plate"));
+                        break;
+                    case STATUS:
+                        car.setStatus(enumValue(Car.Status.class, value, "Status"));
+                        break;
+                    case CONDITION:
+                        car.setCondition(enumValue(Car.Condition.class, value, "Condition"));
+                        break;
+                    case LOCATION:
+                        car.setLocation(text(value, 100, "Location"));
+                        break;
+                    case DESCRIPTION:
+                        car.setDescription(value);
+                        break;
+                    case FEATURES:
+                        car.setFeatures(features(value));
+                        break;
+                }
+            }
+
+            if (car.getBrand() == null) {
+                throw new IllegalArgumentException("Brand is required");
+            }
+            if (car.getModel() == null) {
+                throw new IllegalArgumentException("Model is required");
+            }
+            if (car.getYear() == null) {
+                throw new IllegalArgumentException("Year is required");
+            }
+            if (car.getPrice() == null) {
+                throw new IllegalArgumentException("Price is required");
+            }
+            return car;
+        }
+
+        // Writes the pending batch in its own transaction
+        private void writePending() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Car> batch = new ArrayList<>(pending);
+            pending.clear();
+
+            try {
+                List<String> vins = new ArrayList<>();
+                for (Car car : batch) {
+                    if (car.getVinNumber() != null) {
+                        vins.add(car.getVinNumber());
+                    }
+                }
+                if (!vins.isEmpty()) {
+                    Set<String> existing = new HashSet<>(carService.findExistingVinNumbers(vins));
+                    if (!existing.isEmpty()) {
+                        batch.removeIf(car -> existing.contains(car.getVinNumber()));
+                        duplicates += existing.size();
+                    }
+                }
+
+                carService.importCars(batch, batchSize);
+                imported += batch.size();
+            } catch (Exception e) {
+                System.err.println("Failed to import cars of rows " + firstPendingRow + "-" + lastPendingRow
+                        + ": " + e.getMessage());
+                failed += batch.size();
+                addError("Rows " + firstPendingRow + "-" + lastPendingRow + ": " + e.getMessage());
+            }
+        }
+
+        private void addError(String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        private void reportIfDue() {
+            long now = System.nanoTime();
+            if (now - lastReportNanos >= PROGRESS_INTERVAL_NANOS) {
+                lastReportNanos = now;
+                listener.accept(snapshot(false));
+            }
+        }
+
+        private CarImportProgress snapshot(boolean finished) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            return new CarImportProgress(rowsRead, imported, duplicates, invalid, failed, elapsedMillis,
+                    new ArrayList<>(errors), finished);
+        }
+    }
+
+    private static boolean isBlank(String[] cells) {
+        for (String cell : cells) {
+            if (cell != null && !cell.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String text(String value, int maxLength, String field) {
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static Integer parseYear(String value) {
+        int year = integer(value, "Year");
+        if (year < 1900 || year > Year.now().getValue() + 1) {
+            throw new IllegalArgumentException("Year " + year + " is out of range");
+        }
+        return year;
+    }
+
+    private static Integer mileage(String value) {
+        int mileage = integer(value, "Mileage");
+        if (mileage < 0) {
+            throw new IllegalArgumentException("Mileage cannot be negative");
+        }
+        return mileage;
+    }
+
+    private static int integer(String value, String field) {
+        try {
+            return new BigDecimal(value.replace(" ", "")).intValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + value);
+        }
+    }
+
+    private static BigDecimal amount(String value, String field) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value.replace(" ", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+        if (amount.signum() < 0) {
+            throw new IllegalArgumentException(field + " cannot be negative");
+        }
+        if (amount.scale() > 2 || amount.precision() - amount.scale() > 10) {
+            throw new IllegalArgumentException(field + " is out of range: " + value);
+        }
+        return amount;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String value, String field) {
+        String name = value.trim().toUpperCase(Locale.ROOT).replaceAll("[\\s-]+", "_");
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(field + " must be one of " + Arrays.toString(type.getEnumConstants())
+                    + ": " + value);
+        }
+    }
+
+    private static List<String> features(String value) {
+        // Kept distinct, car_features allows each feature once per car
+        Set<String> features = new LinkedHashSet<>();
+        for (String feature : value.split("[|;]")) {
+            if (!feature.isBlank()) {
+                features.add(text(feature.trim(), 255, "Feature"));
+            }
+        }
+        return new ArrayList<>(features);
+    }
+}
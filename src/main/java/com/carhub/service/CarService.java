@@ -1,18 +1,40 @@
 package com.carhub.service;
 
+import com.carhub.dto.CarFilter;
+import com.carhub.dto.ChangeEvent;
 import com.carhub.entity.Car;
 import com.carhub.entity.CarImage;
 import com.carhub.repository.CarRepository;
-import com.carhub.repository.CarImageRepository;
+import com.carhub.repository.spec.CarSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.File;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -22,15 +44,64 @@ public class CarService {
     private CarRepository carRepository;
 
     @Autowired
-    private CarImageRepository carImageRepository;
+    private CarImageService carImageService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Value("${file.upload.directory:./uploads/cars}")
+    private String uploadDirectory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public Car saveCar(Car car) {
-        if (car.getId() == null) {
+        boolean isNew = car.getId() == null;
+        if (isNew) {
             car.setCreatedAt(LocalDateTime.now());
         }
         car.setUpdatedAt(LocalDateTime.now());
         updateDaysInStock(car);
-        return carRepository.save(car);
+        dashboardService.invalidate();
+        Car savedCar = carRepository.save(car);
+        if (isNew) {
+            changeEventService.inserted(ChangeEvent.Entity.CAR, savedCar.getId());
+        } else {
+            changeEventService.updated(ChangeEvent.Entity.CAR, savedCar.getId());
+        }
+        return savedCar;
+    }
+
+    /**
+     * Inserts new cars in one transaction, as JDBC batches of the given size. Used by the
+     * importer, which has already validated the cars and removed duplicate VINs.
+     */
+    public void importCars(List<Car> cars, int batchSize) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        // Imported cars are not read back right away, no point filling the second-level cache with them
+        session.setCacheMode(CacheMode.IGNORE);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Car car : cars) {
+            car.setCreatedAt(now);
+            car.setUpdatedAt(now);
+            car.setDaysInStock(0);
+            entityManager.persist(car);
+        }
+        entityManager.flush();
+        dashboardService.invalidate();
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> findExistingVinNumbers(Collection<String> vinNumbers) {
+        return carRepository.findExistingVinNumbers(vinNumbers);
     }
 
     public Optional<Car> findById(Long id) {
@@ -45,6 +116,23 @@ public class CarService {
         return carRepository.findAll();
     }
 
+    /**
+     * Streams inventory report rows as {id, brand, model, year, color, price, status}.
+     * The caller must consume and close the stream inside its own read-only transaction.
+     */
+    @Transactional(readOnly = true)
+    public Stream<Object[]> streamInventoryRows() {
+        return carRepository.streamInventoryRows();
+    }
+
+    /**
+     * Returns {status, count, total price} for each car status.
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> getInventoryTotalsByStatus() {
+        return carRepository.getInventoryTotalsByStatus();
+    }
+
     public List<Car> findAvailableCars() {
         return carRepository.findByStatus(Car.Status.AVAILABLE);
     }
@@ -57,6 +145,63 @@ public class CarService {
         return carRepository.findByStatusAndSearch(Car.Status.AVAILABLE, searchTerm);
     }
 
+    /**
+     * Returns the next page of cars matching the filter, newest first, after the given car.
+     * Pass null as lastCar to fetch the first page.
+     */
+    @Transactional(readOnly = true)
+    public List<Car> getCarsPage(CarFilter filter, Car lastCar, int pageSize) {
+        Specification<Car> specification = CarSpecifications.matching(filter);
+        if (lastCar != null) {
+            specification = specification.and(CarSpecifications.createdBefore(lastCar));
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Car> query = cb.createQuery(Car.class);
+        Root<Car> car = query.from(Car.class);
+        query.where(specification.toPredicate(car, query, cb));
+        query.orderBy(cb.desc(car.get("createdAt")), cb.desc(car.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
+
+    /**
+     * Returns the cars among carIds that match the filter, or all of them with a null filter.
+     * Used to apply changes to a filtered list.
+     */
+    @Transactional(readOnly = true)
+    public List<Car> findMatching(CarFilter filter, List<Long> carIds) {
+        if (filter == null) {
+            return carRepository.findAllById(carIds);
+        }
+        return carRepository.findAll(CarSpecifications.matching(filter).and(CarSpecifications.hasIdIn(carIds)));
+    }
+
+    /**
+     * Streams the cars matching the filter, newest first, as export rows of {id, brand, model, year,
+     * color, VIN, license plate, mileage, fuel type, transmission, condition, price, cost price,
+     * status, days in stock, location, created at}. No entities are loaded; the caller must consume
+     * and close the stream inside its own read-only transaction.
+     */
+    @Transactional(readOnly = true)
+    public Stream<Object[]> streamExportRows(CarFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Car> car = query.from(Car.class);
+        query.multiselect(car.get("id"), car.get("brand"), car.get("model"), car.get("year"), car.get("color"),
+                car.get("vinNumber"), car.get("licensePlate"), car.get("mileage"), car.get("fuelType"),
+                car.get("transmission"), car.get("condition"), car.get("price"), car.get("costPrice"),
+                car.get("status"), car.get("daysInStock"), car.get("location"), car.get("createdAt"));
+        // Same WHERE clause as getCarsPage(), so the export matches the filtered list
+        query.where(CarSpecifications.matching(filter).toPredicate(car, query, cb));
+        query.orderBy(cb.desc(car.get("createdAt")), cb.desc(car.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                .getResultStream();
+    }
+
     public List<Car> findCarsByBrand(String brand) {
         return carRepository.findByBrandContainingIgnoreCase(brand);
     }
@@ -72,11 +217,15 @@ public class CarService {
             car.setStatus(Car.Status.SOLD);
             car.setSoldAt(LocalDateTime.now());
             carRepository.save(car);
+            dashboardService.invalidate();
+            changeEventService.updated(ChangeEvent.Entity.CAR, carId);
         }
     }
 
     public void deleteCar(Long carId) {
         carRepository.deleteById(carId);
+        dashboardService.invalidate();
+        changeEventService.deleted(ChangeEvent.Entity.CAR, carId);
     }
 
     public Long getAvailableCarCount() {
@@ -110,31 +259,56 @@ public class CarService {
         }
     }
 
+    /**
+     * Adds an image already in place on disk to the car, making its thumbnail first.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void addCarImage(Long carId, String imagePath, String imageName, boolean isPrimary) {
-        Optional<Car> carOpt = carRepository.findById(carId);
-        if (carOpt.isPresent()) {
-            Car car = carOpt.get();
+        CarImage carImage = prepareCarImage(Paths.get(imagePath), imageName);
+        carImage.setIsPrimary(isPrimary);
+        carImageService.addImages(carId, List.of(carImage));
+    }
 
-            // If this is set as primary, unset other primary images
-            if (isPrimary) {
-                List<CarImage> existingImages = carImageRepository.findByCarIdOrderByDisplayOrder(carId);
-                existingImages.forEach(img -> {
-                    img.setIsPrimary(false);
-                    carImageRepository.save(img);
-                });
-            }
+    /**
+     * Copies the photos into the upload directory, under the car's folder, makes their thumbnails
+     * and adds them to the car in one transaction. Runs outside a transaction itself, so no
+     * connection or lock is held while files are copied and decoded. If the images cannot be
+     * saved, the copies are deleted again.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CarImage> storeCarImages(Long carId, List<File> sources) throws IOException {
+        List<Path> copies = new ArrayList<>();
+        try {
+            List<CarImage> images = new ArrayList<>();
+            for (File source : sources) {
+                String name = source.getName();
+                int dot = name.lastIndexOf('.');
+                String extension = dot >= 0 ? name.substring(dot).toLowerCase() : "";
 
-            CarImage carImage = new CarImage(car, imagePath, imageName);
-            carImage.setIsPrimary(isPrimary);
-            carImageRepository.save(carImage);
+                Path target = Paths.get(uploadDirectory, String.valueOf(carId), UUID.randomUUID() + extension);
+                Files.createDirectories(target.getParent());
+                Files.copy(source.toPath(), target);
+                copies.add(target);
+                images.add(prepareCarImage(target, name.length() > 100 ? name.substring(0, 100) : name));
+            }
+            return carImageService.addImages(carId, images);
+        } catch (IOException | RuntimeException e) {
+            for (Path copy : copies) {
+                Files.deleteIfExists(copy);
+            }
+            throw e;
         }
     }
 
-    public List<CarImage> getCarImages(Long carId) {
-        return carImageRepository.findByCarIdOrderByPrimaryAndDisplayOrder(carId);
-    }
-
-    public Optional<CarImage> getPrimaryCarImage(Long carId) {
-        return carImageRepository.findByCarIdAndIsPrimaryTrue(carId);
+    // The thumbnail is made now, so lists showing the photo never decode the full image
+    private CarImage prepareCarImage(Path path, String imageName) {
+        CarImage carImage = new CarImage(null, path.toString(), imageName);
+        try {
+            carImage.setImageSize(Files.size(path));
+            carImage.setContentHash(thumbnailService.createThumbnail(path));
+        } catch (IOException e) {
+            System.err.println("No thumbnail for " + path + ": " + e.getMessage());
+        }
+        return carImage;
     }
 }
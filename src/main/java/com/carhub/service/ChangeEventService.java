@@ -0,0 +1,252 @@
+package com.carhub.service;
+
+import com.carhub.dto.ChangeEvent;
+import com.carhub.entity.Car;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tells the panels which cars, clients and sales changed, so they can update those rows
+ * instead of reloading their lists, and the settings service which settings changed.
+ * Services publish each change; listeners are called once the transaction has committed,
+ * on the committing thread.
+ * <p>
+ * With change.notify.enabled, every change is also sent through PostgreSQL NOTIFY as part
+ * of its transaction, and a background thread LISTENs for the changes of other workstations.
+ * Those are applied to the caches and the search indexes, then passed to the listeners as
+ * remote events.
+ */
+@Service
+public class ChangeEventService implements InitializingBean, DisposableBean {
+
+    private static final String CHANNEL = "carhub_changes";
+    private static final int POLL_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${change.notify.enabled:false}")
+    private boolean notifyEnabled;
+
+    @Value("${spring.datasource.url}")
+    private String jdbcUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    // Identifies our own notifications, which were already delivered locally
+    private final String instanceId = UUID.randomUUID().toString();
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean stopped;
+    private Thread listenerThread;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!notifyEnabled) {
+            return;
+        }
+        listenerThread = new Thread(this::listen, "carhub-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void destroy() {
+        stopped = true;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    public void addListener(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<ChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    public void inserted(ChangeEvent.Entity entity, Long id) {
+        publish(entity, ChangeEvent.Type.INSERTED, id);
+    }
+
+    public void updated(ChangeEvent.Entity entity, Long id) {
+        publish(entity, ChangeEvent.Type.UPDATED, id);
+    }
+
+    public void deleted(ChangeEvent.Entity entity, Long id) {
+        publish(entity, ChangeEvent.Type.DELETED, id);
+    }
+
+    /**
+     * Many rows of the entity changed at once; listeners reload instead of applying rows.
+     */
+    public void reloaded(ChangeEvent.Entity entity) {
+        publish(entity, ChangeEvent.Type.RELOADED, null);
+    }
+
+    private void publish(ChangeEvent.Entity entity, ChangeEvent.Type type, Long id) {
+        ChangeEvent event = new ChangeEvent(entity, type, id, false);
+        String payload = instanceId + " " + entity + " " + type + " " + (id != null ? id : "-");
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (notifyEnabled) {
+                notifyNow(payload);
+            }
+            dispatch(event);
+            return;
+        }
+
+        if (notifyEnabled) {
+            // Delivered by PostgreSQL when, and only if, the transaction commits
+            entityManager.createNativeQuery("SELECT CAST(pg_notify(:channel, :payload) AS text)")
+                    .setParameter("channel", CHANNEL)
+                    .setParameter("payload", payload)
+                    .getSingleResult();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(event);
+            }
+        });
+    }
+
+    // For changes published after their transactions, such as the batches of an import
+    private void notifyNow(String payload) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, CHANNEL);
+            statement.setString(2, payload);
+            statement.execute();
+            connection.commit();
+        } catch (SQLException e) {
+            System.err.println("Failed to send change notification: " + e.getMessage());
+        }
+    }
+
+    private void dispatch(ChangeEvent event) {
+        for (Consumer<ChangeEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                System.err.println("Change listener failed for " + event + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Runs on the listener thread only. A dedicated connection, outside the pool, stays
+    // open for as long as the application runs.
+    private void listen() {
+        boolean reconnecting = false;
+        while (!stopped) {
+            Properties properties = new Properties();
+            properties.setProperty("user", username);
+            properties.setProperty("password", password);
+            properties.setProperty("ApplicationName", "CarHub-Desktop-Listener");
+
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, properties)) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    // Changes made while disconnected were missed, every list is read again
+                    for (ChangeEvent.Entity entity : ChangeEvent.Entity.values()) {
+                        received(new ChangeEvent(entity, ChangeEvent.Type.RELOADED, null, true));
+                    }
+                    reconnecting = false;
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (!stopped) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            ChangeEvent event = parse(notification.getParameter());
+                            if (event != null) {
+                                received(event);
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (stopped) {
+                    return;
+                }
+                System.err.println("Change notifications interrupted, reconnecting: " + e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Payload is "<instance> <entity> <type> <id or ->"; our own changes are skipped
+    private ChangeEvent parse(String payload) {
+        String[] parts = payload.split(" ");
+        if (parts.length != 4 || parts[0].equals(instanceId)) {
+            return null;
+        }
+        try {
+            return new ChangeEvent(ChangeEvent.Entity.valueOf(parts[1]), ChangeEvent.Type.valueOf(parts[2]),
+                    parts[3].equals("-") ? null : Long.valueOf(parts[3]), true);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring change notification: " + payload);
+            return null;
+        }
+    }
+
+    private void received(ChangeEvent event) {
+        // Cached cars and query results may show the row as it was before the change
+        if (event.getEntity() == ChangeEvent.Entity.CAR) {
+            if (event.getId() != null) {
+                cacheService.evict(Car.class, event.getId());
+            } else {
+                cacheService.evict(Car.class);
+            }
+        }
+        dashboardService.invalidate();
+        searchIndexService.applyRemoteChange(event);
+        dispatch(event);
+    }
+}
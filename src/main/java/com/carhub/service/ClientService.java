@@ -1,14 +1,18 @@
 package com.carhub.service;
 
+import com.carhub.dto.ChangeEvent;
 import com.carhub.entity.Client;
 import com.carhub.repository.ClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -17,12 +21,33 @@ public class ClientService {
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    @Value("${client.search.limit:200}")
+    private int searchLimit;
+
     public Client saveClient(Client client) {
-        if (client.getId() == null) {
+        boolean isNew = client.getId() == null;
+        if (isNew) {
             client.setCreatedAt(LocalDateTime.now());
         }
         client.setUpdatedAt(LocalDateTime.now());
-        return clientRepository.save(client);
+        dashboardService.invalidate();
+        Client savedClient = clientRepository.save(client);
+        searchIndexService.clientSaved(savedClient);
+        if (isNew) {
+            changeEventService.inserted(ChangeEvent.Entity.CLIENT, savedClient.getId());
+        } else {
+            changeEventService.updated(ChangeEvent.Entity.CLIENT, savedClient.getId());
+        }
+        return savedClient;
     }
 
     public Optional<Client> findById(Long id) {
@@ -37,8 +62,58 @@ public class ClientService {
         return clientRepository.findAllOrderByName();
     }
 
+    /**
+     * Returns the best matches for the term in names, email and phone number, at most
+     * client.search.limit of them. Backed by a trigram index, so it stays fast on large client bases.
+     */
+    @Transactional(readOnly = true)
     public List<Client> searchClients(String searchTerm) {
-        return clientRepository.findBySearchTerm(searchTerm);
+        return searchClients(searchTerm, null, searchLimit);
+    }
+
+    /**
+     * Like searchClients(String), keeping only clients of the customer type when it is not null.
+     * The type is filtered in the query, so matches of that type are not cut off by the limit.
+     */
+    @Transactional(readOnly = true)
+    public List<Client> searchClients(String searchTerm, Client.CustomerType customerType) {
+        return searchClients(searchTerm, customerType, searchLimit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Client> searchClients(String searchTerm, Client.CustomerType customerType, int limit) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return clientRepository.findFirstOrderByName(customerType, PageRequest.of(0, limit));
+        }
+        String term = searchTerm.trim().toLowerCase();
+        String escaped = escapeLike(term);
+        return clientRepository.searchRanked("%" + escaped + "%", escaped + "%", term, nextPrefix(term),
+                customerType != null ? customerType.name() : null, limit);
+    }
+
+    /**
+     * Returns the clients among clientIds that match the search text like searchClients does,
+     * or all of them with blank text. Used to apply changes to a searched list.
+     */
+    @Transactional(readOnly = true)
+    public List<Client> findMatching(String searchText, List<Long> clientIds) {
+        if (searchText == null || searchText.trim().isEmpty()) {
+            return clientRepository.findAllById(clientIds);
+        }
+        return clientRepository.findMatching("%" + escapeLike(searchText.trim().toLowerCase()) + "%", clientIds);
+    }
+
+    /**
+     * Streams the clients matching the search text and customer type, both optional, as export
+     * rows in list order. Unlike searchClients, every match is returned. The caller must consume
+     * and close the stream inside its own read-only transaction.
+     */
+    @Transactional(readOnly = true)
+    public Stream<Object[]> streamExportRows(String searchText, Client.CustomerType customerType) {
+        String pattern = searchText == null || searchText.trim().isEmpty()
+                ? null
+                : "%" + escapeLike(searchText.trim().toLowerCase()) + "%";
+        return clientRepository.streamExportRows(pattern, customerType != null ? customerType.name() : null);
     }
 
     public Optional<Client> findByEmail(String email) {
@@ -55,6 +130,9 @@ public class ClientService {
 
     public void deleteClient(Long clientId) {
         clientRepository.deleteById(clientId);
+        dashboardService.invalidate();
+        searchIndexService.clientDeleted(clientId);
+        changeEventService.deleted(ChangeEvent.Entity.CLIENT, clientId);
     }
 
     public boolean isEmailAvailable(String email) {
@@ -72,4 +150,16 @@ public class ClientService {
     public List<Client> findByCustomerType(Client.CustomerType customerType) {
         return clientRepository.findByCustomerType(customerType);
     }
+
+    // Makes %, _ and \ in user input match literally
+    // The first string after every string starting with prefix, in code point order (COLLATE "C")
+    private static String nextPrefix(String prefix) {
+        int last = prefix.codePointBefore(prefix.length());
+        int next = last == Character.MIN_SURROGATE - 1 ? Character.MAX_SURROGATE + 1 : last + 1;
+        return prefix.substring(0, prefix.length() - Character.charCount(last)) + Character.toString(next);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
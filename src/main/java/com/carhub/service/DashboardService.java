@@ -0,0 +1,179 @@
+package com.carhub.service;
+
+import com.carhub.dto.DashboardSnapshot;
+import com.carhub.dto.SaleSummary;
+import com.carhub.entity.Sale;
+import com.carhub.repository.SaleRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Transactional(readOnly = true)
+public class DashboardService {
+
+    private static final int RECENT_SALES_LIMIT = 10;
+    private static final int AGING_DAYS = 30;
+    private static final int AGING_CARS_LIMIT = 50;
+
+    // Amounts come back as JSON numbers, keep them exact instead of going through double
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .configure(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES, false);
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Value("${dashboard.cache.ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    private volatile CachedSnapshot cachedSnapshot;
+
+    // Incremented by every invalidation; a snapshot is only served while its load's generation is current
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the cached snapshot while it is younger than the TTL, otherwise recomputes it.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DashboardSnapshot getSnapshot() {
+        CachedSnapshot cached = cachedSnapshot;
+        long now = System.nanoTime();
+        if (cached != null && cached.generation == generation.get()
+                && now - cached.loadedAtNanos < cacheTtlSeconds * 1_000_000_000L) {
+            return cached.snapshot;
+        }
+
+        // Read before the query: a load that overlaps an invalidation is stored as already out of date
+        long loadGeneration = generation.get();
+        DashboardSnapshot snapshot = loadSnapshot();
+        cachedSnapshot = new CachedSnapshot(snapshot, now, loadGeneration);
+        return snapshot;
+    }
+
+    /**
+     * Drops the cached snapshot now and again when the current transaction commits,
+     * so a reload racing with the write cannot keep pre-commit figures.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void invalidate() {
+        expire();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    expire();
+                }
+            });
+        }
+    }
+
+    private void expire() {
+        generation.incrementAndGet();
+        cachedSnapshot = null;
+    }
+
+    private DashboardSnapshot loadSnapshot() {
+        // Compared with the first day of each month in the rollup, so it must be exactly midnight
+        LocalDateTime sixMonthsAgo = LocalDate.now().minusMonths(6).withDayOfMonth(1).atStartOfDay();
+        Object[] row = saleRepository.getDashboardSnapshotRow(sixMonthsAgo, RECENT_SALES_LIMIT,
+                AGING_DAYS, AGING_CARS_LIMIT).get(0);
+
+        try {
+            return new DashboardSnapshot(
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(),
+                    parseMonthlyRevenue((String) row[3]),
+                    parseRecentSales((String) row[4]),
+                    parseAgingCars((String) row[5]),
+                    LocalDateTime.now());
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid dashboard snapshot data", e);
+        }
+    }
+
+    private List<Object[]> parseMonthlyRevenue(String json) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(json)) {
+            rows.add(new Object[]{
+                    node.get("year").asInt(),
+                    node.get("month").asInt(),
+                    decimal(node, "revenue")
+            });
+        }
+        return rows;
+    }
+
+    private List<SaleSummary> parseRecentSales(String json) throws IOException {
+        List<SaleSummary> sales = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(json)) {
+            sales.add(new SaleSummary(
+                    node.get("id").asLong(),
+                    text(node, "invoice_number"),
+                    LocalDateTime.parse(node.get("sale_date").asText()),
+                    decimal(node, "sale_price"),
+                    decimal(node, "total_amount"),
+                    decimal(node, "profit"),
+                    Sale.PaymentMethod.valueOf(node.get("payment_method").asText()),
+                    Sale.PaymentStatus.valueOf(node.get("payment_status").asText()),
+                    node.get("car_year").asInt(),
+                    text(node, "brand"),
+                    text(node, "model"),
+                    text(node, "first_name"),
+                    text(node, "last_name"),
+                    text(node, "sold_by")));
+        }
+        return sales;
+    }
+
+    private List<DashboardSnapshot.AgingCar> parseAgingCars(String json) throws IOException {
+        List<DashboardSnapshot.AgingCar> cars = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(json)) {
+            cars.add(new DashboardSnapshot.AgingCar(
+                    text(node, "brand"),
+                    text(node, "model"),
+                    node.get("year").asInt(),
+                    node.get("days_in_stock").asInt()));
+        }
+        return cars;
+    }
+
+    private String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private BigDecimal decimal(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.decimalValue();
+    }
+
+    private static final class CachedSnapshot {
+        private final DashboardSnapshot snapshot;
+        private final long loadedAtNanos;
+        private final long generation;
+
+        private CachedSnapshot(DashboardSnapshot snapshot, long loadedAtNanos, long generation) {
+            this.snapshot = snapshot;
+            this.loadedAtNanos = loadedAtNanos;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.carhub.service;
+
+import com.carhub.dto.DiagnosticsSnapshot;
+import com.carhub.dto.EdtStallSite;
+import com.carhub.dto.EdtStatus;
+import com.carhub.dto.EmailOutboxStatus;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gathers what is needed to tell whether a slow application is waiting on the database, on
+ * the event thread or on memory: pool usage, Hibernate statistics, the slowest queries and
+ * service calls, heap and garbage collection. Snapshots and heap dumps are written to the
+ * diagnostics directory.
+ */
+@Service
+public class DiagnosticsService {
+
+    private static final int SLOWEST_LIMIT = 15;
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Value("${diagnostics.directory:./logs}")
+    private String diagnosticsDirectory;
+
+    public DiagnosticsSnapshot getSnapshot() {
+        HikariDataSource pool = unwrapPool();
+        HikariPoolMXBean poolBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        Timer connectionWait = meterRegistry.find("hikaricp.connections.acquire").timer();
+
+        Statistics statistics = getStatistics();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcTime += Math.max(0, collector.getCollectionTime());
+        }
+
+        return new DiagnosticsSnapshot(LocalDateTime.now(),
+                poolBean != null ? poolBean.getActiveConnections() : 0,
+                poolBean != null ? poolBean.getIdleConnections() : 0,
+                pool != null ? pool.getMaximumPoolSize() : 0,
+                poolBean != null ? poolBean.getThreadsAwaitingConnection() : 0,
+                connectionWait != null ? connectionWait.mean(TimeUnit.MILLISECONDS) : 0,
+                connectionWait != null ? connectionWait.max(TimeUnit.MILLISECONDS) : 0,
+                statistics.getPrepareStatementCount(),
+                statistics.getQueryExecutionCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getCollectionFetchCount(),
+                statistics.getTransactionCount(),
+                getSlowestQueries(statistics),
+                cacheService.getRegionStatistics(),
+                heap.getUsed(), heap.getCommitted(), heap.getMax(),
+                gcCount, gcTime,
+                ManagementFactory.getThreadMXBean().getThreadCount(),
+                getSlowestCalls(),
+                getEmailStatus());
+    }
+
+    /**
+     * Starts the Hibernate counters and query timings over, e.g. before reproducing a slow action.
+     */
+    public void resetStatistics() {
+        getStatistics().clear();
+    }
+
+    /**
+     * Writes the snapshot, the event thread status and stall sites and the stack of every
+     * thread to a text file and returns its path.
+     */
+    public Path writeSnapshot(EdtStatus edtStatus, List<EdtStallSite> stallSites) throws IOException {
+        DiagnosticsSnapshot snapshot = getSnapshot();
+        Path file = Paths.get(diagnosticsDirectory, "diagnostics-" + snapshot.getTakenAt().format(FILE_TIME_FORMAT) + ".txt");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, formatReport(snapshot, edtStatus, stallSites), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Writes the event thread stalls grouped by call site, each with the stack of its longest
+     * stall, to the named file in the diagnostics directory, replacing an earlier report.
+     */
+    public Path writeStallReport(String fileName, EdtStatus edtStatus, List<EdtStallSite> stallSites) throws IOException {
+        Path file = Paths.get(diagnosticsDirectory, fileName);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.println("CarHub event thread stalls " + LocalDateTime.now());
+        out.println(edtStatus);
+        out.println();
+        printStallSites(out, stallSites);
+        for (EdtStallSite site : stallSites) {
+            out.println();
+            out.printf("== %s%n", site.getCallSite());
+            out.printf("stalls=%d total=%dms longest=%dms samples=%d last=%s%n", site.getStalls(), site.getTotalMillis(),
+                    site.getLongestMillis(), site.getSamples(), site.getLastSeenAt());
+            for (String frame : site.getStackTrace()) {
+                out.println("    at " + frame);
+            }
+        }
+        out.flush();
+
+        // Written beside and moved over, so a report open in an editor is never half written
+        Path partial = file.resolveSibling(fileName + ".tmp");
+        Files.writeString(partial, text.toString(), StandardCharsets.UTF_8);
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    /**
+     * Writes a dump of the live objects on the heap, to open in a memory analyzer. Pauses
+     * the application while it is written.
+     */
+    public Path dumpHeap() throws IOException {
+        Path file = Paths.get(diagnosticsDirectory, "heap-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".hprof");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).dumpHeap(file.toAbsolutePath().toString(), true);
+        return file;
+    }
+
+    private List<DiagnosticsSnapshot.QueryTiming> getSlowestQueries(Statistics statistics) {
+        List<DiagnosticsSnapshot.QueryTiming> queries = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            if (queryStatistics.getExecutionCount() > 0) {
+                queries.add(new DiagnosticsSnapshot.QueryTiming(query.replaceAll("\\s+", " ").trim(),
+                        queryStatistics.getExecutionCount(), queryStatistics.getExecutionAvgTime(),
+                        queryStatistics.getExecutionMaxTime(), queryStatistics.getExecutionRowCount()));
+            }
+        }
+        queries.sort(Comparator.comparingLong(DiagnosticsSnapshot.QueryTiming::getAverageMillis).reversed());
+        return queries.subList(0, Math.min(SLOWEST_LIMIT, queries.size()));
+    }
+
+    // Service methods timed by ServiceTimingPostProcessor, slowest on average first
+    private List<DiagnosticsSnapshot.CallTiming> getSlowestCalls() {
+        List<DiagnosticsSnapshot.CallTiming> calls = new ArrayList<>();
+        for (Timer timer : meterRegistry.find("carhub.service.calls").tag("outcome", "success").timers()) {
+            if (timer.count() == 0) {
+                continue;
+            }
+            String className = timer.getId().getTag("class");
+            String method = timer.getId().getTag("method");
+            DistributionSummary statements = meterRegistry.find("carhub.service.sql.statements")
+                    .tag("class", className).tag("method", method).summary();
+            calls.add(new DiagnosticsSnapshot.CallTiming(className + "." + method, timer.count(),
+                    timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS),
+                    statements != null ? statements.mean() : 0));
+        }
+        calls.sort(Comparator.comparingDouble(DiagnosticsSnapshot.CallTiming::getMeanMillis).reversed());
+        return calls.subList(0, Math.min(SLOWEST_LIMIT, calls.size()));
+    }
+
+    private EmailOutboxStatus getEmailStatus() {
+        try {
+            return emailDispatcher.getStatus();
+        } catch (RuntimeException e) {
+            // The outbox lives in the database, which may be the very thing that is failing
+            System.err.println("Email outbox status unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String formatReport(DiagnosticsSnapshot snapshot, EdtStatus edtStatus, List<EdtStallSite> stallSites) {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.println("CarHub diagnostics " + snapshot.getTakenAt());
+        out.println();
+        out.println("== Connection pool");
+        out.printf("active=%d idle=%d max=%d waiting=%d wait mean=%.1fms max=%.1fms%n",
+                snapshot.getActiveConnections(), snapshot.getIdleConnections(), snapshot.getMaxConnections(),
+                snapshot.getThreadsAwaitingConnection(), snapshot.getConnectionWaitMeanMillis(),
+                snapshot.getConnectionWaitMaxMillis());
+        out.println();
+        out.println("== Event thread");
+        out.println(edtStatus != null ? edtStatus : "not monitored");
+        printStallSites(out, stallSites);
+        out.println();
+        out.println("== Memory");
+        out.printf("heap used=%dMB committed=%dMB max=%dMB gc=%d collections, %dms threads=%d%n",
+                snapshot.getHeapUsedBytes() >> 20, snapshot.getHeapCommittedBytes() >> 20, snapshot.getHeapMaxBytes() >> 20,
+                snapshot.getGcCount(), snapshot.getGcTimeMillis(), snapshot.getLiveThreads());
+        out.println();
+        out.println("== Hibernate");
+        out.printf("statements=%d queries=%d entities loaded=%d collections fetched=%d transactions=%d%n",
+                snapshot.getStatementsPrepared(), snapshot.getQueriesExecuted(), snapshot.getEntitiesLoaded(),
+                snapshot.getCollectionsFetched(), snapshot.getTransactions());
+        snapshot.getCacheRegions().forEach(region -> out.printf("cache %s ratio=%.0f%%%n", region, region.getHitRatio() * 100));
+        out.println();
+        out.println("== Slowest queries (avg ms, max ms, executions, rows)");
+        for (DiagnosticsSnapshot.QueryTiming query : snapshot.getSlowestQueries()) {
+            out.printf("%6d %6d %8d %10d  %s%n", query.getAverageMillis(), query.getMaxMillis(), query.getExecutions(),
+                    query.getRows(), query.getQuery());
+        }
+        out.println();
+        out.println("== Slowest service calls (mean ms, max ms, calls, SQL per call)");
+        for (DiagnosticsSnapshot.CallTiming call : snapshot.getSlowestCalls()) {
+            out.printf("%8.1f %8.1f %8d %6.1f  %s%n", call.getMeanMillis(), call.getMaxMillis(), call.getCalls(),
+                    call.getStatementsPerCall(), call.getName());
+        }
+        out.println();
+        out.println("== Email outbox");
+        out.println(snapshot.getEmailStatus() != null ? snapshot.getEmailStatus() : "unavailable");
+        out.println();
+        out.println("== Threads");
+        for (ThreadInfo thread : ManagementFactory.getThreadMXBean().dumpAllThreads(true, true)) {
+            out.printf("\"%s\" #%d %s%s%n", thread.getThreadName(), thread.getThreadId(), thread.getThreadState(),
+                    thread.getLockName() != null ? " on " + thread.getLockName() : "");
+            for (StackTraceElement frame : thread.getStackTrace()) {
+                out.println("    at " + frame);
+            }
+            out.println();
+        }
+        out.flush();
+        return text.toString();
+    }
+
+    private void printStallSites(PrintWriter out, List<EdtStallSite> stallSites) {
+        if (stallSites.isEmpty()) {
+            return;
+        }
+        out.println("(total ms, longest ms, stalls, call site)");
+        for (EdtStallSite site : stallSites) {
+            out.printf("%8d %8d %6d  %s%n", site.getTotalMillis(), site.getLongestMillis(), site.getStalls(),
+                    site.getCallSite());
+        }
+    }
+
+    private HikariDataSource unwrapPool() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
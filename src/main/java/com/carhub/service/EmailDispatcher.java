@@ -0,0 +1,243 @@
+package com.carhub.service;
+
+import com.carhub.dto.EmailOutboxStatus;
+import com.carhub.entity.EmailOutbox;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.mail.*;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers queued emails from the outbox on a single background thread.
+ * The mail Session is built once, and one SMTP connection is reused for as long
+ * as there are emails to send. Failed emails are retried with backoff by
+ * {@link EmailOutboxService#markFailed}; emails held up by a connection failure are
+ * postponed without using up an attempt.
+ */
+@Service
+public class EmailDispatcher implements InitializingBean, DisposableBean {
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Value("${mail.smtp.host}")
+    private String smtpHost;
+
+    @Value("${mail.smtp.port}")
+    private String smtpPort;
+
+    @Value("${mail.smtp.auth}")
+    private String smtpAuth;
+
+    @Value("${mail.smtp.starttls.enable}")
+    private String smtpStartTls;
+
+    @Value("${mail.username}")
+    private String emailUsername;
+
+    @Value("${mail.password}")
+    private String emailPassword;
+
+    @Value("${app.company.name}")
+    private String companyName;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    // Safety net for retries and for emails queued by other workstations
+    @Value("${mail.outbox.poll-seconds:30}")
+    private long pollSeconds;
+
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean(false);
+
+    private ScheduledExecutorService executor;
+    private Session session;
+    private Transport transport;
+
+    private volatile LocalDateTime lastSentAt;
+    private volatile String lastError;
+
+    @Override
+    public void afterPropertiesSet() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "carhub-mail-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::dispatchPending, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        closeTransport();
+    }
+
+    /**
+     * Asks the dispatcher thread to look at the outbox now instead of at the next poll.
+     * Calls made while a run is already queued are merged into it.
+     */
+    public void dispatchNow() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                dispatchScheduled.set(false);
+                dispatchPending();
+            });
+        }
+    }
+
+    public EmailOutboxStatus getStatus() {
+        Map<EmailOutbox.Status, Long> counts = emailOutboxService.countByStatus();
+        return new EmailOutboxStatus(
+                counts.get(EmailOutbox.Status.PENDING),
+                counts.get(EmailOutbox.Status.SENDING),
+                counts.get(EmailOutbox.Status.SENT),
+                counts.get(EmailOutbox.Status.FAILED),
+                lastSentAt,
+                lastError);
+    }
+
+    public int retryFailed() {
+        int requeued = emailOutboxService.retryFailed();
+        if (requeued > 0) {
+            dispatchNow();
+        }
+        return requeued;
+    }
+
+    // Runs on the dispatcher thread only
+    private void dispatchPending() {
+        try {
+            List<EmailOutbox> batch;
+            while (!(batch = emailOutboxService.claimDueEmails(batchSize)).isEmpty()) {
+                if (!sendBatch(batch)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // Never let an exception escape, it would cancel the periodic run
+            lastError = e.getMessage();
+            System.err.println("Email dispatch failed: " + e.getMessage());
+        } finally {
+            // The connection is only kept open while there is work
+            closeTransport();
+        }
+    }
+
+    /**
+     * Returns false when the SMTP server cannot be reached, so the remaining emails wait for their retry.
+     */
+    private boolean sendBatch(List<EmailOutbox> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox email = batch.get(i);
+            try {
+                ensureConnected();
+            } catch (MessagingException e) {
+                lastError = e.getMessage();
+                System.err.println("Could not connect to SMTP server: " + e.getMessage());
+                for (EmailOutbox remaining : batch.subList(i, batch.size())) {
+                    emailOutboxService.postpone(remaining, e.getMessage());
+                }
+                return false;
+            }
+
+            try {
+                Message message = createMessage(email);
+                transport.sendMessage(message, message.getAllRecipients());
+                emailOutboxService.markSent(email);
+                lastSentAt = LocalDateTime.now();
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                System.err.println("Failed to send email #" + email.getId() + ": " + e.getMessage());
+                boolean connectionLost = isConnectionError(e) || (transport != null && !transport.isConnected());
+                if (connectionLost) {
+                    emailOutboxService.postpone(email, e.getMessage());
+                    // A dropped connection is reopened for the next email
+                    closeTransport();
+                } else {
+                    emailOutboxService.markFailed(email, e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    // Network failures surface as a MessagingException caused by an IOException
+    private static boolean isConnectionError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureConnected() throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return;
+        }
+        if (transport == null) {
+            transport = getSession().getTransport("smtp");
+        }
+        if (Boolean.parseBoolean(smtpAuth)) {
+            transport.connect(smtpHost, Integer.parseInt(smtpPort), emailUsername, emailPassword);
+        } else {
+            transport.connect();
+        }
+    }
+
+    private void closeTransport() {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                System.err.println("Failed to close SMTP connection: " + e.getMessage());
+            }
+            transport = null;
+        }
+    }
+
+    private Session getSession() {
+        if (session == null) {
+            Properties props = new Properties();
+            props.put("mail.smtp.host", smtpHost);
+            props.put("mail.smtp.port", smtpPort);
+            props.put("mail.smtp.auth", smtpAuth);
+            props.put("mail.smtp.starttls.enable", smtpStartTls);
+            props.put("mail.smtp.connectiontimeout", "10000");
+            props.put("mail.smtp.timeout", "30000");
+
+            session = Session.getInstance(props, new Authenticator() {
+                @Override
+                protected PasswordAuthentication getPasswordAuthentication() {
+                    return new PasswordAuthentication(emailUsername, emailPassword);
+                }
+            });
+        }
+        return session;
+    }
+
+    private Message createMessage(EmailOutbox email) throws Exception {
+        Message message = new MimeMessage(getSession());
+        message.setFrom(new InternetAddress(emailUsername, companyName));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(email.getRecipient()));
+        message.setSubject(email.getSubject());
+        message.setContent(email.getBody(), "text/html; charset=utf-8");
+        message.setSentDate(new java.util.Date());
+        return message;
+    }
+}
@@ -0,0 +1,96 @@
+package com.carhub.service;
+
+import com.carhub.entity.EmailOutbox;
+import com.carhub.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Database side of email delivery: queuing in the caller's transaction, and the short
+ * transactions the dispatcher uses to claim and settle emails.
+ */
+@Service
+@Transactional
+public class EmailOutboxService {
+
+    // Retry delays double from the base up to this cap
+    private static final long MAX_RETRY_DELAY_SECONDS = 3600;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Value("${mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    // How long a claimed email stays reserved for this dispatcher
+    @Value("${mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public EmailOutbox enqueue(String recipient, String subject, String body, Long saleId) {
+        return emailOutboxRepository.save(new EmailOutbox(recipient, subject, body, saleId));
+    }
+
+    public List<EmailOutbox> claimDueEmails(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        return emailOutboxRepository.claimDueEmails(now, now.plusSeconds(leaseSeconds), batchSize);
+    }
+
+    public void markSent(EmailOutbox email) {
+        emailOutboxRepository.markSent(email.getId(), EmailOutbox.Status.SENT, LocalDateTime.now());
+    }
+
+    /**
+     * Counts a failed attempt at this email and schedules another with exponential backoff,
+     * or gives up after the last attempt.
+     */
+    public void markFailed(EmailOutbox email, String error) {
+        int attempts = (email.getAttempts() != null ? email.getAttempts() : 0) + 1;
+        if (attempts >= maxAttempts) {
+            emailOutboxRepository.reschedule(email.getId(), EmailOutbox.Status.FAILED, attempts, LocalDateTime.now(), error);
+            return;
+        }
+
+        long delay = Math.min(MAX_RETRY_DELAY_SECONDS, retryBaseSeconds << Math.min(attempts - 1, 20));
+        emailOutboxRepository.reschedule(email.getId(), EmailOutbox.Status.PENDING, attempts,
+                LocalDateTime.now().plusSeconds(delay), error);
+    }
+
+    /**
+     * Puts the email back in the queue without counting an attempt, for failures that say
+     * nothing about the email itself, such as an unreachable SMTP server.
+     */
+    public void postpone(EmailOutbox email, String error) {
+        emailOutboxRepository.reschedule(email.getId(), EmailOutbox.Status.PENDING,
+                email.getAttempts() != null ? email.getAttempts() : 0,
+                LocalDateTime.now().plusSeconds(retryBaseSeconds), error);
+    }
+
+    /**
+     * Puts every email that ran out of attempts back in the queue.
+     */
+    public int retryFailed() {
+        return emailOutboxRepository.requeue(EmailOutbox.Status.FAILED, EmailOutbox.Status.PENDING, LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public Map<EmailOutbox.Status, Long> countByStatus() {
+        Map<EmailOutbox.Status, Long> counts = new EnumMap<>(EmailOutbox.Status.class);
+        for (EmailOutbox.Status status : EmailOutbox.Status.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : emailOutboxRepository.countByStatus()) {
+            counts.put((EmailOutbox.Status) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+}
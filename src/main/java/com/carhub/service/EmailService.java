@@ -1,35 +1,23 @@
 package com.carhub.service;
 
 import com.carhub.entity.Sale;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import javax.mail.*;
-import javax.mail.internet.*;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
-import java.util.Properties;
 
 @Service
 public class EmailService {
 
-    @Value("${mail.smtp.host}")
-    private String smtpHost;
+    @Autowired
+    private EmailOutboxService emailOutboxService;
 
-    @Value("${mail.smtp.port}")
-    private String smtpPort;
-
-    @Value("${mail.smtp.auth}")
-    private String smtpAuth;
-
-    @Value("${mail.smtp.starttls.enable}")
-    private String smtpStartTls;
-
-    @Value("${mail.username}")
-    private String emailUsername;
-
-    @Value("${mail.password}")
-    private String emailPassword;
+    @Autowired
+    private EmailDispatcher emailDispatcher;
 
     @Value("${app.company.name}")
     private String companyName;
@@ -43,44 +31,37 @@ public class EmailService {
     @Value("${app.company.email}")
     private String companyEmail;
 
-    public void sendSaleConfirmationEmail(Sale sale) {
-        try {
-            if (sale.getClient().getEmail() == null || sale.getClient().getEmail().trim().isEmpty()) {
-                System.out.println("Client email is not available for sale: " + sale.getInvoiceNumber());
-                return;
-            }
+    /**
+     * Queues the confirmation in the outbox as part of the caller's transaction. It is sent
+     * by the {@link EmailDispatcher} once the sale commits, and never if the sale rolls back.
+     */
+    public void queueSaleConfirmationEmail(Sale sale) {
+        if (sale.getClient().getEmail() == null || sale.getClient().getEmail().trim().isEmpty()) {
+            System.out.println("Client email is not available for sale: " + sale.getInvoiceNumber());
+            return;
+        }
 
-            Properties props = new Properties();
-            props.put("mail.smtp.host", smtpHost);
-            props.put("mail.smtp.port", smtpPort);
-            props.put("mail.smtp.auth", smtpAuth);
-            props.put("mail.smtp.starttls.enable", smtpStartTls);
+        emailOutboxService.enqueue(sale.getClient().getEmail().trim(),
+                "Sale Confirmation - Invoice #" + sale.getInvoiceNumber(),
+                generateSaleEmailContent(sale),
+                sale.getId());
 
-            Session session = Session.getInstance(props, new Authenticator() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(emailUsername, emailPassword);
+                public void afterCommit() {
+                    emailDispatcher.dispatchNow();
                 }
             });
-
-            Message message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(emailUsername, companyName));
-            message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(sale.getClient().getEmail()));
-            message.setSubject("Sale Confirmation - Invoice #" + sale.getInvoiceNumber());
-
-            String htmlContent = generateSaleEmailContent(sale);
-            message.setContent(htmlContent, "text/html; charset=utf-8");
-
-            Transport.send(message);
-            System.out.println("Sale confirmation email sent successfully to: " + sale.getClient().getEmail());
-
-        } catch (Exception e) {
-            System.err.println("Failed to send sale confirmation email: " + e.getMessage());
-            e.printStackTrace();
+        } else {
+            emailDispatcher.dispatchNow();
         }
     }
 
-    private String generateSaleEmailContent(Sale sale) {
+    /**
+     * Builds the HTML body of the sale confirmation email.
+     */
+    public String generateSaleEmailContent(Sale sale) {
         StringBuilder content = new StringBuilder();
         
         content.append("<!DOCTYPE html>");
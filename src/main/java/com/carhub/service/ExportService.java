@@ -0,0 +1,120 @@
+package com.carhub.service;
+
+import com.carhub.dto.CarFilter;
+import com.carhub.dto.SaleFilter;
+import com.carhub.dto.SaleSummary;
+import com.carhub.entity.Client;
+import com.carhub.util.TabularFileWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Exports the sales, clients and cars lists to CSV or XLSX, chosen by the file extension.
+ * Rows are read from a database cursor and written to the file as they arrive, so memory
+ * use does not grow with the size of the export. Each export blocks until done; interrupting
+ * the calling thread stops it and deletes the partial file.
+ */
+@Service
+public class ExportService {
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final String[] SALE_HEADERS = {"Invoice", "Date", "Client", "Car", "Sale Price",
+            "Total Amount", "Profit", "Payment Method", "Payment Status", "Sold By"};
+
+    private static final String[] CLIENT_HEADERS = {"ID", "First Name", "Last Name", "Email", "Phone",
+            "Address", "City", "Postal Code", "Country", "Customer Type", "Registered"};
+
+    // Named like the importer's columns, so an exported file can be imported again
+    private static final String[] CAR_HEADERS = {"ID", "Brand", "Model", "Year", "Color", "VIN",
+            "License Plate", "Mileage", "Fuel Type", "Transmission", "Condition", "Price", "Cost Price",
+            "Status", "Days in Stock", "Location", "Added"};
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private CarService carService;
+
+    public static boolean isSupported(File file) {
+        return TabularFileWriter.isSupported(file);
+    }
+
+    /**
+     * Exports the sales matching the filter, newest first, and returns the number of rows written.
+     * The listener is called from the exporting thread with the rows written so far.
+     */
+    @Transactional(readOnly = true)
+    public long exportSales(SaleFilter filter, File file, LongConsumer progressListener) throws Exception {
+        try (Stream<SaleSummary> sales = saleService.streamSales(filter)) {
+            return write(file, SALE_HEADERS, sales.iterator(), sale -> new Object[]{
+                    sale.getInvoiceNumber(),
+                    sale.getSaleDate(),
+                    sale.getClientName(),
+                    sale.getCarDisplayName(),
+                    sale.getSalePrice(),
+                    sale.getTotalAmount(),
+                    sale.getProfit(),
+                    sale.getPaymentMethod(),
+                    sale.getPaymentStatus(),
+                    sale.getSoldBy()
+            }, progressListener);
+        }
+    }
+
+    /**
+     * Exports every client matching the search text and customer type, both optional.
+     */
+    @Transactional(readOnly = true)
+    public long exportClients(String searchText, Client.CustomerType customerType, File file,
+                              LongConsumer progressListener) throws Exception {
+        try (Stream<Object[]> clients = clientService.streamExportRows(searchText, customerType)) {
+            return write(file, CLIENT_HEADERS, clients.iterator(), Function.identity(), progressListener);
+        }
+    }
+
+    /**
+     * Exports the cars matching the filter, newest first.
+     */
+    @Transactional(readOnly = true)
+    public long exportCars(CarFilter filter, File file, LongConsumer progressListener) throws Exception {
+        try (Stream<Object[]> cars = carService.streamExportRows(filter)) {
+            return write(file, CAR_HEADERS, cars.iterator(), Function.identity(), progressListener);
+        }
+    }
+
+    private static <T> long write(File file, String[] headers, Iterator<T> rows, Function<T, Object[]> toCells,
+                                  LongConsumer progressListener) throws Exception {
+        long written = 0;
+        long lastReportNanos = System.nanoTime();
+        try (TabularFileWriter writer = TabularFileWriter.open(file, headers)) {
+            while (rows.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                writer.writeRow(toCells.apply(rows.next()));
+                written++;
+
+                long now = System.nanoTime();
+                if (now - lastReportNanos >= PROGRESS_INTERVAL_NANOS) {
+                    lastReportNanos = now;
+                    progressListener.accept(written);
+                }
+            }
+            writer.finish();
+        }
+        progressListener.accept(written);
+        return written;
+    }
+}
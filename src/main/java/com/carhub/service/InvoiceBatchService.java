@@ -0,0 +1,339 @@
+package com.carhub.service;
+
+import com.carhub.dto.InvoiceBatchProgress;
+import com.carhub.dto.InvoiceBatchRequest;
+import com.carhub.entity.Sale;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Regenerates the invoices of many sales at once. Sales are loaded in chunks
+ * and rendered on a small dedicated pool; every invoice is its own PdfDocument,
+ * so a failing sale is reported and skipped without affecting the others.
+ */
+@Service
+public class InvoiceBatchService implements InitializingBean, DisposableBean {
+
+    private static final DateTimeFormatter BATCH_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    // Path separators come from the invoice prefix setting, the rest are refused by Windows
+    private static final Pattern UNSAFE_FILE_NAME_CHARS = Pattern.compile("[\\\\/:*?\"<>|\\p{Cntrl}]");
+
+    // Progress listeners are called at most this often, plus once when the last invoice is done
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private PdfService pdfService;
+
+    @Value("${invoice.batch.threads:4}")
+    private int threads;
+
+    // Sales loaded per query; only a few chunks are ever held in memory
+    @Value("${invoice.batch.chunk-size:100}")
+    private int chunkSize;
+
+    private ExecutorService executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "carhub-invoice-" + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Renders the invoices of every sale matching the request into a new folder under
+     * outputPath, then merges or zips them if asked to. Blocks until the batch is done.
+     * Interrupting the calling thread cancels the batch: invoices still rendering are
+     * interrupted and discarded, the listener gets a last cancelled report naming the
+     * folder with the invoices already rendered, then InterruptedException is thrown.
+     */
+    public InvoiceBatchProgress generateInvoices(InvoiceBatchRequest request, String outputPath,
+                                                 Consumer<InvoiceBatchProgress> progressListener)
+            throws IOException, InterruptedException {
+        List<Long> saleIds = saleService.getInvoiceBatchSaleIds(request);
+        String batchName = "factures_" + LocalDateTime.now().format(BATCH_STAMP);
+        File batchDir = new File(outputPath, batchName);
+        if (!saleIds.isEmpty() && !batchDir.mkdirs()) {
+            throw new IOException("Cannot create folder " + batchDir);
+        }
+
+        BatchTracker tracker = new BatchTracker(saleIds.size(), progressListener);
+        // Indexed like saleIds, so merged output keeps the selection order whatever thread finishes first
+        String[] files = new String[saleIds.size()];
+        // Lower-cased, file names differing only by case collide on Windows and macOS
+        Set<String> fileNames = new HashSet<>();
+        Set<Thread> rendering = ConcurrentHashMap.newKeySet();
+
+        // Caps the invoices queued or rendering at once, the submitting thread waits for a free slot
+        int maxInFlight = threads * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try {
+            for (int from = 0; from < saleIds.size(); from += chunkSize) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                List<Long> chunkIds = saleIds.subList(from, Math.min(from + chunkSize, saleIds.size()));
+                List<Sale> chunk = saleService.findSalesWithDetails(chunkIds);
+                for (int i = 0; i < chunk.size(); i++) {
+                    Sale sale = chunk.get(i);
+                    int index = from + i;
+                    File file = new File(batchDir, invoiceFileName(sale, fileNames));
+                    inFlight.acquire();
+                    executor.execute(() -> {
+                        rendering.add(Thread.currentThread());
+                        try {
+                            if (!tracker.isCancelled()) {
+                                renderInvoice(sale, file);
+                                if (tracker.isCancelled()) {
+                                    // Finished after the cancel, the batch stops at what was done before it
+                                    Files.deleteIfExists(file.toPath());
+                                } else {
+                                    files[index] = file.getPath();
+                                    tracker.completed();
+                                }
+                            }
+                        } catch (Exception e) {
+                            if (!tracker.isCancelled()) {
+                                tracker.failed(sale, e);
+                            }
+                        } finally {
+                            rendering.remove(Thread.currentThread());
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            // All permits are back once the last invoice is rendered
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            tracker.cancel();
+            for (Thread thread : rendering) {
+                thread.interrupt();
+            }
+            // Waits for the invoices being rendered, so the folder does not change after the report
+            inFlight.acquireUninterruptibly(maxInFlight);
+            String keptIn = null;
+            String[] kept = batchDir.list();
+            if (kept != null && kept.length > 0) {
+                keptIn = batchDir.getPath();
+            } else {
+                Files.deleteIfExists(batchDir.toPath());
+            }
+            progressListener.accept(tracker.snapshot(keptIn, true));
+            throw e;
+        }
+
+        List<File> rendered = new ArrayList<>();
+        for (String file : files) {
+            if (file != null) {
+                rendered.add(new File(file));
+            }
+        }
+
+        String result = batchDir.getPath();
+        if (rendered.isEmpty()) {
+            Files.deleteIfExists(batchDir.toPath());
+            result = outputPath;
+        } else {
+            switch (request.getOutputMode()) {
+                case MERGED_PDF:
+                    File merged = new File(outputPath, batchName + ".pdf");
+                    mergeInvoices(rendered, merged);
+                    deleteBatchFolder(batchDir, rendered);
+                    result = merged.getPath();
+                    break;
+                case ZIP:
+                    File zip = new File(outputPath, batchName + ".zip");
+                    zipInvoices(rendered, zip);
+                    deleteBatchFolder(batchDir, rendered);
+                    result = zip.getPath();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        InvoiceBatchProgress progress = tracker.snapshot(result, false);
+        progressListener.accept(progress);
+        return progress;
+    }
+
+    // Called on the submitting thread only, fileNames holds the names given so far in this batch
+    private String invoiceFileName(Sale sale, Set<String> fileNames) {
+        String number = sale.getInvoiceNumber() != null ? sale.getInvoiceNumber() : "sale_" + sale.getId();
+        String baseName = "facture_" + UNSAFE_FILE_NAME_CHARS.matcher(number).replaceAll("_");
+        String fileName = baseName + ".pdf";
+        if (!fileNames.add(fileName.toLowerCase(Locale.ROOT))) {
+            fileName = baseName + "_" + sale.getId() + ".pdf";
+            fileNames.add(fileName.toLowerCase(Locale.ROOT));
+        }
+        return fileName;
+    }
+
+    private void renderInvoice(Sale sale, File file) throws Exception {
+        try {
+            pdfService.writeInvoice(sale, file.getPath());
+        } catch (Exception e) {
+            // Never leave a half-written invoice behind
+            Files.deleteIfExists(file.toPath());
+            throw e;
+        }
+    }
+
+    private void mergeInvoices(List<File> files, File target) throws IOException {
+        try (PdfDocument merged = new PdfDocument(new PdfWriter(target))) {
+            PdfMerger merger = new PdfMerger(merged);
+            for (File file : files) {
+                try (PdfDocument source = new PdfDocument(new PdfReader(file))) {
+                    merger.merge(source, 1, source.getNumberOfPages());
+                    // Writes the copied pages out now, so memory does not grow with the batch
+                    merged.flushCopiedObjects(source);
+                }
+            }
+        }
+    }
+
+    private void zipInvoices(List<File> files, File target) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(target))) {
+            for (File file : files) {
+                zip.putNextEntry(new ZipEntry(file.getName()));
+                Files.copy(file.toPath(), zip);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private void deleteBatchFolder(File batchDir, List<File> files) throws IOException {
+        for (File file : files) {
+            Files.deleteIfExists(file.toPath());
+        }
+        Files.deleteIfExists(batchDir.toPath());
+    }
+
+    /**
+     * Counts finished invoices across the worker threads and throttles progress reports.
+     */
+    private static final class BatchTracker {
+
+        private final int total;
+        private final long startNanos = System.nanoTime();
+        private final Consumer<InvoiceBatchProgress> listener;
+        private final List<String> errors = new ArrayList<>();
+
+        private int completed;
+        private int failed;
+        private long lastReportNanos;
+        private volatile boolean cancelled;
+
+        private BatchTracker(int total, Consumer<InvoiceBatchProgress> listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        private void completed() {
+            InvoiceBatchProgress progress;
+            synchronized (this) {
+                completed++;
+                progress = dueReport();
+            }
+            report(progress);
+        }
+
+        private void failed(Sale sale, Exception e) {
+            System.err.println("Failed to generate invoice for sale " + sale.getId() + ": " + e.getMessage());
+            InvoiceBatchProgress progress;
+            synchronized (this) {
+                failed++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(sale.getInvoiceNumber() + ": " + e.getMessage());
+                }
+                progress = dueReport();
+            }
+            report(progress);
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+
+        private boolean isCancelled() {
+            return cancelled;
+        }
+
+        private synchronized InvoiceBatchProgress snapshot(String outputPath, boolean cancelled) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            return new InvoiceBatchProgress(total, completed, failed, elapsedMillis,
+                    new ArrayList<>(errors), outputPath, cancelled);
+        }
+
+        // Called with the lock held
+        private InvoiceBatchProgress dueReport() {
+            long now = System.nanoTime();
+            if (now - lastReportNanos < PROGRESS_INTERVAL_NANOS && completed + failed < total) {
+                return null;
+            }
+            lastReportNanos = now;
+            return snapshot(null, false);
+        }
+
+        // Called without the lock, so a slow listener never blocks the other workers
+        private void report(InvoiceBatchProgress progress) {
+            if (progress != null && !cancelled) {
+                listener.accept(progress);
+            }
+        }
+    }
+}
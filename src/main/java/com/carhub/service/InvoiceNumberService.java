@@ -0,0 +1,53 @@
+package com.carhub.service;
+
+import com.carhub.repository.InvoiceCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hands out invoice numbers of the form PREFIX-yyyyMMdd-NNN, restarting at 1 every day.
+ * Numbers are reserved from the invoice_counters table in blocks, so most calls are
+ * served from memory and the database is only touched once per block.
+ */
+@Service
+public class InvoiceNumberService {
+
+    private static final String DEFAULT_PREFIX = "INV";
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Autowired
+    private InvoiceCounterRepository invoiceCounterRepository;
+
+    @Autowired
+    private SystemSettingService systemSettingService;
+
+    // Numbers left unused in a block (e.g. when the application closes) are skipped, never reused
+    @Value("${invoice.number.block-size:10}")
+    private int blockSize;
+
+    private LocalDate blockDate;
+    private long nextValue;
+    private long blockEnd;
+
+    public String nextInvoiceNumber() {
+        LocalDate today = LocalDate.now();
+        long value = nextValue(today);
+        String prefix = systemSettingService.getSettingValue("invoice_prefix", DEFAULT_PREFIX);
+        return String.format("%s-%s-%03d", prefix, today.format(DAY_FORMAT), value);
+    }
+
+    private synchronized long nextValue(LocalDate day) {
+        if (!day.equals(blockDate) || nextValue > blockEnd) {
+            int size = Math.max(1, blockSize);
+            long last = invoiceCounterRepository.reserveBlock(day, size);
+            blockDate = day;
+            nextValue = last - size + 1;
+            blockEnd = last;
+        }
+        return nextValue++;
+    }
+}
@@ -1,9 +1,12 @@
 package com.carhub.service;
 
+import com.carhub.dto.SaleFilter;
+import com.carhub.dto.SaleSummary;
 import com.carhub.entity.Car;
 import com.carhub.entity.Client;
 import com.carhub.entity.Sale;
 import com.carhub.util.CurrencyUtils;
+import com.carhub.util.PdfStyles;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
@@ -14,8 +17,9 @@ import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -23,7 +27,9 @@ import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class PdfService {
@@ -33,21 +39,32 @@ public class PdfService {
     private static final String COMPANY_PHONE = "+261 34 46 481 31";
     private static final String COMPANY_EMAIL = "info@carhub.com";
 
+    // Rows added to a large table between flushes; flushed rows are written to the file and released
+    private static final int ROWS_PER_FLUSH = 200;
+    private static final DateTimeFormatter REPORT_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private CarService carService;
+
     public String generateCarsInventoryReport(List<Car> cars, String outputPath) throws Exception {
         String fileName = outputPath + "/cars_inventory_" + System.currentTimeMillis() + ".pdf";
 
         PdfWriter writer = new PdfWriter(fileName);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
+        PdfStyles styles = new PdfStyles(document);
 
         // Add header
-        addReportHeader(document, "Cars Inventory Report");
+        addReportHeader(document, styles, "Cars Inventory Report");
 
         // Add summary
-        addInventorySummary(document, cars);
+        addInventorySummary(document, styles, cars);
 
         // Add cars table
-        addCarsTable(document, cars);
+        addCarsTable(document, styles, cars);
 
         // Add footer
         addReportFooter(document);
@@ -62,15 +79,16 @@ public class PdfService {
         PdfWriter writer = new PdfWriter(fileName);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
+        PdfStyles styles = new PdfStyles(document);
 
         // Add header
-        addReportHeader(document, "Sales Report");
+        addReportHeader(document, styles, "Sales Report");
 
         // Add summary
-        addSalesSummary(document, sales);
+        addSalesSummary(document, styles, sales);
 
         // Add sales table
-        addSalesTable(document, sales);
+        addSalesTable(document, styles, sales);
 
         // Add footer
         addReportFooter(document);
@@ -79,21 +97,77 @@ public class PdfService {
         return fileName;
     }
 
+    /**
+     * Streaming variant of the sales report for long histories. Rows are read from a database
+     * cursor and written to the file in flushed chunks, so memory use does not grow with the
+     * number of sales. Summary figures are computed by the database.
+     */
+    @Transactional(readOnly = true)
+    public String generateSalesReport(SaleFilter filter, String outputPath) throws Exception {
+        String fileName = outputPath + "/sales_report_" + System.currentTimeMillis() + ".pdf";
+
+        Object[] totals = saleService.getSalesTotals(filter);
+
+        try (Document document = new Document(new PdfDocument(new PdfWriter(fileName)));
+             Stream<SaleSummary> sales = saleService.streamSales(filter)) {
+            PdfStyles styles = new PdfStyles(document);
+            addReportHeader(document, styles, "Sales Report");
+            addSalesSummary(document, styles, ((Number) totals[0]).longValue(), (BigDecimal) totals[1], (BigDecimal) totals[2]);
+            addSalesTable(document, styles, sales.iterator());
+            addReportFooter(document);
+        }
+        return fileName;
+    }
+
+    /**
+     * Streaming variant of the inventory report, covering every car in the database.
+     */
+    @Transactional(readOnly = true)
+    public String generateCarsInventoryReport(String outputPath) throws Exception {
+        String fileName = outputPath + "/cars_inventory_" + System.currentTimeMillis() + ".pdf";
+
+        long totalCars = 0;
+        long availableCars = 0;
+        long soldCars = 0;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        for (Object[] row : carService.getInventoryTotalsByStatus()) {
+            long count = ((Number) row[1]).longValue();
+            totalCars += count;
+            if (row[0] == Car.Status.AVAILABLE) {
+                availableCars = count;
+                totalValue = (BigDecimal) row[2];
+            } else if (row[0] == Car.Status.SOLD) {
+                soldCars = count;
+            }
+        }
+
+        try (Document document = new Document(new PdfDocument(new PdfWriter(fileName)));
+             Stream<Object[]> cars = carService.streamInventoryRows()) {
+            PdfStyles styles = new PdfStyles(document);
+            addReportHeader(document, styles, "Cars Inventory Report");
+            addInventorySummary(document, styles, totalCars, availableCars, soldCars, totalValue);
+            addCarsTable(document, styles, cars.iterator());
+            addReportFooter(document);
+        }
+        return fileName;
+    }
+
     public String generateClientsReport(List<Client> clients, String outputPath) throws Exception {
         String fileName = outputPath + "/clients_report_" + System.currentTimeMillis() + ".pdf";
 
         PdfWriter writer = new PdfWriter(fileName);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
+        PdfStyles styles = new PdfStyles(document);
 
         // Add header
-        addReportHeader(document, "Clients Report");
+        addReportHeader(document, styles, "Clients Report");
 
         // Add summary
-        addClientsSummary(document, clients);
+        addClientsSummary(document, styles, clients);
 
         // Add clients table
-        addClientsTable(document, clients);
+        addClientsTable(document, styles, clients);
 
         // Add footer
         addReportFooter(document);
@@ -108,12 +182,13 @@ public class PdfService {
         PdfWriter writer = new PdfWriter(fileName);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
+        PdfStyles styles = new PdfStyles(document);
 
         // Add invoice header
-        addInvoiceHeader(document, sale);
+        addInvoiceHeader(document, styles, sale);
 
         // Add invoice details
-        addInvoiceDetails(document, sale);
+        addInvoiceDetails(document, styles, sale);
 
         // Add invoice footer
         addInvoiceFooter(document, sale);
@@ -122,8 +197,8 @@ public class PdfService {
         return fileName;
     }
 
-    private void addReportHeader(Document document, String reportTitle) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
+    private void addReportHeader(Document document, PdfStyles styles, String reportTitle) throws Exception {
+        PdfFont boldFont = styles.getBoldFont();
 
         // Company name
         Paragraph companyName = new Paragraph(COMPANY_NAME)
@@ -156,11 +231,7 @@ public class PdfService {
         document.add(reportDate);
     }
 
-    private void addInventorySummary(Document document, List<Car> cars) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
-
-        document.add(new Paragraph("Inventory Summary").setFont(boldFont).setFontSize(14).setMarginBottom(10));
-
+    private void addInventorySummary(Document document, PdfStyles styles, List<Car> cars) throws Exception {
         long totalCars = cars.size();
         long availableCars = cars.stream().filter(car -> car.getStatus() == Car.Status.AVAILABLE).count();
         long soldCars = cars.stream().filter(car -> car.getStatus() == Car.Status.SOLD).count();
@@ -170,23 +241,26 @@ public class PdfService {
                 .map(Car::getPrice)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
+        addInventorySummary(document, styles, totalCars, availableCars, soldCars, totalValue);
+    }
+
+    private void addInventorySummary(Document document, PdfStyles styles, long totalCars, long availableCars, long soldCars,
+                                     BigDecimal totalValue) throws Exception {
+        document.add(new Paragraph("Inventory Summary").addStyle(styles.getSectionTitle()));
+
         Table summaryTable = new Table(2);
         summaryTable.setWidth(UnitValue.createPercentValue(50));
 
-        addSummaryRow(summaryTable, "Total Cars:", String.valueOf(totalCars));
-        addSummaryRow(summaryTable, "Available Cars:", String.valueOf(availableCars));
-        addSummaryRow(summaryTable, "Sold Cars:", String.valueOf(soldCars));
-        addSummaryRow(summaryTable, "Total Inventory Value:", CurrencyUtils.formatCurrency(totalValue));
+        addSummaryRow(summaryTable, styles, "Total Cars:", String.valueOf(totalCars));
+        addSummaryRow(summaryTable, styles, "Available Cars:", String.valueOf(availableCars));
+        addSummaryRow(summaryTable, styles, "Sold Cars:", String.valueOf(soldCars));
+        addSummaryRow(summaryTable, styles, "Total Inventory Value:", CurrencyUtils.formatCurrency(totalValue));
 
         document.add(summaryTable);
         document.add(new Paragraph("\n"));
     }
 
-    private void addSalesSummary(Document document, List<Sale> sales) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
-
-        document.add(new Paragraph("Sales Summary").setFont(boldFont).setFontSize(14).setMarginBottom(10));
-
+    private void addSalesSummary(Document document, PdfStyles styles, List<Sale> sales) throws Exception {
         long totalSales = sales.size();
         BigDecimal totalRevenue = sales.stream()
                 .map(Sale::getTotalAmount)
@@ -196,21 +270,26 @@ public class PdfService {
                 .map(sale -> sale.getProfit() != null ? sale.getProfit() : BigDecimal.ZERO)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
+        addSalesSummary(document, styles, totalSales, totalRevenue, totalProfit);
+    }
+
+    private void addSalesSummary(Document document, PdfStyles styles, long totalSales, BigDecimal totalRevenue,
+                                 BigDecimal totalProfit) throws Exception {
+        document.add(new Paragraph("Sales Summary").addStyle(styles.getSectionTitle()));
+
         Table summaryTable = new Table(2);
         summaryTable.setWidth(UnitValue.createPercentValue(50));
 
-        addSummaryRow(summaryTable, "Total Sales:", String.valueOf(totalSales));
-        addSummaryRow(summaryTable, "Total Revenue:", CurrencyUtils.formatCurrency(totalRevenue));
-        addSummaryRow(summaryTable, "Total Profit:", CurrencyUtils.formatCurrency(totalProfit));
+        addSummaryRow(summaryTable, styles, "Total Sales:", String.valueOf(totalSales));
+        addSummaryRow(summaryTable, styles, "Total Revenue:", CurrencyUtils.formatCurrency(totalRevenue));
+        addSummaryRow(summaryTable, styles, "Total Profit:", CurrencyUtils.formatCurrency(totalProfit));
 
         document.add(summaryTable);
         document.add(new Paragraph("\n"));
     }
 
-    private void addClientsSummary(Document document, List<Client> clients) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
-
-        document.add(new Paragraph("Clients Summary").setFont(boldFont).setFontSize(14).setMarginBottom(10));
+    private void addClientsSummary(Document document, PdfStyles styles, List<Client> clients) throws Exception {
+        document.add(new Paragraph("Clients Summary").addStyle(styles.getSectionTitle()));
 
         long totalClients = clients.size();
         long individualClients = clients.stream().filter(client -> client.getCustomerType() == Client.CustomerType.INDIVIDUAL).count();
@@ -219,37 +298,29 @@ public class PdfService {
         Table summaryTable = new Table(2);
         summaryTable.setWidth(UnitValue.createPercentValue(50));
 
-        addSummaryRow(summaryTable, "Total Clients:", String.valueOf(totalClients));
-        addSummaryRow(summaryTable, "Individual Clients:", String.valueOf(individualClients));
-        addSummaryRow(summaryTable, "Business Clients:", String.valueOf(businessClients));
+        addSummaryRow(summaryTable, styles, "Total Clients:", String.valueOf(totalClients));
+        addSummaryRow(summaryTable, styles, "Individual Clients:", String.valueOf(individualClients));
+        addSummaryRow(summaryTable, styles, "Business Clients:", String.valueOf(businessClients));
 
         document.add(summaryTable);
         document.add(new Paragraph("\n"));
     }
 
-    private void addSummaryRow(Table table, String label, String value) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
+    private void addSummaryRow(Table table, PdfStyles styles, String label, String value) throws Exception {
+        PdfFont boldFont = styles.getBoldFont();
 
         table.addCell(new Cell().add(new Paragraph(label).setFont(boldFont)));
         table.addCell(new Cell().add(new Paragraph(value)));
     }
 
-    private void addCarsTable(Document document, List<Car> cars) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
-
-        document.add(new Paragraph("Cars Details").setFont(boldFont).setFontSize(14).setMarginBottom(10));
+    private void addCarsTable(Document document, PdfStyles styles, List<Car> cars) throws Exception {
+        document.add(new Paragraph("Cars Details").addStyle(styles.getSectionTitle()));
 
         Table table = new Table(new float[]{1, 2, 2, 1, 2, 2, 2});
         table.setWidth(UnitValue.createPercentValue(100));
 
         // Header
-        table.addHeaderCell(new Cell().add(new Paragraph("ID").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Make").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Model").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Year").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Color").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Price").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Status").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
+        addHeaderCells(table, styles, "ID", "Make", "Model", "Year", "Color", "Price", "Status");
 
         // Data rows
         for (Car car : cars) {
@@ -265,22 +336,14 @@ public class PdfService {
         document.add(table);
     }
 
-    private void addSalesTable(Document document, List<Sale> sales) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
-
-        document.add(new Paragraph("Sales Details").setFont(boldFont).setFontSize(14).setMarginBottom(10));
+    private void addSalesTable(Document document, PdfStyles styles, List<Sale> sales) throws Exception {
+        document.add(new Paragraph("Sales Details").addStyle(styles.getSectionTitle()));
 
         Table table = new Table(new float[]{1, 2, 2, 3, 3, 2, 2});
         table.setWidth(UnitValue.createPercentValue(100));
 
         // Header
-        table.addHeaderCell(new Cell().add(new Paragraph("ID").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Invoice").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Date").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Car").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Client").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Amount").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Status").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
+        addHeaderCells(table, styles, "ID", "Invoice", "Date", "Car", "Client", "Amount", "Status");
 
         // Data rows
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
@@ -298,22 +361,76 @@ public class PdfService {
         document.add(table);
     }
 
-    private void addClientsTable(Document document, List<Client> clients) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
+    private void addCarsTable(Document document, PdfStyles styles, Iterator<Object[]> cars) throws Exception {
+        document.add(new Paragraph("Cars Details").addStyle(styles.getSectionTitle()));
+
+        // Large table: added to the document first, then rows are flushed to the file as they arrive
+        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 2, 2, 1, 2, 2, 2}), true);
+        table.setWidth(UnitValue.createPercentValue(100));
+        addHeaderCells(table, styles, "ID", "Make", "Model", "Year", "Color", "Price", "Status");
+        document.add(table);
+
+        int rows = 0;
+        while (cars.hasNext()) {
+            Object[] car = cars.next();
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(car[0]))));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(car[1]))));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(car[2]))));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(car[3]))));
+            table.addCell(new Cell().add(new Paragraph(car[4] != null ? (String) car[4] : "N/A")));
+            table.addCell(new Cell().add(new Paragraph(CurrencyUtils.formatCurrency((BigDecimal) car[5]))));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(car[6]))));
+
+            if (++rows % ROWS_PER_FLUSH == 0) {
+                table.flush();
+            }
+        }
+
+        table.complete();
+    }
+
+    private void addSalesTable(Document document, PdfStyles styles, Iterator<SaleSummary> sales) throws Exception {
+        document.add(new Paragraph("Sales Details").addStyle(styles.getSectionTitle()));
+
+        // Large table: added to the document first, then rows are flushed to the file as they arrive
+        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 2, 2, 3, 3, 2, 2}), true);
+        table.setWidth(UnitValue.createPercentValue(100));
+        addHeaderCells(table, styles, "ID", "Invoice", "Date", "Car", "Client", "Amount", "Status");
+        document.add(table);
+
+        int rows = 0;
+        while (sales.hasNext()) {
+            SaleSummary sale = sales.next();
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(sale.getId()))));
+            table.addCell(new Cell().add(new Paragraph(sale.getInvoiceNumber())));
+            table.addCell(new Cell().add(new Paragraph(sale.getSaleDate().format(REPORT_DATE_FORMATTER))));
+            table.addCell(new Cell().add(new Paragraph(sale.getCarDisplayName())));
+            table.addCell(new Cell().add(new Paragraph(sale.getClientName())));
+            table.addCell(new Cell().add(new Paragraph(CurrencyUtils.formatCurrency(sale.getTotalAmount()))));
+            table.addCell(new Cell().add(new Paragraph(sale.getPaymentStatus().toString())));
+
+            if (++rows % ROWS_PER_FLUSH == 0) {
+                table.flush();
+            }
+        }
+
+        table.complete();
+    }
+
+    private void addHeaderCells(Table table, PdfStyles styles, String... headers) {
+        for (String header : headers) {
+            table.addHeaderCell(new Cell().add(new Paragraph(header)).addStyle(styles.getTableHeader()));
+        }
+    }
 
-        document.add(new Paragraph("Clients Details").setFont(boldFont).setFontSize(14).setMarginBottom(10));
+    private void addClientsTable(Document document, PdfStyles styles, List<Client> clients) throws Exception {
+        document.add(new Paragraph("Clients Details").addStyle(styles.getSectionTitle()));
 
         Table table = new Table(new float[]{1, 3, 3, 2, 2, 2, 2});
         table.setWidth(UnitValue.createPercentValue(100));
 
         // Header
-        table.addHeaderCell(new Cell().add(new Paragraph("ID").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Name").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Email").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Phone").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("City").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Type").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addHeaderCell(new Cell().add(new Paragraph("Registered").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
+        addHeaderCells(table, styles, "ID", "Name", "Email", "Phone", "City", "Type", "Registered");
 
         // Data rows
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
@@ -331,8 +448,8 @@ public class PdfService {
         document.add(table);
     }
 
-    private void addInvoiceHeader(Document document, Sale sale) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
+    private void addInvoiceHeader(Document document, PdfStyles styles, Sale sale) throws Exception {
+        PdfFont boldFont = styles.getBoldFont();
 
         // Company info and invoice title
         Table headerTable = new Table(2);
@@ -360,8 +477,8 @@ public class PdfService {
         document.add(new Paragraph("\n"));
     }
 
-    private void addInvoiceDetails(Document document, Sale sale) throws Exception {
-        PdfFont boldFont = PdfFontFactory.createFont();
+    private void addInvoiceDetails(Document document, PdfStyles styles, Sale sale) throws Exception {
+        PdfFont boldFont = styles.getBoldFont();
 
         // Client information
         document.add(new Paragraph("Bill To:").setFont(boldFont).setFontSize(12));
@@ -380,10 +497,7 @@ public class PdfService {
         itemsTable.setWidth(UnitValue.createPercentValue(100));
 
         // Header
-        itemsTable.addHeaderCell(new Cell().add(new Paragraph("Description").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        itemsTable.addHeaderCell(new Cell().add(new Paragraph("Qty").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        itemsTable.addHeaderCell(new Cell().add(new Paragraph("Unit Price").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        itemsTable.addHeaderCell(new Cell().add(new Paragraph("Total").setFont(boldFont)).setBackgroundColor(ColorConstants.LIGHT_GRAY));
+        addHeaderCells(itemsTable, styles, "Description", "Qty", "Unit Price", "Total");
 
         // Car item
         itemsTable.addCell(new Cell().add(new Paragraph(sale.getCar().getDisplayName())));
@@ -447,16 +561,25 @@ public class PdfService {
 
     public String generateInvoice(Sale sale, String outputPath) throws Exception {
         String fileName = outputPath + "/facture_" + sale.getInvoiceNumber() + "_" + System.currentTimeMillis() + ".pdf";
+        writeInvoice(sale, fileName);
+        return fileName;
+    }
 
+    /**
+     * Renders the French invoice of the sale into the given file. Each call works on its own
+     * PdfDocument, so invoices can be rendered from several threads at once.
+     */
+    public void writeInvoice(Sale sale, String fileName) throws Exception {
         PdfWriter writer = new PdfWriter(fileName);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
+        PdfStyles styles = new PdfStyles(document);
 
         try {
             // Invoice Header
             Paragraph header = new Paragraph("FACTURE N°" + sale.getInvoiceNumber())
                     .setFontSize(16)
-                    .setBold()
+                    .setFont(styles.getBoldFont())
                     .setTextAlignment(TextAlignment.CENTER);
             document.add(header);
             document.add(new Paragraph("\n"));
@@ -486,9 +609,9 @@ public class PdfService {
             Table table = new Table(columnWidths);
             
             // Table Header
-            table.addHeaderCell(new Cell().add(new Paragraph("Désignation").setBold()));
-            table.addHeaderCell(new Cell().add(new Paragraph("Quantité").setBold()));
-            table.addHeaderCell(new Cell().add(new Paragraph("Prix").setBold()));
+            table.addHeaderCell(new Cell().add(new Paragraph("Désignation").setFont(styles.getBoldFont())));
+            table.addHeaderCell(new Cell().add(new Paragraph("Quantité").setFont(styles.getBoldFont())));
+            table.addHeaderCell(new Cell().add(new Paragraph("Prix").setFont(styles.getBoldFont())));
             
             // Table Rows
             table.addCell(new Cell().add(new Paragraph(sale.getCar().getDisplayName())));
@@ -509,7 +632,7 @@ public class PdfService {
             String amountInWords = convertToWords(sale.getTotalAmount().intValue()) + " ariary";
             Paragraph amountWords = new Paragraph("\n" + 
                     "Arrêté par la présente facture à la somme de: " + amountInWords)
-                    .setItalic();
+                    .setFont(styles.getItalicFont());
             document.add(amountWords);
             
             // Footer
@@ -517,8 +640,6 @@ public class PdfService {
             Paragraph footer = new Paragraph("Merci pour votre confiance!")
                     .setTextAlignment(TextAlignment.CENTER);
             document.add(footer);
-            
-            return fileName;
         } finally {
             document.close();
         }
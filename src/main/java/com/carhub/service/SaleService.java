@@ -1,17 +1,34 @@
 package com.carhub.service;
 
+import com.carhub.dto.ChangeEvent;
+import com.carhub.dto.InvoiceBatchRequest;
+import com.carhub.dto.SaleFilter;
+import com.carhub.dto.SaleSummary;
+import com.carhub.entity.Admin;
 import com.carhub.entity.Sale;
 import com.carhub.entity.Car;
+import com.carhub.entity.Client;
 import com.carhub.repository.SaleRepository;
+import com.carhub.repository.spec.SaleSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -26,6 +43,22 @@ public class SaleService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private DashboardService dashboardService;
+
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    @Autowired
+    private InvoiceNumberService invoiceNumberService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public Sale createSale(Sale sale) {
         // Generate invoice number if not provided
         if (sale.getInvoiceNumber() == null || sale.getInvoiceNumber().isEmpty()) {
@@ -38,19 +71,25 @@ public class SaleService {
         }
 
         Sale savedSale = saleRepository.save(sale);
+        salesRollupService.addSale(savedSale.getId());
+        dashboardService.invalidate();
+        changeEventService.inserted(ChangeEvent.Entity.SALE, savedSale.getId());
         
-        // Send confirmation email to client
-        try {
-            emailService.sendSaleConfirmationEmail(savedSale);
-        } catch (Exception e) {
-            System.err.println("Failed to send sale confirmation email: " + e.getMessage());
-        }
+        // Queued in this transaction, so the sale and its email commit or roll back together;
+        // the email is delivered in the background after commit
+        emailService.queueSaleConfirmationEmail(savedSale);
 
         return savedSale;
     }
 
     public Sale updateSale(Sale sale) {
-        return saleRepository.save(sale);
+        dashboardService.invalidate();
+        // Date, price or payment method may have changed: move the sale from its old totals to the new ones
+        salesRollupService.removeSale(sale.getId());
+        Sale savedSale = saleRepository.save(sale);
+        salesRollupService.addSale(savedSale.getId());
+        changeEventService.updated(ChangeEvent.Entity.SALE, savedSale.getId());
+        return savedSale;
     }
 
     public Optional<Sale> findById(Long id) {
@@ -69,6 +108,101 @@ public class SaleService {
         return saleRepository.findAllOrderByDateDesc();
     }
 
+    /**
+     * Returns the next page of sales (newest first) after the given sale.
+     * Pass null as lastSale to fetch the first page.
+     */
+    @Transactional(readOnly = true)
+    public List<SaleSummary> getSalesPage(SaleFilter filter, SaleSummary lastSale, int pageSize) {
+        Specification<Sale> specification = SaleSpecifications.matching(filter);
+        if (lastSale != null) {
+            specification = specification.and(SaleSpecifications.soldBefore(lastSale));
+        }
+        return summaryQuery(specification)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
+
+    /**
+     * Returns the sales among saleIds that match the filter, used to apply changes to the sales list.
+     */
+    @Transactional(readOnly = true)
+    public List<SaleSummary> findMatchingSummaries(SaleFilter filter, List<Long> saleIds) {
+        return summaryQuery(SaleSpecifications.matching(filter).and(SaleSpecifications.hasIdIn(saleIds)))
+                .getResultList();
+    }
+
+    @Transactional(readOnly = true)
+    public long countSales(SaleFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Sale> sale = query.from(Sale.class);
+        query.select(cb.count(sale));
+        query.where(SaleSpecifications.matching(filter).toPredicate(sale, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Streams all sales matching the filter, newest first. The fetch size makes the driver read
+     * rows in windows through a cursor, so memory stays flat however long the history is. The
+     * caller must consume and close the stream inside its own read-only transaction.
+     */
+    @Transactional(readOnly = true)
+    public Stream<SaleSummary> streamSales(SaleFilter filter) {
+        return summaryQuery(SaleSpecifications.matching(filter))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                .getResultStream();
+    }
+
+    /**
+     * Returns {count, total amount, total profit} for the sales matching the filter.
+     */
+    @Transactional(readOnly = true)
+    public Object[] getSalesTotals(SaleFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Sale> sale = query.from(Sale.class);
+        query.multiselect(cb.count(sale),
+                cb.coalesce(cb.sum(sale.get("totalAmount")), BigDecimal.ZERO),
+                cb.coalesce(cb.sum(sale.get("profit")), BigDecimal.ZERO));
+        query.where(SaleSpecifications.matching(filter).toPredicate(sale, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // The matching sales as SaleSummary rows, newest first, in one statement with no lazy loads per row
+    private TypedQuery<SaleSummary> summaryQuery(Specification<Sale> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SaleSummary> query = cb.createQuery(SaleSummary.class);
+        Root<Sale> sale = query.from(Sale.class);
+        Join<Sale, Car> car = sale.join("car");
+        Join<Sale, Client> client = sale.join("client");
+        Join<Sale, Admin> admin = sale.join("admin");
+        query.select(cb.construct(SaleSummary.class, sale.get("id"), sale.get("invoiceNumber"),
+                sale.get("saleDate"), sale.get("salePrice"), sale.get("totalAmount"), sale.get("profit"),
+                sale.get("paymentMethod"), sale.get("paymentStatus"), car.get("year"), car.get("brand"),
+                car.get("model"), client.get("firstName"), client.get("lastName"), admin.get("fullName")));
+        query.where(specification.toPredicate(sale, query, cb));
+        query.orderBy(cb.desc(sale.get("saleDate")), cb.desc(sale.get("id")));
+        return entityManager.createQuery(query);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> getInvoiceBatchSaleIds(InvoiceBatchRequest request) {
+        return saleRepository.findInvoiceBatchSaleIds(
+                request.getPaymentStatuses(),
+                request.getEffectiveStartDate(),
+                request.getEffectiveEndDate(),
+                request.getClientId());
+    }
+
+    /**
+     * Returns the sales with car, client and admin loaded, ready to be rendered outside a transaction.
+     */
+    @Transactional(readOnly = true)
+    public List<Sale> findSalesWithDetails(List<Long> saleIds) {
+        return saleRepository.findWithDetailsByIdIn(saleIds);
+    }
+
     public List<Sale> findSalesByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return saleRepository.findSalesBetweenDates(startDate, endDate);
     }
@@ -106,16 +240,20 @@ public class SaleService {
     }
 
     public List<Sale> getRecentSales(int limit) {
-        List<Sale> allSales = saleRepository.findAllOrderByDateDesc();
-        return allSales.size() > limit ? allSales.subList(0, limit) : allSales;
+        return saleRepository.findRecentSales(PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SaleSummary> getRecentSaleSummaries(int limit) {
+        return saleRepository.findRecentSaleSummaries(PageRequest.of(0, limit));
     }
 
     public List<Object[]> getMonthlySalesData(int year) {
-        return saleRepository.getMonthlySalesCount(year);
+        return salesRollupService.getMonthlySalesCount(year);
     }
 
     public List<Object[]> getSalesByPaymentMethod() {
-        return saleRepository.getSalesCountByPaymentMethod();
+        return salesRollupService.getSalesCountByPaymentMethod();
     }
 
     public void deleteSale(Long saleId) {
@@ -129,18 +267,20 @@ public class SaleService {
                 car.setSoldAt(null);
                 carService.saveCar(car);
             }
+            salesRollupService.removeSale(saleId);
             saleRepository.deleteById(saleId);
+            dashboardService.invalidate();
+            changeEventService.deleted(ChangeEvent.Entity.SALE, saleId);
         }
     }
 
     private String generateInvoiceNumber() {
-        String prefix = "INV";
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-
-        // Find the next sequence number for today
-        long count = saleRepository.count() + 1;
-
-        return String.format("%s-%s-%03d", prefix, timestamp, count);
+        // Skip numbers already taken by hand-entered or pre-existing invoices
+        String invoiceNumber;
+        do {
+            invoiceNumber = invoiceNumberService.nextInvoiceNumber();
+        } while (saleRepository.existsByInvoiceNumber(invoiceNumber));
+        return invoiceNumber;
     }
 
     public boolean isInvoiceNumberAvailable(String invoiceNumber) {
@@ -149,10 +289,10 @@ public class SaleService {
 
     public List<Object[]> getMonthlyRevenueForLast6Months() {
         LocalDateTime sixMonthsAgo = LocalDateTime.now().minusMonths(6).withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        return saleRepository.getMonthlyRevenueData(sixMonthsAgo);
+        return salesRollupService.getMonthlyRevenueSince(sixMonthsAgo);
     }
 
     public List<Object[]> getMonthlyAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
-        return saleRepository.getMonthlyAnalytics(startDate, endDate);
+        return salesRollupService.getMonthlyAnalytics(startDate, endDate);
     }
 }
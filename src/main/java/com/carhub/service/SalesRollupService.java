@@ -0,0 +1,115 @@
+package com.carhub.service;
+
+import com.carhub.repository.SaleRepository;
+import com.carhub.repository.SalesMonthlyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps the sales_monthly_rollup table in step with the sales table and answers the
+ * monthly analytics from it. SaleService adds and removes every sale it writes within
+ * its own transaction; {@link #rebuild()} recomputes the table from scratch, e.g. after
+ * sales were imported or edited directly in the database.
+ */
+@Service
+@Transactional
+public class SalesRollupService {
+
+    @Autowired
+    private SalesMonthlyRollupRepository rollupRepository;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    /**
+     * Counts a sale that has been written to the sales table.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addSale(Long saleId) {
+        // The rollup is computed from the row in the database, so pending changes must be written first
+        saleRepository.flush();
+        rollupRepository.applySale(saleId, 1);
+    }
+
+    /**
+     * Uncounts a sale as it is still stored, before it is updated or deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeSale(Long saleId) {
+        rollupRepository.applySale(saleId, -1);
+    }
+
+    /**
+     * Recomputes every row from the sales table and returns the number of rows written.
+     */
+    public int rebuild() {
+        rollupRepository.lockForRebuild();
+        rollupRepository.deleteAllRows();
+        int rows = rollupRepository.insertFromSales();
+        dashboardService.invalidate();
+        return rows;
+    }
+
+    /**
+     * Builds the table the first time the application runs against a database that already has sales.
+     */
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() == 0 && saleRepository.count() > 0) {
+            int rows = rebuild();
+            System.out.println("Sales monthly rollup built: " + rows + " rows");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> getMonthlySalesCount(int year) {
+        return rollupRepository.getMonthlySalesCount(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> getSalesCountByPaymentMethod() {
+        return rollupRepository.getSalesCountByPaymentMethod();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> getMonthlyRevenueSince(LocalDateTime startDate) {
+        return rollupRepository.getMonthlyRevenueData(monthStart(startDate).toLocalDate());
+    }
+
+    /**
+     * Returns {year, month, revenue, sales count, profit} per month between the dates, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> getMonthlyAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
+        // Whole months in the range: from the first month starting in it to the month after the last complete one
+        LocalDateTime fullFrom = startDate.equals(monthStart(startDate)) ? startDate : monthStart(startDate).plusMonths(1);
+        LocalDateTime fullTo = monthStart(endDate.plusNanos(1));
+        if (!fullFrom.isBefore(fullTo)) {
+            // No complete month, everything is read from the sales table
+            fullFrom = startDate;
+            fullTo = startDate;
+        }
+        return rollupRepository.getMonthlyAnalytics(startDate, endDate, fullFrom, fullTo);
+    }
+
+    /**
+     * Returns {admin id, sales count, revenue, profit} per admin, for the months from fromMonth
+     * up to but not including toMonth.
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> getTotalsByAdmin(LocalDate fromMonth, LocalDate toMonth) {
+        return rollupRepository.getTotalsByAdmin(fromMonth.withDayOfMonth(1), toMonth.withDayOfMonth(1));
+    }
+
+    private static LocalDateTime monthStart(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().withDayOfMonth(1).atStartOfDay();
+    }
+}
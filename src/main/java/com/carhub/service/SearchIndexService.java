@@ -0,0 +1,201 @@
+package com.carhub.service;
+
+import com.carhub.dto.ChangeEvent;
+import com.carhub.entity.Client;
+import com.carhub.repository.ClientRepository;
+import com.carhub.util.SearchIndex;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Owns the type-ahead search index of the clients list.
+ * The index is loaded in the background the first time it is asked for, then kept
+ * current by the services: changes are applied once their transaction has committed.
+ * A table with more rows than search.index.max-rows is not indexed, to bound the memory
+ * used; its list then filters on the rows shown. The cars and sales lists are paged, an
+ * index of every row could only ever match the pages loaded, so they always filter on the
+ * rows shown.
+ */
+@Service
+public class SearchIndexService implements DisposableBean {
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    @Value("${search.index.max-rows:250000}")
+    private long maxIndexedRows;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    private final SearchIndex clientIndex = new SearchIndex();
+
+    private final Set<SearchIndex> loadRequested = ConcurrentHashMap.newKeySet();
+    // Indexes left empty because their table has more than maxIndexedRows rows
+    private final Set<SearchIndex> tooLarge = ConcurrentHashMap.newKeySet();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "carhub-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @FunctionalInterface
+    private interface SearchRowLoader {
+        List<Object[]> loadAfter(Long lastId, Pageable pageable);
+    }
+
+    @FunctionalInterface
+    private interface RowCounter {
+        long count();
+    }
+
+    @Override
+    public void destroy() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Index over client names, email and phone number. Check {@link SearchIndex#isReady()}:
+     * the first call starts loading it.
+     */
+    public SearchIndex getClientIndex() {
+        ensureLoaded(clientIndex, clientRepository::findSearchRowsAfter, clientRepository::count);
+        return clientIndex;
+    }
+
+    public void clientSaved(Client client) {
+        String[] fields = {client.getFirstName(), client.getLastName(), client.getEmail(), client.getPhoneNumber()};
+        long clientId = client.getId();
+        afterCommit(() -> clientIndex.put(clientId, fields));
+    }
+
+    public void clientDeleted(Long clientId) {
+        afterCommit(() -> clientIndex.remove(clientId));
+    }
+
+    /**
+     * Applies a change made on another workstation by reading the changed row back. Indexes not
+     * loaded yet are left alone, their load will read the current rows anyway.
+     */
+    public void applyRemoteChange(ChangeEvent event) {
+        SearchIndex index;
+        SearchRowLoader rowLoader;
+        RowCounter rowCounter;
+        switch (event.getEntity()) {
+            case CLIENT:
+                index = clientIndex;
+                rowLoader = clientRepository::findSearchRowsAfter;
+                rowCounter = clientRepository::count;
+                break;
+            default:
+                return;
+        }
+        if (!loadRequested.contains(index)) {
+            return;
+        }
+
+        if (event.getType() == ChangeEvent.Type.RELOADED) {
+            // Reads every row again, the index stays usable meanwhile
+            index.startLoading();
+            loader.execute(() -> load(index, rowLoader, rowCounter));
+            return;
+        }
+        if (tooLarge.contains(index)) {
+            return;
+        }
+        long id = event.getId();
+        loader.execute(() -> {
+            try {
+                // The first row after id - 1 is the changed row itself, unless it no longer exists
+                List<Object[]> rows = event.getType() == ChangeEvent.Type.DELETED
+                        ? List.of()
+                        : rowLoader.loadAfter(id - 1, PageRequest.of(0, 1));
+                if (!rows.isEmpty() && ((Number) rows.get(0)[0]).longValue() == id) {
+                    index.put(id, fields(rows.get(0)));
+                } else {
+                    index.remove(id);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to apply remote change to search index: " + e.getMessage());
+            }
+        });
+    }
+
+    private void ensureLoaded(SearchIndex index, SearchRowLoader rowLoader, RowCounter rowCounter) {
+        if (loadRequested.add(index)) {
+            // Loading starts right away so that updates made while rows are read are not lost
+            index.startLoading();
+            loader.execute(() -> load(index, rowLoader, rowCounter));
+        }
+    }
+
+    // Runs on the loader thread only
+    private void load(SearchIndex index, SearchRowLoader rowLoader, RowCounter rowCounter) {
+        try {
+            long rowCount = rowCounter.count();
+            if (rowCount > maxIndexedRows) {
+                System.out.println("Search index skipped: " + rowCount + " rows, more than search.index.max-rows ("
+                        + maxIndexedRows + ")");
+                tooLarge.add(index);
+                index.abortLoading();
+                return;
+            }
+            tooLarge.remove(index);
+
+            Long lastId = 0L;
+            List<Object[]> rows;
+            do {
+                rows = rowLoader.loadAfter(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (Object[] row : rows) {
+                    index.load(((Number) row[0]).longValue(), fields(row));
+                }
+                if (!rows.isEmpty()) {
+                    lastId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+                }
+            } while (rows.size() == LOAD_PAGE_SIZE);
+            index.finishLoading();
+        } catch (Exception e) {
+            System.err.println("Failed to load search index: " + e.getMessage());
+            // The next request for the index tries again
+            index.abortLoading();
+            loadRequested.remove(index);
+        }
+    }
+
+    // Every column after the id is an indexed field
+    private static String[] fields(Object[] row) {
+        String[] fields = new String[row.length - 1];
+        for (int i = 1; i < row.length; i++) {
+            fields[i - 1] = text(row[i]);
+        }
+        return fields;
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,25 +1,80 @@
 package com.carhub.service;
 
+import com.carhub.dto.ChangeEvent;
 import com.carhub.entity.SystemSetting;
 import com.carhub.repository.SystemSettingRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Application settings, read from an in-memory copy so that formatting an amount or numbering
+ * an invoice never waits for the database. The copy is read again when another workstation
+ * reports a settings change, and every cache.settings.ttl-seconds in case notifications are off.
+ * <p>
+ * Only the methods that write are transactional; the getters are called for every amount shown
+ * and stay off the transaction interceptor.
+ */
 @Service
-@Transactional
-public class SystemSettingService {
+public class SystemSettingService implements InitializingBean, DisposableBean {
     
     @Autowired
     private SystemSettingRepository systemSettingRepository;
     
+    @Autowired
+    private CacheService cacheService;
+    
+    @Autowired
+    private ChangeEventService changeEventService;
+    
+    @Value("${cache.settings.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    // Replaced as a whole, so a reader sees either the old settings or the new ones, never a mix
+    private volatile Map<String, String> settings;
+    private final Object settingsLock = new Object();
+    private ScheduledExecutorService refresher;
+    
+    @Override
+    public void afterPropertiesSet() {
+        changeEventService.addListener(event -> {
+            if (event.isRemote() && event.getEntity() == ChangeEvent.Entity.SETTING) {
+                refreshCache();
+            }
+        });
+        if (ttlSeconds > 0) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "carhub-settings-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::refreshQuietly, ttlSeconds, ttlSeconds, TimeUnit.SECONDS);
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+    
     public String getSettingValue(String key, String defaultValue) {
-        Optional<SystemSetting> setting = systemSettingRepository.findBySettingKey(key);
-        return setting.map(SystemSetting::getSettingValue).orElse(defaultValue);
+        return getSettings().getOrDefault(key, defaultValue);
     }
     
     public Integer getIntegerSetting(String key, Integer defaultValue) {
@@ -45,34 +100,108 @@ public class SystemSettingService {
         return Boolean.parseBoolean(value);
     }
     
+    @Transactional
     public void updateSetting(String key, String value) {
         Optional<SystemSetting> settingOpt = systemSettingRepository.findBySettingKey(key);
+        SystemSetting setting;
         if (settingOpt.isPresent()) {
-            SystemSetting setting = settingOpt.get();
+            setting = settingOpt.get();
             setting.setSettingValue(value);
-            systemSettingRepository.save(setting);
         } else {
-            SystemSetting newSetting = new SystemSetting(key, value, SystemSetting.SettingType.STRING);
-            systemSettingRepository.save(newSetting);
+            setting = new SystemSetting(key, value, SystemSetting.SettingType.STRING);
         }
+        setting = systemSettingRepository.save(setting);
+        cacheAfterCommit(key, value);
+        changeEventService.updated(ChangeEvent.Entity.SETTING, setting.getId());
     }
     
+    @Transactional
     public void createSetting(String key, String value, SystemSetting.SettingType type, String description) {
         if (!systemSettingRepository.existsBySettingKey(key)) {
             SystemSetting setting = new SystemSetting(key, value, type);
             setting.setDescription(description);
-            systemSettingRepository.save(setting);
+            setting = systemSettingRepository.save(setting);
+            cacheAfterCommit(key, value);
+            changeEventService.inserted(ChangeEvent.Entity.SETTING, setting.getId());
         }
     }
     
+    @Transactional(readOnly = true)
     public List<SystemSetting> getAllSettings() {
         return systemSettingRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public List<SystemSetting> getEditableSettings() {
         return systemSettingRepository.findByIsEditableTrue();
     }
     
+    /**
+     * Reads the settings again from the database, bypassing the second-level cache, e.g. after
+     * another workstation changed them. Readers keep the previous values until it is done.
+     */
+    public void refreshCache() {
+        cacheService.evict(SystemSetting.class);
+        synchronized (settingsLock) {
+            settings = loadSettings();
+        }
+    }
+    
+    private void refreshQuietly() {
+        try {
+            refreshCache();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to refresh settings: " + e.getMessage());
+        }
+    }
+    
+    private Map<String, String> getSettings() {
+        Map<String, String> current = settings;
+        if (current != null) {
+            return current;
+        }
+        synchronized (settingsLock) {
+            if (settings == null) {
+                settings = loadSettings();
+            }
+            return settings;
+        }
+    }
+    
+    private Map<String, String> loadSettings() {
+        Map<String, String> loaded = new HashMap<>();
+        for (SystemSetting setting : systemSettingRepository.findAll()) {
+            loaded.put(setting.getSettingKey(), setting.getSettingValue());
+        }
+        return loaded;
+    }
+    
+    private void cacheAfterCommit(String key, String value) {
+        // Only publish the new value once the transaction commits, a rollback keeps the old one
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putInCache(key, value);
+                }
+            });
+        } else {
+            putInCache(key, value);
+        }
+    }
+    
+    private void putInCache(String key, String value) {
+        // Locked so a concurrent reload cannot overwrite the fresh value with a stale one
+        synchronized (settingsLock) {
+            if (settings != null) {
+                Map<String, String> updated = new HashMap<>(settings);
+                updated.put(key, value);
+                settings = updated;
+            }
+        }
+    }
+    
+    @Transactional
     public void initializeDefaultSettings() {
         createSetting("company_name", "CarHub", SystemSetting.SettingType.STRING, "Company name for branding");
         createSetting("company_address", "123 Business Street, Antananarivo, Madagascar", SystemSetting.SettingType.STRING, "Company address");
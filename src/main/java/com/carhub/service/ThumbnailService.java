@@ -0,0 +1,254 @@
+package com.carhub.service;
+
+import com.carhub.entity.CarImage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small previews of car photos. Each thumbnail is made once, when the photo is added, and
+ * stored on disk under the SHA-256 of the photo, so identical files share one thumbnail and a
+ * changed file never shows a stale one. Decoded thumbnails are kept in a memory cache bounded
+ * by size. Loading runs on a few background threads, newest request first, so the rows just
+ * scrolled into view are served before the ones already scrolled past.
+ */
+@Service
+public class ThumbnailService implements InitializingBean, DisposableBean {
+
+    private static final int THREADS = 2;
+    // Failed photos are not retried on every repaint, only after this delay
+    private static final Duration FAILURE_RETRY_DELAY = Duration.ofMinutes(1);
+
+    @Value("${thumbnail.directory:./uploads/thumbnails}")
+    private String thumbnailDirectory;
+
+    // Longest side of a thumbnail, in pixels
+    @Value("${thumbnail.size:240}")
+    private int thumbnailSize;
+
+    @Value("${thumbnail.cache.max-megabytes:64}")
+    private long cacheMaxMegabytes;
+
+    private Cache<String, BufferedImage> memoryCache;
+    private final Cache<String, Boolean> failedKeys = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(FAILURE_RETRY_DELAY)
+            .build();
+    private final ConcurrentHashMap<String, CompletableFuture<BufferedImage>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService decoder = createDecoder();
+
+    @Override
+    public void afterPropertiesSet() {
+        memoryCache = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxMegabytes * 1024 * 1024)
+                // Weighed by decoded size, 4 bytes per pixel
+                .weigher((String key, BufferedImage image) -> image.getWidth() * image.getHeight() * 4)
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        decoder.shutdownNow();
+    }
+
+    /**
+     * Creates the thumbnail of a photo if it does not exist yet and returns the photo's content hash.
+     */
+    public String createThumbnail(Path imagePath) throws IOException {
+        String hash = hash(imagePath);
+        Path thumbnailPath = thumbnailPath(hash);
+        if (!Files.exists(thumbnailPath)) {
+            BufferedImage thumbnail = render(imagePath);
+            memoryCache.put(hash, thumbnail);
+            write(thumbnail, thumbnailPath);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the thumbnail if it is in memory, without blocking. Meant for cell renderers,
+     * which call {@link #load(CarImage)} when this returns null.
+     */
+    public BufferedImage getIfLoaded(CarImage image) {
+        return memoryCache.getIfPresent(key(image));
+    }
+
+    /**
+     * True if the photo could not be read recently, so there is no thumbnail to wait for.
+     */
+    public boolean isUnavailable(CarImage image) {
+        return failedKeys.getIfPresent(key(image)) != null;
+    }
+
+    /**
+     * Loads the thumbnail in the background: from memory, else from the disk cache, else from
+     * the photo itself. Concurrent requests for the same photo share one load.
+     */
+    public CompletableFuture<BufferedImage> load(CarImage image) {
+        String key = key(image);
+        BufferedImage cached = memoryCache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        String imagePath = image.getImagePath();
+        String contentHash = image.getContentHash();
+        CompletableFuture<BufferedImage> future = inFlight.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            try {
+                BufferedImage thumbnail = readThumbnail(Paths.get(imagePath), contentHash);
+                memoryCache.put(key, thumbnail);
+                return thumbnail;
+            } catch (IOException e) {
+                failedKeys.put(key, Boolean.TRUE);
+                throw new IllegalStateException("Cannot read " + imagePath + ": " + e.getMessage(), e);
+            }
+        }, decoder));
+        // Attached outside computeIfAbsent: on a load that already finished the callback runs at
+        // once, and must not change the map from inside its own mapping function. Removing only
+        // this future leaves a newer load for the same key in place.
+        future.whenComplete((thumbnail, error) -> inFlight.remove(key, future));
+        return future;
+    }
+
+    // Runs on the decoder threads only
+    private BufferedImage readThumbnail(Path imagePath, String contentHash) throws IOException {
+        // Photos added before thumbnails existed have no hash yet, it is computed from the file
+        String hash = contentHash != null ? contentHash : hash(imagePath);
+        Path thumbnailPath = thumbnailPath(hash);
+        if (Files.exists(thumbnailPath)) {
+            BufferedImage thumbnail = ImageIO.read(thumbnailPath.toFile());
+            if (thumbnail != null) {
+                return thumbnail;
+            }
+        }
+        BufferedImage thumbnail = render(imagePath);
+        write(thumbnail, thumbnailPath);
+        return thumbnail;
+    }
+
+    private BufferedImage render(Path imagePath) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(imagePath.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Not a supported image: " + imagePath.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Decodes only every n-th pixel of large photos; still twice the thumbnail size
+                // so the final scaling has enough detail
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.min(width, height) / (thumbnailSize * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return scale(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source) {
+        double ratio = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        // Opaque RGB so it can be stored as JPEG; transparent areas become white
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return thumbnail;
+    }
+
+    private static void write(BufferedImage thumbnail, Path thumbnailPath) throws IOException {
+        Files.createDirectories(thumbnailPath.getParent());
+        // Written aside then moved, so a reader never sees a half-written file
+        Path tempPath = Files.createTempFile(thumbnailPath.getParent(), "thumb", ".tmp");
+        try {
+            ImageIO.write(thumbnail, "jpg", tempPath.toFile());
+            Files.move(tempPath, thumbnailPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    // Spread over 256 folders so none grows too large
+    private Path thumbnailPath(String hash) {
+        return Paths.get(thumbnailDirectory, hash.substring(0, 2), hash + "_" + thumbnailSize + ".jpg");
+    }
+
+    private static String key(CarImage image) {
+        return image.getContentHash() != null ? image.getContentHash() : image.getImagePath();
+    }
+
+    private static String hash(Path path) throws IOException {
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), MessageDigest.getInstance("SHA-256"))) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) != -1) {
+                // Reading feeds the digest
+            }
+            return HexFormat.of().formatHex(((DigestInputStream) in).getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ExecutorService createDecoder() {
+        AtomicInteger counter = new AtomicInteger(1);
+        // Last in, first out: a deque whose offer adds at the head
+        LinkedBlockingDeque<Runnable> queue = new LinkedBlockingDeque<>() {
+            @Override
+            public boolean offer(Runnable runnable) {
+                return super.offerFirst(runnable);
+            }
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "carhub-thumbnail-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            // Below the EDT, decoding must never make scrolling stutter
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
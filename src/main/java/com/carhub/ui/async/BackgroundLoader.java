@@ -0,0 +1,135 @@
+package com.carhub.ui.async;
+
+import com.carhub.ui.components.LoadingOverlay;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs data loading for a panel off the Event Dispatch Thread.
+ * Each panel owns one loader: starting a new load cancels the previous one,
+ * so only the latest result is ever published. Results and errors are always
+ * delivered on the EDT. Panel reads share one small, bounded thread pool;
+ * long-running tasks such as imports, exports and reports run on a pool of
+ * their own, so they never hold up loading or navigating between panels.
+ */
+public class BackgroundLoader {
+
+    private static final int POOL_SIZE = 4;
+    private static final int LONG_TASK_POOL_SIZE = 4;
+
+    private static final ExecutorService EXECUTOR = createExecutor("carhub-loader-", POOL_SIZE);
+    private static final ExecutorService LONG_TASK_EXECUTOR = createExecutor("carhub-task-", LONG_TASK_POOL_SIZE);
+
+    private final LoadingOverlay overlay;
+    private final ExecutorService executor;
+    private Future<?> currentTask;
+    // Incremented on every load, a result is published only if it is still the latest
+    private int generation = 0;
+
+    public BackgroundLoader() {
+        this(null);
+    }
+
+    public BackgroundLoader(LoadingOverlay overlay) {
+        this(overlay, EXECUTOR);
+    }
+
+    private BackgroundLoader(LoadingOverlay overlay, ExecutorService executor) {
+        this.overlay = overlay;
+        this.executor = executor;
+    }
+
+    /**
+     * A loader for tasks that can run for seconds or minutes, e.g. imports, exports and
+     * report or invoice generation.
+     */
+    public static BackgroundLoader forLongTasks() {
+        return new BackgroundLoader(null, LONG_TASK_EXECUTOR);
+    }
+
+    public <T> void load(Callable<T> task, Consumer<T> onLoaded, Consumer<Exception> onError) {
+        load(task, onLoaded, onError, true);
+    }
+
+    /**
+     * Must be called on the EDT. The overlay, if any, is shown until the task finishes.
+     */
+    public <T> void load(Callable<T> task, Consumer<T> onLoaded, Consumer<Exception> onError, boolean showOverlay) {
+        cancel();
+
+        final int requestGeneration = ++generation;
+        if (showOverlay && overlay != null) {
+            overlay.setLoading(true);
+        }
+
+        currentTask = executor.submit(() -> {
+            try {
+                T result = task.call();
+                publish(requestGeneration, () -> onLoaded.accept(result));
+            } catch (InterruptedException e) {
+                // Cancelled by a newer load, nothing to publish
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                publish(requestGeneration, () -> onError.accept(e));
+            }
+        });
+    }
+
+    /**
+     * Cancels the running load, if any. Its result will not be published.
+     */
+    public void cancel() {
+        generation++;
+        if (currentTask != null) {
+            currentTask.cancel(true);
+            currentTask = null;
+        }
+        if (overlay != null) {
+            overlay.setLoading(false);
+        }
+    }
+
+    public boolean isLoading() {
+        return currentTask != null && !currentTask.isDone();
+    }
+
+    private void publish(int requestGeneration, Runnable action) {
+        SwingUtilities.invokeLater(() -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            currentTask = null;
+            if (overlay != null) {
+                overlay.setLoading(false);
+            }
+            action.run();
+        });
+    }
+
+    private static ExecutorService createExecutor(String threadNamePrefix, int poolSize) {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, threadNamePrefix + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
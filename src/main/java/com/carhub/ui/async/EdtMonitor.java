@@ -0,0 +1,304 @@
+package com.carhub.ui.async;
+
+import com.carhub.dto.EdtStallSite;
+import com.carhub.dto.EdtStatus;
+import com.carhub.service.DiagnosticsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the event thread takes to pick up a task: a probe is queued with
+ * invokeLater at a fixed interval, and the time until it runs is the lag. A lag above the
+ * threshold is counted as a stall, which means something ran on the event thread for that
+ * long and the window did not respond meanwhile.
+ * <p>
+ * While a probe waits, the event thread's stack is sampled every interval. Each stall is
+ * attributed to the call site seen in most of its samples, the innermost CarHub UI frame,
+ * and the totals per call site are written to a stall report in the diagnostics directory.
+ */
+@Component
+public class EdtMonitor implements InitializingBean, DisposableBean {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final DateTimeFormatter REPORT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int MAX_SITES = 200;
+    private static final int MAX_STACK_FRAMES = 60;
+    private static final String UNSAMPLED_SITE = "(not sampled)";
+    private static final String OTHER_SITE = "(other call sites)";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DiagnosticsService diagnosticsService;
+
+    @Value("${edt.monitor.interval-ms:100}")
+    private long intervalMillis;
+
+    @Value("${edt.stall.threshold-ms:200}")
+    private long stallThresholdMillis;
+
+    @Value("${edt.stall.report-interval-seconds:60}")
+    private long reportIntervalSeconds;
+
+    private ScheduledExecutorService scheduler;
+    private Timer stallTimer;
+    private String reportName;
+
+    // System.nanoTime() when the waiting probe was queued, 0 when none is waiting
+    private volatile long probeQueuedAt;
+    private volatile long lastLagNanos;
+    private volatile Thread eventThread;
+
+    // Guarded by this
+    private final Deque<Long> recentStallTimes = new ArrayDeque<>();
+    private long stallCount;
+    private long longestStallNanos;
+    private long lastStallNanos;
+    private LocalDateTime lastStallAt;
+    private long reportedStallCount;
+
+    // Samples of the waiting probe's stall, by call site; guarded by this
+    private long sampledProbe;
+    private final Map<String, Integer> probeSamples = new HashMap<>();
+    private final Map<String, StackTraceElement[]> probeStacks = new HashMap<>();
+    private final Map<String, SiteStats> sites = new HashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        stallTimer = Timer.builder("carhub.edt.stalls")
+                .description("Times the event thread was busy longer than the stall threshold")
+                .register(meterRegistry);
+        Gauge.builder("carhub.edt.lag", this, monitor -> monitor.currentLagNanos() / 1e6)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        reportName = "edt-stalls-" + LocalDateTime.now().format(REPORT_TIME_FORMAT) + ".txt";
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "carhub-edt-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::queueProbe, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        if (reportIntervalSeconds > 0) {
+            // The application exits without closing the context, so the report is kept current as it runs
+            scheduler.scheduleWithFixedDelay(this::writeReportIfChanged, reportIntervalSeconds, reportIntervalSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        writeReportIfChanged();
+    }
+
+    public synchronized EdtStatus getStatus() {
+        long now = System.nanoTime();
+        while (!recentStallTimes.isEmpty() && now - recentStallTimes.peekFirst() > MINUTE_NANOS) {
+            recentStallTimes.pollFirst();
+        }
+        return new EdtStatus(TimeUnit.NANOSECONDS.toMillis(currentLagNanos()), stallThresholdMillis, stallCount,
+                recentStallTimes.size(), TimeUnit.NANOSECONDS.toMillis(longestStallNanos),
+                TimeUnit.NANOSECONDS.toMillis(lastStallNanos), lastStallAt);
+    }
+
+    /**
+     * Stalls so far grouped by call site, the most event thread time first.
+     */
+    public synchronized List<EdtStallSite> getStallSites() {
+        List<EdtStallSite> result = new ArrayList<>();
+        for (Map.Entry<String, SiteStats> entry : sites.entrySet()) {
+            SiteStats stats = entry.getValue();
+            List<String> stack = new ArrayList<>();
+            for (int i = 0; i < Math.min(MAX_STACK_FRAMES, stats.longestStack.length); i++) {
+                stack.add(formatFrame(stats.longestStack[i]));
+            }
+            result.add(new EdtStallSite(entry.getKey(), stats.stalls, stats.samples,
+                    TimeUnit.NANOSECONDS.toMillis(stats.totalNanos), TimeUnit.NANOSECONDS.toMillis(stats.longestNanos),
+                    stats.lastSeenAt, stack));
+        }
+        result.sort(Comparator.comparingLong(EdtStallSite::getTotalMillis).reversed());
+        return result;
+    }
+
+    /**
+     * Writes the stall report now and returns its path.
+     */
+    public Path writeStallReport() throws IOException {
+        long stalls;
+        synchronized (this) {
+            stalls = stallCount;
+        }
+        Path file = diagnosticsService.writeStallReport(reportName, getStatus(), getStallSites());
+        synchronized (this) {
+            reportedStallCount = Math.max(reportedStallCount, stalls);
+        }
+        return file;
+    }
+
+    private void writeReportIfChanged() {
+        synchronized (this) {
+            if (stallCount == reportedStallCount) {
+                return;
+            }
+        }
+        try {
+            writeStallReport();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to write event thread stall report: " + e.getMessage());
+        }
+    }
+
+    private void queueProbe() {
+        long waitingProbe = probeQueuedAt;
+        if (waitingProbe != 0) {
+            // One probe at a time: while the event thread is blocked, see what it is running
+            sampleEventThread(waitingProbe);
+            return;
+        }
+        long queuedAt = System.nanoTime();
+        probeQueuedAt = queuedAt;
+        SwingUtilities.invokeLater(() -> probeRan(queuedAt));
+    }
+
+    private void sampleEventThread(long queuedAt) {
+        Thread thread = eventThread;
+        if (thread == null) {
+            return;
+        }
+        StackTraceElement[] stack = thread.getStackTrace();
+        String site = callSite(stack);
+        synchronized (this) {
+            if (probeQueuedAt != queuedAt) {
+                // The probe ran while sampling, so the stack may belong to a later task
+                return;
+            }
+            if (sampledProbe != queuedAt) {
+                sampledProbe = queuedAt;
+                probeSamples.clear();
+                probeStacks.clear();
+            }
+            probeSamples.merge(site, 1, Integer::sum);
+            probeStacks.putIfAbsent(site, stack);
+        }
+    }
+
+    private void probeRan(long queuedAt) {
+        long lag = System.nanoTime() - queuedAt;
+        eventThread = Thread.currentThread();
+        lastLagNanos = lag;
+        synchronized (this) {
+            probeQueuedAt = 0;
+            if (lag >= TimeUnit.MILLISECONDS.toNanos(stallThresholdMillis)) {
+                recordStall(queuedAt, lag);
+            }
+        }
+    }
+
+    private synchronized void recordStall(long queuedAt, long lagNanos) {
+        stallCount++;
+        recentStallTimes.addLast(System.nanoTime());
+        longestStallNanos = Math.max(longestStallNanos, lagNanos);
+        lastStallNanos = lagNanos;
+        lastStallAt = LocalDateTime.now();
+        stallTimer.record(lagNanos, TimeUnit.NANOSECONDS);
+
+        // The call site seen in most samples is where the time went
+        String site = UNSAMPLED_SITE;
+        int samples = 0;
+        if (sampledProbe == queuedAt) {
+            for (Map.Entry<String, Integer> entry : probeSamples.entrySet()) {
+                if (entry.getValue() > samples) {
+                    site = entry.getKey();
+                    samples = entry.getValue();
+                }
+            }
+        }
+        StackTraceElement[] stack = probeStacks.getOrDefault(site, new StackTraceElement[0]);
+        if (!sites.containsKey(site) && sites.size() >= MAX_SITES) {
+            site = OTHER_SITE;
+        }
+        sites.computeIfAbsent(site, key -> new SiteStats()).record(lagNanos, samples, stack, lastStallAt);
+    }
+
+    private long currentLagNanos() {
+        long queuedAt = probeQueuedAt;
+        return queuedAt != 0 ? Math.max(lastLagNanos, System.nanoTime() - queuedAt) : lastLagNanos;
+    }
+
+    // The innermost CarHub UI frame is the handler or component that held the event thread;
+    // failing that the innermost CarHub frame, then the top of the stack
+    private static String callSite(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith("com.carhub.ui.")) {
+                return formatFrame(frame);
+            }
+        }
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith("com.carhub.")) {
+                return formatFrame(frame);
+            }
+        }
+        return stack.length > 0 ? formatFrame(stack[0]) : UNSAMPLED_SITE;
+    }
+
+    // As StackTraceElement.toString(), without the class loader and module prefix
+    private static String formatFrame(StackTraceElement frame) {
+        String location;
+        if (frame.isNativeMethod()) {
+            location = "Native Method";
+        } else if (frame.getFileName() == null) {
+            location = "Unknown Source";
+        } else if (frame.getLineNumber() < 0) {
+            location = frame.getFileName();
+        } else {
+            location = frame.getFileName() + ":" + frame.getLineNumber();
+        }
+        return frame.getClassName() + "." + frame.getMethodName() + "(" + location + ")";
+    }
+
+    private static class SiteStats {
+        private long stalls;
+        private long samples;
+        private long totalNanos;
+        private long longestNanos;
+        private LocalDateTime lastSeenAt;
+        private StackTraceElement[] longestStack = new StackTraceElement[0];
+
+        private void record(long lagNanos, int sampleCount, StackTraceElement[] stack, LocalDateTime seenAt) {
+            stalls++;
+            samples += sampleCount;
+            totalNanos += lagNanos;
+            if (lagNanos >= longestNanos && stack.length > 0) {
+                longestStack = stack;
+            }
+            longestNanos = Math.max(longestNanos, lagNanos);
+            lastSeenAt = seenAt;
+        }
+    }
+}
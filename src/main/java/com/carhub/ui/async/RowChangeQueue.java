@@ -0,0 +1,145 @@
+package com.carhub.ui.async;
+
+import com.carhub.dto.ChangeEvent;
+import com.carhub.service.ChangeEventService;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Applies the changes of one entity to a panel's list, row by row, instead of reloading it.
+ * Changes arriving while a batch is being read are queued and read together afterwards, with
+ * one query per {@value #READ_CHUNK_SIZE} rows. Deleted rows are removed without a query.
+ * <p>
+ * Everything except the {@link RowFinder} runs on the EDT. A panel pauses the queue while it
+ * loads its whole list, changes are then applied on top of the fresh rows.
+ */
+public class RowChangeQueue<T> {
+
+    @FunctionalInterface
+    public interface RowFinder<T> {
+        /**
+         * Runs off the EDT. Returns, in any order, the rows among ids that still belong in
+         * the panel's list.
+         */
+        List<T> findAll(List<Long> ids) throws Exception;
+    }
+
+    // Keeps the IN list of one query well within what the driver and planner handle easily
+    private static final int READ_CHUNK_SIZE = 500;
+
+    private final ChangeEvent.Entity entity;
+    // Called when a batch starts, so the finder sees the filter set at that moment
+    private final Supplier<RowFinder<T>> finderSupplier;
+    private final Function<T, Long> idOf;
+    // Rows by id, in the order they changed; a null row is removed from the list
+    private final Consumer<Map<Long, T>> applier;
+    private final Runnable reloader;
+
+    private final BackgroundLoader loader = new BackgroundLoader();
+    private final Map<Long, ChangeEvent.Type> pending = new LinkedHashMap<>();
+    private Map<Long, ChangeEvent.Type> reading = Map.of();
+    private boolean paused;
+
+    private final Consumer<ChangeEvent> listener = event -> {
+        if (event.getEntity() == getEntity()) {
+            SwingUtilities.invokeLater(() -> add(event));
+        }
+    };
+
+    public RowChangeQueue(ChangeEvent.Entity entity, Supplier<RowFinder<T>> finderSupplier,
+                          Function<T, Long> idOf, Consumer<Map<Long, T>> applier, Runnable reloader) {
+        this.entity = entity;
+        this.finderSupplier = finderSupplier;
+        this.idOf = idOf;
+        this.applier = applier;
+        this.reloader = reloader;
+    }
+
+    public ChangeEvent.Entity getEntity() {
+        return entity;
+    }
+
+    /**
+     * Starts receiving the changes published by the service.
+     */
+    public void listenTo(ChangeEventService changeEventService) {
+        changeEventService.addListener(listener);
+    }
+
+    /**
+     * Holds the changes until {@link #resume()}; the batch being read, if any, is read again then.
+     */
+    public void pause() {
+        paused = true;
+        loader.cancel();
+        reading.forEach(pending::putIfAbsent);
+        reading = Map.of();
+    }
+
+    public void resume() {
+        paused = false;
+        applyPending();
+    }
+
+    private void add(ChangeEvent event) {
+        if (event.getType() == ChangeEvent.Type.RELOADED) {
+            pending.clear();
+            reloader.run();
+            return;
+        }
+        // A deletion wins over earlier changes of the same row
+        if (event.getType() == ChangeEvent.Type.DELETED) {
+            pending.remove(event.getId());
+        }
+        pending.putIfAbsent(event.getId(), event.getType());
+        applyPending();
+    }
+
+    private void applyPending() {
+        if (paused || loader.isLoading() || pending.isEmpty()) {
+            return;
+        }
+        reading = new LinkedHashMap<>(pending);
+        pending.clear();
+
+        final Map<Long, ChangeEvent.Type> changes = reading;
+        final RowFinder<T> finder = finderSupplier.get();
+        List<Long> ids = new ArrayList<>();
+        changes.forEach((id, type) -> {
+            if (type != ChangeEvent.Type.DELETED) {
+                ids.add(id);
+            }
+        });
+        loader.load(() -> {
+            Map<Long, T> found = new HashMap<>();
+            for (int from = 0; from < ids.size(); from += READ_CHUNK_SIZE) {
+                for (T row : finder.findAll(ids.subList(from, Math.min(from + READ_CHUNK_SIZE, ids.size())))) {
+                    found.put(idOf.apply(row), row);
+                }
+            }
+            // Deleted rows and rows no longer matching the filter stay null
+            Map<Long, T> rows = new LinkedHashMap<>();
+            for (Long id : changes.keySet()) {
+                rows.put(id, found.get(id));
+            }
+            return rows;
+        }, rows -> {
+            reading = Map.of();
+            applier.accept(rows);
+            applyPending();
+        }, e -> {
+            // The rows stay as they were; the next reload shows the changes
+            e.printStackTrace();
+            reading = Map.of();
+            applyPending();
+        });
+    }
+}
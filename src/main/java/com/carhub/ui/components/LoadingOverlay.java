@@ -0,0 +1,96 @@
+package com.carhub.ui.components;
+
+import javax.swing.*;
+import javax.swing.plaf.LayerUI;
+import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+
+/**
+ * Dims the wrapped component and shows a loading message while data is being fetched.
+ * Use with {@code new JLayer<>(content, overlay)}.
+ */
+public class LoadingOverlay extends LayerUI<JComponent> {
+
+    private static final Color OVERLAY_COLOR = new Color(26, 28, 32, 160);
+    private static final Color TEXT_COLOR = new Color(222, 255, 41);
+
+    private final String message;
+    private boolean loading = false;
+
+    public LoadingOverlay() {
+        this("Loading...");
+    }
+
+    public LoadingOverlay(String message) {
+        this.message = message;
+    }
+
+    public void setLoading(boolean loading) {
+        if (this.loading != loading) {
+            this.loading = loading;
+            firePropertyChange("loading", !loading, loading);
+        }
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    @Override
+    public void installUI(JComponent c) {
+        super.installUI(c);
+        ((JLayer<?>) c).setLayerEventMask(AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_MOTION_EVENT_MASK);
+    }
+
+    @Override
+    public void uninstallUI(JComponent c) {
+        ((JLayer<?>) c).setLayerEventMask(0);
+        super.uninstallUI(c);
+    }
+
+    @Override
+    public void paint(Graphics g, JComponent c) {
+        super.paint(g, c);
+        if (!loading) {
+            return;
+        }
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(OVERLAY_COLOR);
+        g2.fillRect(0, 0, c.getWidth(), c.getHeight());
+
+        g2.setFont(new Font("SF Pro Text", Font.BOLD, 16));
+        g2.setColor(TEXT_COLOR);
+        FontMetrics metrics = g2.getFontMetrics();
+        int x = (c.getWidth() - metrics.stringWidth(message)) / 2;
+        int y = (c.getHeight() - metrics.getHeight()) / 2 + metrics.getAscent();
+        g2.drawString(message, x, y);
+        g2.dispose();
+    }
+
+    @Override
+    public void applyPropertyChange(java.beans.PropertyChangeEvent evt, JLayer<? extends JComponent> layer) {
+        if ("loading".equals(evt.getPropertyName())) {
+            layer.repaint();
+        }
+    }
+
+    @Override
+    protected void processMouseEvent(MouseEvent e, JLayer<? extends JComponent> layer) {
+        consumeWhileLoading(e);
+    }
+
+    @Override
+    protected void processMouseMotionEvent(MouseEvent e, JLayer<? extends JComponent> layer) {
+        consumeWhileLoading(e);
+    }
+
+    // Clicks on stale rows would act on data that is about to be replaced
+    private void consumeWhileLoading(InputEvent e) {
+        if (loading) {
+            e.consume();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
+import javax.swing.table.TableModel;
 import java.awt.*;
 
 public class ModernTable extends JTable {
@@ -30,6 +31,11 @@ public class ModernTable extends JTable {
         initializeTable();
     }
 
+    public ModernTable(TableModel model) {
+        super(model);
+        initializeTable();
+    }
+
     private void initializeTable() {
         setBackground(ROW_BACKGROUND);
         setForeground(TEXT_COLOR);
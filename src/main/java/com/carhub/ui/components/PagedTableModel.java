@@ -0,0 +1,236 @@
+package com.carhub.ui.components;
+
+import com.carhub.ui.async.BackgroundLoader;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Table model that pulls rows page by page through a keyset {@link PageLoader}.
+ * The first page is fetched on {@link #reload()}, further pages are fetched
+ * when the attached scroll pane gets close to the bottom. Pages are loaded
+ * through the panel's {@link BackgroundLoader}, never on the EDT.
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    // Start loading the next page when fewer than this many rows remain below the viewport
+    private static final int PREFETCH_ROWS = 20;
+    // Rows loaded on their own, without the user scrolling, while a row filter leaves the viewport
+    // unfilled; bounded so that a rare search text does not page through the whole table
+    private static final int MAX_FILL_ROWS = 1000;
+
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        /**
+         * Loads up to pageSize items following lastItem (null for the first page).
+         */
+        List<T> loadPage(T lastItem, int pageSize) throws Exception;
+    }
+
+    private final String[] columns;
+    private final Function<T, Object[]> rowMapper;
+    private final int pageSize;
+    private final BackgroundLoader backgroundLoader;
+
+    private final List<T> items = new ArrayList<>();
+    private final List<Object[]> rows = new ArrayList<>();
+
+    private PageLoader<T> pageLoader;
+    private Consumer<Exception> errorHandler = Exception::printStackTrace;
+    private boolean hasMore = true;
+    private boolean loading = false;
+    private int fillRowsLeft = MAX_FILL_ROWS;
+    private JTable table;
+
+    public PagedTableModel(String[] columns, Function<T, Object[]> rowMapper, BackgroundLoader backgroundLoader) {
+        this(columns, rowMapper, backgroundLoader, DEFAULT_PAGE_SIZE);
+    }
+
+    public PagedTableModel(String[] columns, Function<T, Object[]> rowMapper, BackgroundLoader backgroundLoader, int pageSize) {
+        this.columns = columns;
+        this.rowMapper = rowMapper;
+        this.backgroundLoader = backgroundLoader;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Loads the next page whenever the scroll pane approaches the last loaded row.
+     */
+    public void attachTo(JTable table, JScrollPane scrollPane) {
+        this.table = table;
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            BoundedRangeModel model = scrollPane.getVerticalScrollBar().getModel();
+            int threshold = PREFETCH_ROWS * Math.max(1, table.getRowHeight());
+            if (model.getValue() + model.getExtent() >= model.getMaximum() - threshold) {
+                loadNextPage();
+            }
+        });
+    }
+
+    public void setPageLoader(PageLoader<T> pageLoader) {
+        this.pageLoader = pageLoader;
+    }
+
+    public void setErrorHandler(Consumer<Exception> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Discards all loaded rows and fetches the first page again.
+     */
+    public void reload() {
+        // Drops any page still being fetched for the previous filter
+        backgroundLoader.cancel();
+        items.clear();
+        rows.clear();
+        hasMore = true;
+        loading = false;
+        fillRowsLeft = MAX_FILL_ROWS;
+        fireTableDataChanged();
+        loadNextPage();
+    }
+
+    public void loadNextPage() {
+        if (loading || !hasMore || pageLoader == null) {
+            return;
+        }
+        loading = true;
+
+        final T lastItem = items.isEmpty() ? null : items.get(items.size() - 1);
+        final PageLoader<T> loader = pageLoader;
+
+        // Only the first page dims the table, later pages load while the user keeps scrolling
+        backgroundLoader.load(() -> {
+            List<T> page = loader.loadPage(lastItem, pageSize);
+            // Build the cell values off the EDT as well, formatting can be costly
+            List<Object[]> pageRows = new ArrayList<>(page.size());
+            for (T item : page) {
+                pageRows.add(rowMapper.apply(item));
+            }
+            return new Page<>(page, pageRows);
+        }, page -> {
+            loading = false;
+            appendPage(page.items, page.rows);
+        }, e -> {
+            loading = false;
+            hasMore = false;
+            errorHandler.accept(e);
+        }, items.isEmpty());
+    }
+
+    private void appendPage(List<T> page, List<Object[]> pageRows) {
+        if (page.size() < pageSize) {
+            hasMore = false;
+        }
+        if (page.isEmpty()) {
+            return;
+        }
+
+        int firstRow = rows.size();
+        items.addAll(page);
+        rows.addAll(pageRows);
+        fireTableRowsInserted(firstRow, rows.size() - 1);
+
+        // Keep filling while the rows shown do not yet overflow the viewport, there is nothing to scroll
+        fillRowsLeft -= page.size();
+        fillViewport();
+    }
+
+    /**
+     * Call when the row filter changes. Loads further pages, up to MAX_FILL_ROWS rows, while the
+     * rows shown do not fill the viewport, as hidden rows leave nothing to scroll.
+     */
+    public void rowFilterChanged() {
+        fillRowsLeft = MAX_FILL_ROWS;
+        fillViewport();
+    }
+
+    private void fillViewport() {
+        if (hasMore && fillRowsLeft > 0 && table != null && table.getParent() != null
+                && table.getRowCount() * table.getRowHeight() <= table.getParent().getHeight()) {
+            loadNextPage();
+        }
+    }
+
+    public T getItemAt(int rowIndex) {
+        return items.get(rowIndex);
+    }
+
+    /**
+     * Returns the row of the first loaded item matching, or -1.
+     */
+    public int indexOf(Predicate<T> predicate) {
+        for (int i = 0; i < items.size(); i++) {
+            if (predicate.test(items.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts an item among the loaded rows. The next page still follows the last loaded item,
+     * so rows must only be inserted where they belong in the page order.
+     */
+    public void insertItem(int rowIndex, T item) {
+        items.add(rowIndex, item);
+        rows.add(rowIndex, rowMapper.apply(item));
+        fireTableRowsInserted(rowIndex, rowIndex);
+    }
+
+    public void removeItem(int rowIndex) {
+        items.remove(rowIndex);
+        rows.remove(rowIndex);
+        fireTableRowsDeleted(rowIndex, rowIndex);
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return rows.get(rowIndex)[columnIndex];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    private static final class Page<T> {
+        private final List<T> items;
+        private final List<Object[]> rows;
+
+        private Page(List<T> items, List<Object[]> rows) {
+            this.items = items;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.carhub.ui.components;
+
+import com.carhub.entity.CarImage;
+import com.carhub.service.ThumbnailService;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.function.Function;
+
+/**
+ * Shows car photo thumbnails in a table column or a list. Painting never waits for an image:
+ * a thumbnail not in memory yet is drawn as a placeholder and loaded in the background, and
+ * the component is repainted once it arrives.
+ */
+public class ThumbnailRenderer extends DefaultTableCellRenderer implements ListCellRenderer<CarImage> {
+
+    private static final Color PLACEHOLDER_COLOR = new Color(55, 65, 81);
+    private static final Color TEXT_COLOR = new Color(161, 161, 170);
+    private static final Color PRIMARY_COLOR = new Color(222, 255, 41);
+
+    private final ThumbnailService thumbnailService;
+    // Finds the photo for a cell value, in a table the value is usually an id
+    private final Function<Object, CarImage> imageResolver;
+    private final int width;
+    private final int height;
+
+    private final ThumbnailIcon icon = new ThumbnailIcon();
+
+    public ThumbnailRenderer(ThumbnailService thumbnailService, Function<Object, CarImage> imageResolver,
+                             int width, int height) {
+        this.thumbnailService = thumbnailService;
+        this.imageResolver = imageResolver;
+        this.width = width;
+        this.height = height;
+        setHorizontalAlignment(CENTER);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+        // Same colors as the other cells of the row
+        Component styled = table.getDefaultRenderer(Object.class)
+                .getTableCellRendererComponent(table, "", isSelected, hasFocus, row, column);
+        setBackground(styled.getBackground());
+        setBorder(BorderFactory.createEmptyBorder(2, 2, 2, 2));
+
+        show(imageResolver.apply(value), table);
+        return this;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends CarImage> list, CarImage value, int index,
+                                                  boolean isSelected, boolean cellHasFocus) {
+        setBackground(isSelected ? list.getSelectionBackground() : list.getBackground());
+        // The primary photo, the one shown in the cars list, is outlined
+        boolean primary = value != null && Boolean.TRUE.equals(value.getIsPrimary());
+        setBorder(primary
+                ? BorderFactory.createCompoundBorder(BorderFactory.createLineBorder(PRIMARY_COLOR, 2),
+                        BorderFactory.createEmptyBorder(2, 2, 2, 2))
+                : BorderFactory.createEmptyBorder(4, 4, 4, 4));
+        setToolTipText(value != null ? value.getImageName() + (primary ? " (primary)" : "") : null);
+
+        show(value, list);
+        return this;
+    }
+
+    private void show(CarImage image, JComponent owner) {
+        setText(null);
+        setIcon(icon);
+        icon.thumbnail = null;
+        icon.message = null;
+
+        if (image == null) {
+            icon.message = "No photo";
+            return;
+        }
+        BufferedImage thumbnail = thumbnailService.getIfLoaded(image);
+        if (thumbnail != null) {
+            icon.thumbnail = thumbnail;
+        } else if (thumbnailService.isUnavailable(image)) {
+            icon.message = "No preview";
+        } else {
+            // Only cells being painted ask for their thumbnail, so only visible rows are loaded
+            thumbnailService.load(image).whenComplete((loaded, error) -> SwingUtilities.invokeLater(owner::repaint));
+        }
+    }
+
+    private final class ThumbnailIcon implements Icon {
+
+        private BufferedImage thumbnail;
+        private String message;
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            try {
+                if (thumbnail == null) {
+                    g2.setColor(PLACEHOLDER_COLOR);
+                    g2.fillRect(x, y, width, height);
+                    if (message != null) {
+                        g2.setColor(TEXT_COLOR);
+                        g2.setFont(c.getFont().deriveFont(11f));
+                        FontMetrics metrics = g2.getFontMetrics();
+                        g2.drawString(message, x + (width - metrics.stringWidth(message)) / 2,
+                                y + (height + metrics.getAscent() - metrics.getDescent()) / 2);
+                    }
+                    return;
+                }
+
+                // Fitted into the cell, keeping the aspect ratio
+                double scale = Math.min((double) width / thumbnail.getWidth(), (double) height / thumbnail.getHeight());
+                int drawWidth = (int) Math.round(thumbnail.getWidth() * scale);
+                int drawHeight = (int) Math.round(thumbnail.getHeight() * scale);
+                g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g2.drawImage(thumbnail, x + (width - drawWidth) / 2, y + (height - drawHeight) / 2,
+                        drawWidth, drawHeight, null);
+            } finally {
+                g2.dispose();
+            }
+        }
+
+        @Override
+        public int getIconWidth() {
+            return width;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return height;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.carhub.ui.components;
+
+import com.carhub.util.SearchIndex;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Filters a table while the user types in a search field. Keystrokes are debounced,
+ * then the text is looked up in an in-memory {@link SearchIndex} and the rows whose id
+ * is not a match are hidden through a RowFilter; nothing goes to the database.
+ * The index is asked for the first time the table is shown, which starts loading it.
+ * Until it has finished loading, when the list is too large to index, or for lists
+ * installed without an index, rows are matched on their displayed text instead.
+ */
+public class TypeAheadFilter {
+
+    private static final int DEBOUNCE_MILLIS = 150;
+
+    private final JTextField searchField;
+    private final TableRowSorter<TableModel> sorter;
+    private final int idColumn;
+    private final Supplier<SearchIndex> indexSupplier;
+    private final Timer debounceTimer;
+    private final List<Runnable> filterListeners = new ArrayList<>();
+
+    private TypeAheadFilter(JTable table, JTextField searchField, int idColumn, Supplier<SearchIndex> indexSupplier) {
+        this.searchField = searchField;
+        this.idColumn = idColumn;
+        this.indexSupplier = indexSupplier;
+
+        // Rows stay in the order the panel loaded them, the sorter is only used for filtering
+        sorter = new TableRowSorter<>(table.getModel());
+        for (int column = 0; column < table.getModel().getColumnCount(); column++) {
+            sorter.setSortable(column, false);
+        }
+        table.setRowSorter(sorter);
+
+        debounceTimer = new Timer(DEBOUNCE_MILLIS, e -> apply());
+        debounceTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+        });
+    }
+
+    /**
+     * Installs a filter matching the rows on their displayed text, for lists whose rows are
+     * not all loaded, such as paged ones.
+     */
+    public static TypeAheadFilter install(JTable table, JTextField searchField) {
+        return new TypeAheadFilter(table, searchField, -1, null);
+    }
+
+    /**
+     * Installs the filter on the table. The index supplier is called on the EDT for every
+     * search, so it must be cheap.
+     */
+    public static TypeAheadFilter install(JTable table, JTextField searchField, int idColumn,
+                                          Supplier<SearchIndex> indexSupplier) {
+        TypeAheadFilter filter = new TypeAheadFilter(table, searchField, idColumn, indexSupplier);
+        // Panels are built at startup; an index is only loaded once its panel is opened
+        table.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && table.isShowing()) {
+                    table.removeHierarchyListener(this);
+                    indexSupplier.get();
+                }
+            }
+        });
+        return filter;
+    }
+
+    /**
+     * Called on the EDT each time the rows shown change because the search text did.
+     */
+    public void addFilterListener(Runnable listener) {
+        filterListeners.add(listener);
+    }
+
+    /**
+     * Filters the rows for the current text right away. Call after reloading the table.
+     */
+    public void apply() {
+        debounceTimer.stop();
+        setRowFilter(searchField.getText().trim());
+        for (Runnable listener : filterListeners) {
+            listener.run();
+        }
+    }
+
+    private void setRowFilter(String text) {
+        if (text.isEmpty()) {
+            sorter.setRowFilter(null);
+            return;
+        }
+
+        SearchIndex index = indexSupplier != null ? indexSupplier.get() : null;
+        if (index != null && index.isReady()) {
+            SearchIndex.Matches matches = index.query(text);
+            sorter.setRowFilter(new RowFilter<TableModel, Integer>() {
+                @Override
+                public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+                    Object id = entry.getValue(idColumn);
+                    return id instanceof Number && matches.contains(((Number) id).longValue());
+                }
+            });
+        } else {
+            String[] terms = text.toLowerCase(Locale.ROOT).split("\\s+");
+            sorter.setRowFilter(new RowFilter<TableModel, Integer>() {
+                @Override
+                public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+                    StringBuilder row = new StringBuilder();
+                    for (int column = 0; column < entry.getValueCount(); column++) {
+                        row.append(entry.getStringValue(column).toLowerCase(Locale.ROOT)).append(' ');
+                    }
+                    for (String term : terms) {
+                        if (row.indexOf(term) < 0) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            });
+        }
+    }
+}
@@ -2,20 +2,36 @@ package com.carhub.ui.dialogs;
 
 import com.carhub.entity.Admin;
 import com.carhub.entity.Car;
+import com.carhub.entity.CarImage;
+import com.carhub.service.CarImageService;
 import com.carhub.service.CarService;
+import com.carhub.service.ThumbnailService;
+import com.carhub.ui.async.BackgroundLoader;
 import com.carhub.ui.components.ModernButton;
 import com.carhub.ui.components.ModernTextField;
+import com.carhub.ui.components.ThumbnailRenderer;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.io.File;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 public class CarDialog extends JDialog {
 
     private CarService carService;
+    private CarImageService carImageService;
+    private ThumbnailService thumbnailService;
     private Admin currentAdmin;
     private Car car;
     private boolean carSaved = false;
+    private boolean photosChanged = false;
+
+    private final BackgroundLoader photoLoader = new BackgroundLoader();
 
     // Form fields
     private ModernTextField brandField;
@@ -34,22 +50,29 @@ public class CarDialog extends JDialog {
     private JComboBox<Car.Condition> conditionCombo;
     private JTextArea descriptionArea;
     private ModernTextField locationField;
+    private DefaultListModel<CarImage> photoListModel;
+    private JList<CarImage> photoList;
+    private JPanel photoButtonPanel;
 
-    public CarDialog(Window parent, Car car, CarService carService, Admin currentAdmin) {
+    public CarDialog(Window parent, Car car, CarService carService, CarImageService carImageService,
+                     ThumbnailService thumbnailService, Admin currentAdmin) {
         super(parent, car == null ? "Add New Car" : "Edit Car", ModalityType.APPLICATION_MODAL);
         this.car = car;
         this.carService = carService;
+        this.carImageService = carImageService;
+        this.thumbnailService = thumbnailService;
         this.currentAdmin = currentAdmin;
 
         setupDialog();
         createComponents();
         if (car != null) {
             populateFields();
+            loadPhotos();
         }
     }
 
     private void setupDialog() {
-        setSize(600, 700);
+        setSize(600, car == null ? 700 : 860);
         setLocationRelativeTo(getParent());
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         getContentPane().setBackground(new Color(26, 28, 32));
@@ -161,9 +184,161 @@ public class CarDialog extends JDialog {
         descScrollPane.setBorder(BorderFactory.createLineBorder(new Color(55, 65, 81)));
         formPanel.add(descScrollPane, gbc);
 
+        // Photos, once the car exists
+        if (car != null) {
+            addPhotoRow(formPanel, gbc, ++row);
+        }
+
         return formPanel;
     }
 
+    private void addPhotoRow(JPanel parent, GridBagConstraints gbc, int row) {
+        gbc.gridx = 0; gbc.gridy = row;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0; gbc.weighty = 0;
+        gbc.anchor = GridBagConstraints.NORTHWEST;
+
+        JLabel label = new JLabel("Photos:");
+        label.setForeground(Color.WHITE);
+        label.setFont(new Font("SF Pro Text", Font.BOLD, 14));
+        parent.add(label, gbc);
+
+        photoListModel = new DefaultListModel<>();
+        photoList = new JList<>(photoListModel);
+        photoList.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+        photoList.setVisibleRowCount(1);
+        photoList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        photoList.setBackground(new Color(47, 51, 73));
+        photoList.setCellRenderer(new ThumbnailRenderer(thumbnailService, image -> (CarImage) image, 120, 90));
+
+        JScrollPane photoScrollPane = new JScrollPane(photoList,
+                JScrollPane.VERTICAL_SCROLLBAR_NEVER, JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        photoScrollPane.setBorder(BorderFactory.createLineBorder(new Color(55, 65, 81)));
+        photoScrollPane.setPreferredSize(new Dimension(0, 120));
+
+        ModernButton addPhotosButton = new ModernButton("Add Photos...");
+        ModernButton primaryButton = new ModernButton("Set as Primary");
+        ModernButton moveLeftButton = new ModernButton("Move Left");
+        ModernButton moveRightButton = new ModernButton("Move Right");
+
+        addPhotosButton.addActionListener(e -> addPhotos());
+        primaryButton.addActionListener(e -> setPrimaryPhoto());
+        moveLeftButton.addActionListener(e -> movePhoto(-1));
+        moveRightButton.addActionListener(e -> movePhoto(1));
+
+        photoButtonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        photoButtonPanel.setOpaque(false);
+        photoButtonPanel.add(addPhotosButton);
+        photoButtonPanel.add(Box.createHorizontalStrut(8));
+        photoButtonPanel.add(primaryButton);
+        photoButtonPanel.add(Box.createHorizontalStrut(8));
+        photoButtonPanel.add(moveLeftButton);
+        photoButtonPanel.add(Box.createHorizontalStrut(8));
+        photoButtonPanel.add(moveRightButton);
+
+        JPanel photoPanel = new JPanel(new BorderLayout(0, 8));
+        photoPanel.setOpaque(false);
+        photoPanel.add(photoScrollPane, BorderLayout.CENTER);
+        photoPanel.add(photoButtonPanel, BorderLayout.SOUTH);
+
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 1.0;
+        parent.add(photoPanel, gbc);
+        gbc.anchor = GridBagConstraints.WEST;
+    }
+
+    private void loadPhotos() {
+        Long carId = car.getId();
+        photoLoader.load(() -> carImageService.getImages(carId), this::showPhotos, e -> {
+            e.printStackTrace();
+            showError("Error loading photos: " + e.getMessage());
+        });
+    }
+
+    private void showPhotos(List<CarImage> images) {
+        Long selectedId = photoList.getSelectedValue() != null ? photoList.getSelectedValue().getId() : null;
+        photoListModel.clear();
+        photoListModel.addAll(images);
+        for (int i = 0; i < images.size(); i++) {
+            if (images.get(i).getId().equals(selectedId)) {
+                photoList.setSelectedIndex(i);
+            }
+        }
+        setPhotoButtonsEnabled(true);
+    }
+
+    private void addPhotos() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setMultiSelectionEnabled(true);
+        chooser.setFileFilter(new FileNameExtensionFilter("Images (*.jpg, *.png, *.gif, *.bmp)",
+                "jpg", "jpeg", "png", "gif", "bmp"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        // Copying the files and making their thumbnails happen off the EDT, the images are
+        // then added in one transaction
+        List<File> files = Arrays.asList(chooser.getSelectedFiles());
+        Long carId = car.getId();
+        updatePhotos(() -> carService.storeCarImages(carId, files), "adding photos");
+    }
+
+    private void setPrimaryPhoto() {
+        CarImage selected = photoList.getSelectedValue();
+        if (selected == null || Boolean.TRUE.equals(selected.getIsPrimary())) {
+            return;
+        }
+        Long carId = car.getId();
+        updatePhotos(() -> {
+            carImageService.setPrimaryImage(carId, selected.getId());
+            return null;
+        }, "setting the primary photo");
+    }
+
+    private void movePhoto(int offset) {
+        int index = photoList.getSelectedIndex();
+        int target = index + offset;
+        if (index < 0 || target < 0 || target >= photoListModel.size()) {
+            return;
+        }
+
+        List<Long> imageIds = new ArrayList<>();
+        for (int i = 0; i < photoListModel.size(); i++) {
+            imageIds.add(photoListModel.get(i).getId());
+        }
+        imageIds.add(target, imageIds.remove(index));
+
+        Long carId = car.getId();
+        updatePhotos(() -> {
+            carImageService.reorderImages(carId, imageIds);
+            return null;
+        }, "reordering photos");
+    }
+
+    // Applies a change to the photos in the background, then shows them again
+    private void updatePhotos(Callable<?> change, String action) {
+        Long carId = car.getId();
+        setPhotoButtonsEnabled(false);
+        photoLoader.load(() -> {
+            change.call();
+            return carImageService.getImages(carId);
+        }, images -> {
+            photosChanged = true;
+            showPhotos(images);
+        }, e -> {
+            setPhotoButtonsEnabled(true);
+            e.printStackTrace();
+            showError("Error " + action + ": " + e.getMessage());
+        });
+    }
+
+    private void setPhotoButtonsEnabled(boolean enabled) {
+        for (Component button : photoButtonPanel.getComponents()) {
+            button.setEnabled(enabled);
+        }
+    }
+
     private void addFormField(JPanel parent, GridBagConstraints gbc, int row, String labelText, JComponent field) {
         gbc.gridx = 0; gbc.gridy = row;
         gbc.fill = GridBagConstraints.NONE;
@@ -308,4 +483,8 @@ public class CarDialog extends JDialog {
     public boolean isCarSaved() {
         return carSaved;
     }
+
+    public boolean isPhotosChanged() {
+        return photosChanged;
+    }
 }
@@ -0,0 +1,256 @@
+package com.carhub.ui.dialogs;
+
+import com.carhub.dto.CarImportProgress;
+import com.carhub.entity.Admin;
+import com.carhub.service.CarImportService;
+import com.carhub.ui.async.BackgroundLoader;
+import com.carhub.ui.components.ModernButton;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+
+/**
+ * Imports cars from a CSV or XLSX file in the background, showing the counts and
+ * throughput as batches are written.
+ */
+public class CarImportDialog extends JDialog {
+
+    private final CarImportService carImportService;
+    private final Admin currentAdmin;
+
+    private final BackgroundLoader importLoader = BackgroundLoader.forLongTasks();
+    // Progress reports still queued on the EDT are ignored once the import is over
+    private boolean running = false;
+    private boolean carsImported = false;
+
+    private JTextField fileField;
+    private JProgressBar progressBar;
+    private JLabel progressLabel;
+    private ModernButton browseButton;
+    private ModernButton startButton;
+    private ModernButton cancelButton;
+
+    public CarImportDialog(Window parent, CarImportService carImportService, Admin currentAdmin) {
+        super(parent, "Import Cars", ModalityType.APPLICATION_MODAL);
+        this.carImportService = carImportService;
+        this.currentAdmin = currentAdmin;
+
+        setupDialog();
+        createComponents();
+    }
+
+    private void setupDialog() {
+        setSize(520, 340);
+        setLocationRelativeTo(getParent());
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        getContentPane().setBackground(new Color(26, 28, 32));
+
+        // Closing the dialog stops the import after the batch being written
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (running) {
+                    running = false;
+                    importLoader.cancel();
+                }
+            }
+        });
+    }
+
+    private void createComponents() {
+        setLayout(new BorderLayout());
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(42, 45, 53));
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(16, 24, 16, 24));
+
+        JLabel titleLabel = new JLabel("Import Cars");
+        titleLabel.setFont(new Font("SF Pro Display", Font.BOLD, 24));
+        titleLabel.setForeground(Color.WHITE);
+
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        add(createFormPanel(), BorderLayout.CENTER);
+        add(createButtonPanel(), BorderLayout.SOUTH);
+    }
+
+    private JPanel createFormPanel() {
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBackground(new Color(26, 28, 32));
+        formPanel.setBorder(BorderFactory.createEmptyBorder(24, 24, 24, 24));
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(8, 8, 8, 8);
+        gbc.anchor = GridBagConstraints.WEST;
+
+        JLabel fileLabel = new JLabel("File:");
+        fileLabel.setForeground(Color.WHITE);
+        fileLabel.setFont(new Font("SF Pro Text", Font.BOLD, 14));
+        gbc.gridx = 0; gbc.gridy = 0;
+        formPanel.add(fileLabel, gbc);
+
+        fileField = new JTextField();
+        fileField.setEditable(false);
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 1.0;
+        formPanel.add(fileField, gbc);
+
+        browseButton = new ModernButton("Browse...");
+        browseButton.addActionListener(e -> chooseFile());
+        gbc.gridx = 2;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0;
+        formPanel.add(browseButton, gbc);
+
+        JLabel hintLabel = new JLabel("CSV or XLSX with a header row: brand, model, year, price, vin, features...");
+        hintLabel.setForeground(new Color(161, 161, 170));
+        hintLabel.setFont(new Font("SF Pro Text", Font.PLAIN, 12));
+        gbc.gridx = 0; gbc.gridy = 1;
+        gbc.gridwidth = 3;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        formPanel.add(hintLabel, gbc);
+
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        gbc.gridy = 2;
+        formPanel.add(progressBar, gbc);
+
+        progressLabel = new JLabel(" ");
+        progressLabel.setForeground(new Color(161, 161, 170));
+        progressLabel.setFont(new Font("SF Pro Text", Font.PLAIN, 13));
+        gbc.gridy = 3;
+        formPanel.add(progressLabel, gbc);
+
+        return formPanel;
+    }
+
+    private JPanel createButtonPanel() {
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(new Color(42, 45, 53));
+        buttonPanel.setBorder(BorderFactory.createEmptyBorder(16, 24, 16, 24));
+
+        ModernButton closeButton = new ModernButton("Close");
+        cancelButton = new ModernButton("Cancel");
+        startButton = new ModernButton("Import");
+
+        closeButton.addActionListener(e -> dispose());
+        cancelButton.addActionListener(e -> cancelImport());
+        startButton.addActionListener(e -> startImport());
+        cancelButton.setEnabled(false);
+
+        buttonPanel.add(closeButton);
+        buttonPanel.add(Box.createHorizontalStrut(8));
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(Box.createHorizontalStrut(8));
+        buttonPanel.add(startButton);
+
+        return buttonPanel;
+    }
+
+    private void chooseFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV or Excel files (*.csv, *.xlsx)", "csv", "txt", "xlsx"));
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            fileField.setText(chooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    private void startImport() {
+        File file = new File(fileField.getText());
+        if (fileField.getText().isEmpty() || !file.isFile() || !CarImportService.isSupported(file)) {
+            JOptionPane.showMessageDialog(this,
+                    "Please choose a CSV or XLSX file.",
+                    "No File",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        setRunning(true);
+        progressBar.setIndeterminate(true);
+        progressBar.setString("");
+        progressLabel.setText("Reading " + file.getName() + "...");
+
+        importLoader.load(() -> carImportService.importCars(file, currentAdmin,
+                progress -> SwingUtilities.invokeLater(() -> showProgress(progress))),
+                this::showResult, e -> {
+                    setRunning(false);
+                    progressBar.setIndeterminate(false);
+                    e.printStackTrace();
+                    progressLabel.setText(" ");
+                    JOptionPane.showMessageDialog(this,
+                            "Error importing cars: " + e.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void cancelImport() {
+        importLoader.cancel();
+        setRunning(false);
+        progressBar.setIndeterminate(false);
+        progressLabel.setText("Cancelled. Cars already imported are kept.");
+        // Some batches may have been written before the import stopped
+        carsImported = true;
+    }
+
+    private void setRunning(boolean running) {
+        this.running = running;
+        startButton.setEnabled(!running);
+        browseButton.setEnabled(!running);
+        cancelButton.setEnabled(running);
+    }
+
+    private void showProgress(CarImportProgress progress) {
+        if (!running && !progress.isFinished()) {
+            return;
+        }
+        progressBar.setString(progress.getImported() + " imported / " + progress.getRowsRead() + " rows");
+        progressLabel.setText(String.format("%.0f rows/s, %d duplicates, %d invalid, %d failed",
+                progress.getRowsPerSecond(), progress.getDuplicates(), progress.getInvalid(), progress.getFailed()));
+    }
+
+    private void showResult(CarImportProgress result) {
+        setRunning(false);
+        progressBar.setIndeterminate(false);
+        progressBar.setValue(progressBar.getMaximum());
+        showProgress(result);
+        carsImported = result.getImported() > 0;
+
+        StringBuilder message = new StringBuilder();
+        message.append(result.getImported()).append(" cars imported from ").append(result.getRowsRead())
+                .append(" rows in ").append(String.format("%.1f", result.getElapsedMillis() / 1000.0)).append(" s");
+        if (result.getDuplicates() > 0) {
+            message.append("\n").append(result.getDuplicates()).append(" skipped, VIN already present");
+        }
+        if (result.getInvalid() + result.getFailed() > 0) {
+            message.append("\n").append(result.getInvalid() + result.getFailed()).append(" not imported:");
+            for (String error : result.getErrors()) {
+                message.append("\n- ").append(error);
+            }
+        }
+
+        JTextArea messageArea = new JTextArea(message.toString());
+        messageArea.setEditable(false);
+        messageArea.setOpaque(false);
+        JScrollPane messagePane = new JScrollPane(messageArea);
+        messagePane.setPreferredSize(new Dimension(460, Math.min(300, 60 + 18 * result.getErrors().size())));
+        messagePane.setBorder(null);
+
+        JOptionPane.showMessageDialog(this,
+                messagePane,
+                "Import Cars",
+                result.getInvalid() + result.getFailed() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    public boolean isCarsImported() {
+        return carsImported;
+    }
+}
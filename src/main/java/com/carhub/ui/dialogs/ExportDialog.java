@@ -0,0 +1,211 @@
+package com.carhub.ui.dialogs;
+
+import com.carhub.service.ExportService;
+import com.carhub.ui.async.BackgroundLoader;
+import com.carhub.ui.components.ModernButton;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongConsumer;
+
+/**
+ * Asks for a CSV or XLSX file, then runs an export to it in the background, showing the
+ * rows written so far. Cancelling, or closing the dialog, stops the export and deletes
+ * the partial file.
+ */
+public class ExportDialog extends JDialog {
+
+    private static final DateTimeFormatter FILE_NAME_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    /**
+     * Writes the rows to the file and returns how many were written, reporting progress as it goes.
+     */
+    @FunctionalInterface
+    public interface ExportTask {
+        long export(File file, LongConsumer progressListener) throws Exception;
+    }
+
+    private final String subject;
+    private final File file;
+    private final ExportTask task;
+
+    private final BackgroundLoader exportLoader = BackgroundLoader.forLongTasks();
+    private long startMillis;
+
+    private JProgressBar progressBar;
+    private JLabel progressLabel;
+    private ModernButton cancelButton;
+
+    private ExportDialog(Window parent, String subject, File file, ExportTask task) {
+        super(parent, "Export " + subject, ModalityType.APPLICATION_MODAL);
+        this.subject = subject;
+        this.file = file;
+        this.task = task;
+
+        setupDialog();
+        createComponents();
+    }
+
+    /**
+     * Lets the user pick the output file, then exports to it. The subject names what is
+     * exported in titles and messages, the base name starts the suggested file name.
+     */
+    public static void export(Component parent, String subject, String baseName, ExportTask task) {
+        File file = chooseFile(parent, baseName);
+        if (file == null) {
+            return;
+        }
+        ExportDialog dialog = new ExportDialog(SwingUtilities.getWindowAncestor(parent), subject, file, task);
+        // Starts once the dialog is showing, setVisible blocks until it is closed
+        SwingUtilities.invokeLater(dialog::startExport);
+        dialog.setVisible(true);
+    }
+
+    private static File chooseFile(Component parent, String baseName) {
+        FileNameExtensionFilter xlsxFilter = new FileNameExtensionFilter("Excel workbook (*.xlsx)", "xlsx");
+        FileNameExtensionFilter csvFilter = new FileNameExtensionFilter("CSV file (*.csv)", "csv");
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export");
+        chooser.setAcceptAllFileFilterUsed(false);
+        chooser.addChoosableFileFilter(xlsxFilter);
+        chooser.addChoosableFileFilter(csvFilter);
+        chooser.setFileFilter(xlsxFilter);
+        chooser.setSelectedFile(new File(baseName + "_" + LocalDateTime.now().format(FILE_NAME_TIMESTAMP) + ".xlsx"));
+
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return null;
+        }
+
+        File file = chooser.getSelectedFile();
+        if (!ExportService.isSupported(file)) {
+            String extension = chooser.getFileFilter() == csvFilter ? ".csv" : ".xlsx";
+            file = new File(file.getParentFile(), file.getName() + extension);
+        }
+        if (file.exists()) {
+            int option = JOptionPane.showConfirmDialog(parent,
+                    file.getName() + " already exists. Replace it?",
+                    "Replace File",
+                    JOptionPane.YES_NO_OPTION,
+                    JOptionPane.WARNING_MESSAGE);
+            if (option != JOptionPane.YES_OPTION) {
+                return null;
+            }
+        }
+        return file;
+    }
+
+    private void setupDialog() {
+        setSize(460, 260);
+        setLocationRelativeTo(getParent());
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        getContentPane().setBackground(new Color(26, 28, 32));
+
+        // Closing the dialog cancels the export, if it is still running
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                exportLoader.cancel();
+            }
+        });
+    }
+
+    private void createComponents() {
+        setLayout(new BorderLayout());
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(42, 45, 53));
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(16, 24, 16, 24));
+
+        JLabel titleLabel = new JLabel("Export " + subject);
+        titleLabel.setFont(new Font("SF Pro Display", Font.BOLD, 24));
+        titleLabel.setForeground(Color.WHITE);
+
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        // Progress
+        JPanel progressPanel = new JPanel(new GridLayout(3, 1, 0, 8));
+        progressPanel.setBackground(new Color(26, 28, 32));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(24, 24, 24, 24));
+
+        JLabel fileLabel = new JLabel(file.getName());
+        fileLabel.setForeground(Color.WHITE);
+        fileLabel.setFont(new Font("SF Pro Text", Font.BOLD, 14));
+
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+
+        progressLabel = new JLabel("Starting...");
+        progressLabel.setForeground(new Color(161, 161, 170));
+        progressLabel.setFont(new Font("SF Pro Text", Font.PLAIN, 13));
+
+        progressPanel.add(fileLabel);
+        progressPanel.add(progressBar);
+        progressPanel.add(progressLabel);
+        add(progressPanel, BorderLayout.CENTER);
+
+        // Buttons
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(new Color(42, 45, 53));
+        buttonPanel.setBorder(BorderFactory.createEmptyBorder(16, 24, 16, 24));
+
+        cancelButton = new ModernButton("Cancel");
+        cancelButton.addActionListener(e -> dispose());
+        buttonPanel.add(cancelButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void startExport() {
+        startMillis = System.currentTimeMillis();
+        exportLoader.load(() -> task.export(file,
+                rows -> SwingUtilities.invokeLater(() -> showProgress(rows))),
+                this::showResult, this::showError);
+    }
+
+    private void showProgress(long rows) {
+        if (!exportLoader.isLoading()) {
+            return;
+        }
+        long elapsedMillis = Math.max(1, System.currentTimeMillis() - startMillis);
+        progressLabel.setText(String.format("%,d rows written, %,.0f rows/s", rows, rows * 1000.0 / elapsedMillis));
+    }
+
+    private void showResult(Long rows) {
+        dispose();
+
+        int option = JOptionPane.showConfirmDialog(getParent(),
+                String.format("%,d %s exported.%nFile: %s%n%nWould you like to open the file location?",
+                        rows, subject.toLowerCase(), file.getAbsolutePath()),
+                "Export Successful",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.INFORMATION_MESSAGE);
+
+        if (option == JOptionPane.YES_OPTION) {
+            try {
+                Desktop.getDesktop().open(file.getParentFile());
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(getParent(),
+                        "Could not open file location. The file was saved to:\n" + file.getAbsolutePath(),
+                        "Open Location Failed",
+                        JOptionPane.WARNING_MESSAGE);
+            }
+        }
+    }
+
+    private void showError(Exception e) {
+        dispose();
+        e.printStackTrace();
+        JOptionPane.showMessageDialog(getParent(),
+                "Error exporting " + subject.toLowerCase() + ": " + e.getMessage(),
+                "Export Error",
+                JOptionPane.ERROR_MESSAGE);
+    }
+}
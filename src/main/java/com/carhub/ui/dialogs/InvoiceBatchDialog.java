@@ -0,0 +1,363 @@
+package com.carhub.ui.dialogs;
+
+import com.carhub.dto.InvoiceBatchProgress;
+import com.carhub.dto.InvoiceBatchRequest;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import com.carhub.service.ClientService;
+import com.carhub.service.InvoiceBatchService;
+import com.carhub.service.PdfService;
+import com.carhub.ui.async.BackgroundLoader;
+import com.carhub.ui.components.ModernButton;
+import com.toedter.calendar.JDateChooser;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Regenerates the invoices of a date range, a client or a payment status in one go,
+ * showing progress and throughput while the batch runs in the background.
+ */
+public class InvoiceBatchDialog extends JDialog {
+
+    private final InvoiceBatchService invoiceBatchService;
+    private final ClientService clientService;
+    private final PdfService pdfService;
+
+    private final BackgroundLoader batchLoader = BackgroundLoader.forLongTasks();
+    // Progress reports still queued on the EDT are ignored once the batch is over
+    private boolean running = false;
+
+    private JDateChooser fromDateChooser;
+    private JDateChooser toDateChooser;
+    private JComboBox<Client> clientCombo;
+    private JComboBox<Sale.PaymentStatus> paymentStatusCombo;
+    private JComboBox<InvoiceBatchRequest.OutputMode> outputModeCombo;
+    private JProgressBar progressBar;
+    private JLabel progressLabel;
+    private ModernButton startButton;
+    private ModernButton cancelButton;
+
+    public InvoiceBatchDialog(Window parent, InvoiceBatchService invoiceBatchService,
+                              ClientService clientService, PdfService pdfService) {
+        super(parent, "Batch Invoices", ModalityType.APPLICATION_MODAL);
+        this.invoiceBatchService = invoiceBatchService;
+        this.clientService = clientService;
+        this.pdfService = pdfService;
+
+        setupDialog();
+        createComponents();
+    }
+
+    private void setupDialog() {
+        setSize(480, 460);
+        setLocationRelativeTo(getParent());
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        getContentPane().setBackground(new Color(26, 28, 32));
+
+        // Closing the dialog stops the invoices that have not been rendered yet
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (running) {
+                    running = false;
+                    batchLoader.cancel();
+                }
+            }
+        });
+    }
+
+    private void createComponents() {
+        setLayout(new BorderLayout());
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(42, 45, 53));
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(16, 24, 16, 24));
+
+        JLabel titleLabel = new JLabel("Batch Invoices");
+        titleLabel.setFont(new Font("SF Pro Display", Font.BOLD, 24));
+        titleLabel.setForeground(Color.WHITE);
+
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        add(createFormPanel(), BorderLayout.CENTER);
+        add(createButtonPanel(), BorderLayout.SOUTH);
+    }
+
+    private JPanel createFormPanel() {
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBackground(new Color(26, 28, 32));
+        formPanel.setBorder(BorderFactory.createEmptyBorder(24, 24, 24, 24));
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(8, 8, 8, 8);
+        gbc.anchor = GridBagConstraints.WEST;
+
+        int row = 0;
+
+        fromDateChooser = new JDateChooser();
+        addFormField(formPanel, gbc, row++, "From:", fromDateChooser);
+
+        toDateChooser = new JDateChooser();
+        addFormField(formPanel, gbc, row++, "To:", toDateChooser);
+
+        // Client selection, the empty entry selects every client
+        List<Client> clients = clientService.findAll();
+        clientCombo = new JComboBox<>();
+        clientCombo.addItem(null);
+        for (Client client : clients) {
+            clientCombo.addItem(client);
+        }
+        clientCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                setText(value instanceof Client ? ((Client) value).getFullName() : "All Clients");
+                return this;
+            }
+        });
+        addFormField(formPanel, gbc, row++, "Client:", clientCombo);
+
+        paymentStatusCombo = new JComboBox<>();
+        paymentStatusCombo.addItem(null);
+        for (Sale.PaymentStatus status : Sale.PaymentStatus.values()) {
+            paymentStatusCombo.addItem(status);
+        }
+        paymentStatusCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                setText(value != null ? value.toString() : "All Status");
+                return this;
+            }
+        });
+        addFormField(formPanel, gbc, row++, "Payment Status:", paymentStatusCombo);
+
+        outputModeCombo = new JComboBox<>(InvoiceBatchRequest.OutputMode.values());
+        outputModeCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                if (value == InvoiceBatchRequest.OutputMode.MERGED_PDF) {
+                    setText("One merged PDF");
+                } else if (value == InvoiceBatchRequest.OutputMode.ZIP) {
+                    setText("ZIP archive");
+                } else {
+                    setText("Separate PDF files");
+                }
+                return this;
+            }
+        });
+        addFormField(formPanel, gbc, row++, "Output:", outputModeCombo);
+
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        gbc.gridx = 0; gbc.gridy = row++;
+        gbc.gridwidth = 2;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        formPanel.add(progressBar, gbc);
+
+        progressLabel = new JLabel(" ");
+        progressLabel.setForeground(new Color(161, 161, 170));
+        progressLabel.setFont(new Font("SF Pro Text", Font.PLAIN, 13));
+        gbc.gridy = row;
+        formPanel.add(progressLabel, gbc);
+
+        return formPanel;
+    }
+
+    private void addFormField(JPanel parent, GridBagConstraints gbc, int row, String labelText, JComponent field) {
+        gbc.gridx = 0; gbc.gridy = row;
+        gbc.gridwidth = 1;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0;
+
+        JLabel label = new JLabel(labelText);
+        label.setForeground(Color.WHITE);
+        label.setFont(new Font("SF Pro Text", Font.BOLD, 14));
+        parent.add(label, gbc);
+
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 1.0;
+
+        if (field instanceof JComboBox) {
+            JComboBox<?> combo = (JComboBox<?>) field;
+            combo.setBackground(new Color(47, 51, 73));
+            combo.setForeground(Color.WHITE);
+            combo.setFont(new Font("SF Pro Text", Font.PLAIN, 14));
+        }
+
+        parent.add(field, gbc);
+    }
+
+    private JPanel createButtonPanel() {
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(new Color(42, 45, 53));
+        buttonPanel.setBorder(BorderFactory.createEmptyBorder(16, 24, 16, 24));
+
+        ModernButton closeButton = new ModernButton("Close");
+        cancelButton = new ModernButton("Cancel");
+        startButton = new ModernButton("Generate");
+
+        closeButton.addActionListener(e -> dispose());
+        cancelButton.addActionListener(e -> cancelBatch());
+        startButton.addActionListener(e -> startBatch());
+        cancelButton.setEnabled(false);
+
+        buttonPanel.add(closeButton);
+        buttonPanel.add(Box.createHorizontalStrut(8));
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(Box.createHorizontalStrut(8));
+        buttonPanel.add(startButton);
+
+        return buttonPanel;
+    }
+
+    private void startBatch() {
+        Date fromDate = fromDateChooser.getDate();
+        Date toDate = toDateChooser.getDate();
+        if (fromDate != null && toDate != null && fromDate.after(toDate)) {
+            JOptionPane.showMessageDialog(this,
+                    "From date cannot be after To date.",
+                    "Invalid Date Range",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Client client = (Client) clientCombo.getSelectedItem();
+        InvoiceBatchRequest request = new InvoiceBatchRequest(
+                fromDate != null ? toLocalDateTime(fromDate).withHour(0).withMinute(0).withSecond(0) : null,
+                toDate != null ? toLocalDateTime(toDate).withHour(23).withMinute(59).withSecond(59) : null,
+                client != null ? client.getId() : null,
+                (Sale.PaymentStatus) paymentStatusCombo.getSelectedItem(),
+                (InvoiceBatchRequest.OutputMode) outputModeCombo.getSelectedItem());
+        final String outputPath = pdfService.getDefaultOutputPath();
+
+        setRunning(true);
+        progressBar.setValue(0);
+        progressBar.setString("");
+        progressLabel.setText("Selecting sales...");
+
+        batchLoader.load(() -> invoiceBatchService.generateInvoices(request, outputPath,
+                progress -> SwingUtilities.invokeLater(() -> showProgress(progress))),
+                this::showResult, e -> {
+                    setRunning(false);
+                    e.printStackTrace();
+                    progressLabel.setText(" ");
+                    JOptionPane.showMessageDialog(this,
+                            "Error generating invoices: " + e.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void cancelBatch() {
+        batchLoader.cancel();
+        setRunning(false);
+        progressLabel.setText("Cancelling...");
+    }
+
+    private void setRunning(boolean running) {
+        this.running = running;
+        startButton.setEnabled(!running);
+        cancelButton.setEnabled(running);
+    }
+
+    private void showProgress(InvoiceBatchProgress progress) {
+        if (progress.isCancelled()) {
+            showCancelled(progress);
+            return;
+        }
+        if (!running) {
+            return;
+        }
+        progressBar.setMaximum(Math.max(1, progress.getTotal()));
+        progressBar.setValue(progress.getProcessed());
+        progressBar.setString(progress.getProcessed() + " / " + progress.getTotal());
+        progressLabel.setText(String.format("%.1f invoices/s, %d failed",
+                progress.getInvoicesPerSecond(), progress.getFailed()));
+    }
+
+    // The batch reports once more after stopping, with the folder it leaves behind
+    private void showCancelled(InvoiceBatchProgress progress) {
+        if (!isDisplayable() || running) {
+            return;
+        }
+        if (progress.getOutputPath() == null) {
+            progressLabel.setText("Cancelled. No invoices were generated.");
+            return;
+        }
+        progressLabel.setText("Cancelled. " + progress.getCompleted() + " invoices kept.");
+        JOptionPane.showMessageDialog(this,
+                "The batch was cancelled after " + progress.getCompleted() + " of " + progress.getTotal()
+                        + " invoices.\nThe folder only holds part of the selection and was not merged or zipped:\n"
+                        + progress.getOutputPath(),
+                "Batch Cancelled",
+                JOptionPane.WARNING_MESSAGE);
+    }
+
+    private void showResult(InvoiceBatchProgress result) {
+        showProgress(result);
+        setRunning(false);
+
+        if (result.getTotal() == 0) {
+            progressLabel.setText(" ");
+            JOptionPane.showMessageDialog(this,
+                    "No sales match the selected criteria.",
+                    "Batch Invoices",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append(result.getCompleted()).append(" invoices generated in ")
+                .append(String.format("%.1f", result.getElapsedMillis() / 1000.0)).append(" s");
+        if (result.getFailed() > 0) {
+            message.append("\n").append(result.getFailed()).append(" failed:");
+            for (String error : result.getErrors()) {
+                message.append("\n- ").append(error);
+            }
+        }
+        message.append("\nLocation: ").append(result.getOutputPath());
+
+        Object[] options = {"Open Folder", "OK"};
+        int choice = JOptionPane.showOptionDialog(this,
+                message.toString(),
+                "Batch Invoices",
+                JOptionPane.YES_NO_OPTION,
+                result.getFailed() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE,
+                null,
+                options,
+                options[0]);
+
+        if (choice == 0) {
+            try {
+                File output = new File(result.getOutputPath());
+                Desktop.getDesktop().open(output.isDirectory() ? output : output.getParentFile());
+            } catch (Exception ex) {
+                JOptionPane.showMessageDialog(this,
+                        "Could not open the folder: " + ex.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
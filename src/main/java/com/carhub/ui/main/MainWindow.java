@@ -2,6 +2,7 @@ package com.carhub.ui.main;
 
 import com.carhub.entity.Admin;
 import com.carhub.service.*;
+import com.carhub.ui.async.EdtMonitor;
 import com.carhub.ui.components.ModernButton;
 import com.carhub.ui.dialogs.LoginDialog;
 import com.carhub.ui.panels.*;
@@ -35,6 +36,39 @@ public class MainWindow extends JFrame {
     @Autowired
     private PdfService pdfService;
 
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private CarImportService carImportService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private CarImageService carImageService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    @Autowired
+    private DiagnosticsService diagnosticsService;
+
+    @Autowired
+    private EdtMonitor edtMonitor;
+
     private Admin currentAdmin;
     private NavigationPanel navigationPanel;
     private JPanel contentPanel;
@@ -47,6 +81,7 @@ public class MainWindow extends JFrame {
     private ClientsPanel clientsPanel;
     private ReportsPanel reportsPanel;
     private SettingsPanel settingsPanel;
+    private DiagnosticsPanel diagnosticsPanel;
 
     public MainWindow() {
         // This will be called after Spring injection
@@ -99,12 +134,15 @@ public class MainWindow extends JFrame {
         contentPanel.setBackground(new Color(26, 28, 32));
 
         // Create panels
-        dashboardPanel = new DashboardPanel(carService, saleService, clientService);
-        carsPanel = new CarsPanel(carService, currentAdmin);
-        salesPanel = new SalesPanel(saleService, carService, clientService, pdfService, currentAdmin);
-        clientsPanel = new ClientsPanel(clientService, currentAdmin);
+        dashboardPanel = new DashboardPanel(dashboardService);
+        carsPanel = new CarsPanel(carService, carImportService, exportService, carImageService,
+                thumbnailService, changeEventService, currentAdmin);
+        salesPanel = new SalesPanel(saleService, carService, clientService, pdfService, invoiceBatchService, exportService,
+                changeEventService, currentAdmin);
+        clientsPanel = new ClientsPanel(clientService, exportService, searchIndexService, changeEventService, currentAdmin);
         reportsPanel = new ReportsPanel(saleService, carService, clientService);
-        settingsPanel = new SettingsPanel(systemSettingService, adminService, currentAdmin);
+        settingsPanel = new SettingsPanel(systemSettingService, adminService, salesRollupService, currentAdmin);
+        diagnosticsPanel = new DiagnosticsPanel(diagnosticsService, edtMonitor);
 
         // Add panels to content panel
         contentPanel.add(dashboardPanel, "dashboard");
@@ -113,6 +151,7 @@ public class MainWindow extends JFrame {
         contentPanel.add(clientsPanel, "clients");
         contentPanel.add(reportsPanel, "reports");
         contentPanel.add(settingsPanel, "settings");
+        contentPanel.add(diagnosticsPanel, "diagnostics");
     }
 
     private void layoutComponents() {
@@ -56,6 +56,8 @@ public class NavigationPanel extends JPanel {
         contentPanel.add(createNavigationItem("Reports", "📈", "reports", false));
         contentPanel.add(Box.createVerticalStrut(8));
         contentPanel.add(createNavigationItem("Settings", "⚙️", "settings", false));
+        contentPanel.add(Box.createVerticalStrut(8));
+        contentPanel.add(createNavigationItem("Diagnostics", "🩺", "diagnostics", false));
 
         // Add glue to push everything to the top
         contentPanel.add(Box.createVerticalGlue());
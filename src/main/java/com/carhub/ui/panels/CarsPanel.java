@@ -1,26 +1,48 @@
 package com.carhub.ui.panels;
 
+import com.carhub.dto.CarFilter;
+import com.carhub.dto.ChangeEvent;
 import com.carhub.entity.Admin;
 import com.carhub.entity.Car;
+import com.carhub.entity.CarImage;
+import com.carhub.service.CarImageService;
+import com.carhub.service.CarImportService;
 import com.carhub.service.CarService;
+import com.carhub.service.ChangeEventService;
+import com.carhub.service.ExportService;
 import com.carhub.service.PdfService;
+import com.carhub.service.ThumbnailService;
+import com.carhub.ui.async.BackgroundLoader;
+import com.carhub.ui.async.RowChangeQueue;
+import com.carhub.ui.components.LoadingOverlay;
 import com.carhub.ui.components.ModernButton;
 import com.carhub.ui.components.ModernTable;
 import com.carhub.ui.components.ModernTextField;
+import com.carhub.ui.components.PagedTableModel;
+import com.carhub.ui.components.ThumbnailRenderer;
+import com.carhub.ui.components.TypeAheadFilter;
 import com.carhub.ui.dialogs.CarDialog;
+import com.carhub.ui.dialogs.CarImportDialog;
+import com.carhub.ui.dialogs.ExportDialog;
 import com.carhub.ui.main.MainWindow;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.TableModelEvent;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import com.carhub.util.CurrencyUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.Map;
+import java.util.Set;
 import com.toedter.calendar.JDateChooser;
 
 public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
@@ -28,7 +50,7 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
     private CarService carService;
     private Admin currentAdmin;
     private ModernTable carsTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Car> tableModel;
     private ModernTextField searchField;
     private JComboBox<String> statusFilter;
     private JDateChooser fromDateChooser;
@@ -37,13 +59,43 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
     @Autowired
     private PdfService pdfService;
 
-    public CarsPanel(CarService carService, Admin currentAdmin) {
+    private final CarImportService carImportService;
+    private final ExportService exportService;
+    private final CarImageService carImageService;
+    private final ThumbnailService thumbnailService;
+
+    private final LoadingOverlay loadingOverlay = new LoadingOverlay("Loading cars...");
+    private final BackgroundLoader backgroundLoader = new BackgroundLoader(loadingOverlay);
+    private final BackgroundLoader exportLoader = BackgroundLoader.forLongTasks();
+    private final BackgroundLoader photoLoader = new BackgroundLoader();
+    // Primary photo of each listed car, by car id; loaded after the rows, photos then appear as they decode
+    private Map<Long, CarImage> primaryImages = Map.of();
+    // Cars whose primary photo is being looked up. A new lookup cancels the running one, so it takes over its cars
+    private final Set<Long> photosToLoad = new LinkedHashSet<>();
+    // Filter of the rows shown
+    private CarFilter currentFilter = new CarFilter();
+    private final RowChangeQueue<Car> changeQueue = new RowChangeQueue<>(ChangeEvent.Entity.CAR,
+            () -> {
+                CarFilter filter = currentFilter;
+                return carIds -> carService.findMatching(filter, carIds);
+            },
+            Car::getId, this::applyChanges, this::reloadRows);
+
+    public CarsPanel(CarService carService, CarImportService carImportService, ExportService exportService,
+                     CarImageService carImageService,
+                     ThumbnailService thumbnailService, ChangeEventService changeEventService,
+                     Admin currentAdmin) {
         this.carService = carService;
+        this.carImportService = carImportService;
+        this.exportService = exportService;
+        this.carImageService = carImageService;
+        this.thumbnailService = thumbnailService;
         this.currentAdmin = currentAdmin;
 
         setupPanel();
         createComponents();
         loadData();
+        changeQueue.listenTo(changeEventService);
     }
 
     private void setupPanel() {
@@ -60,9 +112,9 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
         JPanel headerPanel = createHeaderPanel();
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
-        // Table
+        // Table, dimmed while data is loading
         JScrollPane tableScrollPane = createTablePanel();
-        mainPanel.add(tableScrollPane, BorderLayout.CENTER);
+        mainPanel.add(new JLayer<>(tableScrollPane, loadingOverlay), BorderLayout.CENTER);
 
         add(mainPanel, BorderLayout.CENTER);
     }
@@ -150,17 +202,23 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
         ModernButton addCarBtn = new ModernButton("Add Car");
         ModernButton editCarBtn = new ModernButton("Edit Car");
         ModernButton deleteCarBtn = new ModernButton("Delete Car");
+        ModernButton importCarsBtn = new ModernButton("Import Cars");
         ModernButton exportPdfBtn = new ModernButton("Export PDF");
+        ModernButton exportDataBtn = new ModernButton("Export Data");
 
         addCarBtn.addActionListener(e -> showAddCarDialog());
         editCarBtn.addActionListener(e -> showEditCarDialog());
         deleteCarBtn.addActionListener(e -> deleteSelectedCar());
+        importCarsBtn.addActionListener(e -> showImportDialog());
         exportPdfBtn.addActionListener(e -> exportToPdf());
+        exportDataBtn.addActionListener(e -> exportData());
 
         buttonPanel.add(addCarBtn);
         buttonPanel.add(editCarBtn);
         buttonPanel.add(deleteCarBtn);
+        buttonPanel.add(importCarsBtn);
         buttonPanel.add(exportPdfBtn);
+        buttonPanel.add(exportDataBtn);
 
         // Combine header components
         JPanel topPanel = new JPanel(new BorderLayout());
@@ -175,17 +233,38 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
     }
 
     private JScrollPane createTablePanel() {
-        String[] columns = {"ID", "Make", "Model", "Year", "Color", "Price", "Status", "Days in Stock"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+        String[] columns = {"ID", "Photo", "Make", "Model", "Year", "Color", "Price", "Status", "Days in Stock"};
+        tableModel = new PagedTableModel<>(columns, this::toRow, backgroundLoader);
+        tableModel.setErrorHandler(e -> {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error loading cars: " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
+        // Photos of the rows are looked up as their page arrives or a changed car is listed
+        tableModel.addTableModelListener(e -> {
+            if (e.getType() == TableModelEvent.INSERT) {
+                List<Long> carIds = new ArrayList<>();
+                for (int row = e.getFirstRow(); row <= e.getLastRow(); row++) {
+                    carIds.add(tableModel.getItemAt(row).getId());
+                }
+                loadPrimaryImages(carIds);
             }
-        };
+        });
 
         carsTable = new ModernTable(tableModel);
         carsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
+        // The photo column holds the car id, the renderer looks up its primary photo
+        carsTable.setRowHeight(56);
+        carsTable.getColumnModel().getColumn(1).setCellRenderer(
+                new ThumbnailRenderer(thumbnailService, carId -> primaryImages.get(carId), 68, 50));
+        carsTable.getColumnModel().getColumn(1).setPreferredWidth(76);
+        carsTable.getColumnModel().getColumn(1).setMaxWidth(76);
+
+        // Narrows the loaded rows as the user types, on their displayed text; Enter searches all cars
+        TypeAheadFilter typeAheadFilter = TypeAheadFilter.install(carsTable, searchField);
+        typeAheadFilter.addFilterListener(tableModel::rowFilterChanged);
+
         // Double-click to edit
         carsTable.addMouseListener(new MouseAdapter() {
             @Override
@@ -201,101 +280,135 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
         scrollPane.getViewport().setBackground(new Color(42, 45, 53));
         scrollPane.setBorder(null);
 
+        // Fetch further pages as the user scrolls towards the end of the table
+        tableModel.attachTo(carsTable, scrollPane);
+
         return scrollPane;
     }
 
     private void loadData() {
-        try {
-            List<Car> cars = carService.getAllCars();
-            updateTable(cars);
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading cars: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        applyFilter(new CarFilter());
     }
 
     private void filterData() {
         try {
-            String searchText = searchField.getText().trim();
-            String statusText = (String) statusFilter.getSelectedItem();
-            Date fromDate = fromDateChooser.getDate();
-            Date toDate = toDateChooser.getDate();
-
-            List<Car> cars = carService.getAllCars();
-            
-            // Apply filters
-            cars = cars.stream()
-                    .filter(car -> {
-                        // Search text filter
-                        boolean matchesSearch = searchText.isEmpty() ||
-                                car.getBrand().toLowerCase().contains(searchText.toLowerCase()) ||
-                                car.getModel().toLowerCase().contains(searchText.toLowerCase()) ||
-                                car.getColor().toLowerCase().contains(searchText.toLowerCase());
-
-                        // Status filter
-                        boolean matchesStatus = "All Status".equals(statusText) ||
-                                car.getStatus().toString().equals(statusText);
-                                
-                        // Date range filter
-                        boolean matchesDateRange = true;
-                        if (fromDate != null || toDate != null) {
-                            LocalDate carDate = car.getCreatedAt() != null ? 
-                                car.getCreatedAt().toLocalDate() : 
-                                LocalDate.now();
-                                
-                            if (fromDate != null) {
-                                LocalDate fromLocalDate = fromDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                                matchesDateRange = !carDate.isBefore(fromLocalDate);
-                            }
-                            
-                            if (matchesDateRange && toDate != null) {
-                                LocalDate toLocalDate = toDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                                matchesDateRange = !carDate.isAfter(toLocalDate);
-                            }
-                        }
-
-                        return matchesSearch && matchesStatus && matchesDateRange;
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-            
-            updateTable(cars);
+            applyFilter(createFilter());
         } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error filtering cars: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            showFilterError(e);
         }
     }
 
-    private void updateTable(List<Car> cars) {
-        tableModel.setRowCount(0);
-
-        for (Car car : cars) {
-            Object[] row = {
-                    car.getId(),
-                    car.getBrand(),
-                    car.getModel(),
-                    car.getYear(),
-                    car.getColor() != null ? car.getColor() : "N/A",
-                    CurrencyUtils.formatCurrency(car.getPrice()),
-                    car.getStatus().toString(),
-                    car.getDaysInStock() + " days"
-            };
-            tableModel.addRow(row);
+    // Filtering runs in the database, the list pages through the matching cars only
+    private void applyFilter(CarFilter filter) {
+        currentFilter = filter;
+        tableModel.setPageLoader((lastCar, pageSize) -> carService.getCarsPage(filter, lastCar, pageSize));
+        primaryImages = Map.of();
+        photosToLoad.clear();
+        // Changes being read for the previous filter are read again for this one
+        changeQueue.pause();
+        tableModel.reload();
+        changeQueue.resume();
+    }
+
+    private CarFilter createFilter() {
+        String statusText = (String) statusFilter.getSelectedItem();
+        Car.Status status = "All Status".equals(statusText) ? null : Car.Status.valueOf(statusText);
+
+        return new CarFilter(
+                searchField.getText().trim(),
+                status,
+                toLocalDate(fromDateChooser.getDate()),
+                toLocalDate(toDateChooser.getDate()));
+    }
+
+    private void showFilterError(Exception e) {
+        e.printStackTrace();
+        JOptionPane.showMessageDialog(this, "Error filtering cars: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private LocalDate toLocalDate(Date date) {
+        return date != null ? date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
+    }
+
+    private Object[] toRow(Car car) {
+        return new Object[]{
+                car.getId(),
+                car.getId(),
+                car.getBrand(),
+                car.getModel(),
+                car.getYear(),
+                car.getColor() != null ? car.getColor() : "N/A",
+                CurrencyUtils.formatCurrency(car.getPrice()),
+                car.getStatus().toString(),
+                car.getDaysInStock() + " days"
+        };
+    }
+
+    // Cars changed here or on another workstation; a null car no longer belongs in the list
+    private void applyChanges(Map<Long, Car> cars) {
+        for (Map.Entry<Long, Car> entry : cars.entrySet()) {
+            Long carId = entry.getKey();
+            int row = tableModel.indexOf(car -> car.getId().equals(carId));
+            if (row >= 0) {
+                tableModel.removeItem(row);
+            }
+            Car car = entry.getValue();
+            if (car == null) {
+                continue;
+            }
+            // Same order as the pages, newest first; a car after the loaded rows arrives with its page.
+            // Inserting the row looks up its photos again, they may have changed too
+            int position = tableModel.indexOf(loaded -> isBefore(car, loaded));
+            if (position >= 0) {
+                tableModel.insertItem(position, car);
+            } else if (!tableModel.hasMore()) {
+                tableModel.insertItem(tableModel.getRowCount(), car);
+            }
+        }
+    }
+
+    private static boolean isBefore(Car car, Car other) {
+        int byCreation = car.getCreatedAt().compareTo(other.getCreatedAt());
+        return byCreation > 0 || (byCreation == 0 && car.getId() > other.getId());
+    }
+
+    private void reloadRows() {
+        applyFilter(currentFilter);
+    }
+
+    private void loadPrimaryImages(Collection<Long> carIds) {
+        photosToLoad.addAll(carIds);
+        if (photosToLoad.isEmpty()) {
+            return;
         }
+        List<Long> requested = new ArrayList<>(photosToLoad);
+        photoLoader.load(() -> carImageService.getPrimaryImages(requested), images -> {
+            photosToLoad.removeAll(requested);
+            Map<Long, CarImage> merged = new HashMap<>(primaryImages);
+            requested.forEach(merged::remove);
+            merged.putAll(images);
+            primaryImages = merged;
+            carsTable.repaint();
+        }, Exception::printStackTrace);
     }
 
     public void showAddCarDialog() {
-        CarDialog dialog = new CarDialog(SwingUtilities.getWindowAncestor(this), null, carService, currentAdmin);
+        CarDialog dialog = new CarDialog(SwingUtilities.getWindowAncestor(this), null, carService, carImageService, thumbnailService, currentAdmin);
         dialog.setVisible(true);
 
         if (dialog.isCarSaved()) {
-            loadData();
             JOptionPane.showMessageDialog(this, "Car added successfully!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
+    private void showImportDialog() {
+        CarImportDialog dialog = new CarImportDialog(SwingUtilities.getWindowAncestor(this), carImportService, currentAdmin);
+        // The import publishes one change for all its cars, which reloads the list
+        dialog.setVisible(true);
+    }
+
     private void showEditCarDialog() {
         int selectedRow = carsTable.getSelectedRow();
         if (selectedRow == -1) {
@@ -305,15 +418,18 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
         }
 
         try {
-            Long carId = (Long) tableModel.getValueAt(selectedRow, 0);
+            Long carId = (Long) tableModel.getValueAt(carsTable.convertRowIndexToModel(selectedRow), 0);
             Car car = carService.findById(carId).orElse(null);
 
             if (car != null) {
-                CarDialog dialog = new CarDialog(SwingUtilities.getWindowAncestor(this), car, carService, currentAdmin);
+                CarDialog dialog = new CarDialog(SwingUtilities.getWindowAncestor(this), car, carService, carImageService, thumbnailService, currentAdmin);
                 dialog.setVisible(true);
 
+                if (dialog.isPhotosChanged()) {
+                    loadPrimaryImages(List.of(carId));
+                }
+
                 if (dialog.isCarSaved()) {
-                    loadData();
                     JOptionPane.showMessageDialog(this, "Car updated successfully!",
                             "Success", JOptionPane.INFORMATION_MESSAGE);
                 }
@@ -341,9 +457,8 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
 
         if (option == JOptionPane.YES_OPTION) {
             try {
-                Long carId = (Long) tableModel.getValueAt(selectedRow, 0);
+                Long carId = (Long) tableModel.getValueAt(carsTable.convertRowIndexToModel(selectedRow), 0);
                 carService.deleteCar(carId);
-                loadData();
                 JOptionPane.showMessageDialog(this, "Car deleted successfully.",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
             } catch (Exception e) {
@@ -356,8 +471,6 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
 
     private void exportToPdf() {
         try {
-            List<Car> cars = carService.getAllCars();
-
             if (pdfService == null) {
                 // Fallback if PDF service is not available
                 JOptionPane.showMessageDialog(this,
@@ -371,30 +484,48 @@ public class CarsPanel extends JPanel implements MainWindow.RefreshablePanel {
                 return;
             }
 
-            String outputPath = pdfService.getDefaultOutputPath();
-            String fileName = pdfService.generateCarsInventoryReport(cars, outputPath);
+            // The whole inventory is streamed from the database straight to disk
+            final String outputPath = pdfService.getDefaultOutputPath();
+            exportLoader.load(() -> pdfService.generateCarsInventoryReport(outputPath),
+                    fileName -> showExportResult(fileName, outputPath), this::showExportError);
+        } catch (Exception e) {
+            showExportError(e);
+        }
+    }
+
+    private void exportData() {
+        // Exports the cars of the list as last loaded, not search text typed since, streamed from the database
+        CarFilter filter = currentFilter;
+        ExportDialog.export(this, "Cars", "cars",
+                (file, progress) -> exportService.exportCars(filter, file, progress));
+    }
 
-            int option = JOptionPane.showConfirmDialog(this,
-                    "Cars inventory report generated successfully!\n" +
-                            "File: " + fileName + "\n\n" +
-                            "Would you like to open the file location?",
-                    "Export Successful",
-                    JOptionPane.YES_NO_OPTION,
-                    JOptionPane.INFORMATION_MESSAGE);
+    private void showExportResult(String fileName, String outputPath) {
+        int option = JOptionPane.showConfirmDialog(this,
+                "Cars inventory report generated successfully!\n" +
+                        "File: " + fileName + "\n\n" +
+                        "Would you like to open the file location?",
+                "Export Successful",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.INFORMATION_MESSAGE);
 
-            if (option == JOptionPane.YES_OPTION) {
+        if (option == JOptionPane.YES_OPTION) {
+            try {
                 Desktop.getDesktop().open(new java.io.File(outputPath));
+            } catch (Exception e) {
+                showExportError(e);
             }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Error exporting PDF: " + e.getMessage(),
-                    "Export Error",
-                    JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    private void showExportError(Exception e) {
+        e.printStackTrace();
+        JOptionPane.showMessageDialog(this,
+                "Error exporting PDF: " + e.getMessage(),
+                "Export Error",
+                JOptionPane.ERROR_MESSAGE);
+    }
+
     @Override
     public void refresh() {
         loadData();
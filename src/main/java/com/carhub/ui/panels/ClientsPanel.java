@@ -1,13 +1,22 @@
 package com.carhub.ui.panels;
 
+import com.carhub.dto.ChangeEvent;
 import com.carhub.entity.Admin;
 import com.carhub.entity.Client;
+import com.carhub.service.SearchIndexService;
+import com.carhub.service.ChangeEventService;
 import com.carhub.service.ClientService;
+import com.carhub.service.ExportService;
 import com.carhub.service.PdfService;
+import com.carhub.ui.async.BackgroundLoader;
+import com.carhub.ui.async.RowChangeQueue;
+import com.carhub.ui.components.LoadingOverlay;
 import com.carhub.ui.components.ModernButton;
 import com.carhub.ui.components.ModernTable;
 import com.carhub.ui.components.ModernTextField;
+import com.carhub.ui.components.TypeAheadFilter;
 import com.carhub.ui.dialogs.ClientDialog;
+import com.carhub.ui.dialogs.ExportDialog;
 import com.carhub.ui.main.MainWindow;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -18,9 +27,13 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel {
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
     private ClientService clientService;
     private Admin currentAdmin;
     private ModernTable clientsTable;
@@ -31,13 +44,35 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
     @Autowired
     private PdfService pdfService;
 
-    public ClientsPanel(ClientService clientService, Admin currentAdmin) {
+    private final ExportService exportService;
+    private final SearchIndexService searchIndexService;
+    private TypeAheadFilter typeAheadFilter;
+
+    private final LoadingOverlay loadingOverlay = new LoadingOverlay("Loading clients...");
+    private final BackgroundLoader backgroundLoader = new BackgroundLoader(loadingOverlay);
+
+    // Search of the rows shown; blank text and "All Types" when all clients are listed
+    private String currentSearchText = "";
+    private String currentTypeText = "All Types";
+    private final RowChangeQueue<Client> changeQueue = new RowChangeQueue<>(ChangeEvent.Entity.CLIENT,
+            () -> {
+                String searchText = currentSearchText;
+                String typeText = currentTypeText;
+                return clientIds -> findClients(searchText, typeText, clientIds);
+            },
+            Client::getId, this::applyChanges, this::reloadRows);
+
+    public ClientsPanel(ClientService clientService, ExportService exportService, SearchIndexService searchIndexService,
+                        ChangeEventService changeEventService, Admin currentAdmin) {
         this.clientService = clientService;
+        this.exportService = exportService;
+        this.searchIndexService = searchIndexService;
         this.currentAdmin = currentAdmin;
 
         setupPanel();
         createComponents();
         loadData();
+        changeQueue.listenTo(changeEventService);
     }
 
     private void setupPanel() {
@@ -54,9 +89,9 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
         JPanel headerPanel = createHeaderPanel();
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
-        // Table
+        // Table, dimmed while data is loading
         JScrollPane tableScrollPane = createTablePanel();
-        mainPanel.add(tableScrollPane, BorderLayout.CENTER);
+        mainPanel.add(new JLayer<>(tableScrollPane, loadingOverlay), BorderLayout.CENTER);
 
         add(mainPanel, BorderLayout.CENTER);
     }
@@ -112,16 +147,19 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
         ModernButton editClientBtn = new ModernButton("Edit Client");
         ModernButton deleteClientBtn = new ModernButton("Delete Client");
         ModernButton exportPdfBtn = new ModernButton("Export PDF");
+        ModernButton exportDataBtn = new ModernButton("Export Data");
 
         addClientBtn.addActionListener(e -> showAddClientDialog());
         editClientBtn.addActionListener(e -> showEditClientDialog());
         deleteClientBtn.addActionListener(e -> deleteSelectedClient());
         exportPdfBtn.addActionListener(e -> exportToPdf());
+        exportDataBtn.addActionListener(e -> exportData());
 
         buttonPanel.add(addClientBtn);
         buttonPanel.add(editClientBtn);
         buttonPanel.add(deleteClientBtn);
         buttonPanel.add(exportPdfBtn);
+        buttonPanel.add(exportDataBtn);
 
         // Combine header components
         JPanel topPanel = new JPanel(new BorderLayout());
@@ -147,6 +185,9 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
         clientsTable = new ModernTable(tableModel);
         clientsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
+        // Filters the loaded rows as the user types, from the in-memory search index
+        typeAheadFilter = TypeAheadFilter.install(clientsTable, searchField, 0, searchIndexService::getClientIndex);
+
         // Double-click to edit
         clientsTable.addMouseListener(new MouseAdapter() {
             @Override
@@ -166,61 +207,118 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
     }
 
     private void loadData() {
-        try {
-            List<Client> clients = clientService.getAllClients();
-            updateTable(clients);
-        } catch (Exception e) {
+        currentSearchText = "";
+        currentTypeText = "All Types";
+        changeQueue.pause();
+        backgroundLoader.load(clientService::getAllClients, this::updateTable, e -> {
+            changeQueue.resume();
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading clients: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     private void filterData() {
-        try {
-            String searchText = searchField.getText().trim();
-            String typeText = (String) typeFilter.getSelectedItem();
-
-            List<Client> clients;
-            if (searchText.isEmpty() && "All Types".equals(typeText)) {
-                clients = clientService.getAllClients();
-            } else {
-                clients = clientService.getAllClients();
-                clients = clients.stream()
-                        .filter(client -> {
-                            boolean matchesSearch = searchText.isEmpty() ||
-                                    client.getFullName().toLowerCase().contains(searchText.toLowerCase()) ||
-                                    (client.getEmail() != null && client.getEmail().toLowerCase().contains(searchText.toLowerCase())) ||
-                                    client.getPhoneNumber().contains(searchText);
-
-                            boolean matchesType = "All Types".equals(typeText) ||
-                                    client.getCustomerType().toString().equals(typeText);
-
-                            return matchesSearch && matchesType;
-                        })
-                        .toList();
-            }
-            updateTable(clients);
-        } catch (Exception e) {
+        String searchText = searchField.getText().trim();
+        String typeText = (String) typeFilter.getSelectedItem();
+        currentSearchText = searchText;
+        currentTypeText = typeText;
+        changeQueue.pause();
+
+        backgroundLoader.load(() -> findClients(searchText, typeText), this::updateTable, e -> {
+            changeQueue.resume();
             e.printStackTrace();
+        });
+    }
+
+    private List<Client> findClients(String searchText, String typeText) {
+        Client.CustomerType customerType = "All Types".equals(typeText) ? null : Client.CustomerType.valueOf(typeText);
+        if (!searchText.isEmpty()) {
+            // Text search runs in the database on the trigram index and returns the best matches
+            // first; the type is filtered there too, before the result limit
+            return clientService.searchClients(searchText, customerType);
+        }
+        List<Client> clients = clientService.getAllClients();
+        if (customerType == null) {
+            return clients;
         }
+        return clients.stream()
+                .filter(client -> client.getCustomerType() == customerType)
+                .toList();
+    }
+
+    // Same conditions as findClients, for one client
+    private List<Client> findClients(String searchText, String typeText, List<Long> clientIds) {
+        return clientService.findMatching(searchText, clientIds).stream()
+                .filter(client -> "All Types".equals(typeText) || client.getCustomerType().toString().equals(typeText))
+                .collect(Collectors.toList());
     }
 
     private void updateTable(List<Client> clients) {
         tableModel.setRowCount(0);
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
 
         for (Client client : clients) {
-            Object[] row = {
-                    client.getId(),
-                    client.getFullName(),
-                    client.getEmail() != null ? client.getEmail() : "N/A",
-                    client.getPhoneNumber(),
-                    client.getCity() != null ? client.getCity() : "N/A",
-                    client.getCustomerType().toString(),
-                    client.getRegistrationDate().format(dateFormatter)
-            };
-            tableModel.addRow(row);
+            tableModel.addRow(toRow(client));
+        }
+        typeAheadFilter.apply();
+        changeQueue.resume();
+    }
+
+    private Object[] toRow(Client client) {
+        return new Object[]{
+                client.getId(),
+                client.getFullName(),
+                client.getEmail() != null ? client.getEmail() : "N/A",
+                client.getPhoneNumber(),
+                client.getCity() != null ? client.getCity() : "N/A",
+                client.getCustomerType().toString(),
+                client.getRegistrationDate().format(DATE_FORMATTER)
+        };
+    }
+
+    // Clients changed here or on another workstation; a null client no longer belongs in the list
+    private void applyChanges(Map<Long, Client> clients) {
+        for (Map.Entry<Long, Client> entry : clients.entrySet()) {
+            int row = findRow(entry.getKey());
+            if (row >= 0) {
+                tableModel.removeRow(row);
+            }
+            Client client = entry.getValue();
+            if (client != null) {
+                // The full list is by name; searches are ranked by the database, so a changed
+                // match keeps its place and a new one goes last
+                int position = currentSearchText.isEmpty() ? nameRow(client.getFullName())
+                        : row >= 0 ? row : tableModel.getRowCount();
+                tableModel.insertRow(position, toRow(client));
+            }
+        }
+        typeAheadFilter.apply();
+    }
+
+    private int findRow(Long clientId) {
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (clientId.equals(tableModel.getValueAt(row, 0))) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    // First row whose name sorts after the given one
+    private int nameRow(String name) {
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (String.CASE_INSENSITIVE_ORDER.compare((String) tableModel.getValueAt(row, 1), name) > 0) {
+                return row;
+            }
+        }
+        return tableModel.getRowCount();
+    }
+
+    private void reloadRows() {
+        if (currentSearchText.isEmpty() && "All Types".equals(currentTypeText)) {
+            loadData();
+        } else {
+            filterData();
         }
     }
 
@@ -229,7 +327,6 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
         dialog.setVisible(true);
 
         if (dialog.isClientSaved()) {
-            loadData();
             JOptionPane.showMessageDialog(this, "Client added successfully!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
         }
@@ -244,7 +341,7 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
         }
 
         try {
-            Long clientId = (Long) tableModel.getValueAt(selectedRow, 0);
+            Long clientId = (Long) tableModel.getValueAt(clientsTable.convertRowIndexToModel(selectedRow), 0);
             Client client = clientService.findById(clientId).orElse(null);
 
             if (client != null) {
@@ -252,7 +349,6 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
                 dialog.setVisible(true);
 
                 if (dialog.isClientSaved()) {
-                    loadData();
                     JOptionPane.showMessageDialog(this, "Client updated successfully!",
                             "Success", JOptionPane.INFORMATION_MESSAGE);
                 }
@@ -280,9 +376,8 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
 
         if (option == JOptionPane.YES_OPTION) {
             try {
-                Long clientId = (Long) tableModel.getValueAt(selectedRow, 0);
+                Long clientId = (Long) tableModel.getValueAt(clientsTable.convertRowIndexToModel(selectedRow), 0);
                 clientService.deleteClient(clientId);
-                loadData();
                 JOptionPane.showMessageDialog(this, "Client deleted successfully.",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
             } catch (Exception e) {
@@ -333,6 +428,16 @@ public class ClientsPanel extends JPanel implements MainWindow.RefreshablePanel
         }
     }
 
+    private void exportData() {
+        // Same filters as the list as last loaded, but every matching client is exported, not only the best matches shown
+        String searchText = currentSearchText;
+        String typeText = currentTypeText;
+        Client.CustomerType customerType = "All Types".equals(typeText) ? null : Client.CustomerType.valueOf(typeText);
+
+        ExportDialog.export(this, "Clients", "clients",
+                (file, progress) -> exportService.exportClients(searchText, customerType, file, progress));
+    }
+
     @Override
     public void refresh() {
         loadData();
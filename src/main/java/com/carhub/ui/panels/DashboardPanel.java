@@ -1,10 +1,10 @@
 package com.carhub.ui.panels;
 
-import com.carhub.entity.Car;
-import com.carhub.entity.Sale;
-import com.carhub.service.CarService;
-import com.carhub.service.ClientService;
-import com.carhub.service.SaleService;
+import com.carhub.dto.DashboardSnapshot;
+import com.carhub.dto.SaleSummary;
+import com.carhub.service.DashboardService;
+import com.carhub.ui.async.BackgroundLoader;
+import com.carhub.ui.components.LoadingOverlay;
 import com.carhub.ui.components.MetricCard;
 import com.carhub.ui.components.ModernTable;
 import com.carhub.ui.components.MonthlyRevenueChart;
@@ -13,7 +13,6 @@ import com.carhub.ui.main.MainWindow;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.math.BigDecimal;
 import com.carhub.util.CurrencyUtils;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -21,9 +20,7 @@ import java.util.List;
 
 public class DashboardPanel extends JPanel implements MainWindow.RefreshablePanel {
 
-    private CarService carService;
-    private SaleService saleService;
-    private ClientService clientService;
+    private DashboardService dashboardService;
 
     private MetricCard totalCarsCard;
     private MetricCard totalSalesCard;
@@ -34,10 +31,11 @@ public class DashboardPanel extends JPanel implements MainWindow.RefreshablePane
     private ModernTable lowInventoryTable;
     private MonthlyRevenueChart monthlyRevenueChart;
 
-    public DashboardPanel(CarService carService, SaleService saleService, ClientService clientService) {
-        this.carService = carService;
-        this.saleService = saleService;
-        this.clientService = clientService;
+    private final LoadingOverlay loadingOverlay = new LoadingOverlay("Loading dashboard...");
+    private final BackgroundLoader backgroundLoader = new BackgroundLoader(loadingOverlay);
+
+    public DashboardPanel(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
 
         setupPanel();
         createComponents();
@@ -92,7 +90,7 @@ public class DashboardPanel extends JPanel implements MainWindow.RefreshablePane
         // Add everything to the main panel with BorderLayout
         JPanel mainPanel = new JPanel(new BorderLayout());
         mainPanel.setOpaque(false);
-        mainPanel.add(mainContent, BorderLayout.CENTER);
+        mainPanel.add(new JLayer<>(mainContent, loadingOverlay), BorderLayout.CENTER);
 
         add(mainPanel, BorderLayout.CENTER);
     }
@@ -248,87 +246,54 @@ public class DashboardPanel extends JPanel implements MainWindow.RefreshablePane
     }
 
     private void loadData() {
-        try {
-            // Load metrics
-            long totalCars = carService.getTotalCarsCount();
-            long totalSales = saleService.getTotalSalesCount();
-            long totalClients = clientService.getTotalClientsCount();
-            
-            // Calculate total revenue for last 6 months
-            List<Object[]> monthlyData = saleService.getMonthlyRevenueForLast6Months();
-            BigDecimal totalRevenue6Months = monthlyData.stream()
-                .map(data -> (BigDecimal) data[2])
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            // Update metric cards
-            totalCarsCard.updateValue(String.valueOf(totalCars));
-            totalSalesCard.updateValue(String.valueOf(totalSales));
-            totalClientsCard.updateValue(String.valueOf(totalClients));
-            monthlyRevenueCard.updateValue(CurrencyUtils.formatCurrency(totalRevenue6Months));
-
-            // Load recent sales
-            loadRecentSales();
-
-            // Load low inventory
-            loadLowInventory();
-
-            // Load monthly revenue chart
-            loadMonthlyRevenueChart();
-
-        } catch (Exception e) {
+        // The snapshot is a single query and cached, so the loader thread rarely hits the database
+        backgroundLoader.load(dashboardService::getSnapshot, this::updateDashboard, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading dashboard data: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
-    private void loadRecentSales() {
-        try {
-            List<Sale> recentSales = saleService.getRecentSales(10);
-            DefaultTableModel model = (DefaultTableModel) recentSalesTable.getModel();
-            model.setRowCount(0);
-
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
-            for (Sale sale : recentSales) {
-                Object[] row = {
-                        sale.getSaleDate().format(formatter),
-                        sale.getCar().getMake() + " " + sale.getCar().getModel(),
-                        sale.getClient().getFullName(),
-                        CurrencyUtils.formatCurrency(sale.getTotalAmount())
-                };
-                model.addRow(row);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    private void updateDashboard(DashboardSnapshot snapshot) {
+        // Update metric cards
+        totalCarsCard.updateValue(String.valueOf(snapshot.getTotalCars()));
+        totalSalesCard.updateValue(String.valueOf(snapshot.getTotalSales()));
+        totalClientsCard.updateValue(String.valueOf(snapshot.getTotalClients()));
+        monthlyRevenueCard.updateValue(CurrencyUtils.formatCurrency(snapshot.getRevenueLast6Months()));
+
+        updateRecentSales(snapshot.getRecentSales());
+        updateLowInventory(snapshot.getAgingCars());
+        monthlyRevenueChart.updateData(snapshot.getMonthlyRevenue());
     }
 
-    private void loadLowInventory() {
-        try {
-            List<Car> lowInventoryCars = carService.getLowInventoryCars(5);
-            DefaultTableModel model = (DefaultTableModel) lowInventoryTable.getModel();
-            model.setRowCount(0);
-
-            for (Car car : lowInventoryCars) {
-                Object[] row = {
-                        car.getMake(),
-                        car.getModel(),
-                        car.getYear(),
-                        "Low Stock"
-                };
-                model.addRow(row);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void updateRecentSales(List<SaleSummary> recentSales) {
+        DefaultTableModel model = (DefaultTableModel) recentSalesTable.getModel();
+        model.setRowCount(0);
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+        for (SaleSummary sale : recentSales) {
+            Object[] row = {
+                    sale.getSaleDate().format(formatter),
+                    sale.getCarName(),
+                    sale.getClientName(),
+                    CurrencyUtils.formatCurrency(sale.getTotalAmount())
+            };
+            model.addRow(row);
         }
     }
 
-    private void loadMonthlyRevenueChart() {
-        try {
-            List<Object[]> monthlyRevenueData = saleService.getMonthlyRevenueForLast6Months();
-            monthlyRevenueChart.updateData(monthlyRevenueData);
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void updateLowInventory(List<DashboardSnapshot.AgingCar> agingCars) {
+        DefaultTableModel model = (DefaultTableModel) lowInventoryTable.getModel();
+        model.setRowCount(0);
+
+        for (DashboardSnapshot.AgingCar car : agingCars) {
+            Object[] row = {
+                    car.getBrand(),
+                    car.getModel(),
+                    car.getYear(),
+                    "Low Stock"
+            };
+            model.addRow(row);
         }
     }
 
@@ -0,0 +1,366 @@
+package com.carhub.ui.panels;
+
+import com.carhub.dto.CacheRegionStatistics;
+import com.carhub.dto.DiagnosticsSnapshot;
+import com.carhub.dto.EdtStallSite;
+import com.carhub.dto.EdtStatus;
+import com.carhub.dto.EmailOutboxStatus;
+import com.carhub.service.DiagnosticsService;
+import com.carhub.ui.async.BackgroundLoader;
+import com.carhub.ui.async.EdtMonitor;
+import com.carhub.ui.components.MetricCard;
+import com.carhub.ui.components.ModernButton;
+import com.carhub.ui.components.ModernTable;
+import com.carhub.ui.main.MainWindow;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Live view of the connection pool, the event thread, memory and Hibernate, to tell at a
+ * glance whether a slow application waits on the database, the event thread or memory.
+ * Refreshed every two seconds while visible.
+ */
+public class DiagnosticsPanel extends JPanel implements MainWindow.RefreshablePanel {
+
+    private static final int REFRESH_MILLIS = 2000;
+
+    private DiagnosticsService diagnosticsService;
+    private EdtMonitor edtMonitor;
+
+    private MetricCard connectionsCard;
+    private MetricCard edtCard;
+    private MetricCard heapCard;
+    private MetricCard hibernateCard;
+    private MetricCard emailCard;
+
+    private ModernTable queriesTable;
+    private ModernTable callsTable;
+    private ModernTable cacheTable;
+    private ModernTable stallsTable;
+    private JLabel statusLabel;
+
+    private final BackgroundLoader refreshLoader = new BackgroundLoader();
+    private final BackgroundLoader actionLoader = BackgroundLoader.forLongTasks();
+    private final Timer refreshTimer;
+
+    public DiagnosticsPanel(DiagnosticsService diagnosticsService, EdtMonitor edtMonitor) {
+        this.diagnosticsService = diagnosticsService;
+        this.edtMonitor = edtMonitor;
+
+        setupPanel();
+        createComponents();
+
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> {
+            if (isShowing()) {
+                loadData();
+            }
+        });
+        refreshTimer.start();
+    }
+
+    private void setupPanel() {
+        setBackground(new Color(26, 28, 32));
+        setLayout(new BorderLayout());
+        setBorder(BorderFactory.createEmptyBorder(24, 24, 24, 24));
+    }
+
+    private void createComponents() {
+        JPanel mainPanel = new JPanel(new BorderLayout(16, 16));
+        mainPanel.setOpaque(false);
+
+        JPanel topPanel = new JPanel(new BorderLayout(0, 16));
+        topPanel.setOpaque(false);
+        topPanel.add(createHeaderPanel(), BorderLayout.NORTH);
+        topPanel.add(createMetricsPanel(), BorderLayout.CENTER);
+        mainPanel.add(topPanel, BorderLayout.NORTH);
+
+        mainPanel.add(createTablesPanel(), BorderLayout.CENTER);
+
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("SF Pro Text", Font.PLAIN, 12));
+        statusLabel.setForeground(new Color(161, 161, 170));
+        mainPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        add(mainPanel, BorderLayout.CENTER);
+    }
+
+    private JPanel createHeaderPanel() {
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setOpaque(false);
+
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.setOpaque(false);
+
+        JLabel titleLabel = new JLabel("Diagnostics");
+        titleLabel.setFont(new Font("SF Pro Display", Font.BOLD, 32));
+        titleLabel.setForeground(Color.WHITE);
+
+        JLabel subtitleLabel = new JLabel("Database, event thread and memory, refreshed every 2 seconds");
+        subtitleLabel.setFont(new Font("SF Pro Text", Font.PLAIN, 16));
+        subtitleLabel.setForeground(new Color(161, 161, 170));
+
+        titlePanel.add(titleLabel);
+        titlePanel.add(Box.createVerticalStrut(4));
+        titlePanel.add(subtitleLabel);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        buttonPanel.setOpaque(false);
+
+        ModernButton snapshotButton = new ModernButton("Save Snapshot");
+        snapshotButton.setToolTipText("Write these figures and the stack of every thread to a file");
+        snapshotButton.addActionListener(e -> saveSnapshot());
+
+        ModernButton stallReportButton = new ModernButton("Stall Report");
+        stallReportButton.setToolTipText("Write the event thread stalls with their stacks, grouped by call site");
+        stallReportButton.addActionListener(e -> writeStallReport());
+
+        ModernButton heapDumpButton = new ModernButton("Heap Dump");
+        heapDumpButton.setToolTipText("Write the objects in memory to a file, for a memory analyzer");
+        heapDumpButton.addActionListener(e -> dumpHeap());
+
+        ModernButton resetButton = new ModernButton("Reset Statistics");
+        resetButton.setToolTipText("Start the query counts and timings over");
+        resetButton.addActionListener(e -> resetStatistics());
+
+        buttonPanel.add(snapshotButton);
+        buttonPanel.add(stallReportButton);
+        buttonPanel.add(heapDumpButton);
+        buttonPanel.add(resetButton);
+
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+        headerPanel.add(buttonPanel, BorderLayout.EAST);
+
+        return headerPanel;
+    }
+
+    private JPanel createMetricsPanel() {
+        JPanel metricsPanel = new JPanel(new GridLayout(1, 5, 8, 0));
+        metricsPanel.setOpaque(false);
+
+        connectionsCard = new MetricCard("Database Connections", "-", "active / max", true);
+        edtCard = new MetricCard("Event Thread Lag", "-", "no stalls", true);
+        heapCard = new MetricCard("Heap", "-", "used", true);
+        hibernateCard = new MetricCard("SQL Statements", "-", "since startup", true);
+        emailCard = new MetricCard("Email Outbox", "-", "pending", true);
+
+        metricsPanel.add(connectionsCard);
+        metricsPanel.add(edtCard);
+        metricsPanel.add(heapCard);
+        metricsPanel.add(hibernateCard);
+        metricsPanel.add(emailCard);
+
+        return metricsPanel;
+    }
+
+    private JPanel createTablesPanel() {
+        JPanel tablesPanel = new JPanel(new GridLayout(4, 1, 0, 8));
+        tablesPanel.setOpaque(false);
+
+        queriesTable = createTable("Avg ms", "Max ms", "Executions", "Rows", "Query");
+        queriesTable.getColumnModel().getColumn(4).setPreferredWidth(900);
+        callsTable = createTable("Mean ms", "Max ms", "Calls", "SQL / Call", "Service Method");
+        callsTable.getColumnModel().getColumn(4).setPreferredWidth(600);
+        stallsTable = createTable("Total ms", "Longest ms", "Stalls", "Last Seen", "Call Site");
+        stallsTable.getColumnModel().getColumn(4).setPreferredWidth(600);
+        cacheTable = createTable("Region", "Hits", "Misses", "Puts", "Hit Ratio");
+
+        tablesPanel.add(createTablePanel("Slowest Queries", queriesTable));
+        tablesPanel.add(createTablePanel("Slowest Service Calls", callsTable));
+        tablesPanel.add(createTablePanel("Event Thread Stalls", stallsTable));
+        tablesPanel.add(createTablePanel("Second-level Cache", cacheTable));
+
+        return tablesPanel;
+    }
+
+    private ModernTable createTable(String... columns) {
+        DefaultTableModel model = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        ModernTable table = new ModernTable(model);
+        table.setRowHeight(24);
+        table.setShowGrid(false);
+        table.setIntercellSpacing(new Dimension(0, 0));
+        return table;
+    }
+
+    private JPanel createTablePanel(String title, JTable table) {
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.setBackground(new Color(42, 45, 53));
+        panel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+
+        JLabel titleLabel = new JLabel(title);
+        titleLabel.setFont(new Font("SF Pro Display", Font.BOLD, 16));
+        titleLabel.setForeground(Color.WHITE);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBackground(new Color(42, 45, 53));
+        scrollPane.getViewport().setBackground(new Color(42, 45, 53));
+        scrollPane.setBorder(null);
+
+        panel.add(titleLabel, BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private void loadData() {
+        // Read on the EDT, so the lag shown is not itself hidden by the refresh
+        updateEdt(edtMonitor.getStatus());
+        updateStalls(edtMonitor.getStallSites());
+        refreshLoader.load(diagnosticsService::getSnapshot, this::updateDiagnostics, e -> {
+            // Refreshed every few seconds: report in the panel rather than with a dialog each time
+            e.printStackTrace();
+            statusLabel.setText("Could not read diagnostics: " + e.getMessage());
+        }, false);
+    }
+
+    private void updateEdt(EdtStatus status) {
+        edtCard.updateValue(status.getCurrentLagMillis() + " ms");
+        if (status.getStallCount() == 0) {
+            edtCard.updateSubtitle("no stalls over " + status.getThresholdMillis() + " ms");
+        } else {
+            edtCard.updateSubtitle(status.getStallsLastMinute() + " stalls last minute, longest "
+                    + status.getLongestStallMillis() + " ms");
+        }
+        edtCard.setPositive(status.getStallsLastMinute() == 0 && !status.isStalled());
+    }
+
+    private void updateStalls(List<EdtStallSite> sites) {
+        DefaultTableModel stalls = (DefaultTableModel) stallsTable.getModel();
+        stalls.setRowCount(0);
+        for (EdtStallSite site : sites) {
+            stalls.addRow(new Object[] {site.getTotalMillis(), site.getLongestMillis(), site.getStalls(),
+                    site.getLastSeenAt().format(DateTimeFormatter.ofPattern("HH:mm:ss")), site.getCallSite()});
+        }
+    }
+
+    private void updateDiagnostics(DiagnosticsSnapshot snapshot) {
+        connectionsCard.updateValue(snapshot.getActiveConnections() + " / " + snapshot.getMaxConnections());
+        connectionsCard.updateSubtitle(snapshot.getThreadsAwaitingConnection() + " waiting, wait max "
+                + Math.round(snapshot.getConnectionWaitMaxMillis()) + " ms");
+        connectionsCard.setPositive(snapshot.getThreadsAwaitingConnection() == 0);
+
+        heapCard.updateValue((snapshot.getHeapUsedBytes() >> 20) + " MB");
+        heapCard.updateSubtitle(Math.round(snapshot.getHeapUsedRatio() * 100) + "% of " + (snapshot.getHeapMaxBytes() >> 20)
+                + " MB, GC " + snapshot.getGcTimeMillis() + " ms");
+        heapCard.setPositive(snapshot.getHeapUsedRatio() < 0.8);
+
+        hibernateCard.updateValue(String.format("%,d", snapshot.getStatementsPrepared()));
+        hibernateCard.updateSubtitle(String.format("%,d queries, cache hits %.0f%%", snapshot.getQueriesExecuted(),
+                snapshot.getCacheHitRatio() * 100));
+
+        EmailOutboxStatus email = snapshot.getEmailStatus();
+        if (email != null) {
+            emailCard.updateValue(email.getPending() + " pending");
+            emailCard.updateSubtitle(email.getFailed() + " failed, " + email.getSent() + " sent");
+            emailCard.setPositive(email.getFailed() == 0);
+        } else {
+            emailCard.updateValue("-");
+            emailCard.updateSubtitle("unavailable");
+            emailCard.setPositive(false);
+        }
+
+        DefaultTableModel queries = (DefaultTableModel) queriesTable.getModel();
+        queries.setRowCount(0);
+        for (DiagnosticsSnapshot.QueryTiming query : snapshot.getSlowestQueries()) {
+            queries.addRow(new Object[] {query.getAverageMillis(), query.getMaxMillis(), query.getExecutions(),
+                    query.getRows(), query.getQuery()});
+        }
+
+        DefaultTableModel calls = (DefaultTableModel) callsTable.getModel();
+        calls.setRowCount(0);
+        for (DiagnosticsSnapshot.CallTiming call : snapshot.getSlowestCalls()) {
+            calls.addRow(new Object[] {String.format("%.1f", call.getMeanMillis()), String.format("%.1f", call.getMaxMillis()),
+                    call.getCalls(), String.format("%.1f", call.getStatementsPerCall()), call.getName()});
+        }
+
+        DefaultTableModel cache = (DefaultTableModel) cacheTable.getModel();
+        cache.setRowCount(0);
+        for (CacheRegionStatistics region : snapshot.getCacheRegions()) {
+            cache.addRow(new Object[] {region.getRegion(), region.getHits(), region.getMisses(), region.getPuts(),
+                    String.format("%.0f%%", region.getHitRatio() * 100)});
+        }
+
+        statusLabel.setText("Updated " + snapshot.getTakenAt().format(DateTimeFormatter.ofPattern("HH:mm:ss"))
+                + " - " + snapshot.getLiveThreads() + " threads, " + snapshot.getEntitiesLoaded() + " entities loaded, "
+                + snapshot.getCollectionsFetched() + " collections fetched");
+    }
+
+    private void saveSnapshot() {
+        EdtStatus edtStatus = edtMonitor.getStatus();
+        List<EdtStallSite> stallSites = edtMonitor.getStallSites();
+        actionLoader.load(
+                () -> diagnosticsService.writeSnapshot(edtStatus, stallSites),
+                file -> JOptionPane.showMessageDialog(this,
+                        "Diagnostics saved to:\n" + file.toAbsolutePath(),
+                        "Save Snapshot",
+                        JOptionPane.INFORMATION_MESSAGE),
+                e -> {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Error saving diagnostics: " + e.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void writeStallReport() {
+        actionLoader.load(
+                edtMonitor::writeStallReport,
+                file -> JOptionPane.showMessageDialog(this,
+                        "Stall report saved to:\n" + file.toAbsolutePath(),
+                        "Stall Report",
+                        JOptionPane.INFORMATION_MESSAGE),
+                e -> {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Error writing stall report: " + e.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void dumpHeap() {
+        int choice = JOptionPane.showConfirmDialog(this,
+                "Write a heap dump?\nThe application pauses while it is written, and the file\n" +
+                        "can be as large as the memory in use.",
+                "Heap Dump",
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.QUESTION_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        actionLoader.load(
+                diagnosticsService::dumpHeap,
+                file -> JOptionPane.showMessageDialog(this,
+                        "Heap dump saved to:\n" + file.toAbsolutePath(),
+                        "Heap Dump",
+                        JOptionPane.INFORMATION_MESSAGE),
+                e -> {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Error writing heap dump: " + e.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    private void resetStatistics() {
+        diagnosticsService.resetStatistics();
+        loadData();
+    }
+
+    @Override
+    public void refresh() {
+        loadData();
+    }
+}
@@ -1,26 +1,39 @@
 package com.carhub.ui.panels;
 
+import com.carhub.dto.ChangeEvent;
+import com.carhub.dto.SaleFilter;
+import com.carhub.dto.SaleSummary;
 import com.carhub.entity.Admin;
 import com.carhub.entity.Sale;
 import com.carhub.service.CarService;
+import com.carhub.service.ChangeEventService;
 import com.carhub.service.ClientService;
+import com.carhub.service.ExportService;
+import com.carhub.service.InvoiceBatchService;
 import com.carhub.service.SaleService;
 import com.carhub.service.PdfService;
+import com.carhub.ui.async.BackgroundLoader;
+import com.carhub.ui.async.RowChangeQueue;
+import com.carhub.ui.components.LoadingOverlay;
 import com.carhub.ui.components.ModernButton;
 import com.carhub.ui.components.ModernTable;
 import com.carhub.ui.components.ModernTextField;
+import com.carhub.ui.components.PagedTableModel;
+import com.carhub.ui.components.TypeAheadFilter;
+import com.carhub.ui.dialogs.ExportDialog;
+import com.carhub.ui.dialogs.InvoiceBatchDialog;
 import com.carhub.ui.dialogs.SaleDialog;
 import com.carhub.ui.main.MainWindow;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import com.carhub.util.CurrencyUtils;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.awt.Dialog;
 
 import com.toedter.calendar.JDateChooser;
@@ -33,12 +46,14 @@ import java.io.File;
 
 public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
 
+    private static final DateTimeFormatter TABLE_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
     private SaleService saleService;
     private CarService carService;
     private ClientService clientService;
     private Admin currentAdmin;
     private ModernTable salesTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<SaleSummary> tableModel;
     private ModernTextField searchField;
     private JComboBox<String> statusFilter;
 
@@ -48,18 +63,42 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
     private ModernButton clearDateFilterBtn;
 
     private final PdfService pdfService;
+    private final InvoiceBatchService invoiceBatchService;
+    private final ExportService exportService;
+
+    private final LoadingOverlay loadingOverlay = new LoadingOverlay("Loading sales...");
+    private final BackgroundLoader backgroundLoader = new BackgroundLoader(loadingOverlay);
+    private final BackgroundLoader countLoader = new BackgroundLoader();
+    // Row actions, apart from the table's loader so they never cancel a page load, and a lookup never
+    // drops the outcome of a delete
+    private final BackgroundLoader saleLoader = new BackgroundLoader();
+    private final BackgroundLoader deleteLoader = new BackgroundLoader();
+    private final BackgroundLoader exportLoader = BackgroundLoader.forLongTasks();
+    private final BackgroundLoader invoiceLoader = BackgroundLoader.forLongTasks();
+    private SaleFilter currentFilter = SaleFilter.all();
+    private final RowChangeQueue<SaleSummary> changeQueue = new RowChangeQueue<>(ChangeEvent.Entity.SALE,
+            () -> {
+                SaleFilter filter = currentFilter;
+                return saleIds -> saleService.findMatchingSummaries(filter, saleIds);
+            },
+            SaleSummary::getId, this::applyChanges, this::loadData);
 
     @Autowired
-    public SalesPanel(SaleService saleService, CarService carService, ClientService clientService, PdfService pdfService, Admin currentAdmin) {
+    public SalesPanel(SaleService saleService, CarService carService, ClientService clientService, PdfService pdfService,
+                      InvoiceBatchService invoiceBatchService, ExportService exportService,
+                      ChangeEventService changeEventService, Admin currentAdmin) {
         this.saleService = saleService;
         this.carService = carService;
         this.clientService = clientService;
         this.pdfService = pdfService;
+        this.invoiceBatchService = invoiceBatchService;
+        this.exportService = exportService;
         this.currentAdmin = currentAdmin;
 
         setupPanel();
         createComponents();
         loadData();
+        changeQueue.listenTo(changeEventService);
     }
 
     private void setupPanel() {
@@ -76,9 +115,9 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
         JPanel headerPanel = createHeaderPanel();
         mainPanel.add(headerPanel, BorderLayout.NORTH);
 
-        // Table
+        // Table, dimmed while the first page is loading
         JScrollPane tableScrollPane = createTablePanel();
-        mainPanel.add(tableScrollPane, BorderLayout.CENTER);
+        mainPanel.add(new JLayer<>(tableScrollPane, loadingOverlay), BorderLayout.CENTER);
 
         add(mainPanel, BorderLayout.CENTER);
     }
@@ -158,18 +197,24 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
         ModernButton editSaleBtn = new ModernButton("Edit Sale");
         ModernButton deleteSaleBtn = new ModernButton("Delete Sale");
         ModernButton exportPdfBtn = new ModernButton("Export PDF");
+        ModernButton exportDataBtn = new ModernButton("Export Data");
+        ModernButton batchInvoicesBtn = new ModernButton("Batch Invoices");
 
         newSaleBtn.addActionListener(e -> showNewSaleDialog());
         viewSaleBtn.addActionListener(e -> viewSaleDetails());
         editSaleBtn.addActionListener(e -> editSale());
         deleteSaleBtn.addActionListener(e -> deleteSale());
         exportPdfBtn.addActionListener(e -> exportToPdf());
+        exportDataBtn.addActionListener(e -> exportData());
+        batchInvoicesBtn.addActionListener(e -> showInvoiceBatchDialog());
 
         buttonPanel.add(newSaleBtn);
         buttonPanel.add(viewSaleBtn);
         buttonPanel.add(editSaleBtn);
         buttonPanel.add(deleteSaleBtn);
         buttonPanel.add(exportPdfBtn);
+        buttonPanel.add(exportDataBtn);
+        buttonPanel.add(batchInvoicesBtn);
 
         // Combine header components
         JPanel topPanel = new JPanel(new BorderLayout());
@@ -185,16 +230,20 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
 
     private JScrollPane createTablePanel() {
         String[] columns = {"ID", "Invoice", "Date", "Car", "Client", "Amount", "Payment", "Status"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new PagedTableModel<>(columns, this::toRow, backgroundLoader);
+        tableModel.setErrorHandler(e -> {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error loading sales: " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
 
         salesTable = new ModernTable(tableModel);
         salesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
+        // Narrows the loaded rows as the user types, on their displayed text; Enter searches the whole history
+        TypeAheadFilter typeAheadFilter = TypeAheadFilter.install(salesTable, searchField);
+        typeAheadFilter.addFilterListener(tableModel::rowFilterChanged);
+
         // Double-click to view details
         salesTable.addMouseListener(new MouseAdapter() {
             @Override
@@ -210,48 +259,63 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
         scrollPane.getViewport().setBackground(new Color(42, 45, 53));
         scrollPane.setBorder(null);
 
+        // Fetch further pages as the user scrolls towards the end of the table
+        tableModel.attachTo(salesTable, scrollPane);
+
         return scrollPane;
     }
 
     private void loadData() {
-        try {
-            List<Sale> sales = saleService.getAllSales();
-            updateTable(sales);
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading sales: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        applyFilter(SaleFilter.all());
     }
 
     private void filterData() {
-        try {
-            String searchText = searchField.getText().trim();
-            String statusText = (String) statusFilter.getSelectedItem();
-
-            List<Sale> sales = saleService.getAllSales();
-
-            if (!searchText.isEmpty() || !"All Status".equals(statusText)) {
-                sales = sales.stream()
-                        .filter(sale -> {
-                            boolean matchesSearch = searchText.isEmpty() ||
-                                    sale.getInvoiceNumber().toLowerCase().contains(searchText.toLowerCase()) ||
-                                    sale.getCar().getDisplayName().toLowerCase().contains(searchText.toLowerCase()) ||
-                                    sale.getClient().getFullName().toLowerCase().contains(searchText.toLowerCase());
+        applyFilter(createFilter(null, null));
+    }
 
-                            boolean matchesStatus = "All Status".equals(statusText) ||
-                                    sale.getPaymentStatus().toString().equals(statusText);
+    private void applyFilter(SaleFilter filter) {
+        currentFilter = filter;
+        tableModel.setPageLoader((lastSale, pageSize) -> saleService.getSalesPage(filter, lastSale, pageSize));
+        // Changes being read for the previous filter are read again for this one
+        changeQueue.pause();
+        tableModel.reload();
+        changeQueue.resume();
+    }
 
-                            return matchesSearch && matchesStatus;
-                        })
-                        .toList();
+    // Sales changed here or on another workstation; a null sale no longer belongs in the list
+    private void applyChanges(Map<Long, SaleSummary> sales) {
+        for (Map.Entry<Long, SaleSummary> entry : sales.entrySet()) {
+            Long saleId = entry.getKey();
+            int row = tableModel.indexOf(sale -> sale.getId().equals(saleId));
+            if (row >= 0) {
+                tableModel.removeItem(row);
+            }
+            SaleSummary sale = entry.getValue();
+            if (sale == null) {
+                continue;
+            }
+            // Same order as the pages, newest first; a sale after the loaded rows arrives with its page
+            int position = tableModel.indexOf(loaded -> isBefore(sale, loaded));
+            if (position >= 0) {
+                tableModel.insertItem(position, sale);
+            } else if (!tableModel.hasMore()) {
+                tableModel.insertItem(tableModel.getRowCount(), sale);
             }
-            updateTable(sales);
-        } catch (Exception e) {
-            e.printStackTrace();
         }
     }
 
+    private static boolean isBefore(SaleSummary sale, SaleSummary other) {
+        int byDate = sale.getSaleDate().compareTo(other.getSaleDate());
+        return byDate > 0 || (byDate == 0 && sale.getId() > other.getId());
+    }
+
+    private SaleFilter createFilter(LocalDateTime startDate, LocalDateTime endDate) {
+        String searchText = searchField.getText().trim();
+        String statusText = (String) statusFilter.getSelectedItem();
+        Sale.PaymentStatus status = "All Status".equals(statusText) ? null : Sale.PaymentStatus.valueOf(statusText);
+        return new SaleFilter(searchText, status, startDate, endDate);
+    }
+
     private void filterByDateRange() {
         try {
             Date fromDate = fromDateChooser.getDate();
@@ -284,38 +348,19 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
                     .toLocalDateTime()
                     .withHour(23).withMinute(59).withSecond(59);
 
-            // Get sales within date range
-            List<Sale> sales = saleService.findSalesByDateRange(startDateTime, endDateTime);
-
-            // Apply additional filters if any
-            String searchText = searchField.getText().trim();
-            String statusText = (String) statusFilter.getSelectedItem();
-
-            if (!searchText.isEmpty() || !"All Status".equals(statusText)) {
-                sales = sales.stream()
-                        .filter(sale -> {
-                            boolean matchesSearch = searchText.isEmpty() ||
-                                    sale.getInvoiceNumber().toLowerCase().contains(searchText.toLowerCase()) ||
-                                    sale.getCar().getDisplayName().toLowerCase().contains(searchText.toLowerCase()) ||
-                                    sale.getClient().getFullName().toLowerCase().contains(searchText.toLowerCase());
-
-                            boolean matchesStatus = "All Status".equals(statusText) ||
-                                    sale.getPaymentStatus().toString().equals(statusText);
-
-                            return matchesSearch && matchesStatus;
-                        })
-                        .toList();
-            }
-
-            updateTable(sales);
+            // Combine the date range with the search and status filters
+            SaleFilter filter = createFilter(startDateTime, endDateTime);
+            applyFilter(filter);
 
             // Show results count
-            JOptionPane.showMessageDialog(this,
-                    "Found " + sales.size() + " sales between " +
-                            fromDate.toString().substring(0, 10) + " and " +
-                            toDate.toString().substring(0, 10),
-                    "Filter Results",
-                    JOptionPane.INFORMATION_MESSAGE);
+            countLoader.load(() -> saleService.countSales(filter), salesCount ->
+                    JOptionPane.showMessageDialog(this,
+                            "Found " + salesCount + " sales between " +
+                                    fromDate.toString().substring(0, 10) + " and " +
+                                    toDate.toString().substring(0, 10),
+                            "Filter Results",
+                            JOptionPane.INFORMATION_MESSAGE),
+                    Exception::printStackTrace);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -332,23 +377,17 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
         loadData(); // Reload all data
     }
 
-    private void updateTable(List<Sale> sales) {
-        tableModel.setRowCount(0);
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
-
-        for (Sale sale : sales) {
-            Object[] row = {
-                    sale.getId(),
-                    sale.getInvoiceNumber(),
-                    sale.getSaleDate().format(dateFormatter),
-                    sale.getCar().getDisplayName(),
-                    sale.getClient().getFullName(),
-                    CurrencyUtils.formatCurrency(sale.getTotalAmount()),
-                    sale.getPaymentMethod().toString(),
-                    sale.getPaymentStatus().toString()
-            };
-            tableModel.addRow(row);
-        }
+    private Object[] toRow(SaleSummary sale) {
+        return new Object[]{
+                sale.getId(),
+                sale.getInvoiceNumber(),
+                sale.getSaleDate().format(TABLE_DATE_FORMATTER),
+                sale.getCarDisplayName(),
+                sale.getClientName(),
+                CurrencyUtils.formatCurrency(sale.getTotalAmount()),
+                sale.getPaymentMethod().toString(),
+                sale.getPaymentStatus().toString()
+        };
     }
 
     public void showNewSaleDialog() {
@@ -357,7 +396,6 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
         dialog.setVisible(true);
 
         if (dialog.isSaleSaved()) {
-            loadData();
             JOptionPane.showMessageDialog(this, "Sale created successfully!",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
         }
@@ -371,18 +409,16 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
             return;
         }
 
-        try {
-            Long saleId = (Long) tableModel.getValueAt(selectedRow, 0);
-            Sale sale = saleService.findById(saleId).orElse(null);
-
+        Long saleId = (Long) tableModel.getValueAt(salesTable.convertRowIndexToModel(selectedRow), 0);
+        saleLoader.load(() -> saleService.findById(saleId).orElse(null), sale -> {
             if (sale != null) {
                 showSaleDetailsDialog(sale);
             }
-        } catch (Exception e) {
+        }, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error viewing sale details: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     private void editSale() {
@@ -393,26 +429,23 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
             return;
         }
 
-        try {
-            Long saleId = (Long) tableModel.getValueAt(selectedRow, 0);
-            Sale sale = saleService.findById(saleId).orElse(null);
-
+        Long saleId = (Long) tableModel.getValueAt(salesTable.convertRowIndexToModel(selectedRow), 0);
+        saleLoader.load(() -> saleService.findById(saleId).orElse(null), sale -> {
             if (sale != null) {
                 SaleDialog dialog = new SaleDialog(SwingUtilities.getWindowAncestor(this), sale,
                         saleService, carService, clientService, currentAdmin);
                 dialog.setVisible(true);
 
                 if (dialog.isSaleSaved()) {
-                    loadData();
                     JOptionPane.showMessageDialog(this, "Sale updated successfully!",
                             "Success", JOptionPane.INFORMATION_MESSAGE);
                 }
             }
-        } catch (Exception e) {
+        }, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error editing sale: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     private void deleteSale() {
@@ -430,17 +463,16 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
                 JOptionPane.WARNING_MESSAGE);
 
         if (option == JOptionPane.YES_OPTION) {
-            try {
-                Long saleId = (Long) tableModel.getValueAt(selectedRow, 0);
+            Long saleId = (Long) tableModel.getValueAt(salesTable.convertRowIndexToModel(selectedRow), 0);
+            deleteLoader.load(() -> {
                 saleService.deleteSale(saleId);
-                loadData();
-                JOptionPane.showMessageDialog(this, "Sale deleted successfully.",
-                        "Success", JOptionPane.INFORMATION_MESSAGE);
-            } catch (Exception e) {
+                return saleId;
+            }, deletedId -> JOptionPane.showMessageDialog(this, "Sale deleted successfully.",
+                    "Success", JOptionPane.INFORMATION_MESSAGE), e -> {
                 e.printStackTrace();
                 JOptionPane.showMessageDialog(this, "Error deleting sale: " + e.getMessage(),
                         "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            });
         }
     }
 
@@ -551,56 +583,46 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
                 progressLabel.setHorizontalAlignment(JLabel.CENTER);
                 progressDialog.add(progressLabel, BorderLayout.CENTER);
                 
-                // Show the progress dialog in a separate thread to keep the UI responsive
-                new Thread(() -> {
-                    try {
-                        String outputPath = pdfService.getDefaultOutputPath();
-                        String filePath = pdfService.generateInvoice(sale, outputPath);
-                        
-                        // Close the progress dialog in the Event Dispatch Thread
-                        SwingUtilities.invokeLater(() -> {
-                            progressDialog.dispose();
-                            
-                            // Show success message with option to open the file
-                            Object[] options = {"Ouvrir le dossier", "OK"};
-                            int choice = JOptionPane.showOptionDialog(
-                                this,
-                                "La facture a été générée avec succès.\nEmplacement: " + filePath,
-                                "Facture générée",
-                                JOptionPane.YES_NO_OPTION,
-                                JOptionPane.INFORMATION_MESSAGE,
-                                null,
-                                options,
-                                options[0]
-                            );
-                            
-                            if (choice == 0) { // User clicked "Open Folder"
-                                try {
-                                    File file = new File(filePath);
-                                    Desktop.getDesktop().open(file.getParentFile());
-                                } catch (Exception ex) {
-                                    JOptionPane.showMessageDialog(
-                                        this,
-                                        "Impossible d'ouvrir le dossier: " + ex.getMessage(),
-                                        "Erreur",
-                                        JOptionPane.ERROR_MESSAGE
-                                    );
-                                }
-                            }
-                        });
-                    } catch (Exception ex) {
-                        // Show error message in the Event Dispatch Thread
-                        SwingUtilities.invokeLater(() -> {
-                            progressDialog.dispose();
+                // Render on the shared loader pool to keep the UI responsive
+                final String outputPath = pdfService.getDefaultOutputPath();
+                invoiceLoader.load(() -> pdfService.generateInvoice(sale, outputPath), filePath -> {
+                    progressDialog.dispose();
+                    
+                    // Show success message with option to open the file
+                    Object[] options = {"Ouvrir le dossier", "OK"};
+                    int choice = JOptionPane.showOptionDialog(
+                        this,
+                        "La facture a été générée avec succès.\nEmplacement: " + filePath,
+                        "Facture générée",
+                        JOptionPane.YES_NO_OPTION,
+                        JOptionPane.INFORMATION_MESSAGE,
+                        null,
+                        options,
+                        options[0]
+                    );
+                    
+                    if (choice == 0) { // User clicked "Open Folder"
+                        try {
+                            File file = new File(filePath);
+                            Desktop.getDesktop().open(file.getParentFile());
+                        } catch (Exception ex) {
                             JOptionPane.showMessageDialog(
                                 this,
-                                "Erreur lors de la génération de la facture: " + ex.getMessage(),
+                                "Impossible d'ouvrir le dossier: " + ex.getMessage(),
                                 "Erreur",
                                 JOptionPane.ERROR_MESSAGE
                             );
-                        });
+                        }
                     }
-                }).start();
+                }, ex -> {
+                    progressDialog.dispose();
+                    JOptionPane.showMessageDialog(
+                        this,
+                        "Erreur lors de la génération de la facture: " + ex.getMessage(),
+                        "Erreur",
+                        JOptionPane.ERROR_MESSAGE
+                    );
+                });
                 
                 progressDialog.setVisible(true);
             }
@@ -615,6 +637,12 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
         }
     }
 
+    private void showInvoiceBatchDialog() {
+        InvoiceBatchDialog dialog = new InvoiceBatchDialog(SwingUtilities.getWindowAncestor(this),
+                invoiceBatchService, clientService, pdfService);
+        dialog.setVisible(true);
+    }
+
     private void exportToPdf() {
         try {
             // Show information about what will be included in the PDF
@@ -627,41 +655,22 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
                     "PDF Export",
                     JOptionPane.INFORMATION_MESSAGE);
 
-            // Get all sales data
-            List<Sale> sales = saleService.getAllSales();
-            
-            if (sales == null || sales.isEmpty()) {
-                JOptionPane.showMessageDialog(this,
-                        "No sales data available to export.",
-                        "No Data",
-                        JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
-
-            // Get the output directory and generate the report
-            String outputPath = pdfService.getDefaultOutputPath();
-            String fileName = pdfService.generateSalesReport(sales, outputPath);
-
-            // Show success message with option to open the file location
-            int option = JOptionPane.showConfirmDialog(this,
-                    "Sales report generated successfully!\n" +
-                    "File: " + fileName + "\n\n" +
-                    "Would you like to open the file location?",
-                    "Export Successful",
-                    JOptionPane.YES_NO_OPTION,
-                    JOptionPane.INFORMATION_MESSAGE);
-
-            if (option == JOptionPane.YES_OPTION) {
-                try {
-                    Desktop.getDesktop().open(new java.io.File(outputPath));
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(this,
-                            "Could not open file location. The file was saved to:\n" + fileName,
-                            "Open Location Failed",
-                            JOptionPane.WARNING_MESSAGE);
+            // The report covers the sales matching the current filter and is streamed
+            // straight to disk, so large histories are never held in memory
+            final SaleFilter filter = currentFilter;
+            final String outputPath = pdfService.getDefaultOutputPath();
+            exportLoader.load(() -> {
+                if (saleService.countSales(filter) == 0) {
+                    return null;
                 }
-            }
-
+                return pdfService.generateSalesReport(filter, outputPath);
+            }, fileName -> showExportResult(fileName, outputPath), e -> {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(this,
+                        "Error exporting PDF: " + e.getMessage(),
+                        "Export Error",
+                        JOptionPane.ERROR_MESSAGE);
+            });
         } catch (Exception e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this,
@@ -671,6 +680,43 @@ public class SalesPanel extends JPanel implements MainWindow.RefreshablePanel {
         }
     }
 
+    private void exportData() {
+        // Covers every sale matching the current filter, not only the pages loaded in the table
+        final SaleFilter filter = currentFilter;
+        ExportDialog.export(this, "Sales", "sales",
+                (file, progress) -> exportService.exportSales(filter, file, progress));
+    }
+
+    private void showExportResult(String fileName, String outputPath) {
+        if (fileName == null) {
+            JOptionPane.showMessageDialog(this,
+                    "No sales data available to export.",
+                    "No Data",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        // Show success message with option to open the file location
+        int option = JOptionPane.showConfirmDialog(this,
+                "Sales report generated successfully!\n" +
+                "File: " + fileName + "\n\n" +
+                "Would you like to open the file location?",
+                "Export Successful",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.INFORMATION_MESSAGE);
+
+        if (option == JOptionPane.YES_OPTION) {
+            try {
+                Desktop.getDesktop().open(new java.io.File(outputPath));
+            } catch (Exception ex) {
+                JOptionPane.showMessageDialog(this,
+                        "Could not open file location. The file was saved to:\n" + fileName,
+                        "Open Location Failed",
+                        JOptionPane.WARNING_MESSAGE);
+            }
+        }
+    }
+
     @Override
     public void refresh() {
         loadData();
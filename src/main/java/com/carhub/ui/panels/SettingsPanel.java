@@ -2,7 +2,9 @@ package com.carhub.ui.panels;
 
 import com.carhub.entity.Admin;
 import com.carhub.service.AdminService;
+import com.carhub.service.SalesRollupService;
 import com.carhub.service.SystemSettingService;
+import com.carhub.ui.async.BackgroundLoader;
 import com.carhub.ui.components.ModernButton;
 import com.carhub.ui.main.MainWindow;
 
@@ -13,11 +15,16 @@ public class SettingsPanel extends JPanel implements MainWindow.RefreshablePanel
 
     private SystemSettingService systemSettingService;
     private AdminService adminService;
+    private SalesRollupService salesRollupService;
     private Admin currentAdmin;
 
-    public SettingsPanel(SystemSettingService systemSettingService, AdminService adminService, Admin currentAdmin) {
+    private final BackgroundLoader maintenanceLoader = BackgroundLoader.forLongTasks();
+
+    public SettingsPanel(SystemSettingService systemSettingService, AdminService adminService,
+                         SalesRollupService salesRollupService, Admin currentAdmin) {
         this.systemSettingService = systemSettingService;
         this.adminService = adminService;
+        this.salesRollupService = salesRollupService;
         this.currentAdmin = currentAdmin;
 
         setupPanel();
@@ -93,9 +100,9 @@ public class SettingsPanel extends JPanel implements MainWindow.RefreshablePanel
         // Database Settings Card
         JPanel databaseSettingsCard = createSettingsCard(
                 "Database Settings",
-                "Manage database connections and backup",
-                "Database Config",
-                e -> configureDatabase()
+                "Rebuild the monthly sales statistics used by the dashboard and reports",
+                "Data Maintenance",
+                e -> rebuildSalesStatistics()
         );
 
         // About Card
@@ -173,15 +180,31 @@ public class SettingsPanel extends JPanel implements MainWindow.RefreshablePanel
                 JOptionPane.INFORMATION_MESSAGE);
     }
 
-    private void configureDatabase() {
-        JOptionPane.showMessageDialog(this,
-                "Database configuration will be implemented here.\nThis would include:\n" +
-                        "- Database connection settings\n" +
-                        "- Backup and restore\n" +
-                        "- Data maintenance\n" +
-                        "- Performance monitoring",
-                "Database Configuration",
-                JOptionPane.INFORMATION_MESSAGE);
+    private void rebuildSalesStatistics() {
+        int choice = JOptionPane.showConfirmDialog(this,
+                "Rebuild the monthly sales statistics from the sales table?\n" +
+                        "Use this after sales were imported or edited directly in the database.\n" +
+                        "Dashboard and report figures are recomputed; sales cannot be saved meanwhile.",
+                "Data Maintenance",
+                JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.QUESTION_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        maintenanceLoader.load(
+                salesRollupService::rebuild,
+                rows -> JOptionPane.showMessageDialog(this,
+                        "Monthly sales statistics rebuilt (" + rows + " rows).",
+                        "Data Maintenance",
+                        JOptionPane.INFORMATION_MESSAGE),
+                e -> {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Error rebuilding sales statistics: " + e.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
     }
 
     private void showAbout() {
@@ -5,8 +5,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
-import java.util.Locale;
 
 @Component
 public class CurrencyUtils {
@@ -14,6 +16,9 @@ public class CurrencyUtils {
     private static SystemSettingService systemSettingService;
     private static final String DEFAULT_CURRENCY = "MGA";
 
+    // Formatter for the current currency setting, rebuilt only when the setting changes
+    private static volatile CurrencyFormat currentFormat = new CurrencyFormat(DEFAULT_CURRENCY);
+
     @Autowired
     public CurrencyUtils(SystemSettingService systemSettingService) {
         CurrencyUtils.systemSettingService = systemSettingService;
@@ -23,37 +28,117 @@ public class CurrencyUtils {
         if (amount == null) {
             return "";
         }
-        
-        // Get the currency code from system settings (default to MGA)
-        String currencyCode = getCurrencyCode();
-        
-        // For Malagasy Ariary, use custom formatting
-        if (DEFAULT_CURRENCY.equalsIgnoreCase(currencyCode)) {
-            // Format with 0 decimal places and "Ar" prefix
-            return String.format("Ar %,.0f", amount.doubleValue());
-        }
-        
-        // For other currencies, use default locale formatting
-        NumberFormat format = NumberFormat.getCurrencyInstance();
-        return format.format(amount);
+
+        return getCurrencyFormat().format(amount);
     }
 
     public static String getCurrencySymbol() {
+        return getCurrencyFormat().symbol;
+    }
+
+    private static CurrencyFormat getCurrencyFormat() {
         String currencyCode = getCurrencyCode();
-        
-        if (DEFAULT_CURRENCY.equalsIgnoreCase(currencyCode)) {
-            return "Ar";
+        CurrencyFormat format = currentFormat;
+        if (!format.currencyCode.equalsIgnoreCase(currencyCode)) {
+            format = new CurrencyFormat(currencyCode);
+            currentFormat = format;
         }
-        
-        // For other currencies, return the default currency symbol
-        return NumberFormat.getCurrencyInstance().getCurrency().getSymbol();
+        return format;
     }
-    
+
     private static String getCurrencyCode() {
         try {
+            // Served from the settings cache, no database round-trip per call
             return systemSettingService.getSettingValue("currency", DEFAULT_CURRENCY);
         } catch (Exception e) {
             return DEFAULT_CURRENCY;
         }
     }
+
+    /**
+     * Immutable formatting rules for one currency code. NumberFormat is not
+     * thread-safe, so each thread keeps its own instance.
+     */
+    private static final class CurrencyFormat {
+
+        // Ariary amounts probed when choosing between the direct writer and DecimalFormat
+        private static final long[] PROBES = {0, 7, -7, 999, 1_000, -1_234_567, 987_654_321_012L};
+
+        private final String currencyCode;
+        private final String symbol;
+        private final ThreadLocal<NumberFormat> formatter;
+        private final boolean writeWholeAmounts;
+        private final char zeroDigit;
+        private final char groupingSeparator;
+        private final char minusSign;
+
+        private CurrencyFormat(String currencyCode) {
+            this.currencyCode = currencyCode;
+
+            // For Malagasy Ariary, use custom formatting: 0 decimal places and "Ar" prefix
+            if (DEFAULT_CURRENCY.equalsIgnoreCase(currencyCode)) {
+                this.symbol = "Ar";
+                this.formatter = ThreadLocal.withInitial(() -> {
+                    DecimalFormat format = new DecimalFormat("Ar #,##0;Ar -#,##0");
+                    format.setRoundingMode(RoundingMode.HALF_UP);
+                    return format;
+                });
+            } else {
+                // For other currencies, use default locale formatting
+                this.symbol = NumberFormat.getCurrencyInstance().getCurrency().getSymbol();
+                this.formatter = ThreadLocal.withInitial(NumberFormat::getCurrencyInstance);
+            }
+
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+            this.zeroDigit = symbols.getZeroDigit();
+            this.groupingSeparator = symbols.getGroupingSeparator();
+            this.minusSign = symbols.getMinusSign();
+            this.writeWholeAmounts = symbol.equals("Ar") && writesLikeDecimalFormat();
+        }
+
+        private String format(BigDecimal amount) {
+            if (writeWholeAmounts) {
+                BigDecimal rounded = amount.setScale(0, RoundingMode.HALF_UP);
+                // DecimalFormat keeps the sign of amounts that round to zero, such as "Ar -0"
+                if (rounded.precision() <= 18 && (rounded.signum() != 0 || amount.signum() >= 0)) {
+                    return writeWholeAmount(rounded.longValue());
+                }
+            }
+            return formatter.get().format(amount);
+        }
+
+        // Same text as the "Ar #,##0" DecimalFormat, written directly into one char array
+        private String writeWholeAmount(long amount) {
+            char[] chars = new char[32];
+            int position = chars.length;
+            long rest = Math.abs(amount);
+            int digits = 0;
+            do {
+                if (digits > 0 && digits % 3 == 0) {
+                    chars[--position] = groupingSeparator;
+                }
+                chars[--position] = (char) (zeroDigit + rest % 10);
+                rest /= 10;
+                digits++;
+            } while (rest > 0);
+            if (amount < 0) {
+                chars[--position] = minusSign;
+            }
+            chars[--position] = ' ';
+            chars[--position] = 'r';
+            chars[--position] = 'A';
+            return new String(chars, position, chars.length - position);
+        }
+
+        // Locales whose signs or digits DecimalFormat writes differently keep using it
+        private boolean writesLikeDecimalFormat() {
+            NumberFormat decimalFormat = formatter.get();
+            for (long probe : PROBES) {
+                if (!writeWholeAmount(probe).equals(decimalFormat.format(BigDecimal.valueOf(probe)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.carhub.util;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fonts and text styles for one PDF document. A PdfFont belongs to the document it is
+ * first used in, so each document gets its own registry and every font is written to the
+ * file once, however many sections use it. The parsed font programs behind them are
+ * immutable and shared by all documents of the process.
+ */
+public class PdfStyles {
+
+    private static final Map<String, FontProgram> FONT_PROGRAMS = new ConcurrentHashMap<>();
+
+    private final Map<String, PdfFont> fonts = new HashMap<>();
+    private final Style sectionTitle;
+    private final Style tableHeader;
+
+    public PdfStyles(Document document) {
+        document.setFont(getRegularFont());
+
+        sectionTitle = new Style()
+                .setFont(getBoldFont())
+                .setFontSize(14)
+                .setMarginBottom(10);
+        tableHeader = new Style()
+                .setFont(getBoldFont())
+                .setBackgroundColor(ColorConstants.LIGHT_GRAY);
+    }
+
+    public PdfFont getRegularFont() {
+        return getFont(StandardFonts.HELVETICA);
+    }
+
+    public PdfFont getBoldFont() {
+        return getFont(StandardFonts.HELVETICA_BOLD);
+    }
+
+    public PdfFont getItalicFont() {
+        return getFont(StandardFonts.HELVETICA_OBLIQUE);
+    }
+
+    public Style getSectionTitle() {
+        return sectionTitle;
+    }
+
+    public Style getTableHeader() {
+        return tableHeader;
+    }
+
+    private PdfFont getFont(String fontName) {
+        return fonts.computeIfAbsent(fontName, name ->
+                PdfFontFactory.createFont(FONT_PROGRAMS.computeIfAbsent(name, PdfStyles::loadFontProgram),
+                        PdfEncodings.WINANSI));
+    }
+
+    private static FontProgram loadFontProgram(String fontName) {
+        try {
+            return FontProgramFactory.createFont(fontName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load font " + fontName, e);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.carhub.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index over a few short text fields per document, for type-ahead search.
+ * Fields are split into lowercase, accent-free tokens. A query matches a document when
+ * every query term is the prefix of one of the document's tokens, so "toy cor 20" finds
+ * a 2020 Toyota Corolla. Tokens are kept sorted, which turns a prefix into a range of the
+ * dictionary, and posting lists are plain int arrays over document slots. The slots of
+ * removed documents are reused, so the index stays the size of the live documents.
+ * <p>
+ * The index is filled once between {@link #startLoading()} and {@link #finishLoading()},
+ * then kept current with {@link #put} and {@link #remove}. Updates made while it is loading
+ * win over the rows being loaded. All methods are thread-safe.
+ */
+public class SearchIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> dictionary = new TreeMap<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final List<String[]> tokensBySlot = new ArrayList<>();
+    private final BitSet freeSlots = new BitSet();
+    // Update count when each slot was last given to a document. Matches taken before then
+    // ignore the slot, so a reused slot never makes them match another document.
+    private long[] slotUpdates = new long[16];
+    private long updates;
+
+    private final Set<Long> touchedWhileLoading = new HashSet<>();
+    private boolean loading;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void startLoading() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            touchedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a document read by the initial load, unless it was updated or removed since loading started.
+     */
+    public void load(long id, String... fields) {
+        String[] tokens = tokenize(fields);
+        lock.writeLock().lock();
+        try {
+            if (loading && !touchedWhileLoading.contains(id)) {
+                removeLocked(id);
+                addLocked(id, tokens);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoading() {
+        lock.writeLock().lock();
+        try {
+            loading = false;
+            touchedWhileLoading.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops a load that failed, the next {@link #startLoading()} starts from scratch.
+     */
+    public void abortLoading() {
+        lock.writeLock().lock();
+        try {
+            loading = false;
+            touchedWhileLoading.clear();
+            dictionary.clear();
+            slotsById.clear();
+            tokensBySlot.clear();
+            freeSlots.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a document. Ignored while the index has not started loading,
+     * the load will read the current state anyway.
+     */
+    public void put(long id, String... fields) {
+        String[] tokens = tokenize(fields);
+        lock.writeLock().lock();
+        try {
+            if (!ready && !loading) {
+                return;
+            }
+            if (loading) {
+                touchedWhileLoading.add(id);
+            }
+            removeLocked(id);
+            addLocked(id, tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                touchedWhileLoading.add(id);
+            }
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the documents matching every term of the text. Blank text matches everything.
+     */
+    public Matches query(String text) {
+        String[] terms = tokenize(text);
+        if (terms.length == 0) {
+            return new Matches(null, Long.MAX_VALUE);
+        }
+        // Longer terms are usually more selective, starting with them empties the result sooner
+        Arrays.sort(terms, Comparator.comparingInt(String::length).reversed());
+
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (String term : terms) {
+                BitSet hits = new BitSet(tokensBySlot.size());
+                for (Postings postings : dictionary.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                    postings.addTo(hits);
+                }
+                if (result == null) {
+                    result = hits;
+                } else {
+                    result.and(hits);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return new Matches(result, updates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(long id, String[] tokens) {
+        int slot = freeSlots.nextSetBit(0);
+        if (slot >= 0) {
+            freeSlots.clear(slot);
+        } else {
+            slot = tokensBySlot.size();
+            tokensBySlot.add(null);
+            if (slot == slotUpdates.length) {
+                slotUpdates = Arrays.copyOf(slotUpdates, slot * 2);
+            }
+        }
+        slotUpdates[slot] = ++updates;
+        for (int i = 0; i < tokens.length; i++) {
+            Postings postings = dictionary.get(tokens[i]);
+            if (postings == null) {
+                postings = new Postings(tokens[i]);
+                dictionary.put(tokens[i], postings);
+            }
+            postings.add(slot);
+            // Share the dictionary's copy of the token instead of keeping one per document
+            tokens[i] = postings.token;
+        }
+        tokensBySlot.set(slot, tokens);
+        slotsById.put(id, slot);
+    }
+
+    private void removeLocked(long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (String token : tokensBySlot.get(slot)) {
+            Postings postings = dictionary.get(token);
+            if (postings != null && postings.remove(slot) && postings.size == 0) {
+                dictionary.remove(token);
+            }
+        }
+        tokensBySlot.set(slot, null);
+        freeSlots.set(slot);
+    }
+
+    /**
+     * Splits the fields into distinct lowercase tokens of letters and digits, without accents.
+     */
+    static String[] tokenize(String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            if (field == null || field.isEmpty()) {
+                continue;
+            }
+            String text = field.toLowerCase();
+            if (!isAscii(text)) {
+                text = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            }
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+                if (tokenChar && start < 0) {
+                    start = i;
+                } else if (!tokenChar && start >= 0) {
+                    tokens.add(text.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Result of a query. Cheap to test per table row. Documents added or changed after the
+     * query do not match.
+     */
+    public final class Matches {
+
+        private final BitSet slots;
+        private final long updatesAtQuery;
+
+        private Matches(BitSet slots, long updatesAtQuery) {
+            this.slots = slots;
+            this.updatesAtQuery = updatesAtQuery;
+        }
+
+        public boolean contains(long id) {
+            if (slots == null) {
+                return true;
+            }
+            lock.readLock().lock();
+            try {
+                Integer slot = slotsById.get(id);
+                return slot != null && slots.get(slot) && slotUpdates[slot] <= updatesAtQuery;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Documents that matched when the query ran
+        public int count() {
+            return slots == null ? size() : slots.cardinality();
+        }
+    }
+
+    /**
+     * Sorted slots of the documents containing one token. New documents mostly get the
+     * highest slot, so adding is usually an append.
+     */
+    private static final class Postings {
+
+        private final String token;
+        private int[] slots = new int[2];
+        private int size;
+
+        private Postings(String token) {
+            this.token = token;
+        }
+
+        private void add(int slot) {
+            int index = size;
+            if (size > 0 && slots[size - 1] >= slot) {
+                // A reused slot goes in its sorted place
+                index = Arrays.binarySearch(slots, 0, size, slot);
+                if (index >= 0) {
+                    return;
+                }
+                index = -index - 1;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, index, slots, index + 1, size - index);
+            slots[index] = slot;
+            size++;
+        }
+
+        private boolean remove(int slot) {
+            int index = Arrays.binarySearch(slots, 0, size, slot);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(slots[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.carhub.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams the rows of a CSV file or of the first sheet of an XLSX workbook, one at a time,
+ * so files of any size are read in constant memory. CSV files may use a comma, semicolon
+ * or tab as separator; the one found most in the first line wins. XLSX cells are read as
+ * displayed, except numbers, which are returned without grouping or rounding.
+ */
+public final class TabularFileReader {
+
+    /**
+     * Receives every row, header included. Row numbers start at 1, as shown in a spreadsheet.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(int rowNumber, String[] cells) throws Exception;
+    }
+
+    private TabularFileReader() {
+    }
+
+    public static boolean isSupported(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".csv") || name.endsWith(".txt") || name.endsWith(".xlsx");
+    }
+
+    public static void read(File file, RowHandler handler) throws Exception {
+        if (file.getName().toLowerCase().endsWith(".xlsx")) {
+            readXlsx(file, handler);
+        } else {
+            readCsv(file, handler);
+        }
+    }
+
+    private static void readCsv(File file, RowHandler handler) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            // Skip the byte order mark Excel puts in front of UTF-8 files
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+
+            reader.mark(64 * 1024);
+            char separator = detectSeparator(reader.readLine());
+            reader.reset();
+
+            int rowNumber = 0;
+            String[] cells;
+            while ((cells = readCsvRecord(reader, separator)) != null) {
+                rowNumber++;
+                handler.row(rowNumber, cells);
+            }
+        }
+    }
+
+    private static char detectSeparator(String firstLine) {
+        if (firstLine == null) {
+            return ',';
+        }
+        char best = ',';
+        int bestCount = 0;
+        for (char candidate : new char[]{',', ';', '\t'}) {
+            int count = 0;
+            boolean quoted = false;
+            for (int i = 0; i < firstLine.length(); i++) {
+                char c = firstLine.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == candidate && !quoted) {
+                    count++;
+                }
+            }
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    // RFC 4180: quoted fields may hold separators, line breaks and doubled quotes
+    private static String[] readCsvRecord(Reader reader, char separator) throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean readAny = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            readAny = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        cell.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                cells.add(cell.toString());
+                return cells.toArray(new String[0]);
+            } else {
+                cell.append((char) c);
+            }
+        }
+
+        if (!readAny) {
+            return null;
+        }
+        cells.add(cell.toString());
+        return cells.toArray(new String[0]);
+    }
+
+    private static void readXlsx(File file, RowHandler handler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            SheetRowCollector collector = new SheetRowCollector(handler);
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(xssfReader.getStylesTable(), null, strings,
+                    collector, new PlainNumberFormatter(), false));
+            try (InputStream sheet = sheets.next()) {
+                parser.parse(new InputSource(sheet));
+            } catch (HandlerException e) {
+                throw (Exception) e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Turns the cell events of one sheet into rows. Empty cells produce no event, so the
+     * column of each cell is taken from its reference.
+     */
+    private static final class SheetRowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+
+        private SheetRowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            try {
+                handler.row(rowNum + 1, cells.toArray(new String[0]));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new HandlerException(e);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue != null ? formattedValue : "");
+        }
+    }
+
+    // Carries a checked exception of the row handler through the SAX parser
+    private static final class HandlerException extends RuntimeException {
+
+        private HandlerException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Formats dates as shown in the sheet but numbers as plain digits, so "25,000.00"
+     * with a grouping format is read back as 25000.
+     */
+    private static final class PlainNumberFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                return super.formatRawCellContents(value, formatIndex, formatString);
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.carhub.util;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes rows to a CSV file or to a single-sheet XLSX workbook, one at a time, so exports
+ * of any size are written in constant memory. XLSX rows are kept in a small window and
+ * flushed to a temporary file as the window moves on. Numbers and dates are written as
+ * typed cells in XLSX and as plain text in CSV.
+ * <p>
+ * Call {@link #finish()} once every row is written. Closing a writer that was not finished,
+ * after an error or a cancellation, deletes the partial file.
+ */
+public abstract class TabularFileWriter implements AutoCloseable {
+
+    // Rows kept in memory by the XLSX writer; older rows are flushed to disk
+    private static final int XLSX_ROW_WINDOW = 100;
+
+    private static final DateTimeFormatter CSV_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static boolean isSupported(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".csv") || name.endsWith(".xlsx");
+    }
+
+    /**
+     * Opens a writer for the file, chosen by its extension, and writes the header row.
+     */
+    public static TabularFileWriter open(File file, String... headers) throws IOException {
+        TabularFileWriter writer = file.getName().toLowerCase().endsWith(".xlsx")
+                ? new XlsxWriter(file)
+                : new CsvWriter(file);
+        try {
+            writer.writeHeader(headers);
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+        return writer;
+    }
+
+    protected abstract void writeHeader(String[] headers) throws IOException;
+
+    /**
+     * Writes one row. Values may be strings, numbers, dates or null; anything else is written
+     * as its toString().
+     */
+    public abstract void writeRow(Object... values) throws IOException;
+
+    /**
+     * Completes the file. Rows written after this are lost.
+     */
+    public abstract void finish() throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    // Native queries return JDBC timestamps, written like the LocalDateTime of entity queries
+    private static Object normalize(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        return value;
+    }
+
+    private static final class CsvWriter extends TabularFileWriter {
+
+        private final File file;
+        private final BufferedWriter out;
+        private boolean finished;
+
+        private CsvWriter(File file) throws IOException {
+            this.file = file;
+            out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+            // Byte order mark so Excel opens the file as UTF-8
+            out.write('\uFEFF');
+        }
+
+        @Override
+        protected void writeHeader(String[] headers) throws IOException {
+            writeRow((Object[]) headers);
+        }
+
+        @Override
+        public void writeRow(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(escape(format(normalize(values[i]))));
+            }
+            out.write("\r\n");
+        }
+
+        private static String format(Object value) {
+            if (value == null) {
+                return "";
+            }
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).toPlainString();
+            }
+            if (value instanceof LocalDateTime) {
+                return ((LocalDateTime) value).format(CSV_DATE_TIME);
+            }
+            return value.toString();
+        }
+
+        // RFC 4180: fields holding separators, quotes or line breaks are quoted, quotes doubled
+        private static String escape(String text) {
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+            if (!finished) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    private static final class XlsxWriter extends TabularFileWriter {
+
+        private final File file;
+        private final SXSSFWorkbook workbook;
+        private SXSSFSheet sheet;
+        private String[] headers;
+        private final CellStyle headerStyle;
+        private final CellStyle dateStyle;
+        private final CellStyle dateTimeStyle;
+        private final CellStyle amountStyle;
+        private int rowIndex;
+
+        private XlsxWriter(File file) {
+            this.file = file;
+            workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+            // Compressed temporary files, exports can have millions of cells
+            workbook.setCompressTempFiles(true);
+
+            headerStyle = workbook.createCellStyle();
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle.setFont(bold);
+
+            short dateFormat = workbook.createDataFormat().getFormat("yyyy-mm-dd");
+            short dateTimeFormat = workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm");
+            short amountFormat = workbook.createDataFormat().getFormat("#,##0.00");
+            dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(dateFormat);
+            dateTimeStyle = workbook.createCellStyle();
+            dateTimeStyle.setDataFormat(dateTimeFormat);
+            amountStyle = workbook.createCellStyle();
+            amountStyle.setDataFormat(amountFormat);
+        }
+
+        @Override
+        protected void writeHeader(String[] headers) {
+            this.headers = headers;
+            startSheet();
+        }
+
+        // A sheet holds at most 1,048,576 rows, longer exports continue on another sheet
+        private void startSheet() {
+            int number = workbook.getNumberOfSheets() + 1;
+            sheet = workbook.createSheet(number == 1 ? "Export" : "Export " + number);
+            rowIndex = 0;
+
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < headers.length; i++) {
+                Cell cell = row.createCell(i);
+                cell.setCellValue(headers[i]);
+                cell.setCellStyle(headerStyle);
+                // Fixed widths, auto-sizing would have to measure every streamed cell
+                sheet.setColumnWidth(i, Math.max(headers[i].length() + 4, 16) * 256);
+            }
+            sheet.createFreezePane(0, 1);
+        }
+
+        @Override
+        public void writeRow(Object... values) {
+            if (rowIndex == SpreadsheetVersion.EXCEL2007.getMaxRows()) {
+                startSheet();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                Object value = normalize(values[i]);
+                if (value == null) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                if (value instanceof BigDecimal) {
+                    cell.setCellValue(((BigDecimal) value).doubleValue());
+                    cell.setCellStyle(amountStyle);
+                } else if (value instanceof Number) {
+                    cell.setCellValue(((Number) value).doubleValue());
+                } else if (value instanceof LocalDateTime) {
+                    cell.setCellValue((LocalDateTime) value);
+                    cell.setCellStyle(dateTimeStyle);
+                } else if (value instanceof LocalDate) {
+                    cell.setCellValue((LocalDate) value);
+                    cell.setCellStyle(dateStyle);
+                } else {
+                    cell.setCellValue(value.toString());
+                }
+            }
+        }
+
+        // The workbook is only written to the file here, a cancelled export leaves no file behind
+        @Override
+        public void finish() throws IOException {
+            try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                workbook.write(out);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file.toPath());
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            workbook.close();
+            // Deletes the temporary files of the flushed rows
+            workbook.dispose();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.carhub.service;
+
+import com.carhub.entity.CarImage;
+import com.carhub.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Photos uploaded to one car from several threads at once all get saved, with their own place
+ * in the display order, and the car always ends up with exactly one primary photo. Lists look
+ * up the primary photos of the cars they show only.
+ */
+class CarImageUploadTest extends DatabaseTest {
+
+    private static final int THREADS = 8;
+    private static final int IMAGES_PER_UPLOAD = 3;
+
+    @Autowired
+    private CarImageService carImageService;
+
+    @Test
+    void parallelUploadsKeepOnePrimaryAndDistinctPositions() throws Exception {
+        Long carId = carRepository.save(newCar("Upload", uniqueTag())).getId();
+
+        // Half of the uploads ask for their first photo to become the primary one
+        runInParallel(thread -> {
+            List<CarImage> images = newImages(carId, "t" + thread, IMAGES_PER_UPLOAD);
+            images.get(0).setIsPrimary(thread % 2 == 0);
+            carImageService.addImages(carId, images);
+        });
+
+        List<CarImage> images = carImageService.getImages(carId);
+        assertEquals(THREADS * IMAGES_PER_UPLOAD, images.size());
+        assertEquals(1, countPrimaries(images));
+        Set<Integer> positions = new HashSet<>();
+        images.forEach(image -> positions.add(image.getDisplayOrder()));
+        assertEquals(images.size(), positions.size(), "distinct display orders");
+    }
+
+    @Test
+    void parallelPrimaryChangesLeaveOnePrimary() throws Exception {
+        Long carId = carRepository.save(newCar("Primary", uniqueTag())).getId();
+        List<CarImage> images = carImageService.addImages(carId, newImages(carId, "p", THREADS));
+
+        runInParallel(thread -> carImageService.setPrimaryImage(carId, images.get(thread).getId()));
+
+        assertEquals(1, countPrimaries(carImageService.getImages(carId)));
+    }
+
+    @Test
+    void firstUploadBecomesPrimaryAndReorderFollowsTheIds() {
+        Long carId = carRepository.save(newCar("Order", uniqueTag())).getId();
+        List<Long> ids = new ArrayList<>();
+        carImageService.addImages(carId, newImages(carId, "o", 4)).forEach(image -> ids.add(image.getId()));
+        assertEquals(ids.get(0), carImageService.getPrimaryImage(carId).orElseThrow().getId());
+
+        carImageService.setPrimaryImage(carId, ids.get(3));
+        assertEquals(ids.get(3), carImageService.getPrimaryImage(carId).orElseThrow().getId());
+
+        Collections.reverse(ids);
+        carImageService.reorderImages(carId, ids);
+        List<Long> shown = new ArrayList<>();
+        carImageService.getImages(carId).forEach(image -> shown.add(image.getId()));
+        assertEquals(ids, shown);
+
+        Long otherCarId = carRepository.save(newCar("Other", uniqueTag())).getId();
+        assertThrows(IllegalArgumentException.class, () -> carImageService.setPrimaryImage(otherCarId, ids.get(0)));
+    }
+
+    @Test
+    void primaryImagesAreLookedUpForTheRequestedCarsOnly() {
+        Long withPhotos = carRepository.save(newCar("Listed", uniqueTag())).getId();
+        Long withoutPhotos = carRepository.save(newCar("Bare", uniqueTag())).getId();
+        Long notRequested = carRepository.save(newCar("Unlisted", uniqueTag())).getId();
+        Long primaryId = carImageService.addImages(withPhotos, newImages(withPhotos, "l", 3)).get(0).getId();
+        carImageService.addImages(notRequested, newImages(notRequested, "u", 1));
+
+        Map<Long, CarImage> primaries = carImageService.getPrimaryImages(List.of(withPhotos, withoutPhotos));
+
+        assertEquals(Set.of(withPhotos), primaries.keySet());
+        assertEquals(primaryId, primaries.get(withPhotos).getId());
+    }
+
+    private List<CarImage> newImages(Long carId, String prefix, int count) {
+        List<CarImage> images = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = prefix + "-" + i + ".jpg";
+            images.add(new CarImage(null, "uploads/cars/" + carId + "/" + name, name));
+        }
+        return images;
+    }
+
+    private static long countPrimaries(List<CarImage> images) {
+        return images.stream().filter(image -> Boolean.TRUE.equals(image.getIsPrimary())).count();
+    }
+
+    @FunctionalInterface
+    private interface ThreadWork {
+        void run(int thread) throws Exception;
+    }
+
+    // Starts every thread at the same moment and fails if any of them does
+    private void runInParallel(ThreadWork work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                Callable<Void> task = () -> {
+                    start.await();
+                    work.run(index);
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
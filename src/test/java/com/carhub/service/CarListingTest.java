@@ -0,0 +1,61 @@
+package com.carhub.service;
+
+import com.carhub.dto.CarFilter;
+import com.carhub.entity.Car;
+import com.carhub.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The cars list pages through the matching cars newest first, each car once, and the search
+ * text is matched literally.
+ */
+class CarListingTest extends DatabaseTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void pagesListEveryMatchingCarOnceNewestFirst() {
+        String tag = uniqueTag();
+        LocalDateTime createdAt = LocalDateTime.now().withNano(0);
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Car car = newCar("Paged", tag + "-" + i);
+            // Pairs of cars share their creation time, the id orders them
+            car.setCreatedAt(createdAt.minusMinutes(i / 2));
+            cars.add(car);
+        }
+        cars = carRepository.saveAll(cars);
+        cars.sort(Comparator.comparing(Car::getCreatedAt).thenComparing(Car::getId).reversed());
+
+        CarFilter filter = new CarFilter(tag, null, null, null);
+        List<Long> listed = new ArrayList<>();
+        List<Car> page = carService.getCarsPage(filter, null, 3);
+        while (!page.isEmpty()) {
+            page.forEach(car -> listed.add(car.getId()));
+            page = carService.getCarsPage(filter, page.get(page.size() - 1), 3);
+        }
+
+        assertEquals(cars.stream().map(Car::getId).toList(), listed);
+    }
+
+    @Test
+    void wildcardsInTheSearchTextMatchLiterally() {
+        String tag = uniqueTag();
+        Long percent = carRepository.save(newCar("Promo", tag + " 50%_off")).getId();
+        carRepository.save(newCar("Promo", tag + " 50 and off"));
+        carRepository.save(newCar("Promo", tag + " 50x_off"));
+
+        List<Car> found = carService.getCarsPage(new CarFilter(tag + " 50%_", null, null, null), null, 10);
+
+        assertEquals(List.of(percent), found.stream().map(Car::getId).toList());
+    }
+}
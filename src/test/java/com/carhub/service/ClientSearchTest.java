@@ -0,0 +1,60 @@
+package com.carhub.service;
+
+import com.carhub.entity.Client;
+import com.carhub.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Client search ranks name prefixes first, then other name matches, then email and phone
+ * matches, and filters the customer type before the limit.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClientSearchTest extends DatabaseTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    private final String tag = uniqueTag();
+    private final String name = tag.toUpperCase();
+
+    @BeforeAll
+    void createClients() {
+        Client lastNamePrefix = newClient("Zed", name + "son", tag + "-1@example.com");
+        Client exactLastName = newClient("Ned", name, tag + "-2@example.com");
+        exactLastName.setCustomerType(Client.CustomerType.BUSINESS);
+        Client firstNamePrefix = newClient(name + "ine", "Zulu", tag + "-3@example.com");
+        Client nameContains = newClient("Ana", "Bo" + name, "ana-" + tag.hashCode() + "@example.com");
+        Client emailOnly = newClient("Eve", "Doe", "eve." + tag + "@example.com");
+        emailOnly.setCustomerType(Client.CustomerType.BUSINESS);
+        Client unrelated = newClient("Other", "Person", "other-" + tag.hashCode() + "@example.com");
+        clientRepository.saveAll(List.of(lastNamePrefix, exactLastName, firstNamePrefix, nameContains, emailOnly, unrelated));
+    }
+
+    @Test
+    void matchesAreRankedByWhereTheTermIsFound() {
+        assertEquals(List.of("Ned " + name, "Zed " + name + "son", name + "ine Zulu", "Ana Bo" + name, "Eve Doe"),
+                names(clientService.searchClients(tag)));
+    }
+
+    @Test
+    void theLimitKeepsTheBestMatches() {
+        assertEquals(List.of("Ned " + name, "Zed " + name + "son"), names(clientService.searchClients(tag, null, 2)));
+    }
+
+    @Test
+    void customerTypeIsFilteredBeforeTheLimit() {
+        assertEquals(List.of("Ned " + name, "Eve Doe"),
+                names(clientService.searchClients(tag, Client.CustomerType.BUSINESS, 2)));
+    }
+
+    private static List<String> names(List<Client> clients) {
+        return clients.stream().map(client -> client.getFirstName() + " " + client.getLastName()).toList();
+    }
+}
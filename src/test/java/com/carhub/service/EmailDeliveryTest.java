@@ -0,0 +1,153 @@
+package com.carhub.service;
+
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import com.carhub.support.DatabaseTest;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.mail.internet.MimeMessage;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Sale confirmations go through the outbox to a local GreenMail SMTP server. An SMTP outage
+ * delays the email without using up its attempts.
+ */
+class EmailDeliveryTest extends DatabaseTest {
+
+    private static final long TIMEOUT_MILLIS = 20_000;
+
+    // A fixed port, so the server can be stopped and started again where the dispatcher expects it
+    private static final ServerSetup SMTP_SETUP = new ServerSetup(freePort(), "localhost", ServerSetup.PROTOCOL_SMTP);
+
+    private static GreenMail smtpServer;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("mail.smtp.port", () -> String.valueOf(SMTP_SETUP.getPort()));
+        registry.add("mail.outbox.retry-base-seconds", () -> "1");
+    }
+
+    @BeforeAll
+    static void startSmtpServer() {
+        smtpServer = new GreenMail(SMTP_SETUP);
+        smtpServer.start();
+    }
+
+    @AfterAll
+    static void stopSmtpServer() {
+        smtpServer.stop();
+    }
+
+    @Test
+    void saleConfirmationIsDeliveredAfterCommit() throws Exception {
+        String email = uniqueTag() + "@example.com";
+        Sale sale = createSale(email);
+
+        waitFor("the confirmation email", () -> receivedBy(email) != null);
+        // The server has the message before the dispatcher records it as sent
+        waitFor("the outbox update", () -> "SENT".equals(outboxRow(sale).get("status")));
+
+        MimeMessage message = receivedBy(email);
+        assertTrue(message.getSubject().contains(sale.getInvoiceNumber()), message.getSubject());
+        assertEquals(0, outboxRow(sale).get("attempts"));
+    }
+
+    @Test
+    void smtpOutageDelaysTheEmailWithoutUsingAnAttempt() throws Exception {
+        String email = uniqueTag() + "@example.com";
+        smtpServer.stop();
+        Sale sale;
+        try {
+            sale = createSale(email);
+            waitFor("the failed connection", () -> outboxRow(sale).get("last_error") != null);
+
+            Map<String, Object> outbox = outboxRow(sale);
+            assertEquals("PENDING", outbox.get("status"));
+            assertEquals(0, outbox.get("attempts"));
+        } finally {
+            smtpServer = new GreenMail(SMTP_SETUP);
+            smtpServer.start();
+        }
+
+        // Postponed by the retry delay, then sent on a later run
+        waitFor("the delayed email", () -> {
+            emailDispatcher.dispatchNow();
+            return receivedBy(email) != null;
+        });
+        waitFor("the outbox update", () -> "SENT".equals(outboxRow(sale).get("status")));
+        assertEquals(0, outboxRow(sale).get("attempts"));
+    }
+
+    private Sale createSale(String email) {
+        String tag = uniqueTag();
+        Car car = carRepository.save(newCar("Mail", tag));
+        Client client = clientRepository.save(newClient("Mail", tag, email));
+        Sale sale = saleService.createSale(newSale(car, client, null));
+        assertNotNull(sale.getInvoiceNumber());
+        return sale;
+    }
+
+    private Map<String, Object> outboxRow(Sale sale) {
+        return new JdbcTemplate(dataSource).queryForMap(
+                "SELECT status, attempts, last_error FROM email_outbox WHERE sale_id = ?", sale.getId());
+    }
+
+    private MimeMessage receivedBy(String email) {
+        return Arrays.stream(smtpServer.getReceivedMessages())
+                .filter(message -> {
+                    try {
+                        return message.getAllRecipients()[0].toString().equals(email);
+                    } catch (Exception e) {
+                        return false;
+                    }
+                })
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static void waitFor(String what, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("No free port for the SMTP server", e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.carhub.service;
+
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import com.carhub.support.DatabaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Invoice numbers stay unique when many sales are saved at once, from one workstation or from
+ * several, each holding its own block of numbers.
+ */
+class InvoiceNumberConcurrencyTest extends DatabaseTest {
+
+    private static final int THREADS = 8;
+    private static final int SALES_PER_THREAD = 10;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SystemSettingService systemSettingService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void parallelSalesGetUniqueInvoiceNumbers() throws Exception {
+        String tag = uniqueTag();
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < THREADS * SALES_PER_THREAD; i++) {
+            cars.add(newCar("Brand" + i, tag));
+        }
+        List<Car> savedCars = carRepository.saveAll(cars);
+        // No email address, so no confirmation emails are queued
+        Client client = clientRepository.save(newClient("Invoice", tag, null));
+
+        List<String> invoiceNumbers = runInParallel(thread -> {
+            List<String> numbers = new ArrayList<>();
+            for (int i = 0; i < SALES_PER_THREAD; i++) {
+                Sale sale = newSale(savedCars.get(thread * SALES_PER_THREAD + i), client, null);
+                numbers.add(saleService.createSale(sale).getInvoiceNumber());
+            }
+            return numbers;
+        });
+
+        assertEquals(THREADS * SALES_PER_THREAD, new HashSet<>(invoiceNumbers).size(), "distinct invoice numbers");
+        String expectedStart = systemSettingService.getSettingValue("invoice_prefix", "INV") + "-"
+                + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
+        for (String number : invoiceNumbers) {
+            assertTrue(number.startsWith(expectedStart), number);
+            assertTrue(saleService.findByInvoiceNumber(number).isPresent(), number);
+        }
+    }
+
+    @Test
+    void workstationsWithTheirOwnBlocksNeverHandOutTheSameNumber() throws Exception {
+        // Each instance reserves blocks on its own, like the application running on another machine
+        List<InvoiceNumberService> workstations = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            workstations.add(applicationContext.getAutowireCapableBeanFactory().createBean(InvoiceNumberService.class));
+        }
+
+        List<String> invoiceNumbers = runInParallel(thread -> {
+            List<String> numbers = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                numbers.add(workstations.get(thread).nextInvoiceNumber());
+            }
+            return numbers;
+        });
+
+        Set<String> distinct = new HashSet<>(invoiceNumbers);
+        assertEquals(invoiceNumbers.size(), distinct.size(), "distinct invoice numbers");
+    }
+
+    @FunctionalInterface
+    private interface ThreadWork {
+        List<String> run(int thread) throws Exception;
+    }
+
+    // Starts every thread at the same moment and collects what they return
+    private List<String> runInParallel(ThreadWork work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                Callable<List<String>> task = () -> {
+                    start.await();
+                    return work.run(index);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            List<String> results = new ArrayList<>();
+            for (Future<List<String>> future : futures) {
+                results.addAll(future.get(2, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.carhub.service;
+
+import com.carhub.config.SqlStatementCounter;
+import com.carhub.dto.SaleFilter;
+import com.carhub.dto.SaleSummary;
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import com.carhub.repository.SaleRepository;
+import com.carhub.support.DatabaseTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The sales lists read SaleSummary projections, so a page costs one statement however many
+ * rows it has, and showing the car and client of each row runs no further query. Each filter
+ * value narrows the pages, counts and totals only when it is set.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SaleListingTest extends DatabaseTest {
+
+    private static final int SALES = 120;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private SqlStatementCounter statementCounter;
+
+    private final String tag = uniqueTag();
+    private SaleFilter filter;
+
+    @BeforeAll
+    void createSales() {
+        List<Car> cars = new ArrayList<>();
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            cars.add(newCar("Brand" + i, "Model" + i));
+            clients.add(newClient("First" + i, "Last" + i, tag + "-" + i + "@example.com"));
+        }
+        cars = carRepository.saveAll(cars);
+        clients = clientRepository.saveAll(clients);
+
+        // Every sale has its own car and client, so loading them row by row would show up
+        List<Sale> sales = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            sales.add(newSale(cars.get(i), clients.get(i), String.format("T%s-%03d", tag, i)));
+        }
+        saleRepository.saveAll(sales);
+
+        filter = new SaleFilter(tag, null, null, null);
+    }
+
+    @Test
+    void salesPageRunsOneStatementWhateverItsSize() {
+        for (int pageSize : new int[]{10, SALES}) {
+            List<SaleSummary> page = countStatements(1, () -> {
+                List<SaleSummary> rows = saleService.getSalesPage(filter, null, pageSize);
+                rows.forEach(this::showRow);
+                return rows;
+            });
+            assertEquals(pageSize, page.size());
+        }
+    }
+
+    @Test
+    void followingPagesRunOneStatementEachAndCoverEverySale() {
+        Set<Long> seen = new HashSet<>();
+        SaleSummary last = null;
+        while (true) {
+            SaleSummary after = last;
+            List<SaleSummary> page = countStatements(1, () -> saleService.getSalesPage(filter, after, 25));
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(sale -> seen.add(sale.getId()));
+            last = page.get(page.size() - 1);
+        }
+        assertEquals(SALES, seen.size());
+    }
+
+    @Test
+    void filterValuesNarrowCountsAndTotals() {
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(SALES, saleService.countSales(filter));
+        assertEquals(0, saleService.countSales(new SaleFilter(tag, Sale.PaymentStatus.PENDING, null, null)));
+        assertEquals(SALES, saleService.countSales(
+                new SaleFilter(tag, Sale.PaymentStatus.COMPLETED, now.minusDays(1), now.plusDays(1))));
+        assertEquals(0, saleService.countSales(new SaleFilter(tag, null, null, now.minusDays(1))));
+        assertEquals(List.of(), saleService.getSalesPage(new SaleFilter(tag, null, now.plusDays(1), null), null, 10));
+
+        Object[] totals = saleService.getSalesTotals(filter);
+        assertEquals(SALES, ((Number) totals[0]).longValue());
+        assertEquals(0, new BigDecimal("25000.00").multiply(BigDecimal.valueOf(SALES)).compareTo((BigDecimal) totals[1]));
+    }
+
+    @Test
+    void recentSalesRunOneStatementWhateverTheLimit() {
+        for (int limit : new int[]{5, SALES}) {
+            List<SaleSummary> recent = countStatements(1, () -> {
+                List<SaleSummary> rows = saleService.getRecentSaleSummaries(limit);
+                rows.forEach(this::showRow);
+                return rows;
+            });
+            assertEquals(limit, recent.size());
+        }
+    }
+
+    // What the sales table reads from each row
+    private void showRow(SaleSummary sale) {
+        assertNotNull(sale.getCarDisplayName());
+        assertNotNull(sale.getClientName());
+        assertNotNull(sale.getSoldBy());
+    }
+
+    private <T> T countStatements(long expected, Supplier<T> work) {
+        long before = statementCounter.currentThreadCount();
+        T result = work.get();
+        assertEquals(expected, statementCounter.currentThreadCount() - before, "SQL statements run");
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package com.carhub.service;
+
+import com.carhub.dto.SaleFilter;
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.support.DatabaseTest;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The streamed sales report covers 500,000 sales within the small heap the test JVM gets
+ * (see the surefire settings in the pom). Loading the sales into a list would not fit.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SalesReportMemoryTest extends DatabaseTest {
+
+    private static final int SALES = 500_000;
+    private static final long MAX_HEAP_BYTES = 256L * 1024 * 1024;
+    // A year no other test uses, so the filter only sees the sales made here
+    private static final LocalDateTime FIRST_SALE = LocalDateTime.of(2001, 1, 1, 8, 0);
+
+    @Autowired
+    private PdfService pdfService;
+
+    @Autowired
+    private SaleService saleService;
+
+    private final String tag = uniqueTag();
+
+    @BeforeAll
+    void createSales() {
+        Car car = carRepository.save(newCar("Report", tag));
+        Client client = clientRepository.save(newClient("Report", tag, null));
+
+        // Written by the database itself, far quicker than through the application
+        executeUpdate(
+                "INSERT INTO sales (car_id, client_id, admin_id, sale_price, profit, payment_method, payment_status, "
+                        + "invoice_number, total_amount, sale_date) "
+                        + "SELECT ?, ?, ?, 25000.00, 4000.00, 'CASH', 'COMPLETED', ? || '-' || n, 25000.00, "
+                        + "CAST(? AS timestamp) + n * INTERVAL '1 minute' "
+                        + "FROM generate_series(1, ?) AS n",
+                car.getId(), client.getId(), admin().getId(), "R" + tag, FIRST_SALE, SALES);
+    }
+
+    @AfterAll
+    void deleteSales() {
+        executeUpdate("DELETE FROM sales WHERE invoice_number LIKE ?", "R" + tag + "-%");
+    }
+
+    @Test
+    void reportOfHalfAMillionSalesStaysWithinTheHeap() throws Exception {
+        assumeTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP_BYTES,
+                "Only meaningful with the heap limited to 256 MB, as the pom does for the tests");
+
+        SaleFilter filter = new SaleFilter("r" + tag, null, FIRST_SALE, FIRST_SALE.plusYears(1));
+        assertEquals(SALES, saleService.countSales(filter));
+
+        Path outputDir = Files.createDirectories(Paths.get("target", "test-reports"));
+        File report = new File(pdfService.generateSalesReport(filter, outputDir.toString()));
+        try {
+            assertTrue(report.length() > 0);
+            try (PdfDocument pdf = new PdfDocument(new PdfReader(report))) {
+                // Dozens of rows per page at most, so fewer pages would mean missing sales
+                assertTrue(pdf.getNumberOfPages() > SALES / 100, "pages: " + pdf.getNumberOfPages());
+            }
+        } finally {
+            Files.deleteIfExists(report.toPath());
+        }
+    }
+}
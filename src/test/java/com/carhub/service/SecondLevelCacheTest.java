@@ -0,0 +1,115 @@
+package com.carhub.service;
+
+import com.carhub.config.SqlStatementCounter;
+import com.carhub.entity.Admin;
+import com.carhub.entity.Car;
+import com.carhub.support.DatabaseTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Admins, settings and cars are read from the second-level cache, and a change, whether saved
+ * here or reported by another workstation, is never hidden by a stale cached copy.
+ */
+class SecondLevelCacheTest extends DatabaseTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private SystemSettingService systemSettingService;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SqlStatementCounter statementCounter;
+
+    @Test
+    void savedCarIsReadFromTheCacheWithItsNewValues() {
+        Car car = carService.saveCar(newCar("Cached", uniqueTag()));
+        Long carId = car.getId();
+
+        carService.findById(carId);
+        assertTrue(isCached(Car.class, carId));
+        assertStatements(0, () -> carService.findById(carId));
+
+        car.setPrice(new BigDecimal("27500.00"));
+        carService.saveCar(car);
+
+        assertEquals(new BigDecimal("27500.00"), carService.findById(carId).orElseThrow().getPrice());
+    }
+
+    @Test
+    void updatedAdminIsFoundByUsernameWithItsNewValues() {
+        String tag = uniqueTag();
+        adminService.createAdmin("cache_" + tag, tag + "@example.com", "secret", "Before " + tag, Admin.Role.SALES);
+
+        Admin admin = adminService.findByUsername("cache_" + tag).orElseThrow();
+        assertStatements(0, () -> adminService.findByUsername("cache_" + tag));
+
+        admin.setFullName("After " + tag);
+        adminService.updateAdmin(admin);
+
+        assertEquals("After " + tag, adminService.findByUsername("cache_" + tag).orElseThrow().getFullName());
+    }
+
+    @Test
+    void settingChangesAreVisibleAfterSavingAndAfterARefresh() {
+        String key = "cache_test_" + uniqueTag();
+
+        systemSettingService.updateSetting(key, "first");
+        assertEquals("first", systemSettingService.getSettingValue(key, null));
+
+        systemSettingService.updateSetting(key, "second");
+        assertEquals("second", systemSettingService.getSettingValue(key, null));
+
+        // As another workstation would, then the refresh its change notification triggers
+        executeUpdate("UPDATE system_settings SET setting_value = ? WHERE setting_key = ?", "third", key);
+        systemSettingService.refreshCache();
+        assertEquals("third", systemSettingService.getSettingValue(key, null));
+    }
+
+    @Test
+    void evictingOneCarRereadsItAndKeepsTheOthersCached() {
+        Long changedId = carService.saveCar(newCar("Evicted", uniqueTag())).getId();
+        Long otherId = carService.saveCar(newCar("Kept", uniqueTag())).getId();
+        carService.findById(changedId);
+        carService.findById(otherId);
+
+        executeUpdate("UPDATE cars SET price = ? WHERE id IN (?, ?)", new BigDecimal("19999.00"), changedId, otherId);
+        cacheService.evict(Car.class, changedId);
+
+        assertFalse(isCached(Car.class, changedId));
+        assertEquals(new BigDecimal("19999.00"), carService.findById(changedId).orElseThrow().getPrice());
+        // Still the cached copy, only the car that changed was dropped
+        assertTrue(isCached(Car.class, otherId));
+        assertEquals(new BigDecimal("25000.00"), carService.findById(otherId).orElseThrow().getPrice());
+
+        cacheService.evict(Car.class, otherId);
+    }
+
+    private boolean isCached(Class<?> entityClass, Object id) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache().contains(entityClass, id);
+    }
+
+    private void assertStatements(long expected, Runnable work) {
+        long before = statementCounter.currentThreadCount();
+        work.run();
+        assertEquals(expected, statementCounter.currentThreadCount() - before, "SQL statements run");
+    }
+}
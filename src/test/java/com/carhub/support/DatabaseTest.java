@@ -0,0 +1,110 @@
+package com.carhub.support;
+
+import com.carhub.config.DatabaseConfig;
+import com.carhub.config.MetricsConfig;
+import com.carhub.entity.Admin;
+import com.carhub.entity.Car;
+import com.carhub.entity.Client;
+import com.carhub.entity.Sale;
+import com.carhub.repository.AdminRepository;
+import com.carhub.repository.CarRepository;
+import com.carhub.repository.ClientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Base of the tests that need the database. They run the services against the embedded
+ * {@link TestDatabase}; the Spring context is built once and shared by every test class
+ * with the same settings. The data is shared too, so each test creates the rows it uses
+ * and looks them up by something unique to it.
+ */
+@SpringJUnitConfig(DatabaseTest.TestConfig.class)
+public abstract class DatabaseTest {
+
+    @Configuration(proxyBeanMethods = false)
+    @Import({DatabaseConfig.class, MetricsConfig.class})
+    @ComponentScan(basePackages = {"com.carhub.service", "com.carhub.util"})
+    @PropertySource("classpath:application.properties")
+    static class TestConfig {
+    }
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", TestDatabase::getJdbcUrl);
+        registry.add("spring.datasource.username", () -> TestDatabase.USERNAME);
+        registry.add("spring.datasource.password", () -> TestDatabase.PASSWORD);
+    }
+
+    @Autowired
+    protected AdminRepository adminRepository;
+
+    @Autowired
+    protected CarRepository carRepository;
+
+    @Autowired
+    protected ClientRepository clientRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A short random tag for the rows of one test, e.g. in invoice numbers and names
+    protected static String uniqueTag() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+    }
+
+    // Runs SQL behind the application's back, e.g. as another workstation would. Pooled
+    // connections do not auto-commit, so it runs in a transaction of its own
+    protected void executeUpdate(String sql, Object... args) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> new JdbcTemplate(dataSource).update(sql, args));
+    }
+
+    // The administrator created by the setup script
+    protected Admin admin() {
+        return adminRepository.findByUsername("admin").orElseThrow();
+    }
+
+    protected Car newCar(String brand, String model) {
+        Car car = new Car(brand, model, 2022, new BigDecimal("25000.00"));
+        car.setCostPrice(new BigDecimal("21000.00"));
+        car.setMileage(12000);
+        car.setColor("Silver");
+        return car;
+    }
+
+    protected Client newClient(String firstName, String lastName, String email) {
+        Client client = new Client(firstName, lastName, "+261-34-000-0000");
+        client.setEmail(email);
+        client.setCity("Antananarivo");
+        return client;
+    }
+
+    protected Sale newSale(Car car, Client client, String invoiceNumber) {
+        Sale sale = new Sale();
+        sale.setCar(car);
+        sale.setClient(client);
+        sale.setAdmin(admin());
+        sale.setSalePrice(car.getPrice());
+        sale.setProfit(car.getPrice().subtract(car.getCostPrice()));
+        sale.setTotalAmount(car.getPrice());
+        sale.setPaymentStatus(Sale.PaymentStatus.COMPLETED);
+        sale.setInvoiceNumber(invoiceNumber);
+        return sale;
+    }
+}
@@ -0,0 +1,78 @@
+package com.carhub.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One embedded PostgreSQL server for the whole test run, started on first use and stopped
+ * when the JVM exits. Its carhub database is created with database/complete_setup.sql, so
+ * the tests run against the schema, indexes and sample data a real installation gets.
+ */
+public final class TestDatabase {
+
+    public static final String USERNAME = "postgres";
+    public static final String PASSWORD = "postgres";
+
+    private static final Path SETUP_SCRIPT = Paths.get("database", "complete_setup.sql");
+
+    private static String jdbcUrl;
+
+    private TestDatabase() {
+    }
+
+    public static synchronized String getJdbcUrl() {
+        if (jdbcUrl == null) {
+            jdbcUrl = start();
+        }
+        return jdbcUrl;
+    }
+
+    private static String start() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to stop the test database: " + e.getMessage());
+                }
+            }));
+
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE carhub");
+            }
+            String url = postgres.getJdbcUrl(USERNAME, "carhub");
+            try (Connection connection = DriverManager.getConnection(url, USERNAME, PASSWORD);
+                 Statement statement = connection.createStatement()) {
+                statement.execute(readSetupScript());
+            }
+            return url;
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Cannot start the test database", e);
+        }
+    }
+
+    // Everything after "\c carhub", without the carhub_user account the embedded server does not need
+    private static String readSetupScript() throws IOException {
+        StringBuilder sql = new StringBuilder();
+        boolean connected = false;
+        for (String line : Files.readAllLines(SETUP_SCRIPT, StandardCharsets.UTF_8)) {
+            if (!connected) {
+                connected = line.startsWith("\\c ");
+            } else if (!line.contains("carhub_user")) {
+                sql.append(line).append('\n');
+            }
+        }
+        return sql.toString();
+    }
+}